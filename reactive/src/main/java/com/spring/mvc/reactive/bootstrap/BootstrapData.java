@@ -0,0 +1,68 @@
+package com.spring.mvc.reactive.bootstrap;
+
+import com.spring.mvc.reactive.entities.Beer;
+import com.spring.mvc.reactive.entities.Customer;
+import com.spring.mvc.reactive.model.BeerStyle;
+import com.spring.mvc.reactive.repositories.BeerRepository;
+import com.spring.mvc.reactive.repositories.CustomerRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+// The servlet app's sample data, so both stacks serve the same catalog when compared
+@Component
+@RequiredArgsConstructor
+public class BootstrapData implements CommandLineRunner {
+
+    private final BeerRepository beerRepository;
+
+    private final CustomerRepository customerRepository;
+
+    @Override
+    public void run(String... args) {
+        // Startup may block, nothing is being served yet
+        loadBeerData().then(loadCustomerData()).block();
+    }
+
+    private Mono<Void> loadBeerData() {
+        return beerRepository.count()
+                .filter(count -> count == 0)
+                .flatMapMany(count -> beerRepository.saveAll(Flux.just(
+                        Beer.builder()
+                                .beerName("Galaxy Cat")
+                                .beerStyle(BeerStyle.PALE_ALE)
+                                .upc("12356")
+                                .price(new BigDecimal("12.99"))
+                                .quantityOnHand(122)
+                                .build(),
+                        Beer.builder()
+                                .beerName("Crank")
+                                .beerStyle(BeerStyle.PALE_ALE)
+                                .upc("12356222")
+                                .price(new BigDecimal("11.99"))
+                                .quantityOnHand(392)
+                                .build(),
+                        Beer.builder()
+                                .beerName("Sunshine City")
+                                .beerStyle(BeerStyle.IPA)
+                                .upc("12356333")
+                                .price(new BigDecimal("13.99"))
+                                .quantityOnHand(144)
+                                .build())))
+                .then();
+    }
+
+    private Mono<Void> loadCustomerData() {
+        return customerRepository.count()
+                .filter(count -> count == 0)
+                .flatMapMany(count -> customerRepository.saveAll(Flux.just(
+                        Customer.builder().name("Barry").build(),
+                        Customer.builder().name("Thomas").build(),
+                        Customer.builder().name("Shakira").build())))
+                .then();
+    }
+}
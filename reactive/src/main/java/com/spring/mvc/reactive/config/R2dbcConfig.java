@@ -0,0 +1,38 @@
+package com.spring.mvc.reactive.config;
+
+import com.spring.mvc.reactive.entities.Beer;
+import com.spring.mvc.reactive.entities.Customer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.config.EnableR2dbcAuditing;
+import org.springframework.data.r2dbc.mapping.event.BeforeConvertCallback;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+// Fills createdDate/updateDate like Hibernate's @CreationTimestamp/@UpdateTimestamp do in the servlet app,
+// and assigns ids on insert the way @UuidGenerator does
+@Configuration
+@EnableR2dbcAuditing
+public class R2dbcConfig {
+
+    @Bean
+    BeforeConvertCallback<Beer> beerIdCallback() {
+        return (beer, table) -> {
+            if (beer.getId() == null) {
+                beer.setId(UUID.randomUUID());
+            }
+            return Mono.just(beer);
+        };
+    }
+
+    @Bean
+    BeforeConvertCallback<Customer> customerIdCallback() {
+        return (customer, table) -> {
+            if (customer.getId() == null) {
+                customer.setId(UUID.randomUUID());
+            }
+            return Mono.just(customer);
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package com.spring.mvc.reactive.controller;
+
+import com.spring.mvc.reactive.model.BeerDTO;
+import com.spring.mvc.reactive.services.BeerService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.UUID;
+
+// The servlet app's BeerController CRUD endpoints, same paths, statuses and bodies
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("api/v1/beer")
+public class BeerController {
+
+    private final BeerService beerService;
+
+    @PatchMapping("{beerId}")
+    public Mono<ResponseEntity<Void>> updateBeerPatchById(@PathVariable("beerId") UUID beerId, @RequestBody BeerDTO beer) {
+        return beerService.patchBeerById(beerId, beer)
+                .thenReturn(ResponseEntity.noContent().build());
+    }
+
+    @DeleteMapping("{beerId}")
+    public Mono<ResponseEntity<Void>> deleteById(@PathVariable("beerId") UUID beerId) {
+        return beerService.deleteBeerById(beerId)
+                .filter(deleted -> deleted)
+                .switchIfEmpty(Mono.error(NotFoundException::new))
+                .thenReturn(ResponseEntity.noContent().build());
+    }
+
+    @PutMapping("{beerId}")
+    public Mono<ResponseEntity<Void>> updateById(@PathVariable("beerId") UUID beerId, @Validated @RequestBody BeerDTO beer) {
+        return beerService.updateBeerById(beerId, beer)
+                .switchIfEmpty(Mono.error(NotFoundException::new))
+                .thenReturn(ResponseEntity.noContent().build());
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Void>> handlePost(@Validated @RequestBody BeerDTO beer) {
+        return beerService.saveNewBeer(beer)
+                .map(savedBeer -> ResponseEntity.created(URI.create("/api/v1/beer/" + savedBeer.getId())).build());
+    }
+
+    // A JSON array by default, or one beer per line with Accept: application/x-ndjson. Either way the body is
+    // written as rows arrive and rows are only read as fast as the client takes them.
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BeerDTO> listBeers() {
+        return beerService.listBeers();
+    }
+
+    @GetMapping("{beerId}")
+    public Mono<BeerDTO> getBeerById(@PathVariable("beerId") UUID beerId) {
+        return beerService.getBeerById(beerId).switchIfEmpty(Mono.error(NotFoundException::new));
+    }
+}
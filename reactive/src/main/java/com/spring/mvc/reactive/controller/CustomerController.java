@@ -0,0 +1,60 @@
+package com.spring.mvc.reactive.controller;
+
+import com.spring.mvc.reactive.model.CustomerDTO;
+import com.spring.mvc.reactive.services.CustomerService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("api/v1/customer")
+public class CustomerController {
+
+    private final CustomerService customerService;
+
+    @PatchMapping("{customerId}")
+    public Mono<ResponseEntity<Void>> updateCustomerPatchById(@PathVariable("customerId") UUID customerId,
+                                                              @RequestBody CustomerDTO customer) {
+        return customerService.patchCustomerById(customerId, customer)
+                .thenReturn(ResponseEntity.noContent().build());
+    }
+
+    @DeleteMapping("{customerId}")
+    public Mono<ResponseEntity<Void>> deleteById(@PathVariable("customerId") UUID customerId) {
+        return customerService.deleteCustomerById(customerId)
+                .filter(deleted -> deleted)
+                .switchIfEmpty(Mono.error(NotFoundException::new))
+                .thenReturn(ResponseEntity.noContent().build());
+    }
+
+    @PutMapping("{customerId}")
+    public Mono<ResponseEntity<Void>> updateById(@PathVariable("customerId") UUID customerId,
+                                                 @RequestBody CustomerDTO customer) {
+        return customerService.updateCustomerById(customerId, customer)
+                .switchIfEmpty(Mono.error(NotFoundException::new))
+                .thenReturn(ResponseEntity.noContent().build());
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Void>> handlePost(@RequestBody CustomerDTO customer) {
+        return customerService.saveNewCustomer(customer)
+                .map(saved -> ResponseEntity.created(URI.create("/api/v1/customer/" + saved.getId())).build());
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<CustomerDTO> listCustomers() {
+        return customerService.listCustomers();
+    }
+
+    @GetMapping("{customerId}")
+    public Mono<CustomerDTO> getCustomerById(@PathVariable("customerId") UUID customerId) {
+        return customerService.getCustomerById(customerId).switchIfEmpty(Mono.error(NotFoundException::new));
+    }
+}
@@ -0,0 +1,44 @@
+package com.spring.mvc.reactive.entities;
+
+import com.spring.mvc.reactive.model.BeerStyle;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// A row of the beer table (schema.sql). A null version marks a new beer; the id is assigned before insert.
+@Builder
+@Getter
+@Setter
+@Table("beer")
+@AllArgsConstructor
+@NoArgsConstructor
+public class Beer {
+    @Id
+    private UUID id;
+
+    @Version
+    private Integer version;
+
+    private String beerName;
+    private BeerStyle beerStyle;
+    private String upc;
+    private Integer quantityOnHand;
+    private BigDecimal price;
+
+    @CreatedDate
+    private LocalDateTime createdDate;
+
+    @LastModifiedDate
+    private LocalDateTime updateDate;
+}
@@ -0,0 +1,13 @@
+package com.spring.mvc.reactive.mappers;
+
+import com.spring.mvc.reactive.entities.Beer;
+import com.spring.mvc.reactive.model.BeerDTO;
+import org.mapstruct.Mapper;
+
+@Mapper
+public interface BeerMapper {
+
+    Beer beerDtoToBeer(BeerDTO dto);
+
+    BeerDTO beerToBeerDto(Beer beer);
+}
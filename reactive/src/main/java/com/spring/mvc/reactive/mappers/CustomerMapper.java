@@ -0,0 +1,13 @@
+package com.spring.mvc.reactive.mappers;
+
+import com.spring.mvc.reactive.entities.Customer;
+import com.spring.mvc.reactive.model.CustomerDTO;
+import org.mapstruct.Mapper;
+
+@Mapper
+public interface CustomerMapper {
+
+    Customer customerDtoToCustomer(CustomerDTO dto);
+
+    CustomerDTO customerToCustomerDto(Customer customer);
+}
@@ -0,0 +1,39 @@
+package com.spring.mvc.reactive.model;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Same JSON as the servlet app's BeerDTO; the price is a plain BigDecimal here (two decimal places in the column)
+@Builder(toBuilder = true)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BeerDTO {
+    private UUID id;
+    private Integer version;
+
+    @NotBlank
+    @NotNull
+    private String beerName;
+
+    @NotNull
+    private BeerStyle beerStyle;
+
+    @NotBlank
+    @NotNull
+    private String upc;
+    private Integer quantityOnHand;
+
+    @NotNull
+    private BigDecimal price;
+    private LocalDateTime createdDate;
+    private LocalDateTime updateDate;
+}
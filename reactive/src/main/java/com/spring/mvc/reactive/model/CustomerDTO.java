@@ -0,0 +1,21 @@
+package com.spring.mvc.reactive.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Builder(toBuilder = true)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerDTO {
+    private UUID id;
+    private Integer version;
+    private String name;
+    private LocalDateTime createdDate;
+    private LocalDateTime lastModifiedDate;
+}
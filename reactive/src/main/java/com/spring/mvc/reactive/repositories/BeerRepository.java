@@ -0,0 +1,17 @@
+package com.spring.mvc.reactive.repositories;
+
+import com.spring.mvc.reactive.entities.Beer;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+public interface BeerRepository extends ReactiveCrudRepository<Beer, UUID> {
+
+    // One round trip instead of existsById + deleteById; emits the number of rows deleted
+    @Modifying
+    @Query("delete from beer where id = :id")
+    Mono<Integer> removeById(UUID id);
+}
@@ -0,0 +1,25 @@
+package com.spring.mvc.reactive.services;
+
+import com.spring.mvc.reactive.model.BeerDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+// The servlet app's BeerService CRUD operations, non-blocking. Lookups of unknown ids complete empty instead of
+// returning Optional.empty().
+public interface BeerService {
+
+    // Rows are read from the database as the subscriber requests them
+    Flux<BeerDTO> listBeers();
+
+    Mono<BeerDTO> getBeerById(UUID id);
+
+    Mono<BeerDTO> saveNewBeer(BeerDTO beer);
+
+    Mono<BeerDTO> updateBeerById(UUID beerId, BeerDTO beer);
+
+    Mono<Boolean> deleteBeerById(UUID beerId);
+
+    Mono<BeerDTO> patchBeerById(UUID beerId, BeerDTO beer);
+}
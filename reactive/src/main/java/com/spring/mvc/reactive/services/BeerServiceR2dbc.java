@@ -0,0 +1,86 @@
+package com.spring.mvc.reactive.services;
+
+import com.spring.mvc.reactive.mappers.BeerMapper;
+import com.spring.mvc.reactive.model.BeerDTO;
+import com.spring.mvc.reactive.repositories.BeerRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class BeerServiceR2dbc implements BeerService {
+
+    private final BeerRepository beerRepository;
+
+    private final BeerMapper beerMapper;
+
+    @Override
+    public Flux<BeerDTO> listBeers() {
+        return beerRepository.findAll().map(beerMapper::beerToBeerDto);
+    }
+
+    @Override
+    public Mono<BeerDTO> getBeerById(UUID id) {
+        return beerRepository.findById(id).map(beerMapper::beerToBeerDto);
+    }
+
+    @Override
+    public Mono<BeerDTO> saveNewBeer(BeerDTO beer) {
+        // Id, version and dates are the database's to assign
+        return beerRepository.save(beerMapper.beerDtoToBeer(beer.toBuilder()
+                        .id(null)
+                        .version(null)
+                        .createdDate(null)
+                        .updateDate(null)
+                        .build()))
+                .map(beerMapper::beerToBeerDto);
+    }
+
+    @Override
+    public Mono<BeerDTO> updateBeerById(UUID beerId, BeerDTO beer) {
+        return beerRepository.findById(beerId)
+                .flatMap(foundBeer -> {
+                    foundBeer.setBeerName(beer.getBeerName());
+                    foundBeer.setBeerStyle(beer.getBeerStyle());
+                    foundBeer.setUpc(beer.getUpc());
+                    foundBeer.setPrice(beer.getPrice());
+                    foundBeer.setQuantityOnHand(beer.getQuantityOnHand());
+                    return beerRepository.save(foundBeer);
+                })
+                .map(beerMapper::beerToBeerDto);
+    }
+
+    @Override
+    public Mono<Boolean> deleteBeerById(UUID beerId) {
+        return beerRepository.removeById(beerId).map(deleted -> deleted > 0);
+    }
+
+    @Override
+    public Mono<BeerDTO> patchBeerById(UUID beerId, BeerDTO beer) {
+        return beerRepository.findById(beerId)
+                .flatMap(foundBeer -> {
+                    if (StringUtils.hasText(beer.getBeerName())) {
+                        foundBeer.setBeerName(beer.getBeerName());
+                    }
+                    if (beer.getBeerStyle() != null) {
+                        foundBeer.setBeerStyle(beer.getBeerStyle());
+                    }
+                    if (StringUtils.hasText(beer.getUpc())) {
+                        foundBeer.setUpc(beer.getUpc());
+                    }
+                    if (beer.getPrice() != null) {
+                        foundBeer.setPrice(beer.getPrice());
+                    }
+                    if (beer.getQuantityOnHand() != null) {
+                        foundBeer.setQuantityOnHand(beer.getQuantityOnHand());
+                    }
+                    return beerRepository.save(foundBeer);
+                })
+                .map(beerMapper::beerToBeerDto);
+    }
+}
@@ -0,0 +1,22 @@
+package com.spring.mvc.reactive.services;
+
+import com.spring.mvc.reactive.model.CustomerDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+public interface CustomerService {
+
+    Flux<CustomerDTO> listCustomers();
+
+    Mono<CustomerDTO> getCustomerById(UUID id);
+
+    Mono<CustomerDTO> saveNewCustomer(CustomerDTO customer);
+
+    Mono<CustomerDTO> updateCustomerById(UUID customerId, CustomerDTO customer);
+
+    Mono<Boolean> deleteCustomerById(UUID customerId);
+
+    Mono<CustomerDTO> patchCustomerById(UUID customerId, CustomerDTO customer);
+}
@@ -0,0 +1,69 @@
+package com.spring.mvc.reactive.services;
+
+import com.spring.mvc.reactive.mappers.CustomerMapper;
+import com.spring.mvc.reactive.model.CustomerDTO;
+import com.spring.mvc.reactive.repositories.CustomerRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class CustomerServiceR2dbc implements CustomerService {
+
+    private final CustomerRepository customerRepository;
+
+    private final CustomerMapper customerMapper;
+
+    @Override
+    public Flux<CustomerDTO> listCustomers() {
+        return customerRepository.findAll().map(customerMapper::customerToCustomerDto);
+    }
+
+    @Override
+    public Mono<CustomerDTO> getCustomerById(UUID id) {
+        return customerRepository.findById(id).map(customerMapper::customerToCustomerDto);
+    }
+
+    @Override
+    public Mono<CustomerDTO> saveNewCustomer(CustomerDTO customer) {
+        return customerRepository.save(customerMapper.customerDtoToCustomer(customer.toBuilder()
+                        .id(null)
+                        .version(null)
+                        .createdDate(null)
+                        .lastModifiedDate(null)
+                        .build()))
+                .map(customerMapper::customerToCustomerDto);
+    }
+
+    @Override
+    public Mono<CustomerDTO> updateCustomerById(UUID customerId, CustomerDTO customer) {
+        return customerRepository.findById(customerId)
+                .flatMap(foundCustomer -> {
+                    foundCustomer.setName(customer.getName());
+                    return customerRepository.save(foundCustomer);
+                })
+                .map(customerMapper::customerToCustomerDto);
+    }
+
+    @Override
+    public Mono<Boolean> deleteCustomerById(UUID customerId) {
+        return customerRepository.removeById(customerId).map(deleted -> deleted > 0);
+    }
+
+    @Override
+    public Mono<CustomerDTO> patchCustomerById(UUID customerId, CustomerDTO customer) {
+        return customerRepository.findById(customerId)
+                .flatMap(foundCustomer -> {
+                    if (StringUtils.hasText(customer.getName())) {
+                        foundCustomer.setName(customer.getName());
+                    }
+                    return customerRepository.save(foundCustomer);
+                })
+                .map(customerMapper::customerToCustomerDto);
+    }
+}
@@ -0,0 +1,19 @@
+create table if not exists beer (
+    id               uuid primary key,
+    version          integer,
+    beer_name        varchar(50)    not null,
+    beer_style       varchar(20)    not null,
+    upc              varchar(255)   not null,
+    quantity_on_hand integer,
+    price            decimal(19, 2) not null,
+    created_date     timestamp,
+    update_date      timestamp
+);
+
+create table if not exists customer (
+    id                 uuid primary key,
+    version            integer,
+    name               varchar(255),
+    created_date       timestamp,
+    last_modified_date timestamp
+);
@@ -0,0 +1,153 @@
+package com.spring.mvc.reactive.controller;
+
+import com.spring.mvc.reactive.model.BeerDTO;
+import com.spring.mvc.reactive.model.BeerStyle;
+import com.spring.mvc.reactive.services.BeerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@WebFluxTest(BeerController.class)
+class BeerControllerTest {
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @MockitoBean
+    BeerService beerService;
+
+    @Test
+    void testListBeers() {
+        given(beerService.listBeers()).willReturn(Flux.just(beer(), beer(), beer()));
+
+        webTestClient.get().uri("/api/v1/beer")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BeerDTO.class).hasSize(3);
+    }
+
+    @Test
+    void testListBeersAsNdjson() {
+        given(beerService.listBeers()).willReturn(Flux.just(beer(), beer()));
+
+        String body = webTestClient.get().uri("/api/v1/beer")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        assertThat(body).isNotNull();
+        assertThat(body.lines()).hasSize(2).allMatch(line -> line.startsWith("{\"id\":"));
+    }
+
+    @Test
+    void testGetBeerById() {
+        BeerDTO beer = beer();
+        given(beerService.getBeerById(beer.getId())).willReturn(Mono.just(beer));
+
+        webTestClient.get().uri("/api/v1/beer/" + beer.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(beer.getId().toString())
+                .jsonPath("$.beerName").isEqualTo(beer.getBeerName());
+    }
+
+    @Test
+    void testGetBeerByIdNotFound() {
+        given(beerService.getBeerById(any(UUID.class))).willReturn(Mono.empty());
+
+        webTestClient.get().uri("/api/v1/beer/" + UUID.randomUUID())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testCreateNewBeer() {
+        BeerDTO saved = beer();
+        given(beerService.saveNewBeer(any(BeerDTO.class))).willReturn(Mono.just(saved));
+
+        webTestClient.post().uri("/api/v1/beer")
+                .bodyValue(beer().toBuilder().id(null).build())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().location("/api/v1/beer/" + saved.getId());
+    }
+
+    @Test
+    void testCreateBeerNullBeerName() {
+        webTestClient.post().uri("/api/v1/beer")
+                .bodyValue(BeerDTO.builder().build())
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verify(beerService, never()).saveNewBeer(any(BeerDTO.class));
+    }
+
+    @Test
+    void testUpdateBeer() {
+        BeerDTO beer = beer();
+        given(beerService.updateBeerById(any(UUID.class), any(BeerDTO.class))).willReturn(Mono.just(beer));
+
+        webTestClient.put().uri("/api/v1/beer/" + beer.getId())
+                .bodyValue(beer)
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+
+    @Test
+    void testUpdateBeerNotFound() {
+        given(beerService.updateBeerById(any(UUID.class), any(BeerDTO.class))).willReturn(Mono.empty());
+
+        webTestClient.put().uri("/api/v1/beer/" + UUID.randomUUID())
+                .bodyValue(beer())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testDeleteBeer() {
+        given(beerService.deleteBeerById(any(UUID.class))).willReturn(Mono.just(true));
+
+        webTestClient.delete().uri("/api/v1/beer/" + UUID.randomUUID())
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+
+    @Test
+    void testDeleteBeerNotFound() {
+        given(beerService.deleteBeerById(any(UUID.class))).willReturn(Mono.just(false));
+
+        webTestClient.delete().uri("/api/v1/beer/" + UUID.randomUUID())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private static BeerDTO beer() {
+        return BeerDTO.builder()
+                .id(UUID.randomUUID())
+                .version(0)
+                .beerName("Galaxy Cat")
+                .beerStyle(BeerStyle.PALE_ALE)
+                .upc("12356")
+                .price(new BigDecimal("12.99"))
+                .quantityOnHand(122)
+                .build();
+    }
+}
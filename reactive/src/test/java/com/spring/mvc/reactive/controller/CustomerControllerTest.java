@@ -0,0 +1,86 @@
+package com.spring.mvc.reactive.controller;
+
+import com.spring.mvc.reactive.model.CustomerDTO;
+import com.spring.mvc.reactive.services.CustomerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@WebFluxTest(CustomerController.class)
+class CustomerControllerTest {
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @MockitoBean
+    CustomerService customerService;
+
+    @Test
+    void testListCustomers() {
+        given(customerService.listCustomers()).willReturn(Flux.just(customer(), customer()));
+
+        webTestClient.get().uri("/api/v1/customer")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(CustomerDTO.class).hasSize(2);
+    }
+
+    @Test
+    void testGetCustomerByIdNotFound() {
+        given(customerService.getCustomerById(any(UUID.class))).willReturn(Mono.empty());
+
+        webTestClient.get().uri("/api/v1/customer/" + UUID.randomUUID())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testCreateCustomer() {
+        CustomerDTO saved = customer();
+        given(customerService.saveNewCustomer(any(CustomerDTO.class))).willReturn(Mono.just(saved));
+
+        webTestClient.post().uri("/api/v1/customer")
+                .bodyValue(CustomerDTO.builder().name("Barry").build())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().location("/api/v1/customer/" + saved.getId());
+    }
+
+    @Test
+    void testPatchCustomer() {
+        UUID id = UUID.randomUUID();
+        given(customerService.patchCustomerById(any(UUID.class), any(CustomerDTO.class))).willReturn(Mono.just(customer()));
+
+        webTestClient.patch().uri("/api/v1/customer/" + id)
+                .bodyValue(CustomerDTO.builder().name("Big John").build())
+                .exchange()
+                .expectStatus().isNoContent();
+
+        verify(customerService).patchCustomerById(eq(id), argThat(c -> "Big John".equals(c.getName())));
+    }
+
+    @Test
+    void testDeleteCustomerNotFound() {
+        given(customerService.deleteCustomerById(any(UUID.class))).willReturn(Mono.just(false));
+
+        webTestClient.delete().uri("/api/v1/customer/" + UUID.randomUUID())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private static CustomerDTO customer() {
+        return CustomerDTO.builder().id(UUID.randomUUID()).version(0).name("Barry").build();
+    }
+}
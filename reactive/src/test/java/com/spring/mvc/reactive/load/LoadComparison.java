@@ -0,0 +1,134 @@
+package com.spring.mvc.reactive.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Closed-loop load against one or more running apps, one after the other with the same settings, e.g. the
+// servlet app and this one side by side:
+//   mvn -P load test-compile exec:java -Dload.args="1000 20 http://localhost:8080/api/v1/beer http://localhost:8081/api/v1/beer"
+// Arguments: concurrent clients, seconds per URL, then the URLs. Each client is a virtual thread sending its
+// next GET as soon as the previous response is read; the first quarter of the run is warm-up and not counted.
+public class LoadComparison {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: LoadComparison <concurrency> <seconds> <url>...");
+            System.exit(2);
+        }
+        int concurrency = Integer.parseInt(args[0]);
+        Duration duration = Duration.ofSeconds(Long.parseLong(args[1]));
+
+        System.out.printf("%-45s %10s %10s %10s %10s %8s%n", "url", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (String url : Arrays.copyOfRange(args, 2, args.length)) {
+            Result result = run(URI.create(url), concurrency, duration);
+            System.out.printf("%-45s %10.0f %10.2f %10.2f %10.2f %8d%n", url, result.throughput(),
+                    result.percentile(0.50), result.percentile(0.99), result.percentile(1.0), result.errors());
+        }
+    }
+
+    static Result run(URI uri, int concurrency, Duration duration) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).header("Accept", "application/json").GET().build();
+
+        long warmupEnd = System.nanoTime() + duration.toNanos() / 4;
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Client> clients = new ArrayList<>(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                Client c = new Client(client, request, warmupEnd, running);
+                clients.add(c);
+                executor.execute(c);
+            }
+            TimeUnit.NANOSECONDS.sleep(duration.toNanos());
+            running.set(false);
+        }
+        client.close();
+
+        long measuredNanos = duration.toNanos() - duration.toNanos() / 4;
+        int total = clients.stream().mapToInt(c -> c.count).sum();
+        long[] latencies = new long[total];
+        int errors = 0;
+        int offset = 0;
+        for (Client c : clients) {
+            System.arraycopy(c.latencies, 0, latencies, offset, c.count);
+            offset += c.count;
+            errors += c.errors;
+        }
+        Arrays.sort(latencies);
+        return new Result(latencies, errors, measuredNanos);
+    }
+
+    record Result(long[] latencies, int errors, long measuredNanos) {
+
+        double throughput() {
+            return latencies.length * 1e9 / measuredNanos;
+        }
+
+        double percentile(double p) {
+            if (latencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(p * latencies.length) - 1;
+            return latencies[Math.max(0, index)] / 1e6;
+        }
+    }
+
+    private static final class Client implements Runnable {
+
+        private final HttpClient client;
+        private final HttpRequest request;
+        private final long warmupEnd;
+        private final AtomicBoolean running;
+
+        // Only read after the executor has closed, which happens-after run() returns
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        Client(HttpClient client, HttpRequest request, long warmupEnd, AtomicBoolean running) {
+            this.client = client;
+            this.request = request;
+            this.warmupEnd = warmupEnd;
+            this.running = running;
+        }
+
+        @Override
+        public void run() {
+            while (running.get()) {
+                long start = System.nanoTime();
+                boolean ok;
+                try {
+                    HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                    ok = response.statusCode() == 200;
+                } catch (Exception e) {
+                    ok = false;
+                }
+                long end = System.nanoTime();
+                if (start < warmupEnd || !running.get()) {
+                    continue;
+                }
+                if (!ok) {
+                    errors++;
+                } else {
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = end - start;
+                }
+            }
+        }
+    }
+}
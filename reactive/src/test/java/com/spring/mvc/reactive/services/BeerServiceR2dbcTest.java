@@ -0,0 +1,109 @@
+package com.spring.mvc.reactive.services;
+
+import com.spring.mvc.reactive.config.R2dbcConfig;
+import com.spring.mvc.reactive.mappers.BeerMapperImpl;
+import com.spring.mvc.reactive.model.BeerDTO;
+import com.spring.mvc.reactive.model.BeerStyle;
+import com.spring.mvc.reactive.repositories.BeerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataR2dbcTest
+@Import({BeerServiceR2dbc.class, BeerMapperImpl.class, R2dbcConfig.class})
+class BeerServiceR2dbcTest {
+
+    @Autowired
+    BeerServiceR2dbc beerService;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @BeforeEach
+    void setUp() {
+        beerRepository.deleteAll().block();
+    }
+
+    @Test
+    void testSaveNewBeer() {
+        StepVerifier.create(beerService.saveNewBeer(beer()))
+                .assertNext(saved -> {
+                    assertThat(saved.getId()).isNotNull();
+                    assertThat(saved.getVersion()).isZero();
+                    assertThat(saved.getCreatedDate()).isNotNull();
+                    assertThat(saved.getPrice()).isEqualByComparingTo("12.99");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testListBeersHonoursDemand() {
+        for (int i = 0; i < 5; i++) {
+            beerService.saveNewBeer(beer()).block();
+        }
+
+        StepVerifier.create(beerService.listBeers(), 2)
+                .expectNextCount(2)
+                .thenRequest(3)
+                .expectNextCount(3)
+                .verifyComplete();
+    }
+
+    @Test
+    void testUpdateBeer() {
+        BeerDTO saved = beerService.saveNewBeer(beer()).block();
+
+        StepVerifier.create(beerService.updateBeerById(saved.getId(), beer().toBuilder().beerName("Crank").build()))
+                .assertNext(updated -> {
+                    assertThat(updated.getBeerName()).isEqualTo("Crank");
+                    assertThat(updated.getVersion()).isEqualTo(1);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testUpdateBeerNotFound() {
+        StepVerifier.create(beerService.updateBeerById(UUID.randomUUID(), beer()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testPatchBeerKeepsMissingFields() {
+        BeerDTO saved = beerService.saveNewBeer(beer()).block();
+
+        StepVerifier.create(beerService.patchBeerById(saved.getId(), BeerDTO.builder().quantityOnHand(7).build()))
+                .assertNext(patched -> {
+                    assertThat(patched.getQuantityOnHand()).isEqualTo(7);
+                    assertThat(patched.getBeerName()).isEqualTo("Galaxy Cat");
+                    assertThat(patched.getUpc()).isEqualTo("12356");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testDeleteBeer() {
+        BeerDTO saved = beerService.saveNewBeer(beer()).block();
+
+        StepVerifier.create(beerService.deleteBeerById(saved.getId())).expectNext(true).verifyComplete();
+        StepVerifier.create(beerService.deleteBeerById(saved.getId())).expectNext(false).verifyComplete();
+        StepVerifier.create(beerService.getBeerById(saved.getId())).verifyComplete();
+    }
+
+    private static BeerDTO beer() {
+        return BeerDTO.builder()
+                .beerName("Galaxy Cat")
+                .beerStyle(BeerStyle.PALE_ALE)
+                .upc("12356")
+                .price(new BigDecimal("12.99"))
+                .quantityOnHand(122)
+                .build();
+    }
+}
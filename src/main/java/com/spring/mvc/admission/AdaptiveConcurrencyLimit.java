@@ -0,0 +1,77 @@
+package com.spring.mvc.admission;
+
+import java.time.Duration;
+
+// AIMD concurrency limit driven by observed latency. Every completed request is a sample: one that was dropped,
+// took longer than maxLatency, or took more than tolerance times the baseline (the fastest response of the last
+// one to two windows) signals congestion and multiplies the limit by backoffRatio; any other sample, taken
+// while the limit was at least half used, adds 1/limit, so about one per round trip's worth of requests.
+// Responses faster than latencyFloor never count as congestion - at sub-millisecond baselines ordinary jitter
+// would otherwise look like a queue building up.
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double tolerance;
+    private final long latencyFloorNanos;
+    private final long maxLatencyNanos;
+    private final long windowNanos;
+
+    private double limit;
+    private volatile int currentLimit;
+
+    private long windowStart;
+    private long windowMin = Long.MAX_VALUE;
+    private long previousWindowMin = Long.MAX_VALUE;
+    private long lastDecrease = Long.MIN_VALUE;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double tolerance,
+                                    Duration latencyFloor, Duration maxLatency, Duration baselineWindow) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Need 1 <= min <= initial <= max, got " + minLimit + ", " + initialLimit + ", " + maxLimit);
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio must be between 0 and 1, got " + backoffRatio);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.tolerance = tolerance;
+        this.latencyFloorNanos = latencyFloor.toNanos();
+        this.maxLatencyNanos = maxLatency.toNanos();
+        this.windowNanos = baselineWindow.toNanos();
+        this.limit = initialLimit;
+        this.currentLimit = initialLimit;
+        this.windowStart = System.nanoTime();
+    }
+
+    public int get() {
+        return currentLimit;
+    }
+
+    // startNanos and the sample's end are System.nanoTime() values; inflight includes the request itself
+    public synchronized void onSample(long startNanos, long endNanos, int inflight, boolean dropped) {
+        long rtt = endNanos - startNanos;
+        if (endNanos - windowStart >= windowNanos) {
+            previousWindowMin = windowMin;
+            windowMin = Long.MAX_VALUE;
+            windowStart = endNanos;
+        }
+        windowMin = Math.min(windowMin, rtt);
+        long baseline = Math.min(windowMin, previousWindowMin);
+
+        boolean congested = dropped || rtt > maxLatencyNanos || (rtt > latencyFloorNanos && rtt > baseline * tolerance);
+        if (congested) {
+            // Only requests admitted after the last decrease saw the lower limit; a burst of slow responses
+            // that were all in flight together is one signal, not one per response
+            if (startNanos - lastDecrease > 0 || lastDecrease == Long.MIN_VALUE) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastDecrease = endNanos;
+            }
+        } else if (inflight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+        currentLimit = (int) limit;
+    }
+}
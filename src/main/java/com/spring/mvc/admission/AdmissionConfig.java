@@ -0,0 +1,85 @@
+package com.spring.mvc.admission;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+// Admission control in front of the beer and customer endpoints when mvc.admission.enabled=true
+@Configuration
+@ConditionalOnProperty(name = "mvc.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfig {
+
+    @Value("${mvc.admission.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${mvc.admission.min-limit:2}")
+    private int minLimit;
+
+    @Value("${mvc.admission.max-limit:200}")
+    private int maxLimit;
+
+    @Value("${mvc.admission.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    @Value("${mvc.admission.latency-tolerance:2.0}")
+    private double latencyTolerance;
+
+    @Value("${mvc.admission.latency-floor:20ms}")
+    private Duration latencyFloor;
+
+    @Value("${mvc.admission.max-latency:1s}")
+    private Duration maxLatency;
+
+    @Value("${mvc.admission.baseline-window:30s}")
+    private Duration baselineWindow;
+
+    // Requests a second per client, 0 for no per-client quota
+    @Value("${mvc.admission.client-rate:100}")
+    private double clientRate;
+
+    @Value("${mvc.admission.client-burst:200}")
+    private int clientBurst;
+
+    @Value("${mvc.admission.client-header:X-Client-Id}")
+    private String clientHeader;
+
+    @Value("${mvc.admission.trusted-proxies:}")
+    private String trustedProxies;
+
+    @Value("${mvc.admission.max-clients:10000}")
+    private int maxClients;
+
+    @Bean
+    public AdmissionController admissionController(MeterRegistry registry) {
+        AdmissionController controller = new AdmissionController(
+                clientRate > 0 ? new ClientQuotas(clientRate, clientBurst, maxClients) : null, registry);
+        // Reads come first: writes are shed while any read endpoint is at its limit
+        for (String resource : new String[]{"beer", "customer"}) {
+            controller.register(resource + ".read", AdmissionController.Priority.HIGH, limit());
+            controller.register(resource + ".list", AdmissionController.Priority.HIGH, limit());
+            controller.register(resource + ".write", AdmissionController.Priority.LOW, limit());
+        }
+        return controller;
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(AdmissionController admissionController) {
+        FilterRegistrationBean<AdmissionControlFilter> registration =
+                new FilterRegistrationBean<>(new AdmissionControlFilter(admissionController, new ClientIdentity(clientHeader, trustedProxies)));
+        registration.addUrlPatterns("/api/v1/beer", "/api/v1/beer/*", "/api/v1/customer", "/api/v1/customer/*");
+        // After the response cache, whose hits cost next to nothing and would skew the latency baseline
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE);
+        return registration;
+    }
+
+    private AdaptiveConcurrencyLimit limit() {
+        return new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, backoffRatio, latencyTolerance,
+                latencyFloor, maxLatency, baselineWindow);
+    }
+}
@@ -0,0 +1,116 @@
+package com.spring.mvc.admission;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+// Admission control for the beer and customer endpoints (see AdmissionController). Rejections are answered here,
+// before any work, with 429 or 503 and a Retry-After. Admitted requests release their permit when the response
+// is complete - for the asynchronous handlers that is after the async dispatch, not when doFilter returns.
+@RequiredArgsConstructor
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    // Seconds clients are told to wait after a 503; quota rejections say when the client's next token is due
+    static final long RETRY_AFTER_OVERLOADED = 1;
+
+    private final AdmissionController admissionController;
+
+    // Who the quota is charged to
+    private final ClientIdentity clientIdentity;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return endpoint(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AdmissionController.Decision decision = admissionController.tryAcquire(endpoint(request), clientIdentity.of(request));
+        if (!decision.admitted()) {
+            boolean quota = decision.outcome() == AdmissionController.Outcome.CLIENT_QUOTA;
+            long retryAfter = quota ? Math.max(1, (long) Math.ceil(decision.retryAfterNanos() / 1e9)) : RETRY_AFTER_OVERLOADED;
+            response.setStatus(quota ? 429 : HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+            return;
+        }
+
+        AdmissionController.Permit permit = decision.permit();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new PermitListener(permit, response));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                permit.release(overloaded(response));
+            }
+        }
+    }
+
+    // read: one beer or customer; list: the lists, stats, low-stock and delta sync; write: everything that changes data.
+    // The server-sent-event feeds are left alone, they are open for minutes by design.
+    static String endpoint(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String resource;
+        if (path.startsWith("/api/v1/beer")) {
+            resource = "beer";
+        } else if (path.startsWith("/api/v1/customer")) {
+            resource = "customer";
+        } else {
+            return null;
+        }
+        String rest = path.substring(("/api/v1/" + resource).length());
+        if (!rest.isEmpty() && rest.charAt(0) != '/') {
+            return null;
+        }
+
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return resource + ".write";
+        }
+        if (rest.isEmpty() || rest.equals("/") || rest.equals("/stats") || rest.equals("/low-stock")) {
+            return resource + ".list";
+        }
+        if (rest.equals("/changes")) {
+            return request.getParameter("since") != null ? resource + ".list" : null;
+        }
+        return resource + ".read";
+    }
+
+    // A 503 from further down means the executors shed the request - the same signal as a rejection here
+    private static boolean overloaded(HttpServletResponse response) {
+        return response.getStatus() == HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+    }
+
+    private record PermitListener(AdmissionController.Permit permit, HttpServletResponse response) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permit.release(overloaded(response));
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            permit.release(true);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            permit.release(true);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.spring.mvc.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Decides whether a request may start. In order: the client must be within its quota (else 429), a low priority
+// endpoint must not be competing with a high priority one that is at its limit (else 503), and the endpoint
+// must be below its adaptive concurrency limit (else 503). Admitted requests hold a Permit until they complete;
+// its latency and whether it was dropped feed the endpoint's limit.
+public class AdmissionController {
+
+    public enum Priority { HIGH, LOW }
+
+    public enum Outcome { ADMITTED, CLIENT_QUOTA, DEPRIORITIZED, LIMITED }
+
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    private final ClientQuotas clientQuotas;
+    private final MeterRegistry registry;
+
+    // clientQuotas may be null, then clients are not limited individually
+    public AdmissionController(ClientQuotas clientQuotas, MeterRegistry registry) {
+        this.clientQuotas = clientQuotas;
+        this.registry = registry;
+    }
+
+    // All endpoints are registered at startup, before the first request
+    public void register(String name, Priority priority, AdaptiveConcurrencyLimit limit) {
+        endpoints.put(name, new Endpoint(name, priority, limit, registry));
+    }
+
+    public Collection<Endpoint> endpoints() {
+        return endpoints.values();
+    }
+
+    public Decision tryAcquire(String endpointName, String client) {
+        Endpoint endpoint = endpoints.get(endpointName);
+        if (endpoint == null) {
+            throw new IllegalArgumentException("Unknown endpoint " + endpointName);
+        }
+        long now = System.nanoTime();
+
+        if (clientQuotas != null) {
+            long wait = clientQuotas.tryAcquire(client, now);
+            if (wait > 0) {
+                return endpoint.reject(Outcome.CLIENT_QUOTA, wait);
+            }
+        }
+        if (endpoint.priority == Priority.LOW) {
+            for (Endpoint other : endpoints.values()) {
+                if (other.priority == Priority.HIGH && other.saturated()) {
+                    return endpoint.reject(Outcome.DEPRIORITIZED, 0);
+                }
+            }
+        }
+        if (!endpoint.tryAcquire()) {
+            return endpoint.reject(Outcome.LIMITED, 0);
+        }
+        endpoint.outcomes[Outcome.ADMITTED.ordinal()].increment();
+        return new Decision(Outcome.ADMITTED, 0, new Permit(endpoint, now));
+    }
+
+    // retryAfterNanos is only set for CLIENT_QUOTA; permit only for ADMITTED
+    public record Decision(Outcome outcome, long retryAfterNanos, Permit permit) {
+
+        public boolean admitted() {
+            return outcome == Outcome.ADMITTED;
+        }
+    }
+
+    public static final class Permit {
+
+        private final Endpoint endpoint;
+        private final long startNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Endpoint endpoint, long startNanos) {
+            this.endpoint = endpoint;
+            this.startNanos = startNanos;
+        }
+
+        // dropped: the request failed because the app was overloaded (timed out, rejected further down).
+        // Only the first call counts.
+        public void release(boolean dropped) {
+            if (released.compareAndSet(false, true)) {
+                endpoint.release(startNanos, System.nanoTime(), dropped);
+            }
+        }
+    }
+
+    public static final class Endpoint {
+
+        private final String name;
+        private final Priority priority;
+        private final AdaptiveConcurrencyLimit limit;
+        private final AtomicInteger inflight = new AtomicInteger();
+        private final Counter[] outcomes = new Counter[Outcome.values().length];
+        private final Counter dropped;
+        private final Timer latency;
+
+        Endpoint(String name, Priority priority, AdaptiveConcurrencyLimit limit, MeterRegistry registry) {
+            this.name = name;
+            this.priority = priority;
+            this.limit = limit;
+
+            for (Outcome outcome : Outcome.values()) {
+                outcomes[outcome.ordinal()] = Counter.builder("mvc.admission.requests")
+                        .description("Requests by admission outcome")
+                        .tag("endpoint", name)
+                        .tag("outcome", outcome.name().toLowerCase().replace('_', '-'))
+                        .register(registry);
+            }
+            dropped = Counter.builder("mvc.admission.dropped")
+                    .description("Admitted requests that failed from overload (timeouts, rejections further down)")
+                    .tag("endpoint", name)
+                    .register(registry);
+            latency = Timer.builder("mvc.admission.latency")
+                    .description("Time from admission to completion of admitted requests")
+                    .tag("endpoint", name)
+                    .register(registry);
+            Gauge.builder("mvc.admission.limit", limit, AdaptiveConcurrencyLimit::get)
+                    .description("Current adaptive concurrency limit")
+                    .tag("endpoint", name)
+                    .register(registry);
+            Gauge.builder("mvc.admission.inflight", inflight, AtomicInteger::get)
+                    .description("Admitted requests not yet completed")
+                    .tag("endpoint", name)
+                    .register(registry);
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public int limit() {
+            return limit.get();
+        }
+
+        public int inflight() {
+            return inflight.get();
+        }
+
+        boolean saturated() {
+            return inflight.get() >= limit.get();
+        }
+
+        private boolean tryAcquire() {
+            while (true) {
+                int current = inflight.get();
+                if (current >= limit.get()) {
+                    return false;
+                }
+                if (inflight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private Decision reject(Outcome outcome, long retryAfterNanos) {
+            outcomes[outcome.ordinal()].increment();
+            return new Decision(outcome, retryAfterNanos, null);
+        }
+
+        private void release(long startNanos, long endNanos, boolean wasDropped) {
+            int current = inflight.getAndDecrement();
+            limit.onSample(startNanos, endNanos, current, wasDropped);
+            latency.record(endNanos - startNanos, TimeUnit.NANOSECONDS);
+            if (wasDropped) {
+                dropped.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.spring.mvc.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.security.Principal;
+import java.util.regex.Pattern;
+
+// Tells clients apart for quotas, idempotency keys and read-your-writes. Only what a client can't choose for itself
+// counts: the authenticated user, else clientHeader when the request comes straight from one of trustedProxies
+// (which set it), else the remote address. From anywhere else the header is ignored - a client could send a new
+// value with every request and never run out of quota.
+public class ClientIdentity {
+
+    private final String clientHeader;
+
+    // Remote addresses allowed to set clientHeader, null for none
+    private final Pattern trustedProxies;
+
+    public ClientIdentity(String clientHeader, String trustedProxies) {
+        this.clientHeader = clientHeader;
+        this.trustedProxies = trustedProxies == null || trustedProxies.isBlank() ? null : Pattern.compile(trustedProxies);
+    }
+
+    // Prefixed by kind, so a header value can't pass for a user or an address
+    public String of(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "user:" + principal.getName();
+        }
+        if (trustedProxies != null && trustedProxies.matcher(request.getRemoteAddr()).matches()) {
+            String client = request.getHeader(clientHeader);
+            if (client != null && !client.isBlank()) {
+                // For X-Forwarded-For and the like the last entry is the one the proxy added
+                return "client:" + client.substring(client.lastIndexOf(',') + 1).trim();
+            }
+        }
+        return "address:" + request.getRemoteAddr();
+    }
+}
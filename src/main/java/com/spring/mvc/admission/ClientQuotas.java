@@ -0,0 +1,95 @@
+package com.spring.mvc.admission;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// A token bucket per client: ratePerSecond requests a second on average, bursts of up to burst. Buckets of
+// idle clients are dropped once there are more than maxClients - a full bucket is the same as a new one - and
+// then, if there are still too many, those used least recently.
+public class ClientQuotas {
+
+    private final double tokensPerNano;
+    private final double burst;
+    private final int maxClients;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final ReentrantLock evicting = new ReentrantLock();
+
+    public ClientQuotas(double ratePerSecond, int burst, int maxClients) {
+        this.tokensPerNano = ratePerSecond / 1e9;
+        this.burst = burst;
+        this.maxClients = maxClients;
+    }
+
+    // 0 when the client may go ahead (a token is taken), otherwise the nanos until it may
+    public long tryAcquire(String client, long nowNanos) {
+        Bucket bucket = buckets.computeIfAbsent(client, key -> new Bucket(burst, nowNanos));
+        long wait;
+        synchronized (bucket) {
+            bucket.refill(nowNanos, tokensPerNano, burst);
+            bucket.used = nowNanos;
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                wait = 0;
+            } else {
+                wait = (long) Math.ceil((1 - bucket.tokens) / tokensPerNano);
+            }
+        }
+
+        // After taking the token, so this client's bucket is not the idle one that gets dropped
+        if (buckets.size() > maxClients && evicting.tryLock()) {
+            try {
+                evictIdle(nowNanos);
+            } finally {
+                evicting.unlock();
+            }
+        }
+        return wait;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private void evictIdle(long nowNanos) {
+        buckets.values().removeIf(bucket -> {
+            synchronized (bucket) {
+                bucket.refill(nowNanos, tokensPerNano, burst);
+                return bucket.tokens >= burst;
+            }
+        });
+        // Still too many: more distinct clients than the cap within one refill period. Drop the least recently
+        // used, down to 90% of the cap so a stream of new clients doesn't sort the map on every request; the
+        // clients still sending keep their buckets however many new ones turn up.
+        int excess = buckets.size() - maxClients * 9 / 10;
+        if (excess > 0) {
+            buckets.entrySet().stream()
+                    .sorted(Comparator.comparingLong((Map.Entry<String, Bucket> entry) -> nowNanos - entry.getValue().used).reversed())
+                    .limit(excess)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(buckets::remove);
+        }
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private long updated;
+        private volatile long used;
+
+        Bucket(double tokens, long updated) {
+            this.tokens = tokens;
+            this.updated = updated;
+            this.used = updated;
+        }
+
+        void refill(long nowNanos, double tokensPerNano, double burst) {
+            if (nowNanos - updated > 0) {
+                tokens = Math.min(burst, tokens + (nowNanos - updated) * tokensPerNano);
+                updated = nowNanos;
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.spring.mvc.async;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskDecorator;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// A fixed pool with a bounded queue and a deadline per call. The deadline covers time spent queued as well as
+// running: a call still queued when it passes is dropped without running, one already running is left to
+// finish (interrupting JDBC mid-statement does more harm than good) but its result is discarded.
+@Slf4j
+public class BoundedOperationExecutor implements OperationExecutor {
+
+    private final String name;
+    private final Duration timeout;
+    private final ThreadPoolExecutor executor;
+    private final TaskDecorator taskDecorator;
+
+    public BoundedOperationExecutor(String name, int threads, int queueCapacity, Duration timeout) {
+        this(name, threads, queueCapacity, timeout, task -> task);
+    }
+
+    // taskDecorator runs on the submitting thread, e.g. to carry request-scoped state over to the pool thread
+    public BoundedOperationExecutor(String name, int threads, int queueCapacity, Duration timeout, TaskDecorator taskDecorator) {
+        this.name = name;
+        this.timeout = timeout;
+        this.taskDecorator = taskDecorator;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("mvc-" + name + "-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public <T> CompletableFuture<T> supply(Supplier<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable task = taskDecorator.decorate(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                result.complete(work.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.debug("{} queue is full, rejecting", name);
+            throw new RejectedExecutionException(name + " queue is full", e);
+        }
+
+        return result.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((value, failure) -> {
+                    if (failure instanceof TimeoutException) {
+                        // Give the queue slot back now rather than when a thread gets to it
+                        executor.remove(task);
+                    }
+                });
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
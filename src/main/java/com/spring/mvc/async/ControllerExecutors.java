@@ -0,0 +1,18 @@
+package com.spring.mvc.async;
+
+// The pools behind BeerController and CustomerController, one per kind of operation so slow writes or full
+// scans can't take the threads (and connections) single-item reads need
+public record ControllerExecutors(OperationExecutor read, OperationExecutor list, OperationExecutor write)
+        implements AutoCloseable {
+
+    public static ControllerExecutors direct() {
+        return new ControllerExecutors(OperationExecutor.DIRECT, OperationExecutor.DIRECT, OperationExecutor.DIRECT);
+    }
+
+    @Override
+    public void close() {
+        read.close();
+        list.close();
+        write.close();
+    }
+}
@@ -0,0 +1,56 @@
+package com.spring.mvc.async;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+import java.time.Duration;
+
+@Configuration
+public class ControllerExecutorsConfig {
+
+    @Value("${mvc.async.enabled:true}")
+    private boolean enabled;
+
+    @Value("${mvc.async.read.threads:5}")
+    private int readThreads;
+
+    @Value("${mvc.async.read.queue-capacity:200}")
+    private int readQueueCapacity;
+
+    @Value("${mvc.async.read.timeout:2s}")
+    private Duration readTimeout;
+
+    @Value("${mvc.async.list.threads:2}")
+    private int listThreads;
+
+    @Value("${mvc.async.list.queue-capacity:50}")
+    private int listQueueCapacity;
+
+    @Value("${mvc.async.list.timeout:5s}")
+    private Duration listTimeout;
+
+    @Value("${mvc.async.write.threads:3}")
+    private int writeThreads;
+
+    @Value("${mvc.async.write.queue-capacity:100}")
+    private int writeQueueCapacity;
+
+    @Value("${mvc.async.write.timeout:5s}")
+    private Duration writeTimeout;
+
+    // A TaskDecorator bean (e.g. from ReadReplicaConfig) carries request-thread state over to the pools
+    @Bean
+    public ControllerExecutors controllerExecutors(ObjectProvider<TaskDecorator> taskDecorator) {
+        if (!enabled) {
+            return ControllerExecutors.direct();
+        }
+        TaskDecorator decorator = taskDecorator.getIfAvailable(() -> task -> task);
+        return new ControllerExecutors(
+                new BoundedOperationExecutor("read", readThreads, readQueueCapacity, readTimeout, decorator),
+                new BoundedOperationExecutor("list", listThreads, listQueueCapacity, listTimeout, decorator),
+                new BoundedOperationExecutor("write", writeThreads, writeQueueCapacity, writeTimeout, decorator));
+    }
+}
@@ -0,0 +1,27 @@
+package com.spring.mvc.async;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+// Where a controller runs the service call behind an endpoint. The returned future completes with the call's
+// result or exception, or with a TimeoutException; a RejectedExecutionException is thrown when there is no room.
+public interface OperationExecutor extends AutoCloseable {
+
+    // Runs work on the calling thread with no deadline, for mvc.async.enabled=false
+    OperationExecutor DIRECT = new OperationExecutor() {
+        @Override
+        public <T> CompletableFuture<T> supply(Supplier<T> work) {
+            try {
+                return CompletableFuture.completedFuture(work.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+    };
+
+    <T> CompletableFuture<T> supply(Supplier<T> work);
+
+    @Override
+    default void close() {
+    }
+}
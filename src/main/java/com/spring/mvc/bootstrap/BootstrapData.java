@@ -1,17 +1,23 @@
 package com.spring.mvc.bootstrap;
 
 import com.spring.mvc.entities.Beer;
+import com.spring.mvc.entities.BeerHistory;
 import com.spring.mvc.entities.Customer;
 import com.spring.mvc.model.BeerStyle;
+import com.spring.mvc.model.Money;
+import com.spring.mvc.repositories.BeerHistoryRepository;
 import com.spring.mvc.repositories.BeerRepository;
 import com.spring.mvc.repositories.CustomerRepository;
+import com.spring.mvc.sharding.BeerShards;
+import com.spring.mvc.sharding.ShardContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component // Marks this class as a Spring-managed component, allowing it to be automatically detected and instantiated
 
@@ -22,8 +28,12 @@ public class BootstrapData implements CommandLineRunner { // Implements CommandL
 
     private final BeerRepository beerRepository; // Injects BeerRepository dependency for database operations related to Beer
 
+    private final BeerHistoryRepository beerHistoryRepository; // The seed beers' first price and stock entries
+
     private final CustomerRepository customerRepository; // Injects CustomerRepository dependency for database operations related to Customers
 
+    private final Optional<BeerShards> beerShards; // Present when beers are sharded (mvc.sharding.enabled)
+
     @Override
     public void run(String... args) throws Exception {
 
@@ -33,13 +43,16 @@ public class BootstrapData implements CommandLineRunner { // Implements CommandL
     }
 
     private void loadBeerData() {
-        if (beerRepository.count() == 0) {
+        AtomicLong beerCount = new AtomicLong(); // Beers may be on any shard, so they are counted on all of them
+        BeerShards.forEachShard(beerShards, () -> beerCount.addAndGet(beerRepository.count()));
+
+        if (beerCount.get() == 0) {
 
             Beer beer1 = Beer.builder()
                     .beerName("Galaxy Cat")
                     .beerStyle(BeerStyle.PALE_ALE)
                     .upc("12356")
-                    .price(new BigDecimal("12.99"))
+                    .price(Money.of("12.99"))
                     .quantityOnHand(122)
                     .createdDate(LocalDateTime.now())
                     .updateDate(LocalDateTime.now())
@@ -49,7 +62,7 @@ public class BootstrapData implements CommandLineRunner { // Implements CommandL
                     .beerName("Crank")
                     .beerStyle(BeerStyle.PALE_ALE)
                     .upc("12356222")
-                    .price(new BigDecimal("11.99"))
+                    .price(Money.of("11.99"))
                     .quantityOnHand(392)
                     .createdDate(LocalDateTime.now())
                     .updateDate(LocalDateTime.now())
@@ -58,16 +71,38 @@ public class BootstrapData implements CommandLineRunner { // Implements CommandL
             Beer beer3 = Beer.builder()
                     .beerName("Sunshine City")
                     .beerStyle(BeerStyle.IPA)
-                    .upc("12356")
-                    .price(new BigDecimal("13.99"))
+                    .upc("12356333")
+                    .price(Money.of("13.99"))
                     .quantityOnHand(144)
                     .createdDate(LocalDateTime.now())
                     .updateDate(LocalDateTime.now())
                     .build();
 
-            beerRepository.save(beer1);
-            beerRepository.save(beer2);
-            beerRepository.save(beer3);
+            for (Beer beer : Arrays.asList(beer1, beer2, beer3)) {
+                saveBeer(beer);
+            }
+        }
+    }
+
+    // Saves the beer with its first history entry, on a shard picked for it when beers are sharded
+    private void saveBeer(Beer beer) {
+        Runnable save = () -> {
+            beerRepository.save(beer);
+            beerHistoryRepository.save(BeerHistory.builder()
+                    .beerId(beer.getId())
+                    .validFrom(beer.getUpdateDate())
+                    .price(beer.getPrice())
+                    .quantityOnHand(beer.getQuantityOnHand())
+                    .build());
+        };
+
+        if (beerShards.isPresent()) {
+            beerShards.get().shared(layout -> {
+                ShardContext.run(beerShards.get().newBeerShard(layout), save);
+                return null;
+            });
+        } else {
+            save.run();
         }
     }
 
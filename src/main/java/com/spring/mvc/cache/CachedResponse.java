@@ -0,0 +1,31 @@
+package com.spring.mvc.cache;
+
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+// A serialized 200 response ready to be copied to the socket. gzipBody is null when the body was too small
+// to be worth compressing. Each encoding has its own strong ETag, as they are different representations.
+public record CachedResponse(String contentType, byte[] body, String etag, byte[] gzipBody, String gzipEtag) {
+
+    public static CachedResponse of(String contentType, byte[] body, int gzipMinSize) {
+        String hash = DigestUtils.md5DigestAsHex(body);
+        if (body.length < gzipMinSize) {
+            return new CachedResponse(contentType, body, '"' + hash + '"', null, null);
+        }
+        return new CachedResponse(contentType, body, '"' + hash + '"', gzip(body), "\"" + hash + "-gzip\"");
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+}
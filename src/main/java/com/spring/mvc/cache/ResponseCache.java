@@ -0,0 +1,63 @@
+package com.spring.mvc.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Serialized responses for one resource's GET endpoints, keyed by path, query string and Accept header.
+// Any write to the resource invalidates every entry. A response rendered while a write went through is not kept:
+// callers read generation() before rendering and put() drops the entry if an invalidation happened in between.
+@Slf4j
+public class ResponseCache {
+
+    private final String name;
+    private final int maxEntries;
+    private final int gzipMinSize;
+    private final Map<String, CachedResponse> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public ResponseCache(String name, int maxEntries, int gzipMinSize) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.gzipMinSize = gzipMinSize;
+    }
+
+    public CachedResponse get(String key) {
+        return entries.get(key);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    // Returns the response for the caller to send whether or not it was kept. Once maxEntries keys are cached
+    // (e.g. clients sending arbitrary query strings) new keys are rendered per request until the next invalidation.
+    public CachedResponse put(String key, long renderedAt, String contentType, byte[] body) {
+        CachedResponse response = CachedResponse.of(contentType, body, gzipMinSize);
+        if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+            return response;
+        }
+
+        entries.put(key, response);
+        if (generation.get() != renderedAt) {
+            entries.remove(key, response);
+        }
+        return response;
+    }
+
+    // The generation moves before the entries are cleared, so a put() racing with this either lands
+    // before the clear or sees the new generation and removes itself
+    public void invalidate() {
+        generation.incrementAndGet();
+        if (!entries.isEmpty()) {
+            entries.clear();
+            log.debug("{} response cache invalidated", name);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,57 @@
+package com.spring.mvc.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.unit.DataSize;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Caches the serialized bodies of the beer and customer list endpoints when mvc.response-cache.enabled=true
+@Configuration
+@ConditionalOnProperty(name = "mvc.response-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCacheConfig {
+
+    @Value("${mvc.response-cache.beer-paths:/api/v1/beer}")
+    private List<String> beerPaths;
+
+    @Value("${mvc.response-cache.customer-paths:/api/v1/customer}")
+    private List<String> customerPaths;
+
+    // Distinct path + query string combinations kept per resource
+    @Value("${mvc.response-cache.max-entries:64}")
+    private int maxEntries;
+
+    // Bodies smaller than this are only kept uncompressed
+    @Value("${mvc.response-cache.gzip-min-size:1KB}")
+    private DataSize gzipMinSize;
+
+    @Bean
+    public ResponseCache beerResponseCache() {
+        return new ResponseCache("Beer", maxEntries, Math.toIntExact(gzipMinSize.toBytes()));
+    }
+
+    @Bean
+    public ResponseCache customerResponseCache() {
+        return new ResponseCache("Customer", maxEntries, Math.toIntExact(gzipMinSize.toBytes()));
+    }
+
+    @Bean
+    public FilterRegistrationBean<ResponseCacheFilter> responseCacheFilter(ResponseCache beerResponseCache,
+                                                                          ResponseCache customerResponseCache) {
+        Map<String, ResponseCache> cachesByPath = new LinkedHashMap<>();
+        beerPaths.forEach(path -> cachesByPath.put(path, beerResponseCache));
+        customerPaths.forEach(path -> cachesByPath.put(path, customerResponseCache));
+
+        FilterRegistrationBean<ResponseCacheFilter> registration = new FilterRegistrationBean<>(new ResponseCacheFilter(cachesByPath));
+        registration.setUrlPatterns(cachesByPath.keySet());
+        // Ahead of admission control (AdmissionConfig), cache hits need no admitting
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return registration;
+    }
+}
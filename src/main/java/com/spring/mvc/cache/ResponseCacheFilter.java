@@ -0,0 +1,146 @@
+package com.spring.mvc.cache;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.util.Map;
+
+// Serves GETs of the cached paths from their ResponseCache. The first request goes through the controller and its
+// serialized body is kept (with a gzipped copy); later requests skip the query, mapping and serialization and
+// copy the bytes out, or answer 304 when If-None-Match carries the ETag.
+@RequiredArgsConstructor
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    // The cache generation seen before rendering, carried over to the async dispatch that finishes it
+    private static final String GENERATION_ATTRIBUTE = ResponseCacheFilter.class.getName() + ".generation";
+
+    // Paths (without context path) to the cache holding their responses
+    private final Map<String, ResponseCache> cachesByPath;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod()) || !cachesByPath.containsKey(path(request));
+    }
+
+    // The controllers answer asynchronously, so the body is only complete once the async dispatch has run
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = path(request);
+        ResponseCache cache = cachesByPath.get(path);
+        // The same path renders JSON, Smile, CBOR or protobuf depending on Accept
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        String key = (request.getQueryString() == null ? path : path + '?' + request.getQueryString())
+                + (accept == null ? "" : '\n' + accept);
+
+        HttpServletResponse responseToUse = response;
+        if (!isAsyncDispatch(request)) {
+            CachedResponse cached = cache.get(key);
+            if (cached != null) {
+                send(cached, request, response);
+                return;
+            }
+            request.setAttribute(GENERATION_ATTRIBUTE, cache.generation());
+            responseToUse = new ContentCachingResponseWrapper(response);
+        }
+
+        filterChain.doFilter(request, responseToUse);
+        if (isAsyncStarted(request)) {
+            return;
+        }
+
+        ContentCachingResponseWrapper rendering = WebUtils.getNativeResponse(responseToUse, ContentCachingResponseWrapper.class);
+        if (rendering == null) {
+            return;
+        }
+        if (rendering.getStatus() != HttpServletResponse.SC_OK || rendering.getContentType() == null) {
+            rendering.copyBodyToResponse();
+            return;
+        }
+        CachedResponse cached = cache.put(key, (Long) request.getAttribute(GENERATION_ATTRIBUTE),
+                rendering.getContentType(), rendering.getContentAsByteArray());
+        send(cached, request, (HttpServletResponse) rendering.getResponse());
+    }
+
+    private static void send(CachedResponse cached, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        boolean gzip = cached.gzipBody() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? cached.gzipEtag() : cached.etag();
+
+        response.setContentType(cached.contentType());
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.VARY, cached.gzipBody() != null
+                ? HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING : HttpHeaders.ACCEPT);
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] body = gzip ? cached.gzipBody() : cached.body();
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    // gzip (or *) listed without q=0
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+                continue;
+            }
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            return quality > 0;
+        }
+        return false;
+    }
+
+    // Weak comparison as If-None-Match requires, so W/"x" matches "x"
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*") || candidate.equals(etag) || candidate.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
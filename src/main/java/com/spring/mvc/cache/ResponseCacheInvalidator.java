@@ -0,0 +1,29 @@
+package com.spring.mvc.cache;
+
+import com.spring.mvc.events.BeerChangedEvent;
+import com.spring.mvc.events.CustomerChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Drops cached responses when the service writes. After commit, so a request can't cache the old rows
+// between the invalidation and the commit.
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "mvc.response-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCacheInvalidator {
+
+    private final ResponseCache beerResponseCache;
+    private final ResponseCache customerResponseCache;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChanged(BeerChangedEvent event) {
+        beerResponseCache.invalidate();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        customerResponseCache.invalidate();
+    }
+}
@@ -0,0 +1,19 @@
+package com.spring.mvc.config;
+
+import com.spring.mvc.protobuf.CatalogProtobufHttpMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+// Smile and CBOR converters come with their jackson-dataformat jars. Protobuf is appended after them rather than
+// declared as a converter bean, which Spring Boot would put first - JSON stays the answer to Accept: */*.
+@Configuration
+public class MessageConverterConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new CatalogProtobufHttpMessageConverter());
+    }
+}
@@ -1,78 +1,197 @@
 package com.spring.mvc.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.spring.mvc.async.ControllerExecutors;
+import com.spring.mvc.idempotency.IdempotentRequests;
 import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerHistoryDTO;
+import com.spring.mvc.model.BeerStatsDTO;
+import com.spring.mvc.model.DeltaSyncDTO;
+import com.spring.mvc.model.SyncToken;
+import com.spring.mvc.patch.DtoPatcher;
 import com.spring.mvc.services.BeerService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
+// Handlers return as soon as the service call is queued on its ControllerExecutors pool, freeing the Tomcat
+// thread; a full pool or a missed deadline is a 503 (see CustomErrorController)
 @Slf4j
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("api/v1/beer")
 public class BeerController {
 
+    private static final int MAX_LOW_STOCK_LIMIT = 1000;
+
+    private static final int MAX_HISTORY_LIMIT = 1000;
+
     private final BeerService beerService;
 
+    private final ControllerExecutors executors;
 
-    @PatchMapping("{beerId}")
-    public ResponseEntity updateBeerPatchById(@PathVariable("beerId") UUID beerId, @RequestBody BeerDTO beer) {
+    private final IdempotentRequests idempotentRequests;
+
+    private final DtoPatcher dtoPatcher;
 
-        beerService.patchBeerById(beerId, beer);
 
-        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    @PatchMapping("{beerId}")
+    public CompletableFuture<ResponseEntity> updateBeerPatchById(@PathVariable("beerId") UUID beerId, @RequestBody BeerDTO beer,
+                                                                 @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey,
+                                                                 HttpServletRequest httpRequest) {
+        return idempotentRequests.execute(idempotentRequests.client(httpRequest), idempotencyKey, "PATCH /api/v1/beer/" + beerId, beer, executors.write(), () -> {
+            beerService.patchBeerById(beerId, beer);
+
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        });
+    }
+
+    // RFC 7396 merge patch and RFC 6902 JSON Patch: only the fields the patch changes are written, and a
+    // field can be cleared. Plain application/json keeps the handler above, which skips null fields.
+    @PatchMapping(value = "{beerId}", consumes = {DtoPatcher.MERGE_PATCH_JSON_VALUE, DtoPatcher.JSON_PATCH_JSON_VALUE})
+    public CompletableFuture<ResponseEntity> patchBeerById(@PathVariable("beerId") UUID beerId, @RequestBody JsonNode patch,
+                                                           @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                           @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey,
+                                                           HttpServletRequest httpRequest) {
+        return idempotentRequests.execute(idempotentRequests.client(httpRequest), idempotencyKey, "PATCH /api/v1/beer/" + beerId, patch, executors.write(), () -> {
+            // Applied to the beer as the service reads it for the write, so a test op can't pass on a stale copy
+            if (beerService.patchBeerById(beerId, current -> dtoPatcher.apply(current, patch, contentType, BeerDTO.class)).isEmpty()) {
+                throw new NotFoundException();
+            }
+
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        });
     }
 
     @DeleteMapping("{beerId}")
-    public ResponseEntity deleteById(@PathVariable("beerId") UUID beerId) {
-        if (!beerService.deleteBeerById(beerId)) {
-            throw new NotFoundException();
-        }
-        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    public CompletableFuture<ResponseEntity> deleteById(@PathVariable("beerId") UUID beerId) {
+        return executors.write().supply(() -> {
+            if (!beerService.deleteBeerById(beerId)) {
+                throw new NotFoundException();
+            }
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        });
     }
 
     @PutMapping("{beerId}")
-    public ResponseEntity updateById(@PathVariable("beerId") UUID beerId, @Validated @RequestBody BeerDTO beer) {
-        // If beer exists, update it and return 204 No Content; otherwise, throw 404 Not Found
-        if (beerService.updateBeerById(beerId, beer).isEmpty()) {
-            throw new NotFoundException();
-        }
-
-        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    public CompletableFuture<ResponseEntity> updateById(@PathVariable("beerId") UUID beerId, @Validated @RequestBody BeerDTO beer,
+                                                       @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey,
+                                                       HttpServletRequest httpRequest) {
+        return idempotentRequests.execute(idempotentRequests.client(httpRequest), idempotencyKey, "PUT /api/v1/beer/" + beerId, beer, executors.write(), () -> {
+            // If beer exists, update it and return 204 No Content; otherwise, throw 404 Not Found
+            if (beerService.updateBeerById(beerId, beer).isEmpty()) {
+                throw new NotFoundException();
+            }
+
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        });
     }
 
 
     @PostMapping
 //    @RequestMapping(method = RequestMethod.POST)
-    public ResponseEntity handlePost(@Validated @RequestBody BeerDTO beer) {
-        BeerDTO savedBeer = beerService.saveNewBeer(beer);
+    public CompletableFuture<ResponseEntity> handlePost(@Validated @RequestBody BeerDTO beer,
+                                                       @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey,
+                                                       HttpServletRequest httpRequest) {
+        return idempotentRequests.execute(idempotentRequests.client(httpRequest), idempotencyKey, "POST /api/v1/beer", beer, executors.write(), () -> {
+            BeerDTO savedBeer = beerService.saveNewBeer(beer);
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.add("location", "/api/v1/beer/" + savedBeer.getId().toString());
+            HttpHeaders headers = new HttpHeaders();
+            headers.add("location", "/api/v1/beer/" + savedBeer.getId().toString());
 
-        return new ResponseEntity<>(headers, HttpStatus.CREATED);
+            return new ResponseEntity<>(headers, HttpStatus.CREATED);
+        });
     }
 
     // @GetMapping
     @RequestMapping(method = RequestMethod.GET)
-    public List<BeerDTO> listBeers() {
-        return beerService.listBeers();
+    public CompletableFuture<List<BeerDTO>> listBeers() {
+        return executors.list().supply(beerService::listBeers);
+    }
+
+
+    // Delta sync - pass the nextToken from the previous response, or an empty since= for a full sync.
+    // The same path without ?since= is the server-sent-event feed in ChangeFeedController.
+    @GetMapping(value = "changes", params = "since", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<DeltaSyncDTO<BeerDTO>> listBeerChanges(@RequestParam("since") String since) {
+        SyncToken token;
+        try {
+            token = SyncToken.decode(since);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage(), e);
+        }
+        return executors.list().supply(() -> beerService.listBeerChangesSince(token));
     }
 
+    @GetMapping("stats")
+    public CompletableFuture<BeerStatsDTO> getBeerStats(@RequestParam(value = "lowStockThreshold", defaultValue = "10") int lowStockThreshold) {
+        if (lowStockThreshold < 0) {
+            throw new BadRequestException("lowStockThreshold must not be negative");
+        }
+        return executors.list().supply(() -> beerService.getBeerStats(lowStockThreshold));
+    }
+
+    // Reorder candidates for purchasing: the beers furthest below the threshold, read from a maintained
+    // stock-level index rather than by sorting the catalog
+    @GetMapping("low-stock")
+    public CompletableFuture<List<BeerDTO>> listLowStockBeers(@RequestParam(value = "lowStockThreshold", defaultValue = "10") int lowStockThreshold,
+                                                              @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        if (lowStockThreshold < 0) {
+            throw new BadRequestException("lowStockThreshold must not be negative");
+        }
+        if (limit < 1 || limit > MAX_LOW_STOCK_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_LOW_STOCK_LIMIT);
+        }
+        return executors.list().supply(() -> beerService.listLowStockBeers(lowStockThreshold, limit));
+    }
+
+    // Warehouse scanners identify beers by barcode: one probe of the UPC index (ux_beer_upc, or the in-memory map)
+    @GetMapping("upc/{upc}")
+    public CompletableFuture<BeerDTO> getBeerByUpc(@PathVariable("upc") String upc) {
+        return executors.read().supply(() -> beerService.getBeerByUpc(upc).orElseThrow(NotFoundException::new));
+    }
+
+    // Price and stock changes, newest first - 404 for a beer that never had any
+    @GetMapping("{beerId}/history")
+    public CompletableFuture<List<BeerHistoryDTO>> listBeerHistory(@PathVariable("beerId") UUID beerId,
+                                                                   @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        if (limit < 1 || limit > MAX_HISTORY_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_HISTORY_LIMIT);
+        }
+        return executors.read().supply(() -> {
+            List<BeerHistoryDTO> history = beerService.listBeerHistory(beerId, limit);
+            if (history.isEmpty()) {
+                throw new NotFoundException();
+            }
+            return history;
+        });
+    }
+
+    // The price and stock in effect at asOf (ISO date-time, server time zone), e.g. for repricing audits
+    @GetMapping(value = "{beerId}/history", params = "asOf")
+    public CompletableFuture<BeerHistoryDTO> getBeerHistoryAsOf(@PathVariable("beerId") UUID beerId,
+                                                                @RequestParam("asOf") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        return executors.read().supply(() -> beerService.getBeerHistoryAsOf(beerId, asOf).orElseThrow(NotFoundException::new));
+    }
 
     @RequestMapping(value = "{beerId}", method = RequestMethod.GET)
-    public BeerDTO getBeerById(@PathVariable("beerId") UUID beerId) {
+    public CompletableFuture<BeerDTO> getBeerById(@PathVariable("beerId") UUID beerId) {
 
         log.debug("Get Beer ID in CONTROLLER was called ----------------");
 
-        return beerService.getBeerById(beerId).orElseThrow(NotFoundException::new);
+        return executors.read().supply(() -> beerService.getBeerById(beerId).orElseThrow(NotFoundException::new));
     }
 
 
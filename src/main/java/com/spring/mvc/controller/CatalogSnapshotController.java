@@ -0,0 +1,47 @@
+package com.spring.mvc.controller;
+
+import com.spring.mvc.model.CatalogSnapshotDTO;
+import com.spring.mvc.snapshot.CatalogSnapshot;
+import com.spring.mvc.snapshot.CatalogSnapshots;
+import com.spring.mvc.snapshot.SnapshotTransfer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+// Bulk downloads of the whole catalog, written periodically by CatalogSnapshotWriter (mvc.catalog-snapshot.*).
+// Files support Range requests so interrupted downloads can resume.
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("api/v1/catalog/snapshots")
+public class CatalogSnapshotController {
+
+    private final CatalogSnapshots catalogSnapshots;
+
+    @GetMapping
+    public List<CatalogSnapshotDTO> listSnapshots() {
+        return catalogSnapshots.list().stream()
+                .map(snapshot -> CatalogSnapshotDTO.builder()
+                        .name(snapshot.name())
+                        .size(snapshot.size())
+                        .createdDate(LocalDateTime.ofInstant(snapshot.createdAt(), ZoneId.systemDefault()))
+                        .build())
+                .toList();
+    }
+
+    // e.g. beers.json, beers.csv.gz
+    @GetMapping("{name}")
+    public void downloadSnapshot(@PathVariable("name") String name, HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
+        CatalogSnapshot snapshot = catalogSnapshots.get(name).orElseThrow(NotFoundException::new);
+        SnapshotTransfer.send(snapshot, request, response);
+    }
+}
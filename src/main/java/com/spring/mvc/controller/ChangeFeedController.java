@@ -0,0 +1,30 @@
+package com.spring.mvc.controller;
+
+import com.spring.mvc.events.BeerChangeFeed;
+import com.spring.mvc.events.CustomerChangeFeed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RequiredArgsConstructor
+@RestController
+public class ChangeFeedController {
+
+    private final BeerChangeFeed beerChangeFeed;
+
+    private final CustomerChangeFeed customerChangeFeed;
+
+    // Browsers' EventSource resends the id of the last event it saw in Last-Event-ID on reconnect
+    @GetMapping(value = "api/v1/beer/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter beerChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return beerChangeFeed.subscribe(lastEventId);
+    }
+
+    @GetMapping(value = "api/v1/customer/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter customerChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return customerChangeFeed.subscribe(lastEventId);
+    }
+}
@@ -2,6 +2,9 @@ package com.spring.mvc.controller;
 
 
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.TransactionSystemException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -11,6 +14,8 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 @ControllerAdvice
 public class CustomErrorController {
@@ -22,20 +27,26 @@ public class CustomErrorController {
 
         if (exception.getCause().getCause() instanceof ConstraintViolationException) {
             ConstraintViolationException ve = (ConstraintViolationException) exception.getCause().getCause();
-
-            List errors = ve.getConstraintViolations().stream()
-                    .map(constraintViolation -> {
-                        Map<String, String> errMap = new HashMap<>();
-                        errMap.put(constraintViolation.getPropertyPath().toString(),
-                                constraintViolation.getMessage());
-                        return errMap;
-                    }).toList();
-            return responseEntity.body(errors);
+            return handleConstraintViolations(ve);
         }
 
         return responseEntity.build();
     }
 
+    // Thrown directly when a patched DTO fails validation (see DtoPatcher), same body as above
+    @ExceptionHandler
+    ResponseEntity handleConstraintViolations(ConstraintViolationException exception) {
+
+        List errors = exception.getConstraintViolations().stream()
+                .map(constraintViolation -> {
+                    Map<String, String> errMap = new HashMap<>();
+                    errMap.put(constraintViolation.getPropertyPath().toString(),
+                            constraintViolation.getMessage());
+                    return errMap;
+                }).toList();
+        return ResponseEntity.badRequest().body(errors);
+    }
+
 
     // Handles validation errors by extracting field-specific messages from MethodArgumentNotValidException
     // and returning them as a list in a 400 Bad Request response.
@@ -52,5 +63,22 @@ public class CustomErrorController {
         return ResponseEntity.badRequest().body(errorList);
     }
 
-}
+    // A unique index rejected the write - for beers that's ux_beer_upc, when two writers race for the same UPC
+    @ExceptionHandler
+    ResponseEntity handleConflict(DataIntegrityViolationException exception) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
 
+    // Another writer committed the row between this write's read and its flush (the @Version check)
+    @ExceptionHandler
+    ResponseEntity handleConcurrentWrite(OptimisticLockingFailureException exception) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    // The controller's executor was full or its deadline passed (see ControllerExecutors) - answer straight away
+    // so the client can retry elsewhere or later instead of waiting on an overloaded pool
+    @ExceptionHandler({RejectedExecutionException.class, TimeoutException.class})
+    ResponseEntity handleOverload(Exception exception) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+}
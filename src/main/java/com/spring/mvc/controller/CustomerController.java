@@ -1,16 +1,25 @@
 package com.spring.mvc.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.spring.mvc.async.ControllerExecutors;
+import com.spring.mvc.idempotency.IdempotentRequests;
 import com.spring.mvc.model.CustomerDTO;
+import com.spring.mvc.model.DeltaSyncDTO;
+import com.spring.mvc.model.SyncToken;
+import com.spring.mvc.patch.DtoPatcher;
 import com.spring.mvc.services.CustomerService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -20,52 +29,97 @@ public class CustomerController {
 
     private final CustomerService customerService;
 
-    @PatchMapping("{customerId}")
-    public ResponseEntity updateCustomerPatchById(@PathVariable("customerId") UUID customerId, @RequestBody CustomerDTO customer) {
+    private final ControllerExecutors executors;
 
-        customerService.patchCustomerById(customerId, customer);
+    private final IdempotentRequests idempotentRequests;
 
-        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
-    }
+    private final DtoPatcher dtoPatcher;
 
-    @DeleteMapping("{customerId}")
-    public ResponseEntity deleteById(@PathVariable("customerId") UUID customerId) {
+    @PatchMapping("{customerId}")
+    public CompletableFuture<ResponseEntity> updateCustomerPatchById(@PathVariable("customerId") UUID customerId, @RequestBody CustomerDTO customer,
+                                                                 @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey,
+                                                                 HttpServletRequest httpRequest) {
+        return idempotentRequests.execute(idempotentRequests.client(httpRequest), idempotencyKey, "PATCH /api/v1/customer/" + customerId, customer, executors.write(), () -> {
+            customerService.patchCustomerById(customerId, customer);
+
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        });
+    }
 
-        if (!customerService.deleteCustomerById(customerId)) {
-            throw new NotFoundException();
-        }
+    // RFC 7396 merge patch and RFC 6902 JSON Patch: only the fields the patch changes are written, and a
+    // field can be cleared. Plain application/json keeps the handler above, which skips null fields.
+    @PatchMapping(value = "{customerId}", consumes = {DtoPatcher.MERGE_PATCH_JSON_VALUE, DtoPatcher.JSON_PATCH_JSON_VALUE})
+    public CompletableFuture<ResponseEntity> patchCustomerById(@PathVariable("customerId") UUID customerId, @RequestBody JsonNode patch,
+                                                               @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                               @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey,
+                                                               HttpServletRequest httpRequest) {
+        return idempotentRequests.execute(idempotentRequests.client(httpRequest), idempotencyKey, "PATCH /api/v1/customer/" + customerId, patch, executors.write(), () -> {
+            // Applied to the customer as the service reads it for the write, see BeerController
+            if (customerService.patchCustomerById(customerId, current -> dtoPatcher.apply(current, patch, contentType, CustomerDTO.class)).isEmpty()) {
+                throw new NotFoundException();
+            }
+
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        });
+    }
 
-        return new ResponseEntity(HttpStatus.NO_CONTENT);
+    @DeleteMapping("{customerId}")
+    public CompletableFuture<ResponseEntity> deleteById(@PathVariable("customerId") UUID customerId) {
+        return executors.write().supply(() -> {
+            if (!customerService.deleteCustomerById(customerId)) {
+                throw new NotFoundException();
+            }
+
+            return new ResponseEntity(HttpStatus.NO_CONTENT);
+        });
     }
 
     @PutMapping("{customerId}")
-    public ResponseEntity updateById(@PathVariable("customerId") UUID customerId, @RequestBody CustomerDTO customer) {
-
-        if (customerService.updateCustomerById(customerId, customer).isEmpty()) {
-            throw new NotFoundException();
-        }
-
-        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    public CompletableFuture<ResponseEntity> updateById(@PathVariable("customerId") UUID customerId, @RequestBody CustomerDTO customer,
+                                                       @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey,
+                                                       HttpServletRequest httpRequest) {
+        return idempotentRequests.execute(idempotentRequests.client(httpRequest), idempotencyKey, "PUT /api/v1/customer/" + customerId, customer, executors.write(), () -> {
+            if (customerService.updateCustomerById(customerId, customer).isEmpty()) {
+                throw new NotFoundException();
+            }
+
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        });
     }
 
     @PostMapping
-    public ResponseEntity handlePost(@RequestBody CustomerDTO customer) {
-        CustomerDTO savedCustomer = customerService.saveNewCustomer(customer);
+    public CompletableFuture<ResponseEntity> handlePost(@RequestBody CustomerDTO customer,
+                                                       @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey,
+                                                       HttpServletRequest httpRequest) {
+        return idempotentRequests.execute(idempotentRequests.client(httpRequest), idempotencyKey, "POST /api/v1/customer", customer, executors.write(), () -> {
+            CustomerDTO savedCustomer = customerService.saveNewCustomer(customer);
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.add("location", "/api/v1/customer/" + savedCustomer.getId().toString());
+            HttpHeaders headers = new HttpHeaders();
+            headers.add("location", "/api/v1/customer/" + savedCustomer.getId().toString());
 
-        return new ResponseEntity<>(headers, HttpStatus.CREATED);
+            return new ResponseEntity<>(headers, HttpStatus.CREATED);
+        });
     }
 
     @RequestMapping(method = RequestMethod.GET)
-    public List<CustomerDTO> listCustomers() {
-        return customerService.listCustomers();
+    public CompletableFuture<List<CustomerDTO>> listCustomers() {
+        return executors.list().supply(customerService::listCustomers);
+    }
+
+    @GetMapping(value = "changes", params = "since", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<DeltaSyncDTO<CustomerDTO>> listCustomerChanges(@RequestParam("since") String since) {
+        SyncToken token;
+        try {
+            token = SyncToken.decode(since);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage(), e);
+        }
+        return executors.list().supply(() -> customerService.listCustomerChangesSince(token));
     }
 
     @RequestMapping(value = "{customerId}", method = RequestMethod.GET)
-    public CustomerDTO getCustomerById(@PathVariable("customerId") UUID Id) {
+    public CompletableFuture<CustomerDTO> getCustomerById(@PathVariable("customerId") UUID Id) {
 
-        return customerService.getCustomerById(Id).orElseThrow(NotFoundException::new);
+        return executors.read().supply(() -> customerService.getCustomerById(Id).orElseThrow(NotFoundException::new));
     }
 }
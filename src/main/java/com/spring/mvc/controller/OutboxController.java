@@ -0,0 +1,38 @@
+package com.spring.mvc.controller;
+
+import com.spring.mvc.model.OutboxPageDTO;
+import com.spring.mvc.outbox.OutboxLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+// Tails the outbox log (mvc.outbox.*): start without an offset, then pass each page's nextOffset.
+// An empty page means the consumer is caught up; poll again later with the same offset.
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("api/v1/outbox")
+@ConditionalOnProperty(name = "mvc.outbox.enabled", havingValue = "true")
+public class OutboxController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final OutboxLog outboxLog;
+
+    @GetMapping("messages")
+    public OutboxPageDTO readMessages(@RequestParam(value = "offset", required = false) Long offset,
+                                      @RequestParam(value = "limit", defaultValue = "100") int limit) throws IOException {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        try {
+            return outboxLog.read(offset, limit);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage(), e);
+        }
+    }
+}
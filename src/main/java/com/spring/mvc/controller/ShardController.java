@@ -0,0 +1,39 @@
+package com.spring.mvc.controller;
+
+import com.spring.mvc.model.ShardStatusDTO;
+import com.spring.mvc.sharding.BeerResharder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+// The beer shards (mvc.sharding.*) and online resharding: POST reshard?shards=n answers as soon as the new layout
+// is in place, then poll GET until previousShardCount is gone.
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("api/v1/shards")
+@ConditionalOnProperty(name = "mvc.sharding.enabled", havingValue = "true")
+public class ShardController {
+
+    private final BeerResharder beerResharder;
+
+    @GetMapping
+    public ShardStatusDTO getStatus() {
+        return beerResharder.status();
+    }
+
+    @PostMapping("reshard")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ShardStatusDTO reshard(@RequestParam("shards") int shards) {
+        try {
+            return beerResharder.reshard(shards);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.spring.mvc.datasource;
+
+public enum DataSourceRoute {
+    PRIMARY, REPLICA
+}
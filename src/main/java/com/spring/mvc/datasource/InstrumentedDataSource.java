@@ -0,0 +1,203 @@
+package com.spring.mvc.datasource;
+
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+// Wraps the application's DataSource so every statement is timed into JdbcMetrics. Connections and statements
+// are JDK proxies that only step in for prepare, execute and close; every other call goes straight through.
+// Pool waits are not timed here, Hikari's own hikaricp.connections.acquire covers them.
+public class InstrumentedDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final JdbcMetrics metrics;
+
+    // Per physical connection, which outlives the pool's per-checkout proxies
+    private final Map<Connection, StatementCache> statementCaches = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public InstrumentedDataSource(DataSource dataSource, JdbcMetrics metrics) {
+        super(dataSource);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return instrument(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return instrument(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    // The wrapped DataSource is usually the pool, which must still be closed on shutdown
+    @Override
+    public void close() throws Exception {
+        if (obtainTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Connection instrument(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // unwrap, isWrapperFor, equals, hashCode and toString for a proxy, or null when the method is none of those
+    private static Object identity(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        return switch (method.getName()) {
+            case "unwrap" -> ((Class<?>) args[0]).isInstance(proxy) ? proxy : invoke(target, method, args);
+            case "isWrapperFor" -> ((Class<?>) args[0]).isInstance(proxy) || (boolean) invoke(target, method, args);
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> "Instrumented " + target;
+            default -> null;
+        };
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+        private StatementCache statementCache;
+
+        private ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, connection, method, args);
+            if (identity != null) {
+                return identity;
+            }
+
+            String name = method.getName();
+            boolean prepare = name.equals("prepareStatement") || name.equals("prepareCall");
+            if (!prepare && !name.equals("createStatement")) {
+                return InstrumentedDataSource.invoke(connection, method, args);
+            }
+
+            Statement statement = (Statement) InstrumentedDataSource.invoke(connection, method, args);
+            String sql = prepare ? (String) args[0] : null;
+            if (prepare) {
+                metrics.recordStatementCache(statementCache().prepare(sql));
+            }
+            return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{method.getReturnType()},
+                    new StatementHandler(statement, (Connection) proxy, sql));
+        }
+
+        // Looked up on first use: behind a LazyConnectionDataSourceProxy unwrapping earlier would fetch the
+        // target connection before the transaction has decided where it should come from
+        private StatementCache statementCache() throws SQLException {
+            if (statementCache == null) {
+                Connection target = DataSourceUtils.getTargetConnection(connection);
+                Connection physical = target.isWrapperFor(Connection.class) ? target.unwrap(Connection.class) : target;
+                statementCache = statementCaches.computeIfAbsent(physical, key -> new StatementCache(metrics.statementCacheSize()));
+            }
+            return statementCache;
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final Connection connection;
+        private String sql;
+        private JdbcMetrics.Query fetching;
+        private long fetchStart;
+
+        private StatementHandler(Statement statement, Connection connection, String sql) {
+            this.statement = statement;
+            this.connection = connection;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, statement, method, args);
+            if (identity != null) {
+                return identity;
+            }
+
+            String name = method.getName();
+            if (name.equals("getConnection")) {
+                return connection;
+            }
+            if (name.equals("addBatch") && args != null && args.length == 1) {
+                sql = (String) args[0]; // A plain statement's batch is timed under its last statement
+            }
+            if (name.equals("close")) {
+                endFetch();
+                return InstrumentedDataSource.invoke(statement, method, args);
+            }
+            if (!EXECUTE_METHODS.contains(name)) {
+                return InstrumentedDataSource.invoke(statement, method, args);
+            }
+
+            endFetch();
+            JdbcMetrics.Query query = metrics.query(args != null && args.length > 0 && args[0] instanceof String executed ? executed : sql);
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = InstrumentedDataSource.invoke(statement, method, args);
+            } finally {
+                query.recordExecution(System.nanoTime() - start);
+            }
+            if (name.equals("executeQuery") || (name.equals("execute") && (boolean) result)) {
+                fetching = query;
+                fetchStart = System.nanoTime();
+            }
+            return result;
+        }
+
+        private void endFetch() {
+            if (fetching != null) {
+                fetching.recordFetch(System.nanoTime() - fetchStart);
+                fetching = null;
+            }
+        }
+    }
+
+    // Which statements a driver cache of this size (LRU, per connection) would hold
+    private static final class StatementCache {
+
+        private final Map<String, Boolean> statements;
+
+        private StatementCache(int capacity) {
+            statements = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        // Whether sql was cached, it is afterwards
+        synchronized boolean prepare(String sql) {
+            return statements.put(sql, Boolean.TRUE) != null;
+        }
+    }
+}
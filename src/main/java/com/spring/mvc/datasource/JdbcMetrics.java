@@ -0,0 +1,137 @@
+package com.spring.mvc.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Meters for the statements InstrumentedDataSource runs, tagged with the normalized SQL (see SqlNormalizer):
+// mvc.jdbc.query times execution, mvc.jdbc.query.fetch the time from execution to the statement being closed
+// (reading and mapping the rows), mvc.jdbc.query.slow counts executions over the slow query threshold.
+// mvc.jdbc.statement-cache counts prepares that a per-connection statement cache of the driver's size would
+// have hit or missed. Past maxQueries distinct statements new ones are all tagged "other".
+@Slf4j
+public class JdbcMetrics {
+
+    static final String OTHER = "other";
+
+    private final MeterRegistry registry;
+    private final long slowQueryNanos;
+    private final long verySlowQueryNanos;
+    private final int maxQueries;
+    private final int statementCacheSize;
+
+    // Raw SQL to its meters, so a statement is normalized once rather than on every execution
+    private final Map<String, Query> queriesBySql = new ConcurrentHashMap<>();
+    private final Map<String, Query> queries = new ConcurrentHashMap<>();
+
+    private final Counter statementCacheHits;
+    private final Counter statementCacheMisses;
+
+    // A zero threshold turns that log level off
+    public JdbcMetrics(MeterRegistry registry, Duration slowQueryThreshold, Duration verySlowQueryThreshold,
+                       int maxQueries, int statementCacheSize) {
+        this.registry = registry;
+        this.slowQueryNanos = slowQueryThreshold.isZero() ? Long.MAX_VALUE : slowQueryThreshold.toNanos();
+        this.verySlowQueryNanos = verySlowQueryThreshold.isZero() ? Long.MAX_VALUE : verySlowQueryThreshold.toNanos();
+        this.maxQueries = maxQueries;
+        this.statementCacheSize = statementCacheSize;
+
+        statementCacheHits = Counter.builder("mvc.jdbc.statement-cache")
+                .description("Prepared statements already in the connection's statement cache")
+                .tag("result", "hit")
+                .register(registry);
+        statementCacheMisses = Counter.builder("mvc.jdbc.statement-cache")
+                .description("Prepared statements already in the connection's statement cache")
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("mvc.jdbc.statement-cache.hit-ratio", this, JdbcMetrics::statementCacheHitRatio)
+                .description("Share of prepared statements found in the connection's statement cache")
+                .register(registry);
+    }
+
+    public Query query(String sql) {
+        if (sql == null) {
+            return queries.computeIfAbsent(OTHER, Query::new);
+        }
+        Query query = queriesBySql.get(sql);
+        if (query != null) {
+            return query;
+        }
+
+        String normalized = SqlNormalizer.normalize(sql);
+        query = queries.get(normalized);
+        if (query == null) {
+            query = queries.computeIfAbsent(queries.size() < maxQueries ? normalized : OTHER, Query::new);
+        }
+        // Raw statements vary more than normalized ones (literals), the map is only a shortcut so it stops growing
+        if (queriesBySql.size() < maxQueries * 4) {
+            queriesBySql.putIfAbsent(sql, query);
+        }
+        return query;
+    }
+
+    int statementCacheSize() {
+        return statementCacheSize;
+    }
+
+    void recordStatementCache(boolean hit) {
+        (hit ? statementCacheHits : statementCacheMisses).increment();
+    }
+
+    private double statementCacheHitRatio() {
+        double hits = statementCacheHits.count();
+        double total = hits + statementCacheMisses.count();
+        return total == 0 ? 0 : hits / total;
+    }
+
+    public final class Query {
+
+        private final String sql;
+        private final Timer execution;
+        private final Timer fetch;
+        private final Counter slow;
+
+        private Query(String sql) {
+            this.sql = sql;
+            execution = Timer.builder("mvc.jdbc.query")
+                    .description("Statement execution time")
+                    .tag("sql", sql)
+                    .register(registry);
+            fetch = Timer.builder("mvc.jdbc.query.fetch")
+                    .description("Time from execution until the statement is closed, i.e. reading and mapping its rows")
+                    .tag("sql", sql)
+                    .register(registry);
+            slow = Counter.builder("mvc.jdbc.query.slow")
+                    .description("Executions over the slow query threshold")
+                    .tag("sql", sql)
+                    .register(registry);
+        }
+
+        public String sql() {
+            return sql;
+        }
+
+        void recordExecution(long nanos) {
+            execution.record(nanos, TimeUnit.NANOSECONDS);
+            if (nanos >= slowQueryNanos || nanos >= verySlowQueryNanos) {
+                slow.increment();
+                if (nanos >= verySlowQueryNanos) {
+                    log.warn("Very slow query ({} ms): {}", TimeUnit.NANOSECONDS.toMillis(nanos), sql);
+                } else {
+                    log.info("Slow query ({} ms): {}", TimeUnit.NANOSECONDS.toMillis(nanos), sql);
+                }
+            }
+        }
+
+        void recordFetch(long nanos) {
+            fetch.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.spring.mvc.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Statement timings for the application's DataSource when mvc.jdbc-metrics.enabled=true. Whichever bean is
+// named dataSource - Spring Boot's pool, the read/write router or the shard router - is wrapped in an
+// InstrumentedDataSource, so every repository goes through it.
+@Configuration
+@ConditionalOnProperty(name = "mvc.jdbc-metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class JdbcMetricsConfig {
+
+    @Value("${mvc.jdbc-metrics.slow-query-threshold:100ms}")
+    private Duration slowQueryThreshold;
+
+    @Value("${mvc.jdbc-metrics.very-slow-query-threshold:1s}")
+    private Duration verySlowQueryThreshold;
+
+    @Value("${mvc.jdbc-metrics.max-queries:200}")
+    private int maxQueries;
+
+    @Value("${mvc.jdbc-metrics.statement-cache-size:8}")
+    private int statementCacheSize;
+
+    @Bean
+    public JdbcMetrics jdbcMetrics(MeterRegistry registry) {
+        return new JdbcMetrics(registry, slowQueryThreshold, verySlowQueryThreshold, maxQueries, statementCacheSize);
+    }
+
+    // Static, and the metrics looked up only once the DataSource exists, so this post processor doesn't pull
+    // the meter registry and its dependencies in ahead of the other post processors
+    @Bean
+    public static BeanPostProcessor instrumentedDataSourcePostProcessor(ObjectProvider<JdbcMetrics> jdbcMetrics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && beanName.equals("dataSource")) {
+                    return new InstrumentedDataSource(dataSource, jdbcMetrics.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package com.spring.mvc.datasource;
+
+import org.springframework.core.task.TaskDecorator;
+
+// Marks the current thread's work as needing the primary even for read-only transactions - set for a client's
+// requests shortly after its own write, so it reads what it wrote however far the replica lags
+public final class PrimaryPin {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    // Carries the submitting thread's pin over to the thread that runs the task
+    public static final TaskDecorator PROPAGATING = task -> {
+        boolean pinned = isPinned();
+        return () -> {
+            Boolean previous = PINNED.get();
+            set(pinned);
+            try {
+                task.run();
+            } finally {
+                set(previous != null && previous);
+            }
+        };
+    };
+
+    private PrimaryPin() {
+    }
+
+    public static boolean isPinned() {
+        return Boolean.TRUE.equals(PINNED.get());
+    }
+
+    public static void set(boolean pinned) {
+        if (pinned) {
+            PINNED.set(Boolean.TRUE);
+        } else {
+            PINNED.remove();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.spring.mvc.datasource;
+
+import com.spring.mvc.admission.ClientIdentity;
+import com.spring.mvc.cache.ResponseCache;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Optional;
+
+// Read/write splitting when mvc.datasource.replica.enabled=true: spring.datasource.* stays the primary pool,
+// mvc.datasource.replica.* configures a second pool for read-only transactions. Without it the application
+// uses Spring Boot's single auto-configured DataSource as before.
+@Configuration
+@ConditionalOnProperty(name = "mvc.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    // How far the replica may trail the primary; the read-your-writes window
+    @Value("${mvc.datasource.replica.max-lag:2s}")
+    private Duration maxLag;
+
+    @Value("${mvc.admission.client-header:X-Client-Id}")
+    private String clientHeader;
+
+    @Value("${mvc.admission.trusted-proxies:}")
+    private String trustedProxies;
+
+    @Value("${mvc.admission.max-clients:10000}")
+    private int maxClients;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary"); // Pairs with "replica" in the hikaricp metrics, spring.datasource.hikari.pool-name wins
+        return primary;
+    }
+
+    // jdbc-url, username, password and any other HikariConfig property, e.g. mvc.datasource.replica.maximum-pool-size
+    @Bean
+    @ConfigurationProperties("mvc.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource));
+    }
+
+    // Picked up by ControllerExecutorsConfig so pins survive the hop to the executor threads
+    @Bean
+    public TaskDecorator primaryPinPropagation() {
+        return PrimaryPin.PROPAGATING;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter() {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(new ClientIdentity(clientHeader, trustedProxies), maxLag, maxClients));
+        registration.addUrlPatterns("/api/v1/beer", "/api/v1/beer/*", "/api/v1/customer", "/api/v1/customer/*");
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public ReplicaLagCacheInvalidator replicaLagCacheInvalidator(@Qualifier("beerResponseCache") Optional<ResponseCache> beerResponseCache,
+                                                                 @Qualifier("customerResponseCache") Optional<ResponseCache> customerResponseCache) {
+        return new ReplicaLagCacheInvalidator(maxLag, beerResponseCache, customerResponseCache);
+    }
+}
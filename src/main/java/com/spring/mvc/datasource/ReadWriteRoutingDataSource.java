@@ -0,0 +1,49 @@
+package com.spring.mvc.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+// Sends read-only transactions (@Transactional(readOnly = true), and Spring Data's own finders) to the replica
+// and everything else to the primary. It must sit behind a LazyConnectionDataSourceProxy: the JPA transaction
+// manager asks for a connection before it marks the transaction read-only, the proxy defers that until the
+// first statement. Reads pinned by PrimaryPin, and reads while the replica can't hand out a connection, go to
+// the primary.
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final DataSource primary;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        this.primary = primary;
+        setTargetDataSources(Map.of(DataSourceRoute.PRIMARY, primary, DataSourceRoute.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected DataSourceRoute determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !PrimaryPin.isPinned()
+                ? DataSourceRoute.REPLICA
+                : DataSourceRoute.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        if (target == primary) {
+            return primary.getConnection();
+        }
+        try {
+            return target.getConnection();
+        } catch (SQLException e) {
+            log.warn("Replica unavailable, reading from the primary: {}", e.getMessage());
+            return primary.getConnection();
+        }
+    }
+}
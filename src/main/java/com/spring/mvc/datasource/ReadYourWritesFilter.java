@@ -0,0 +1,88 @@
+package com.spring.mvc.datasource;
+
+import com.spring.mvc.admission.ClientIdentity;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Pins a client's requests to the primary for maxLag after its last write, so a client never reads from a
+// replica that hasn't caught up with its own change. Clients are told apart like admission control does
+// (see ClientIdentity). A write counts from when it starts until maxLag after it completes.
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final ClientIdentity clientIdentity;
+    private final long maxLagNanos;
+    private final int maxClients;
+
+    // Client -> System.nanoTime() of its last write
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWritesFilter(ClientIdentity clientIdentity, Duration maxLag, int maxClients) {
+        this.clientIdentity = clientIdentity;
+        this.maxLagNanos = maxLag.toNanos();
+        this.maxClients = maxClients;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String client = clientIdentity.of(request);
+        boolean write = !"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod());
+        if (write) {
+            recordWrite(client);
+        }
+
+        PrimaryPin.set(write || wroteRecently(client));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            PrimaryPin.set(false);
+        }
+
+        if (write && request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    recordWrite(client);
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+        } else if (write) {
+            recordWrite(client);
+        }
+    }
+
+    boolean wroteRecently(String client) {
+        Long lastWrite = lastWrites.get(client);
+        return lastWrite != null && System.nanoTime() - lastWrite < maxLagNanos;
+    }
+
+    private void recordWrite(String client) {
+        long now = System.nanoTime();
+        lastWrites.put(client, now);
+        // Past maxClients, forget the clients whose window is over; the map only holds recent writers
+        if (lastWrites.size() > maxClients) {
+            lastWrites.values().removeIf(lastWrite -> now - lastWrite >= maxLagNanos);
+        }
+    }
+}
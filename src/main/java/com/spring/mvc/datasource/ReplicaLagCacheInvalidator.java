@@ -0,0 +1,85 @@
+package com.spring.mvc.datasource;
+
+import com.spring.mvc.cache.ResponseCache;
+import com.spring.mvc.events.BeerChangedEvent;
+import com.spring.mvc.events.CustomerChangedEvent;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// A list rendered from a lagging replica just after a write would sit in the response cache until the next
+// write. Dropping the resource's cache again once maxLag has passed since its last write clears any such entry;
+// a burst of writes shares one delayed invalidation, pushed back until the burst is maxLag old.
+public class ReplicaLagCacheInvalidator implements AutoCloseable {
+
+    private final long maxLagNanos;
+    private final Resource beers;
+    private final Resource customers;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("replica-lag-invalidator").factory());
+
+    public ReplicaLagCacheInvalidator(Duration maxLag, Optional<ResponseCache> beerResponseCache,
+                                      Optional<ResponseCache> customerResponseCache) {
+        this.maxLagNanos = maxLag.toNanos();
+        this.beers = beerResponseCache.map(Resource::new).orElse(null);
+        this.customers = customerResponseCache.map(Resource::new).orElse(null);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChanged(BeerChangedEvent event) {
+        if (beers != null) {
+            beers.written();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        if (customers != null) {
+            customers.written();
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private final class Resource {
+
+        private final ResponseCache cache;
+        private final AtomicLong lastWrite = new AtomicLong();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        Resource(ResponseCache cache) {
+            this.cache = cache;
+        }
+
+        void written() {
+            lastWrite.set(System.nanoTime());
+            if (scheduled.compareAndSet(false, true)) {
+                scheduler.schedule(this::expire, maxLagNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private void expire() {
+            cache.invalidate();
+            long remaining = lastWrite.get() + maxLagNanos - System.nanoTime();
+            if (remaining > 0) {
+                scheduler.schedule(this::expire, remaining, TimeUnit.NANOSECONDS);
+                return;
+            }
+            scheduled.set(false);
+            // A write that still saw scheduled set just now isn't covered yet
+            remaining = lastWrite.get() + maxLagNanos - System.nanoTime();
+            if (remaining > 0 && scheduled.compareAndSet(false, true)) {
+                scheduler.schedule(this::expire, remaining, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
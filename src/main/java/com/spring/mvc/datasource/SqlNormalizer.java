@@ -0,0 +1,56 @@
+package com.spring.mvc.datasource;
+
+import java.util.regex.Pattern;
+
+// Turns SQL into the key queries are timed under: literals become ?, whitespace runs one space and an in-list
+// of any length (?, ?, ...) a single (?), so one statement shape is one key whatever its parameters
+final class SqlNormalizer {
+
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\?(?: ?, ?\\?)+\\)");
+
+    private SqlNormalizer() {
+    }
+
+    static String normalize(String sql) {
+        StringBuilder normalized = new StringBuilder(sql.length());
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                while (i < length && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                if (!normalized.isEmpty() && i < length) {
+                    normalized.append(' ');
+                }
+            } else if (c == '\'') {
+                // '' inside a literal is an escaped quote
+                i++;
+                while (i < length && (sql.charAt(i) != '\'' || (i + 1 < length && sql.charAt(i + 1) == '\''))) {
+                    i += sql.charAt(i) == '\'' ? 2 : 1;
+                }
+                i++;
+                normalized.append('?');
+            } else if (Character.isDigit(c) && !partOfIdentifier(normalized)) {
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                normalized.append('?');
+            } else {
+                normalized.append(c);
+                i++;
+            }
+        }
+        return PARAMETER_LIST.matcher(normalized).replaceAll("(?)");
+    }
+
+    // Digits right after a letter, digit or _ belong to a name such as b1_0
+    private static boolean partOfIdentifier(StringBuilder normalized) {
+        if (normalized.isEmpty()) {
+            return false;
+        }
+        char previous = normalized.charAt(normalized.length() - 1);
+        return Character.isLetterOrDigit(previous) || previous == '_';
+    }
+}
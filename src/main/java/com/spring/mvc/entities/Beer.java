@@ -1,14 +1,17 @@
 package com.spring.mvc.entities;
 
 import com.spring.mvc.model.BeerStyle;
+import com.spring.mvc.model.Money;
+import com.spring.mvc.sharding.ShardedUuid;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.*;
-import org.hibernate.annotations.UuidGenerator;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -16,12 +19,22 @@ import java.util.UUID;
 @Getter // Use @Getter and @Setter annotations as you shouldn't use @Data in Entities
 @Setter //
 @Entity
+// UPDATEs list only the columns that changed, so a patch to one field doesn't rewrite the row
+@DynamicUpdate
+// Delta sync (GET /api/v1/beer/changes?since=) range-scans on changeSeq, stats percentiles walk price,
+// scanner lookups (GET /api/v1/beer/upc/{upc}) probe upc, which the index also keeps unique, and
+// GET /api/v1/beer/low-stock reads the head of quantityOnHand order
+@Table(indexes = {
+        @Index(name = "ix_beer_change_seq", columnList = "changeSeq"),
+        @Index(name = "ix_beer_price", columnList = "price"),
+        @Index(name = "ux_beer_upc", columnList = "upc", unique = true),
+        @Index(name = "ix_beer_quantity_on_hand", columnList = "quantityOnHand, id")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 public class Beer {
     @Id // Needed in Entities
-    @GeneratedValue(generator = "UUID") // Automatically generates a unique identifier using a UUID strategy
-    @UuidGenerator // Specifies that this field should be automatically populated with a unique UUID value
+    @ShardedUuid // Automatically generates a random UUID, one that hashes to the shard being written when beers are sharded
     // @Column defines a database column with a fixed length of 36 characters, stored as a VARCHAR type, and ensures the value cannot be updated or left null
     @Column(length = 36, columnDefinition = "varchar", updatable = false, nullable = false)
     private UUID id;
@@ -48,7 +61,18 @@ public class Beer {
     private Integer quantityOnHand;
 
     @NotNull
-    private BigDecimal price;
+    private Money price;
+
+    @CreationTimestamp
+    @Column(updatable = false)
     private LocalDateTime createdDate;
+
+    // Maintained by Hibernate on every insert and every flushed update, whatever code path changed the row
+    @UpdateTimestamp
     private LocalDateTime updateDate;
+
+    // Delta-sync position of the last change made through BeerServiceJPA, set by ChangeSequencer as the write
+    // commits; null for rows written any other way (seed data, copies moved by resharding)
+    @Column(insertable = false, updatable = false)
+    private Long changeSeq;
 }
@@ -0,0 +1,39 @@
+package com.spring.mvc.entities;
+
+import com.spring.mvc.model.Money;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// A beer's price and stock from validFrom until its next row. Insert-only (@Immutable, no foreign key to
+// beer so deletes leave the history alone), which also lets the table be range-partitioned on validFrom.
+// As-of reads and per-beer listings seek ix_beer_history_beer_valid_from instead of scanning the history.
+@Builder
+@Getter
+@Setter
+@Entity
+@Immutable
+@Table(name = "beer_history", indexes = @Index(name = "ix_beer_history_beer_valid_from", columnList = "beerId, validFrom"))
+@AllArgsConstructor
+@NoArgsConstructor
+public class BeerHistory {
+
+    // From a pooled sequence rather than an identity column, so Hibernate can batch the inserts
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "beer_history_seq")
+    @SequenceGenerator(name = "beer_history_seq", sequenceName = "beer_history_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(length = 36, columnDefinition = "varchar", nullable = false, updatable = false)
+    private UUID beerId;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime validFrom;
+
+    private Money price;
+
+    private Integer quantityOnHand;
+}
@@ -0,0 +1,34 @@
+package com.spring.mvc.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+// How many shards beers are spread over (mvc.sharding.*), one row on shard 0. It outlives the configuration so
+// a restart keeps the layout the rows are actually in, and finishes a resharding that was interrupted:
+// previousShardCount differs from shardCount while beers are moving.
+@Builder
+@Getter
+@Setter
+@Entity
+@Table(name = "beer_shard_layout")
+@AllArgsConstructor
+@NoArgsConstructor
+public class BeerShardLayout {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private Integer shardCount;
+
+    @Column(nullable = false)
+    private Integer previousShardCount;
+
+    @UpdateTimestamp
+    private LocalDateTime updateDate;
+}
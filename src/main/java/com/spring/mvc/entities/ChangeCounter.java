@@ -0,0 +1,25 @@
+package com.spring.mvc.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// The delta-sync positions of one database, a row per kind of change (Tombstone.BEER, Tombstone.CUSTOMER).
+// Every write bumps its row as the last step before it commits, and the row lock it takes is held until the
+// commit, so the positions come out in commit order: once a reader sees lastSeq, every change up to it has
+// committed.
+@Builder
+@Getter
+@Setter
+@Entity
+@Table(name = "change_counter")
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChangeCounter {
+
+    @Id
+    @Column(length = 20)
+    private String name;
+
+    @Column(nullable = false)
+    private Long lastSeq;
+}
@@ -2,6 +2,9 @@ package com.spring.mvc.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.annotations.UuidGenerator;
 
 import java.time.LocalDateTime;
@@ -11,6 +14,8 @@ import java.util.UUID;
 @Getter
 @Setter
 @Entity
+@DynamicUpdate
+@Table(indexes = @Index(name = "ix_customer_change_seq", columnList = "changeSeq"))
 @AllArgsConstructor
 @NoArgsConstructor
 public class Customer {
@@ -23,7 +28,15 @@ public class Customer {
     @Version
     private Integer version;
     private String name;
+
+    @CreationTimestamp
+    @Column(updatable = false)
     private LocalDateTime createdDate;
+
+    @UpdateTimestamp
     private LocalDateTime lastModifiedDate;
 
+    // See Beer.changeSeq
+    @Column(insertable = false, updatable = false)
+    private Long changeSeq;
 }
\ No newline at end of file
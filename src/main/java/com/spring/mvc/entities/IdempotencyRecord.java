@@ -0,0 +1,35 @@
+package com.spring.mvc.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+// A completed idempotent write (see JpaIdempotencyStore); the key and fingerprint are SHA-256 hex
+@Builder
+@Getter
+@Setter
+@Entity
+@Table(indexes = @Index(name = "ix_idempotency_record_expires_at", columnList = "expiresAt"))
+@AllArgsConstructor
+@NoArgsConstructor
+public class IdempotencyRecord {
+
+    @Id
+    @Column(length = 64, updatable = false, nullable = false)
+    private String idempotencyKey;
+
+    @Column(length = 64, nullable = false)
+    private String fingerprint;
+
+    private int status;
+
+    private String location;
+
+    @CreationTimestamp
+    private LocalDateTime createdDate;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,48 @@
+package com.spring.mvc.entities;
+
+import com.spring.mvc.events.ChangeType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// A Beer or Customer change written in the same transaction as the change itself, waiting for OutboxRelay
+// to copy it into the outbox log. Rows are deleted once relayed, so the table only holds the backlog.
+@Builder
+@Getter
+@Setter
+@Entity
+@Table(name = "outbox_event")
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxEvent {
+
+    public static final String BEER = "BEER";
+    public static final String CUSTOMER = "CUSTOMER";
+
+    // Pooled sequence so the insert joins the writer's JDBC batch; also the event id consumers dedupe on
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(length = 20, nullable = false, updatable = false)
+    private String aggregateType;
+
+    @Column(length = 36, columnDefinition = "varchar", nullable = false, updatable = false)
+    private UUID aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false, updatable = false)
+    private ChangeType changeType;
+
+    // The changed DTO as JSON, null for DELETED
+    @Lob
+    @Column(updatable = false)
+    private String payload;
+
+    @CreationTimestamp
+    private LocalDateTime createdDate;
+}
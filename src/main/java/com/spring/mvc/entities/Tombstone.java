@@ -0,0 +1,45 @@
+package com.spring.mvc.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Records a deleted Beer or Customer so delta-sync clients learn about deletes
+@Builder
+@Getter
+@Setter
+@Entity
+@Table(indexes = {
+        @Index(name = "ix_tombstone_type_deleted_date", columnList = "entityType, deletedDate"),
+        @Index(name = "ix_tombstone_type_change_seq", columnList = "entityType, changeSeq")
+})
+@AllArgsConstructor
+@NoArgsConstructor
+public class Tombstone {
+
+    public static final String BEER = "BEER";
+    public static final String CUSTOMER = "CUSTOMER";
+
+    @Id
+    @GeneratedValue(generator = "UUID")
+    @UuidGenerator
+    @Column(length = 36, columnDefinition = "varchar", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(length = 20, nullable = false)
+    private String entityType;
+
+    @Column(length = 36, columnDefinition = "varchar", nullable = false)
+    private UUID entityId;
+
+    @CreationTimestamp
+    private LocalDateTime deletedDate;
+
+    // See Beer.changeSeq
+    @Column(insertable = false, updatable = false)
+    private Long changeSeq;
+}
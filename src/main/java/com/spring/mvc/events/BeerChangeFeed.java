@@ -0,0 +1,19 @@
+package com.spring.mvc.events;
+
+import com.spring.mvc.model.BeerDTO;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+public class BeerChangeFeed extends ChangeFeed<BeerDTO> {
+
+    public BeerChangeFeed() {
+        super("Beer");
+    }
+
+    // Runs after commit when the write was transactional, straight away otherwise
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChanged(BeerChangedEvent event) {
+        publish(event.type(), event.beerId(), event.beer());
+    }
+}
@@ -0,0 +1,9 @@
+package com.spring.mvc.events;
+
+import com.spring.mvc.model.BeerDTO;
+
+import java.util.UUID;
+
+// Published by BeerService implementations after every write. beer is null for DELETED.
+public record BeerChangedEvent(ChangeType type, UUID beerId, BeerDTO beer) {
+}
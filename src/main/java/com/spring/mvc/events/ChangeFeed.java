@@ -0,0 +1,204 @@
+package com.spring.mvc.events;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Fans change events out to server-sent-event subscribers.
+// Each subscriber gets a bounded queue drained by its own virtual thread, so an idle connection costs
+// a parked virtual thread and no Tomcat thread. A subscriber whose queue fills up is disconnected rather
+// than slowing down publishers or other subscribers; it can reconnect with Last-Event-ID and resume.
+@Slf4j
+public abstract class ChangeFeed<T> {
+
+    private final String name;
+
+    // Event ids are "<epoch>-<sequence>", the epoch changes on every restart so stale ids are detected
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final ArrayDeque<Event<T>> recent = new ArrayDeque<>(); // guarded by this
+    private long sequence; // guarded by this
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    @Value("${mvc.change-feed.replay-size:1024}")
+    private int replaySize = 1024;
+
+    @Value("${mvc.change-feed.buffer-size:256}")
+    private int bufferSize = 256;
+
+    @Value("${mvc.change-feed.heartbeat-interval:15s}")
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    @Value("${mvc.change-feed.timeout:30m}")
+    private Duration timeout = Duration.ofMinutes(30);
+
+    protected ChangeFeed(String name) {
+        this.name = name;
+    }
+
+    public void publish(ChangeType type, UUID id, T data) {
+        // Publishing and subscribing share one lock so a new subscriber sees every event exactly once,
+        // either in its replay or live. Offering to a subscriber never blocks.
+        synchronized (this) {
+            Event<T> event = new Event<>(++sequence, new ChangeFeedEntry<>(type, id, data));
+
+            recent.addLast(event);
+            if (recent.size() > replaySize) {
+                recent.removeFirst();
+            }
+
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+
+        synchronized (this) {
+            List<Event<T>> missed = missedSince(lastEventId);
+
+            if (missed == null || missed.size() > bufferSize) {
+                // Can't resume from the client's position, tell it to resync and continue from here
+                subscriber.resetId = eventId(sequence);
+            } else {
+                missed.forEach(subscriber::offer);
+            }
+            subscribers.add(subscriber);
+        }
+
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        subscriber.thread = Thread.ofVirtual().name(name + "-change-feed").start(subscriber);
+
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // Returns the buffered events after lastEventId, or null when they are no longer available
+    private List<Event<T>> missedSince(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return List.of();
+        }
+
+        int separator = lastEventId.indexOf('-');
+        if (separator < 0 || !lastEventId.substring(0, separator).equals(epoch)) {
+            return null;
+        }
+
+        long lastSequence;
+        try {
+            lastSequence = Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        long oldest = recent.isEmpty() ? sequence + 1 : recent.getFirst().sequence();
+        if (lastSequence < oldest - 1 || lastSequence > sequence) {
+            return null;
+        }
+
+        List<Event<T>> missed = new ArrayList<>();
+        for (Event<T> event : recent) {
+            if (event.sequence() > lastSequence) {
+                missed.add(event);
+            }
+        }
+        return missed;
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    private record Event<T>(long sequence, ChangeFeedEntry<T> entry) {
+    }
+
+    private final class Subscriber implements Runnable {
+
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Event<T>> queue = new ArrayBlockingQueue<>(bufferSize);
+
+        private volatile Thread thread;
+        private volatile boolean closed;
+        private volatile boolean evicted;
+        private String resetId;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Event<T> event) {
+            if (!closed && !queue.offer(event)) {
+                log.debug("Evicting slow {} change feed subscriber", name);
+                evicted = true;
+                close();
+            }
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+
+            Thread current = thread;
+            if (current != null) {
+                current.interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (resetId != null) {
+                    emitter.send(SseEmitter.event().id(resetId).name("reset").data("resync"));
+                }
+
+                while (!closed) {
+                    Event<T> event = queue.poll(heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+
+                    if (event == null) {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    } else {
+                        emitter.send(SseEmitter.event()
+                                .id(eventId(event.sequence()))
+                                .name(event.entry().type().name().toLowerCase(Locale.ROOT))
+                                .data(event.entry(), MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the emitter already completed
+                log.debug("{} change feed subscriber disconnected: {}", name, e.getMessage());
+            } finally {
+                closed = true;
+                subscribers.remove(this);
+
+                if (evicted) {
+                    emitter.complete();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.spring.mvc.events;
+
+import java.util.UUID;
+
+// Body of one server-sent event on a change feed
+public record ChangeFeedEntry<T>(ChangeType type, UUID id, T data) {
+}
@@ -0,0 +1,5 @@
+package com.spring.mvc.events;
+
+public enum ChangeType {
+    CREATED, UPDATED, PATCHED, DELETED
+}
@@ -0,0 +1,18 @@
+package com.spring.mvc.events;
+
+import com.spring.mvc.model.CustomerDTO;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+public class CustomerChangeFeed extends ChangeFeed<CustomerDTO> {
+
+    public CustomerChangeFeed() {
+        super("Customer");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        publish(event.type(), event.customerId(), event.customer());
+    }
+}
@@ -0,0 +1,9 @@
+package com.spring.mvc.events;
+
+import com.spring.mvc.model.CustomerDTO;
+
+import java.util.UUID;
+
+// Published by CustomerService implementations after every write. customer is null for DELETED.
+public record CustomerChangedEvent(ChangeType type, UUID customerId, CustomerDTO customer) {
+}
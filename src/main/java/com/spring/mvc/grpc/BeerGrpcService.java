@@ -0,0 +1,110 @@
+package com.spring.mvc.grpc;
+
+import com.google.protobuf.Empty;
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.services.BeerService;
+import io.grpc.BindableService;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.stub.ServerCalls;
+import io.grpc.stub.StreamObserver;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// com.spring.mvc.catalog.v1.BeerService over the same BeerService bean as BeerController
+@Component
+@ConditionalOnProperty(name = "mvc.grpc.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class BeerGrpcService implements BindableService {
+
+    private final BeerService beerService;
+
+    private final Validator validator;
+
+    @Override
+    public ServerServiceDefinition bindService() {
+        return ServerServiceDefinition.builder(CatalogGrpc.BEER_SERVICE)
+                .addMethod(CatalogGrpc.GET_BEER, ServerCalls.asyncUnaryCall(this::getBeer))
+                .addMethod(CatalogGrpc.CREATE_BEER, ServerCalls.asyncUnaryCall(this::createBeer))
+                .addMethod(CatalogGrpc.UPDATE_BEER, ServerCalls.asyncUnaryCall(this::updateBeer))
+                .addMethod(CatalogGrpc.PATCH_BEER, ServerCalls.asyncUnaryCall(this::patchBeer))
+                .addMethod(CatalogGrpc.DELETE_BEER, ServerCalls.asyncUnaryCall(this::deleteBeer))
+                .addMethod(CatalogGrpc.LIST_BEERS, ServerCalls.asyncServerStreamingCall(this::listBeers))
+                .addMethod(CatalogGrpc.CREATE_BEERS, ServerCalls.asyncClientStreamingCall(this::createBeers))
+                .build();
+    }
+
+    void getBeer(UUID id, StreamObserver<BeerDTO> observer) {
+        GrpcCalls.respond(observer, () -> beerService.getBeerById(GrpcCalls.requireId(id))
+                .orElseThrow(() -> GrpcCalls.notFound(id)));
+    }
+
+    void createBeer(BeerDTO beer, StreamObserver<BeerDTO> observer) {
+        GrpcCalls.respond(observer, () -> beerService.saveNewBeer(GrpcCalls.validate(validator, beer)));
+    }
+
+    void updateBeer(BeerDTO beer, StreamObserver<BeerDTO> observer) {
+        GrpcCalls.respond(observer, () -> {
+            UUID id = GrpcCalls.requireId(beer.getId());
+            return beerService.updateBeerById(id, GrpcCalls.validate(validator, beer))
+                    .orElseThrow(() -> GrpcCalls.notFound(id));
+        });
+    }
+
+    void patchBeer(BeerDTO beer, StreamObserver<BeerDTO> observer) {
+        GrpcCalls.respond(observer, () -> {
+            UUID id = GrpcCalls.requireId(beer.getId());
+            return beerService.patchBeerById(id, beer).orElseThrow(() -> GrpcCalls.notFound(id));
+        });
+    }
+
+    void deleteBeer(UUID id, StreamObserver<Empty> observer) {
+        GrpcCalls.respond(observer, () -> {
+            if (!beerService.deleteBeerById(GrpcCalls.requireId(id))) {
+                throw GrpcCalls.notFound(id);
+            }
+            return Empty.getDefaultInstance();
+        });
+    }
+
+    void listBeers(Empty request, StreamObserver<BeerDTO> observer) {
+        GrpcCalls.stream(beerService.listBeers(), observer);
+    }
+
+    StreamObserver<BeerDTO> createBeers(StreamObserver<List<BeerDTO>> observer) {
+        return new StreamObserver<>() {
+            private final List<BeerDTO> beers = new ArrayList<>();
+            private boolean failed;
+
+            @Override
+            public void onNext(BeerDTO beer) {
+                if (failed) {
+                    return;
+                }
+                try {
+                    beers.add(GrpcCalls.validate(validator, beer));
+                } catch (RuntimeException e) {
+                    failed = true;
+                    observer.onError(e);
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                // The client cancelled or failed, nothing has been saved
+            }
+
+            @Override
+            public void onCompleted() {
+                if (!failed) {
+                    GrpcCalls.respond(observer, () -> beers.stream().map(beerService::saveNewBeer).toList());
+                }
+            }
+        };
+    }
+}
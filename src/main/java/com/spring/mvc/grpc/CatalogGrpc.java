@@ -0,0 +1,122 @@
+package com.spring.mvc.grpc;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.Empty;
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.CustomerDTO;
+import com.spring.mvc.protobuf.CatalogProtobuf;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+
+// The methods of the BeerService and CustomerService gRPC services in proto/catalog.proto, with marshallers that
+// go through CatalogProtobuf - what protoc would generate as BeerServiceGrpc/CustomerServiceGrpc, minus the message
+// classes. Clients in this codebase (and the tests) call them with io.grpc.stub.ClientCalls.
+public final class CatalogGrpc {
+
+    public static final String BEER_SERVICE = "com.spring.mvc.catalog.v1.BeerService";
+    public static final String CUSTOMER_SERVICE = "com.spring.mvc.catalog.v1.CustomerService";
+
+    private static final MethodDescriptor.Marshaller<UUID> ID = new Marshaller<>(
+            id -> CatalogProtobuf.idSize(), CatalogProtobuf::writeId, CatalogProtobuf::readId);
+    private static final MethodDescriptor.Marshaller<Empty> EMPTY = new Marshaller<>(
+            empty -> 0, (empty, out) -> { }, in -> {
+                in.skipMessage();
+                return Empty.getDefaultInstance();
+            });
+    private static final MethodDescriptor.Marshaller<BeerDTO> BEER = new Marshaller<>(
+            CatalogProtobuf::beerSize, CatalogProtobuf::writeBeer, CatalogProtobuf::readBeer);
+    private static final MethodDescriptor.Marshaller<List<BeerDTO>> BEER_LIST = new Marshaller<>(
+            CatalogProtobuf::beersSize, CatalogProtobuf::writeBeers, CatalogProtobuf::readBeers);
+    private static final MethodDescriptor.Marshaller<CustomerDTO> CUSTOMER = new Marshaller<>(
+            CatalogProtobuf::customerSize, CatalogProtobuf::writeCustomer, CatalogProtobuf::readCustomer);
+    private static final MethodDescriptor.Marshaller<List<CustomerDTO>> CUSTOMER_LIST = new Marshaller<>(
+            CatalogProtobuf::customersSize, CatalogProtobuf::writeCustomers, CatalogProtobuf::readCustomers);
+
+    public static final MethodDescriptor<UUID, BeerDTO> GET_BEER = unary(BEER_SERVICE, "GetBeer", ID, BEER);
+    public static final MethodDescriptor<BeerDTO, BeerDTO> CREATE_BEER = unary(BEER_SERVICE, "CreateBeer", BEER, BEER);
+    public static final MethodDescriptor<BeerDTO, BeerDTO> UPDATE_BEER = unary(BEER_SERVICE, "UpdateBeer", BEER, BEER);
+    public static final MethodDescriptor<BeerDTO, BeerDTO> PATCH_BEER = unary(BEER_SERVICE, "PatchBeer", BEER, BEER);
+    public static final MethodDescriptor<UUID, Empty> DELETE_BEER = unary(BEER_SERVICE, "DeleteBeer", ID, EMPTY);
+    public static final MethodDescriptor<Empty, BeerDTO> LIST_BEERS =
+            method(MethodDescriptor.MethodType.SERVER_STREAMING, BEER_SERVICE, "ListBeers", EMPTY, BEER);
+    public static final MethodDescriptor<BeerDTO, List<BeerDTO>> CREATE_BEERS =
+            method(MethodDescriptor.MethodType.CLIENT_STREAMING, BEER_SERVICE, "CreateBeers", BEER, BEER_LIST);
+
+    public static final MethodDescriptor<UUID, CustomerDTO> GET_CUSTOMER =
+            unary(CUSTOMER_SERVICE, "GetCustomer", ID, CUSTOMER);
+    public static final MethodDescriptor<CustomerDTO, CustomerDTO> CREATE_CUSTOMER =
+            unary(CUSTOMER_SERVICE, "CreateCustomer", CUSTOMER, CUSTOMER);
+    public static final MethodDescriptor<CustomerDTO, CustomerDTO> UPDATE_CUSTOMER =
+            unary(CUSTOMER_SERVICE, "UpdateCustomer", CUSTOMER, CUSTOMER);
+    public static final MethodDescriptor<CustomerDTO, CustomerDTO> PATCH_CUSTOMER =
+            unary(CUSTOMER_SERVICE, "PatchCustomer", CUSTOMER, CUSTOMER);
+    public static final MethodDescriptor<UUID, Empty> DELETE_CUSTOMER =
+            unary(CUSTOMER_SERVICE, "DeleteCustomer", ID, EMPTY);
+    public static final MethodDescriptor<Empty, CustomerDTO> LIST_CUSTOMERS =
+            method(MethodDescriptor.MethodType.SERVER_STREAMING, CUSTOMER_SERVICE, "ListCustomers", EMPTY, CUSTOMER);
+    public static final MethodDescriptor<CustomerDTO, List<CustomerDTO>> CREATE_CUSTOMERS =
+            method(MethodDescriptor.MethodType.CLIENT_STREAMING, CUSTOMER_SERVICE, "CreateCustomers", CUSTOMER, CUSTOMER_LIST);
+
+    private CatalogGrpc() {
+    }
+
+    private static <Q, R> MethodDescriptor<Q, R> unary(String service, String name, MethodDescriptor.Marshaller<Q> request,
+                                                       MethodDescriptor.Marshaller<R> response) {
+        return method(MethodDescriptor.MethodType.UNARY, service, name, request, response);
+    }
+
+    private static <Q, R> MethodDescriptor<Q, R> method(MethodDescriptor.MethodType type, String service, String name,
+                                                        MethodDescriptor.Marshaller<Q> request,
+                                                        MethodDescriptor.Marshaller<R> response) {
+        return MethodDescriptor.<Q, R>newBuilder()
+                .setType(type)
+                .setFullMethodName(MethodDescriptor.generateFullMethodName(service, name))
+                .setRequestMarshaller(request)
+                .setResponseMarshaller(response)
+                .build();
+    }
+
+    private interface Writer<T> {
+        void write(T value, CodedOutputStream out) throws IOException;
+    }
+
+    private interface Reader<T> {
+        T read(CodedInputStream in) throws IOException;
+    }
+
+    // Encodes into an array of exactly the message size, computed up front
+    private record Marshaller<T>(ToIntFunction<T> sizer, Writer<T> writer, Reader<T> reader)
+            implements MethodDescriptor.Marshaller<T> {
+
+        @Override
+        public InputStream stream(T value) {
+            byte[] bytes = new byte[sizer.applyAsInt(value)];
+            CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+            try {
+                writer.write(value, out);
+            } catch (IOException e) {
+                throw Status.INTERNAL.withDescription("Failed to encode " + value).withCause(e).asRuntimeException();
+            }
+            out.checkNoSpaceLeft();
+            return new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public T parse(InputStream stream) {
+            try {
+                return reader.read(CodedInputStream.newInstance(stream));
+            } catch (IOException e) {
+                throw Status.INTERNAL.withDescription("Invalid protobuf message: " + e.getMessage()).withCause(e)
+                        .asRuntimeException();
+            }
+        }
+    }
+}
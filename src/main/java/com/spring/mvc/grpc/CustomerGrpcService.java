@@ -0,0 +1,97 @@
+package com.spring.mvc.grpc;
+
+import com.google.protobuf.Empty;
+import com.spring.mvc.model.CustomerDTO;
+import com.spring.mvc.services.CustomerService;
+import io.grpc.BindableService;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.stub.ServerCalls;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// com.spring.mvc.catalog.v1.CustomerService over the same CustomerService bean as CustomerController.
+// Like the REST endpoints it doesn't validate customers, so CreateCustomers saves as it receives.
+@Component
+@ConditionalOnProperty(name = "mvc.grpc.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class CustomerGrpcService implements BindableService {
+
+    private final CustomerService customerService;
+
+    @Override
+    public ServerServiceDefinition bindService() {
+        return ServerServiceDefinition.builder(CatalogGrpc.CUSTOMER_SERVICE)
+                .addMethod(CatalogGrpc.GET_CUSTOMER, ServerCalls.asyncUnaryCall(this::getCustomer))
+                .addMethod(CatalogGrpc.CREATE_CUSTOMER, ServerCalls.asyncUnaryCall(this::createCustomer))
+                .addMethod(CatalogGrpc.UPDATE_CUSTOMER, ServerCalls.asyncUnaryCall(this::updateCustomer))
+                .addMethod(CatalogGrpc.PATCH_CUSTOMER, ServerCalls.asyncUnaryCall(this::patchCustomer))
+                .addMethod(CatalogGrpc.DELETE_CUSTOMER, ServerCalls.asyncUnaryCall(this::deleteCustomer))
+                .addMethod(CatalogGrpc.LIST_CUSTOMERS, ServerCalls.asyncServerStreamingCall(this::listCustomers))
+                .addMethod(CatalogGrpc.CREATE_CUSTOMERS, ServerCalls.asyncClientStreamingCall(this::createCustomers))
+                .build();
+    }
+
+    void getCustomer(UUID id, StreamObserver<CustomerDTO> observer) {
+        GrpcCalls.respond(observer, () -> customerService.getCustomerById(GrpcCalls.requireId(id))
+                .orElseThrow(() -> GrpcCalls.notFound(id)));
+    }
+
+    void createCustomer(CustomerDTO customer, StreamObserver<CustomerDTO> observer) {
+        GrpcCalls.respond(observer, () -> customerService.saveNewCustomer(customer));
+    }
+
+    void updateCustomer(CustomerDTO customer, StreamObserver<CustomerDTO> observer) {
+        GrpcCalls.respond(observer, () -> {
+            UUID id = GrpcCalls.requireId(customer.getId());
+            return customerService.updateCustomerById(id, customer)
+                    .orElseThrow(() -> GrpcCalls.notFound(id));
+        });
+    }
+
+    void patchCustomer(CustomerDTO customer, StreamObserver<CustomerDTO> observer) {
+        GrpcCalls.respond(observer, () -> {
+            UUID id = GrpcCalls.requireId(customer.getId());
+            return customerService.patchCustomerById(id, customer).orElseThrow(() -> GrpcCalls.notFound(id));
+        });
+    }
+
+    void deleteCustomer(UUID id, StreamObserver<Empty> observer) {
+        GrpcCalls.respond(observer, () -> {
+            if (!customerService.deleteCustomerById(GrpcCalls.requireId(id))) {
+                throw GrpcCalls.notFound(id);
+            }
+            return Empty.getDefaultInstance();
+        });
+    }
+
+    void listCustomers(Empty request, StreamObserver<CustomerDTO> observer) {
+        GrpcCalls.stream(customerService.listCustomers(), observer);
+    }
+
+    StreamObserver<CustomerDTO> createCustomers(StreamObserver<List<CustomerDTO>> observer) {
+        return new StreamObserver<>() {
+            private final List<CustomerDTO> saved = new ArrayList<>();
+
+            @Override
+            public void onNext(CustomerDTO customer) {
+                saved.add(customerService.saveNewCustomer(customer));
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                // The client cancelled or failed, customers received until then stay saved
+            }
+
+            @Override
+            public void onCompleted() {
+                GrpcCalls.respond(observer, () -> saved);
+            }
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package com.spring.mvc.grpc;
+
+import com.spring.mvc.services.DuplicateUpcException;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// What the gRPC services share: status errors in place of the REST layer's NotFoundException/400s, bean
+// validation as @Validated does it, and flow-controlled streaming of list responses.
+final class GrpcCalls {
+
+    private GrpcCalls() {
+    }
+
+    // Completes a unary call with the result, or with the status of a StatusRuntimeException thrown by call
+    // (a duplicate UPC, the REST layer's 409, is ALREADY_EXISTS)
+    static <T> void respond(StreamObserver<T> observer, Supplier<T> call) {
+        T response;
+        try {
+            response = call.get();
+        } catch (StatusRuntimeException e) {
+            observer.onError(e);
+            return;
+        } catch (DuplicateUpcException e) {
+            observer.onError(Status.ALREADY_EXISTS.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+        observer.onNext(response);
+        observer.onCompleted();
+    }
+
+    static StatusRuntimeException notFound(UUID id) {
+        return Status.NOT_FOUND.withDescription("No entry with id " + id).asRuntimeException();
+    }
+
+    static UUID requireId(UUID id) {
+        if (id == null) {
+            throw Status.INVALID_ARGUMENT.withDescription("id is required").asRuntimeException();
+        }
+        return id;
+    }
+
+    static <T> T validate(Validator validator, T value) {
+        Set<ConstraintViolation<T>> violations = validator.validate(value);
+        if (!violations.isEmpty()) {
+            throw Status.INVALID_ARGUMENT.withDescription(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "))).asRuntimeException();
+        }
+        return value;
+    }
+
+    // Sends values only as fast as the client reads them, so a large list never piles up in the transport buffers.
+    // Runs on the call's serialized executor: first from the handler, then each time the call becomes ready again.
+    static <T> void stream(Collection<T> values, StreamObserver<T> responseObserver) {
+        ServerCallStreamObserver<T> observer = (ServerCallStreamObserver<T>) responseObserver;
+        Iterator<T> remaining = values.iterator();
+        boolean[] completed = {false};
+        Runnable drain = () -> {
+            while (observer.isReady() && remaining.hasNext() && !observer.isCancelled()) {
+                observer.onNext(remaining.next());
+            }
+            if (!remaining.hasNext() && !completed[0] && !observer.isCancelled()) {
+                completed[0] = true;
+                observer.onCompleted();
+            }
+        };
+        observer.setOnCancelHandler(() -> { });
+        observer.setOnReadyHandler(drain);
+        drain.run();
+    }
+}
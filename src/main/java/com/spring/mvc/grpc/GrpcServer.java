@@ -0,0 +1,78 @@
+package com.spring.mvc.grpc;
+
+import io.grpc.BindableService;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serves the gRPC services on mvc.grpc.port next to Tomcat; started and stopped with the application context.
+// On shutdown in-flight calls get mvc.grpc.shutdown-timeout to finish before they are cancelled.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "mvc.grpc.enabled", havingValue = "true")
+public class GrpcServer implements SmartLifecycle {
+
+    private final List<BindableService> services;
+
+    @Value("${mvc.grpc.port:9090}")
+    private int port;
+
+    @Value("${mvc.grpc.max-inbound-message-size:16MB}")
+    private DataSize maxInboundMessageSize;
+
+    @Value("${mvc.grpc.shutdown-timeout:30s}")
+    private Duration shutdownTimeout;
+
+    private volatile Server server;
+
+    @Override
+    public void start() {
+        NettyServerBuilder builder = NettyServerBuilder.forPort(port)
+                .maxInboundMessageSize((int) maxInboundMessageSize.toBytes());
+        services.forEach(builder::addService);
+        try {
+            server = builder.build().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start gRPC server on port " + port, e);
+        }
+        log.info("gRPC server started on port {}", server.getPort());
+    }
+
+    @Override
+    public void stop() {
+        Server stopping = server;
+        server = null;
+        stopping.shutdown();
+        try {
+            if (!stopping.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                stopping.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            stopping.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    // The port actually bound, for mvc.grpc.port=0
+    public int getPort() {
+        return server.getPort();
+    }
+}
@@ -0,0 +1,45 @@
+package com.spring.mvc.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.mvc.admission.ClientIdentity;
+import com.spring.mvc.repositories.IdempotencyRecordRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class IdempotencyConfig {
+
+    @Value("${mvc.idempotency.max-entries:50000}")
+    private int maxEntries;
+
+    @Value("${mvc.idempotency.ttl:24h}")
+    private Duration ttl;
+
+    // How long a duplicate waits for the first request with its key before giving up with a 503
+    @Value("${mvc.idempotency.wait-timeout:5s}")
+    private Duration waitTimeout;
+
+    // Idempotency keys are scoped to the client, told apart like admission control does
+    @Value("${mvc.admission.client-header:X-Client-Id}")
+    private String clientHeader;
+
+    @Value("${mvc.admission.trusted-proxies:}")
+    private String trustedProxies;
+
+    @Bean
+    public IdempotentRequests idempotentRequests(ObjectProvider<IdempotencyStore> idempotencyStore, ObjectMapper objectMapper) {
+        return new IdempotentRequests(maxEntries, ttl, waitTimeout, idempotencyStore.getIfAvailable(), objectMapper,
+                new ClientIdentity(clientHeader, trustedProxies));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "mvc.idempotency.persistent", havingValue = "true")
+    public JpaIdempotencyStore jpaIdempotencyStore(IdempotencyRecordRepository idempotencyRecordRepository) {
+        return new JpaIdempotencyStore(idempotencyRecordRepository);
+    }
+}
@@ -0,0 +1,12 @@
+package com.spring.mvc.idempotency;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// The Idempotency-Key was already used for a different request (another endpoint or another body)
+@ResponseStatus(value = HttpStatus.UNPROCESSABLE_ENTITY, reason = "Idempotency-Key already used for a different request")
+public class IdempotencyKeyReuseException extends RuntimeException {
+
+    public IdempotencyKeyReuseException() {
+    }
+}
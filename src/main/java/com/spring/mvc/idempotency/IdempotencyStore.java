@@ -0,0 +1,15 @@
+package com.spring.mvc.idempotency;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Durable record of completed idempotent requests, behind IdempotentRequests' in-memory entries so replays
+// survive a restart and reach other instances. Keys and fingerprints are SHA-256 hex strings.
+public interface IdempotencyStore {
+
+    // Empty when nothing unexpired is recorded for key; IdempotencyKeyReuseException when key was recorded
+    // for a different fingerprint
+    Optional<StoredResponse> find(String key, String fingerprint);
+
+    void save(String key, String fingerprint, StoredResponse response, Duration ttl);
+}
@@ -0,0 +1,208 @@
+package com.spring.mvc.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.spring.mvc.admission.ClientIdentity;
+import com.spring.mvc.async.OperationExecutor;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+// Runs a write at most once per client and Idempotency-Key. The first request with a key runs it; its 2xx response
+// is kept for ttl (in memory, and in the IdempotencyStore when there is one) and later requests from the same client
+// with the key get that response back without running the write again. Duplicates arriving while the first is still
+// running wait for its outcome rather than running in parallel. A key reused for a different request - endpoint or
+// body - is a 422. Failed writes are not kept, so a retry after an error runs again.
+@Slf4j
+public class IdempotentRequests {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private final int maxEntries;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final IdempotencyStore store;
+    private final ClientIdentity clientIdentity;
+
+    // Bodies are compared as JSON with sorted keys, so field order and formatting don't make a different request
+    private final ObjectMapper canonicalMapper;
+
+    // Oldest first; expiry is creation plus ttl, so expired entries are always at the head
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    // store may be null, then replays only work within this instance and its lifetime
+    public IdempotentRequests(int maxEntries, Duration ttl, Duration waitTimeout, IdempotencyStore store,
+                              ObjectMapper objectMapper, ClientIdentity clientIdentity) {
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        this.waitTimeout = waitTimeout;
+        this.store = store;
+        this.clientIdentity = clientIdentity;
+        this.canonicalMapper = objectMapper.copy().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+    }
+
+    // Clients are told apart like admission control does (see ClientIdentity)
+    public String client(HttpServletRequest httpRequest) {
+        return clientIdentity.of(httpRequest);
+    }
+
+    // Keys are scoped to the client, so two clients picking the same key don't see each other's responses.
+    // operation names the endpoint (e.g. "POST /api/v1/beer"); request is the body.
+    public CompletableFuture<ResponseEntity> execute(String client, String idempotencyKey, String operation, Object request,
+                                                     OperationExecutor executor, Supplier<ResponseEntity> write) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return executor.supply(write);
+        }
+        String key = sha256(client + '\n' + idempotencyKey);
+        String fingerprint = sha256(operation + '\n' + canonicalJson(request));
+
+        Entry entry;
+        synchronized (entries) {
+            long now = System.nanoTime();
+            evictExpired(now);
+            Entry existing = entries.get(key);
+            if (existing != null) {
+                if (!existing.fingerprint.equals(fingerprint)) {
+                    return CompletableFuture.failedFuture(new IdempotencyKeyReuseException());
+                }
+                return existing.response
+                        .thenApply(StoredResponse::replay)
+                        .orTimeout(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            }
+            // Only finished entries make room; dropping a running one would let its duplicates run the write again
+            if (entries.size() >= maxEntries && !evictEldestCompleted()) {
+                return CompletableFuture.failedFuture(new RejectedExecutionException("All idempotency entries are in use"));
+            }
+            entry = new Entry(fingerprint, now + ttl.toNanos(), new CompletableFuture<>());
+            entries.put(key, entry);
+        }
+
+        AtomicBoolean started = new AtomicBoolean();
+        CompletableFuture<ResponseEntity> result;
+        try {
+            result = executor.supply(() -> {
+                started.set(true);
+                try {
+                    return run(key, fingerprint, entry, write);
+                } catch (RuntimeException e) {
+                    forget(key, entry, e);
+                    throw e;
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            forget(key, entry, e);
+            throw e;
+        }
+
+        // A write that timed out while queued never ran, so nothing is recorded and the key is free again.
+        // One that timed out while running is left to finish; it completes the entry for the duplicates.
+        return result.whenComplete((response, failure) -> {
+            if (failure != null && !started.get()) {
+                forget(key, entry, failure);
+            }
+        });
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private ResponseEntity run(String key, String fingerprint, Entry entry, Supplier<ResponseEntity> write) {
+        if (store != null) {
+            Optional<StoredResponse> stored = store.find(key, fingerprint);
+            if (stored.isPresent()) {
+                entry.response.complete(stored.get());
+                return stored.get().replay();
+            }
+        }
+
+        ResponseEntity response = write.get();
+        StoredResponse stored = StoredResponse.of(response);
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            // Duplicates already waiting get the same answer, later ones run again
+            synchronized (entries) {
+                entries.remove(key, entry);
+            }
+            entry.response.complete(stored);
+            return response;
+        }
+
+        if (store != null) {
+            try {
+                store.save(key, fingerprint, stored, ttl);
+            } catch (RuntimeException e) {
+                // The write itself went through; losing the record only means a later retry isn't recognised
+                log.warn("Could not record idempotent response", e);
+            }
+        }
+        entry.response.complete(stored);
+        return response;
+    }
+
+    // Duplicates already waiting on the entry fail the same way
+    private void forget(String key, Entry entry, Throwable failure) {
+        synchronized (entries) {
+            entries.remove(key, entry);
+        }
+        entry.response.completeExceptionally(failure);
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getValue().expiresAt - now > 0) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+
+    private boolean evictEldestCompleted() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().response.isDone()) {
+                iterator.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String canonicalJson(Object request) {
+        try {
+            // Through a tree of maps first, so JsonNode bodies get their keys sorted too
+            return canonicalMapper.writeValueAsString(canonicalMapper.convertValue(request, Object.class));
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            throw new IllegalStateException("Could not fingerprint request body", e);
+        }
+    }
+
+    static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Entry(String fingerprint, long expiresAt, CompletableFuture<StoredResponse> response) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.spring.mvc.idempotency;
+
+import com.spring.mvc.entities.IdempotencyRecord;
+import com.spring.mvc.repositories.IdempotencyRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+// IdempotencyStore in the idempotency_record table; expired records are ignored and pruned periodically
+@Slf4j
+@RequiredArgsConstructor
+public class JpaIdempotencyStore implements IdempotencyStore {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Override
+    public Optional<StoredResponse> find(String key, String fingerprint) {
+        return idempotencyRecordRepository.findById(key)
+                .filter(record -> record.getExpiresAt().isAfter(LocalDateTime.now()))
+                .map(record -> {
+                    if (!record.getFingerprint().equals(fingerprint)) {
+                        throw new IdempotencyKeyReuseException();
+                    }
+                    return new StoredResponse(record.getStatus(), record.getLocation());
+                });
+    }
+
+    @Override
+    public void save(String key, String fingerprint, StoredResponse response, Duration ttl) {
+        idempotencyRecordRepository.save(IdempotencyRecord.builder()
+                .idempotencyKey(key)
+                .fingerprint(fingerprint)
+                .status(response.status())
+                .location(response.location())
+                .expiresAt(LocalDateTime.now().plus(ttl))
+                .build());
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${mvc.idempotency.prune-interval:1h}")
+    public void pruneExpired() {
+        int pruned = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (pruned > 0) {
+            log.debug("Pruned {} idempotency records", pruned);
+        }
+    }
+}
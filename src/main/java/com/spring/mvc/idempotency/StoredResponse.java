@@ -0,0 +1,23 @@
+package com.spring.mvc.idempotency;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+// What a write endpoint answered: the write endpoints reply with a status and at most a location header
+public record StoredResponse(int status, String location) {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    public static StoredResponse of(ResponseEntity response) {
+        return new StoredResponse(response.getStatusCode().value(), response.getHeaders().getFirst(HttpHeaders.LOCATION));
+    }
+
+    public ResponseEntity replay() {
+        HttpHeaders headers = new HttpHeaders();
+        if (location != null) {
+            headers.add("location", location);
+        }
+        headers.add(REPLAYED_HEADER, "true");
+        return ResponseEntity.status(status).headers(headers).build();
+    }
+}
@@ -0,0 +1,91 @@
+package com.spring.mvc.index;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Lock-free Bloom filter over UUIDs. mightContain() never returns false for an id that was put(),
+// but may return true for an id that was never added (at roughly the configured false-positive rate).
+public class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashFunctions;
+
+    BloomFilter(long bitCount, int hashFunctions) {
+        // Round up to a whole number of 64-bit words
+        long wordCount = Math.max(1, (bitCount + 63) >>> 6);
+        this.words = new AtomicLongArray(Math.toIntExact(wordCount));
+        this.bitCount = wordCount << 6;
+        this.hashFunctions = hashFunctions;
+    }
+
+    // Sizes the filter for the expected number of ids and target false-positive rate,
+    // never allocating more than maxBytes (the false-positive rate degrades instead)
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate, long maxBytes) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+        }
+        if (maxBytes < 8) {
+            throw new IllegalArgumentException("maxBytes must be at least 8");
+        }
+
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (LN2 * LN2));
+        long bits = Math.min(optimalBits, Math.min(maxBytes, (long) Integer.MAX_VALUE * Long.BYTES) * 8);
+        int hashes = (int) Math.max(1, Math.min(30, Math.round((double) bits / expectedInsertions * LN2)));
+
+        return new BloomFilter(bits, hashes);
+    }
+
+    public void put(UUID id) {
+        long h1 = mix(id.getMostSignificantBits() ^ Long.rotateLeft(id.getLeastSignificantBits(), 32));
+        long h2 = mix(id.getLeastSignificantBits() + 0x9E3779B97F4A7C15L) | 1;
+
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    public boolean mightContain(UUID id) {
+        long h1 = mix(id.getMostSignificantBits() ^ Long.rotateLeft(id.getLeastSignificantBits(), 32));
+        long h2 = mix(id.getLeastSignificantBits() + 0x9E3779B97F4A7C15L) | 1;
+
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitSize() {
+        return bitCount;
+    }
+
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+
+    // MurmurHash3 fmix64 finalizer - spreads UUID bits evenly (random UUIDs are already well mixed,
+    // but time-based or sequential ids are not)
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
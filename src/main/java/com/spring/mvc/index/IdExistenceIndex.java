@@ -0,0 +1,123 @@
+package com.spring.mvc.index;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Probabilistic "does this id exist?" check that lets services reject unknown ids without a database query.
+// Until load() has run every id is reported as possibly existing, so a cold index never hides real rows.
+// Only ids this instance creates are added as they happen, so a negative is only trusted when this instance is
+// the database's single writer; otherwise every lookup goes on to the database. The filter is rebuilt from the
+// database periodically (see IdExistenceIndexLoader), which also picks up rows inserted by SQL or migrations
+// and forgets deleted ids.
+@Slf4j
+public class IdExistenceIndex {
+
+    private final String name;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final long maxBytes;
+    private final boolean singleWriter;
+    private final AtomicLong insertions = new AtomicLong();
+    private volatile BloomFilter filter;
+    private volatile Rebuild rebuild;
+    private volatile boolean ready;
+
+    public IdExistenceIndex(String name, long expectedInsertions, double falsePositiveRate, long maxBytes, boolean singleWriter) {
+        this.name = name;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxBytes = maxBytes;
+        this.singleWriter = singleWriter;
+        this.filter = BloomFilter.create(expectedInsertions, falsePositiveRate, maxBytes);
+
+        log.debug("{} id index sized at {} bits with {} hash functions", name, filter.bitSize(), filter.hashFunctions());
+    }
+
+    // Returns false only when the id is definitely absent
+    public boolean mightExist(UUID id) {
+        if (!ready || !singleWriter || id == null) {
+            return true;
+        }
+        return filter.mightContain(id);
+    }
+
+    public void add(UUID id) {
+        if (id == null) {
+            return;
+        }
+        // rebuild is read before filter: finish() swaps the filter in before clearing rebuild, so the id lands
+        // in the rebuilt filter either way
+        Rebuild current = rebuild;
+        if (current != null) {
+            current.add(id);
+        }
+        filter.put(id);
+
+        if (insertions.incrementAndGet() == expectedInsertions + 1) {
+            log.warn("{} id index has exceeded its expected {} ids, false-positive rate will rise", name, expectedInsertions);
+        }
+    }
+
+    // Adds every existing id and then starts answering lookups. Ids added concurrently while loading
+    // land in the same filter, so nothing inserted during startup is lost.
+    public void load(Stream<UUID> ids) {
+        try (Rebuild next = startRebuild()) {
+            ids.forEach(next::add);
+            next.finish();
+        }
+    }
+
+    // A fresh filter that receives every add() from now on. Feed it the ids in the database, read after the
+    // transactions that were open when it started have committed, then finish() swaps it in.
+    public synchronized Rebuild startRebuild() {
+        if (rebuild != null) {
+            throw new IllegalStateException(name + " id index is already being rebuilt");
+        }
+        rebuild = new Rebuild(BloomFilter.create(expectedInsertions, falsePositiveRate, maxBytes));
+        return rebuild;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public final class Rebuild implements AutoCloseable {
+
+        private final BloomFilter next;
+        private final AtomicLong count = new AtomicLong();
+        private boolean finished;
+
+        private Rebuild(BloomFilter next) {
+            this.next = next;
+        }
+
+        public void add(UUID id) {
+            next.put(id);
+            count.incrementAndGet();
+        }
+
+        public void finish() {
+            synchronized (IdExistenceIndex.this) {
+                filter = next;
+                rebuild = null;
+                insertions.set(count.get());
+                ready = true;
+                finished = true;
+            }
+            log.debug("{} id index loaded with {} ids", name, count.get());
+        }
+
+        // Drops an unfinished rebuild, the current filter stays
+        @Override
+        public void close() {
+            synchronized (IdExistenceIndex.this) {
+                if (!finished && rebuild == this) {
+                    rebuild = null;
+                }
+            }
+        }
+    }
+}
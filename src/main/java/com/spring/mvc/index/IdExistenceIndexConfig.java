@@ -0,0 +1,33 @@
+package com.spring.mvc.index;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdExistenceIndexConfig {
+
+    @Value("${mvc.existence-filter.expected-insertions:1000000}")
+    private long expectedInsertions;
+
+    @Value("${mvc.existence-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    // Upper bound on the memory used by each filter - if the target rate needs more, the filter is capped
+    @Value("${mvc.existence-filter.max-memory-bytes:8388608}")
+    private long maxMemoryBytes;
+
+    // Whether this instance is the only one writing to the database: only then can a negative be trusted
+    @Value("${mvc.existence-filter.single-writer:false}")
+    private boolean singleWriter;
+
+    @Bean
+    public IdExistenceIndex beerIdIndex() {
+        return new IdExistenceIndex("Beer", expectedInsertions, falsePositiveRate, maxMemoryBytes, singleWriter);
+    }
+
+    @Bean
+    public IdExistenceIndex customerIdIndex() {
+        return new IdExistenceIndex("Customer", expectedInsertions, falsePositiveRate, maxMemoryBytes, singleWriter);
+    }
+}
@@ -0,0 +1,84 @@
+package com.spring.mvc.index;
+
+import com.spring.mvc.repositories.BeerRepository;
+import com.spring.mvc.repositories.CustomerRepository;
+import com.spring.mvc.sharding.BeerShards;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+// Fills the id indexes once the application is ready (after BootstrapData has run), then rebuilds them every
+// mvc.existence-filter.rebuild-interval. Only with mvc.existence-filter.single-writer=true: otherwise the indexes
+// never answer a lookup, so there is nothing to load them for.
+@Component
+@RequiredArgsConstructor
+@ConditionalOnExpression("${mvc.existence-filter.enabled:true} and ${mvc.existence-filter.single-writer:false}")
+public class IdExistenceIndexLoader {
+
+    private final BeerRepository beerRepository;
+    private final CustomerRepository customerRepository;
+
+    private final IdExistenceIndex beerIdIndex;
+    private final IdExistenceIndex customerIdIndex;
+
+    private final Optional<BeerShards> beerShards;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final TaskScheduler taskScheduler;
+
+    // Rebuilt filters are only read from the database this long after they start receiving new ids, so rows
+    // of transactions that were still open at the start are committed and seen by the read
+    @Value("${mvc.delta-sync.commit-lag:2s}")
+    private Duration commitLag;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndexes() {
+        fill(beerIdIndex.startRebuild(), customerIdIndex.startRebuild());
+    }
+
+    // Picks up rows this instance didn't insert itself (SQL, migrations) and forgets deleted ids. The wait for
+    // commit-lag is a second scheduled step rather than a sleep, the scheduler thread is shared with other jobs.
+    @Scheduled(fixedDelayString = "${mvc.existence-filter.rebuild-interval:10m}",
+            initialDelayString = "${mvc.existence-filter.rebuild-interval:10m}")
+    public void rebuildIndexes() {
+        IdExistenceIndex.Rebuild beers = beerIdIndex.startRebuild();
+        IdExistenceIndex.Rebuild customers = customerIdIndex.startRebuild();
+        taskScheduler.schedule(() -> fill(beers, customers), Instant.now().plus(commitLag));
+    }
+
+    // One read-only transaction per shard for the beer ids, the index only switches over once all of them are in
+    private void fill(IdExistenceIndex.Rebuild beers, IdExistenceIndex.Rebuild customers) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+
+        try (beers; customers) {
+            BeerShards.forEachShard(beerShards, () -> transaction.executeWithoutResult(status -> {
+                try (Stream<UUID> ids = beerRepository.streamAllIds()) {
+                    ids.forEach(beers::add);
+                }
+            }));
+            beers.finish();
+
+            transaction.executeWithoutResult(status -> {
+                try (Stream<UUID> ids = customerRepository.streamAllIds()) {
+                    ids.forEach(customers::add);
+                }
+            });
+            customers.finish();
+        }
+    }
+}
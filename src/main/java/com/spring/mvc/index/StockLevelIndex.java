@@ -0,0 +1,62 @@
+package com.spring.mvc.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Beer ids ordered by quantity on hand (a missing quantity counts as 0, as in the stats), so the lowest-stocked
+// beers are read from the head in O(limit) instead of sorting the catalog. Writers are serialised by the caller
+// and move a beer with one remove and one add (O(log n)); readers don't lock and may briefly see a beer that is
+// moving at both its old and its new level.
+public class StockLevelIndex {
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingInt(Entry::quantity)
+            .thenComparing(Entry::id, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>(ORDER);
+
+    public void add(UUID id, Integer quantityOnHand) {
+        entries.add(new Entry(level(quantityOnHand), id));
+    }
+
+    public void remove(UUID id, Integer quantityOnHand) {
+        entries.remove(new Entry(level(quantityOnHand), id));
+    }
+
+    public void update(UUID id, Integer previousQuantityOnHand, Integer quantityOnHand) {
+        if (level(previousQuantityOnHand) != level(quantityOnHand)) {
+            remove(id, previousQuantityOnHand);
+            add(id, quantityOnHand);
+        }
+    }
+
+    // Up to limit ids with quantity below threshold, lowest first (ties by id); may hold an id twice, see above
+    public List<UUID> lowest(int threshold, int limit) {
+        List<UUID> ids = new ArrayList<>(Math.min(limit, 1024));
+        for (Entry entry : entries.headSet(new Entry(threshold, null), false)) {
+            if (ids.size() == limit) {
+                break;
+            }
+            ids.add(entry.id());
+        }
+        return ids;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private static int level(Integer quantityOnHand) {
+        return quantityOnHand == null ? 0 : quantityOnHand;
+    }
+
+    private record Entry(int quantity, UUID id) {
+    }
+}
@@ -0,0 +1,67 @@
+package com.spring.mvc.invalidation;
+
+import com.spring.mvc.cache.ResponseCache;
+import com.spring.mvc.events.BeerChangedEvent;
+import com.spring.mvc.events.ChangeType;
+import com.spring.mvc.events.CustomerChangedEvent;
+import com.spring.mvc.index.IdExistenceIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Optional;
+
+// Keeps this node's caches coherent with writes made on other nodes: local writes go out on the bus after
+// commit, and writes reported by other nodes drop the resource's cached responses (once per packet) and add
+// created ids to the existence index ahead of its next rebuild.
+// Messages can be lost, so the response caches are also dropped every max-staleness regardless.
+@RequiredArgsConstructor
+public class ClusterCacheInvalidator implements InvalidationBus.Listener {
+
+    private final InvalidationBus invalidationBus;
+    private final IdExistenceIndex beerIdIndex;
+    private final IdExistenceIndex customerIdIndex;
+    private final Optional<ResponseCache> beerResponseCache;
+    private final Optional<ResponseCache> customerResponseCache;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChanged(BeerChangedEvent event) {
+        invalidationBus.publish(new InvalidationMessage(InvalidationMessage.EntityType.BEER, event.type(), event.beerId(),
+                event.beer() == null || event.beer().getVersion() == null ? 0 : event.beer().getVersion()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        invalidationBus.publish(new InvalidationMessage(InvalidationMessage.EntityType.CUSTOMER, event.type(), event.customerId(),
+                event.customer() == null || event.customer().getVersion() == null ? 0 : event.customer().getVersion()));
+    }
+
+    @Override
+    public void onInvalidations(List<InvalidationMessage> messages) {
+        boolean beers = false;
+        boolean customers = false;
+        for (InvalidationMessage message : messages) {
+            boolean beer = message.entityType() == InvalidationMessage.EntityType.BEER;
+            beers |= beer;
+            customers |= !beer;
+            // Bloom filters can't forget ids, deletes leave the index as it is
+            if (message.type() != ChangeType.DELETED) {
+                (beer ? beerIdIndex : customerIdIndex).add(message.id());
+            }
+        }
+
+        if (beers) {
+            beerResponseCache.ifPresent(ResponseCache::invalidate);
+        }
+        if (customers) {
+            customerResponseCache.ifPresent(ResponseCache::invalidate);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${mvc.invalidation-bus.max-staleness:30s}", initialDelayString = "${mvc.invalidation-bus.max-staleness:30s}")
+    public void expireResponseCaches() {
+        beerResponseCache.ifPresent(ResponseCache::invalidate);
+        customerResponseCache.ifPresent(ResponseCache::invalidate);
+    }
+}
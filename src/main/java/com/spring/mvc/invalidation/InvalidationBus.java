@@ -0,0 +1,143 @@
+package com.spring.mvc.invalidation;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Tells the other nodes which beers and customers changed so they can drop what they cached about them.
+//
+// publish() only records the message; the first one after an idle period schedules a flush batchWindow later,
+// which sends everything recorded by then. Messages for the same entity within a window collapse to the newest,
+// so a burst of writes costs a few packets rather than one per write, and receivers invalidate once per packet.
+// Packets are [magic][sender node id][count][count x InvalidationMessage], at most MESSAGES_PER_PACKET each.
+@Slf4j
+public class InvalidationBus implements Closeable {
+
+    private static final int MAGIC = 0x4D564942; // "MVIB"
+    private static final int HEADER_SIZE = 4 + 8 + 2;
+    static final int MESSAGES_PER_PACKET = (MulticastTransport.MAX_PACKET_SIZE - HEADER_SIZE) / InvalidationMessage.SIZE;
+
+    private final InvalidationTransport transport;
+    private final Duration batchWindow;
+    private final long nodeId = ThreadLocalRandom.current().nextLong();
+
+    private final Map<Key, InvalidationMessage> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("invalidation-bus").factory());
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public InvalidationBus(InvalidationTransport transport, Duration batchWindow) {
+        this.transport = transport;
+        this.batchWindow = batchWindow;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void start() throws IOException {
+        transport.start(this::receive);
+    }
+
+    public void publish(InvalidationMessage message) {
+        pending.merge(new Key(message.entityType(), message.id()), message, InvalidationMessage::newest);
+        if (flushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::flush, batchWindow.toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Sends everything published so far; also run by the scheduler at the end of each batch window
+    public void flush() {
+        // Cleared first, so a publish() racing with the drain schedules another flush instead of being stranded
+        flushScheduled.set(false);
+
+        List<InvalidationMessage> batch = new ArrayList<>(pending.size());
+        for (Key key : pending.keySet()) {
+            InvalidationMessage message = pending.remove(key);
+            if (message != null) {
+                batch.add(message);
+            }
+        }
+
+        for (int from = 0; from < batch.size(); from += MESSAGES_PER_PACKET) {
+            List<InvalidationMessage> messages = batch.subList(from, Math.min(batch.size(), from + MESSAGES_PER_PACKET));
+            try {
+                transport.send(encode(messages));
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not send {} invalidations: {}", messages.size(), e.getMessage());
+            }
+        }
+    }
+
+    public long nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        flush();
+        transport.close();
+    }
+
+    private byte[] encode(List<InvalidationMessage> messages) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + messages.size() * InvalidationMessage.SIZE);
+        buffer.putInt(MAGIC);
+        buffer.putLong(nodeId);
+        buffer.putShort((short) messages.size());
+        messages.forEach(message -> message.write(buffer));
+        return buffer.array();
+    }
+
+    private void receive(byte[] packet) {
+        List<InvalidationMessage> messages;
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(packet);
+            if (buffer.getInt() != MAGIC || buffer.getLong() == nodeId) {
+                return;
+            }
+            int count = buffer.getShort();
+            messages = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                messages.add(InvalidationMessage.read(buffer));
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            log.warn("Ignoring malformed invalidation packet of {} bytes", packet.length);
+            return;
+        }
+
+        for (Listener listener : listeners) {
+            try {
+                listener.onInvalidations(messages);
+            } catch (RuntimeException e) {
+                log.warn("Invalidation listener failed", e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Listener {
+        // Called with the messages of one packet from another node
+        void onInvalidations(List<InvalidationMessage> messages);
+    }
+
+    private record Key(InvalidationMessage.EntityType entityType, UUID id) {
+    }
+}
@@ -0,0 +1,75 @@
+package com.spring.mvc.invalidation;
+
+import com.spring.mvc.cache.ResponseCache;
+import com.spring.mvc.index.IdExistenceIndex;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.time.Duration;
+import java.util.Optional;
+
+// Cross-node cache invalidation when mvc.invalidation-bus.enabled=true
+@Configuration
+@ConditionalOnProperty(name = "mvc.invalidation-bus.enabled", havingValue = "true")
+public class InvalidationBusConfig {
+
+    @Value("${mvc.invalidation-bus.batch-window:5ms}")
+    private Duration batchWindow;
+
+    @Value("${mvc.invalidation-bus.multicast-group:239.255.42.99}")
+    private String multicastGroup;
+
+    @Value("${mvc.invalidation-bus.multicast-port:4446}")
+    private int multicastPort;
+
+    // Empty for the system default
+    @Value("${mvc.invalidation-bus.multicast-interface:}")
+    private String multicastInterface;
+
+    @Value("${mvc.invalidation-bus.multicast-ttl:1}")
+    private int multicastTtl;
+
+    @Bean
+    @ConditionalOnProperty(name = "mvc.invalidation-bus.transport", havingValue = "multicast", matchIfMissing = true)
+    public InvalidationTransport multicastTransport() throws IOException {
+        NetworkInterface networkInterface = null;
+        if (!multicastInterface.isBlank()) {
+            networkInterface = NetworkInterface.getByName(multicastInterface);
+            if (networkInterface == null) {
+                throw new IllegalArgumentException("No network interface " + multicastInterface);
+            }
+        }
+        return new MulticastTransport(InetAddress.getByName(multicastGroup), multicastPort, networkInterface, multicastTtl);
+    }
+
+    // Single node, nothing leaves the process
+    @Bean
+    @ConditionalOnProperty(name = "mvc.invalidation-bus.transport", havingValue = "loopback")
+    public InvalidationTransport loopbackTransport() {
+        return new LoopbackTransport(new LoopbackTransport.Hub());
+    }
+
+    @Bean
+    public InvalidationBus invalidationBus(InvalidationTransport invalidationTransport) {
+        return new InvalidationBus(invalidationTransport, batchWindow);
+    }
+
+    @Bean
+    public ClusterCacheInvalidator clusterCacheInvalidator(InvalidationBus invalidationBus,
+                                                           IdExistenceIndex beerIdIndex,
+                                                           IdExistenceIndex customerIdIndex,
+                                                           @Qualifier("beerResponseCache") Optional<ResponseCache> beerResponseCache,
+                                                           @Qualifier("customerResponseCache") Optional<ResponseCache> customerResponseCache) throws IOException {
+        ClusterCacheInvalidator invalidator = new ClusterCacheInvalidator(invalidationBus, beerIdIndex, customerIdIndex,
+                beerResponseCache, customerResponseCache);
+        invalidationBus.addListener(invalidator);
+        invalidationBus.start();
+        return invalidator;
+    }
+}
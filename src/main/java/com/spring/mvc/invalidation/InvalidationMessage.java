@@ -0,0 +1,49 @@
+package com.spring.mvc.invalidation;
+
+import com.spring.mvc.events.ChangeType;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+// "This beer/customer changed": 22 bytes on the wire. version is the entity's version after the change,
+// 0 for deletes.
+public record InvalidationMessage(EntityType entityType, ChangeType type, UUID id, int version) {
+
+    public static final int SIZE = 1 + 1 + 16 + 4;
+
+    private static final EntityType[] ENTITY_TYPES = EntityType.values();
+    private static final ChangeType[] CHANGE_TYPES = ChangeType.values();
+
+    public enum EntityType {
+        BEER, CUSTOMER
+    }
+
+    // Of two messages for the same entity the one to keep: a delete is final, otherwise the later version
+    public InvalidationMessage newest(InvalidationMessage other) {
+        if (type == ChangeType.DELETED) {
+            return this;
+        }
+        if (other.type == ChangeType.DELETED) {
+            return other;
+        }
+        return other.version > version ? other : this;
+    }
+
+    void write(ByteBuffer buffer) {
+        buffer.put((byte) entityType.ordinal());
+        buffer.put((byte) type.ordinal());
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+        buffer.putInt(version);
+    }
+
+    static InvalidationMessage read(ByteBuffer buffer) {
+        int entityType = buffer.get();
+        int type = buffer.get();
+        if (entityType < 0 || entityType >= ENTITY_TYPES.length || type < 0 || type >= CHANGE_TYPES.length) {
+            throw new IllegalArgumentException("Unknown entity or change type " + entityType + "/" + type);
+        }
+        return new InvalidationMessage(ENTITY_TYPES[entityType], CHANGE_TYPES[type],
+                new UUID(buffer.getLong(), buffer.getLong()), buffer.getInt());
+    }
+}
@@ -0,0 +1,15 @@
+package com.spring.mvc.invalidation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+// Carries InvalidationBus packets between nodes. Delivery is best effort and a node may receive its own
+// packets back; the bus drops those.
+public interface InvalidationTransport extends Closeable {
+
+    // receiver is called with each packet received, on a thread owned by the transport
+    void start(Consumer<byte[]> receiver) throws IOException;
+
+    void send(byte[] packet) throws IOException;
+}
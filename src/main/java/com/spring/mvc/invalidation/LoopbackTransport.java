@@ -0,0 +1,39 @@
+package com.spring.mvc.invalidation;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+
+// In-process transport: every packet sent goes synchronously to every transport on the same Hub, the sender
+// included. For tests that run several buses in one JVM, and for a single node that needs no network.
+public class LoopbackTransport implements InvalidationTransport {
+
+    private final Hub hub;
+    private volatile Consumer<byte[]> receiver;
+
+    public LoopbackTransport(Hub hub) {
+        this.hub = hub;
+    }
+
+    @Override
+    public void start(Consumer<byte[]> receiver) {
+        this.receiver = receiver;
+        hub.transports.add(this);
+    }
+
+    @Override
+    public void send(byte[] packet) {
+        for (LoopbackTransport transport : hub.transports) {
+            transport.receiver.accept(packet.clone());
+        }
+    }
+
+    @Override
+    public void close() {
+        hub.transports.remove(this);
+    }
+
+    public static class Hub {
+        private final Set<LoopbackTransport> transports = new CopyOnWriteArraySet<>();
+    }
+}
@@ -0,0 +1,88 @@
+package com.spring.mvc.invalidation;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.StandardSocketOptions;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+// UDP multicast between the nodes of one network segment (ttl 1 by default), no broker needed. Datagrams can be
+// lost; InvalidationBus packets fit in one datagram each, and ClusterCacheInvalidator's max-staleness bounds
+// how long a lost one can leave a cache stale.
+@Slf4j
+public class MulticastTransport implements InvalidationTransport {
+
+    // Fits an Ethernet frame after IP and UDP headers
+    public static final int MAX_PACKET_SIZE = 1472;
+
+    private final InetSocketAddress group;
+    private final NetworkInterface networkInterface;
+    private final int timeToLive;
+
+    private MulticastSocket socket;
+    private Thread receiverThread;
+
+    // networkInterface may be null for the system default
+    public MulticastTransport(InetAddress group, int port, NetworkInterface networkInterface, int timeToLive) {
+        if (!group.isMulticastAddress()) {
+            throw new IllegalArgumentException(group + " is not a multicast address");
+        }
+        this.group = new InetSocketAddress(group, port);
+        this.networkInterface = networkInterface;
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    public synchronized void start(Consumer<byte[]> receiver) throws IOException {
+        socket = new MulticastSocket(group.getPort());
+        socket.setTimeToLive(timeToLive);
+        // Nodes sharing a host (and tests) see each other's packets
+        socket.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true);
+        if (networkInterface != null) {
+            socket.setNetworkInterface(networkInterface);
+        }
+        socket.joinGroup(group, networkInterface);
+
+        MulticastSocket receiving = socket;
+        receiverThread = Thread.ofPlatform().daemon().name("invalidation-multicast").start(() -> {
+            byte[] buffer = new byte[MAX_PACKET_SIZE];
+            while (!receiving.isClosed()) {
+                DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                try {
+                    receiving.receive(packet);
+                    receiver.accept(Arrays.copyOf(packet.getData(), packet.getLength()));
+                } catch (SocketException e) {
+                    // Closed
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Dropping invalidation packet: {}", e.getMessage());
+                }
+            }
+        });
+        log.info("Invalidation bus joined multicast group {}", group);
+    }
+
+    @Override
+    public void send(byte[] packet) throws IOException {
+        if (packet.length > MAX_PACKET_SIZE) {
+            throw new IllegalArgumentException("Packet of " + packet.length + " bytes exceeds " + MAX_PACKET_SIZE);
+        }
+        socket.send(new DatagramPacket(packet, packet.length, group));
+    }
+
+    @Override
+    public synchronized void close() {
+        if (socket != null) {
+            socket.close();
+        }
+        if (receiverThread != null) {
+            receiverThread.interrupt();
+        }
+    }
+}
@@ -1,8 +1,19 @@
 package com.spring.mvc.mappers;
 
 import com.spring.mvc.entities.Beer;
+import com.spring.mvc.entities.BeerHistory;
 import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerHistoryDTO;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Condition;
+import org.mapstruct.Context;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
+import org.mapstruct.TargetPropertyName;
+
+import java.util.Set;
 
 @Mapper
 public interface BeerMapper {
@@ -10,4 +21,40 @@ public interface BeerMapper {
     Beer beerDtoToBeer(BeerDTO dto);
 
     BeerDTO beerToBeerDto(Beer beer);
+
+    BeerHistoryDTO beerHistoryToBeerHistoryDto(BeerHistory history);
+
+    // The beer's price and stock as of its last write
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "beerId", source = "id")
+    @Mapping(target = "validFrom", source = "updateDate")
+    BeerHistory beerToBeerHistory(Beer beer);
+
+    // Full replacement (PUT); id, version and the timestamps stay under the store's control
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "createdDate", ignore = true)
+    @Mapping(target = "updateDate", ignore = true)
+    void updateBeer(BeerDTO dto, @MappingTarget Beer beer);
+
+    // Copies only the named fields, nulls included, so a patch can clear a field. Untouched
+    // properties keep their loaded values and stay out of the @DynamicUpdate statement.
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "createdDate", ignore = true)
+    @Mapping(target = "updateDate", ignore = true)
+    void patchBeer(BeerDTO values, @MappingTarget Beer beer, @Context Set<String> fields);
+
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "createdDate", ignore = true)
+    @Mapping(target = "updateDate", ignore = true)
+    void patchBeerDto(BeerDTO values, @MappingTarget BeerDTO beer, @Context Set<String> fields);
+
+    @Condition
+    default boolean isPatched(@TargetPropertyName String property, @Context Set<String> fields) {
+        return fields.contains(property);
+    }
 }
@@ -2,7 +2,16 @@ package com.spring.mvc.mappers;
 
 import com.spring.mvc.entities.Customer;
 import com.spring.mvc.model.CustomerDTO;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Condition;
+import org.mapstruct.Context;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
+import org.mapstruct.TargetPropertyName;
+
+import java.util.Set;
 
 @Mapper
 public interface CustomerMapper {
@@ -10,4 +19,24 @@ public interface CustomerMapper {
     Customer customerDtoToCustomer(CustomerDTO dto);
 
     CustomerDTO customerToCustomerDto(Customer customer);
+
+    // Copies only the named fields, nulls included (see BeerMapper.patchBeer)
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "createdDate", ignore = true)
+    @Mapping(target = "lastModifiedDate", ignore = true)
+    void patchCustomer(CustomerDTO values, @MappingTarget Customer customer, @Context Set<String> fields);
+
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "createdDate", ignore = true)
+    @Mapping(target = "lastModifiedDate", ignore = true)
+    void patchCustomerDto(CustomerDTO values, @MappingTarget CustomerDTO customer, @Context Set<String> fields);
+
+    @Condition
+    default boolean isPatched(@TargetPropertyName String property, @Context Set<String> fields) {
+        return fields.contains(property);
+    }
 }
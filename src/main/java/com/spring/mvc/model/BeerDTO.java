@@ -1,5 +1,6 @@
 package com.spring.mvc.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -7,11 +8,11 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
-@Builder
+@JsonSerialize(using = BeerJsonSerializer.class)
+@Builder(toBuilder = true)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -31,7 +32,7 @@ public class BeerDTO {
     private Integer quantityOnHand;
 
     @NotNull // Price is an object
-    private BigDecimal price;
+    private Money price;
     private LocalDateTime createdDate;
     private LocalDateTime updateDate;
 }
@@ -0,0 +1,21 @@
+package com.spring.mvc.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// A beer's price and stock from validFrom until the next entry
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BeerHistoryDTO {
+    private UUID beerId;
+    private LocalDateTime validFrom;
+    private Money price;
+    private Integer quantityOnHand;
+}
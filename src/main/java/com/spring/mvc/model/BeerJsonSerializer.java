@@ -0,0 +1,54 @@
+package com.spring.mvc.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+
+// BeerDTO without reflection: the list endpoints spend most of their time here (see DtoJsonSerializer)
+public class BeerJsonSerializer extends DtoJsonSerializer<BeerDTO> {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString VERSION = new SerializedString("version");
+    private static final SerializableString BEER_NAME = new SerializedString("beerName");
+    private static final SerializableString BEER_STYLE = new SerializedString("beerStyle");
+    private static final SerializableString UPC = new SerializedString("upc");
+    private static final SerializableString QUANTITY_ON_HAND = new SerializedString("quantityOnHand");
+    private static final SerializableString PRICE = new SerializedString("price");
+    private static final SerializableString CREATED_DATE = new SerializedString("createdDate");
+    private static final SerializableString UPDATE_DATE = new SerializedString("updateDate");
+
+    private static final SerializableString[] STYLE_NAMES = new SerializableString[BeerStyle.values().length];
+
+    static {
+        for (BeerStyle style : BeerStyle.values()) {
+            STYLE_NAMES[style.ordinal()] = new SerializedString(style.name());
+        }
+    }
+
+    public BeerJsonSerializer() {
+        super(BeerDTO.class);
+    }
+
+    @Override
+    protected BeerJsonSerializer newInstance() {
+        return new BeerJsonSerializer();
+    }
+
+    @Override
+    public void serialize(BeerDTO beer, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(beer);
+        writeUuid(ID, beer.getId(), generator, provider);
+        writeNumber(VERSION, beer.getVersion(), generator);
+        writeString(BEER_NAME, beer.getBeerName(), generator);
+        writeString(BEER_STYLE, beer.getBeerStyle() == null ? null : STYLE_NAMES[beer.getBeerStyle().ordinal()], generator);
+        writeString(UPC, beer.getUpc(), generator);
+        writeNumber(QUANTITY_ON_HAND, beer.getQuantityOnHand(), generator);
+        writeMoney(PRICE, beer.getPrice(), generator);
+        writeDateTime(CREATED_DATE, beer.getCreatedDate(), generator, provider);
+        writeDateTime(UPDATE_DATE, beer.getUpdateDate(), generator, provider);
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,33 @@
+package com.spring.mvc.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BeerStatsDTO {
+    private long beerCount;
+    private long totalQuantityOnHand;
+    private BigDecimal totalStockValue;
+
+    // Price statistics ignore beers without a price; percentiles are nearest-rank
+    private BigDecimal averagePrice;
+    private BigDecimal minPrice;
+    private BigDecimal medianPrice;
+    private BigDecimal p90Price;
+    private BigDecimal p99Price;
+    private BigDecimal maxPrice;
+
+    // Beers with fewer than lowStockThreshold on hand (no quantity counts as none)
+    private int lowStockThreshold;
+    private long lowStockCount;
+
+    private List<BeerStyleStatsDTO> styles;
+}
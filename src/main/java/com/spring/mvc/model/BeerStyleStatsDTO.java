@@ -0,0 +1,26 @@
+package com.spring.mvc.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BeerStyleStatsDTO {
+    // Null for beers without a style
+    private BeerStyle beerStyle;
+    private long beerCount;
+    private long totalQuantityOnHand;
+
+    // Sum of price * quantityOnHand
+    private BigDecimal stockValue;
+    private BigDecimal averagePrice;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private long lowStockCount;
+}
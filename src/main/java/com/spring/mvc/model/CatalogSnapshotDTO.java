@@ -0,0 +1,18 @@
+package com.spring.mvc.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CatalogSnapshotDTO {
+    private String name;
+    private long size;
+    private LocalDateTime createdDate;
+}
@@ -1,6 +1,7 @@
 package com.spring.mvc.model;
 
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -10,7 +11,8 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 
-@Builder
+@JsonSerialize(using = CustomerJsonSerializer.class)
+@Builder(toBuilder = true)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -0,0 +1,38 @@
+package com.spring.mvc.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+
+// CustomerDTO without reflection (see DtoJsonSerializer)
+public class CustomerJsonSerializer extends DtoJsonSerializer<CustomerDTO> {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString VERSION = new SerializedString("version");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString CREATED_DATE = new SerializedString("createdDate");
+    private static final SerializableString LAST_MODIFIED_DATE = new SerializedString("lastModifiedDate");
+
+    public CustomerJsonSerializer() {
+        super(CustomerDTO.class);
+    }
+
+    @Override
+    protected CustomerJsonSerializer newInstance() {
+        return new CustomerJsonSerializer();
+    }
+
+    @Override
+    public void serialize(CustomerDTO customer, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(customer);
+        writeUuid(ID, customer.getId(), generator, provider);
+        writeNumber(VERSION, customer.getVersion(), generator);
+        writeString(NAME, customer.getName(), generator);
+        writeDateTime(CREATED_DATE, customer.getCreatedDate(), generator, provider);
+        writeDateTime(LAST_MODIFIED_DATE, customer.getLastModifiedDate(), generator, provider);
+        generator.writeEndObject();
+    }
+}
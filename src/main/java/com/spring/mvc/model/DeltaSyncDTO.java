@@ -0,0 +1,26 @@
+package com.spring.mvc.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeltaSyncDTO<T> {
+    // Created or modified since the token, in their current state
+    private List<T> changed;
+    private List<UUID> deleted;
+
+    // Pass as ?since= on the next sync
+    private String nextToken;
+
+    // True when the token was too old (or absent) to compute a delta - changed holds every row
+    // and the client should replace its local copy
+    private boolean fullResync;
+}
@@ -0,0 +1,182 @@
+package com.spring.mvc.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+// Base of the hand-written DTO serializers. They write fields in declaration order through pre-encoded names,
+// and format UUIDs and dates into a per-thread char buffer instead of going through the bean introspection,
+// UUIDSerializer and DateTimeFormatter. The output is what the default bean serializer writes: nulls follow the
+// mapper's default inclusion, dates are ISO strings unless WRITE_DATES_AS_TIMESTAMPS is on, and binary formats
+// get their native UUID encoding.
+abstract class DtoJsonSerializer<T> extends StdSerializer<T> implements ContextualSerializer {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private boolean writeNulls = true;
+    private JsonSerializer<Object> dateSerializer; // null when dates are written as ISO strings here
+
+    protected DtoJsonSerializer(Class<T> type) {
+        super(type);
+    }
+
+    protected abstract DtoJsonSerializer<T> newInstance();
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property)
+            throws JsonMappingException {
+        JsonInclude.Include inclusion = provider.getConfig().getDefaultPropertyInclusion(handledType()).getValueInclusion();
+        DtoJsonSerializer<T> serializer = newInstance();
+        serializer.writeNulls = inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.USE_DEFAULTS;
+        if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            serializer.dateSerializer = provider.findValueSerializer(LocalDateTime.class);
+        }
+        return serializer;
+    }
+
+    protected void writeString(SerializableString name, String value, JsonGenerator generator) throws IOException {
+        if (writeName(name, value, generator)) {
+            generator.writeString(value);
+        }
+    }
+
+    protected void writeString(SerializableString name, SerializableString value, JsonGenerator generator) throws IOException {
+        if (writeName(name, value, generator)) {
+            generator.writeString(value);
+        }
+    }
+
+    protected void writeNumber(SerializableString name, Integer value, JsonGenerator generator) throws IOException {
+        if (writeName(name, value, generator)) {
+            generator.writeNumber(value.intValue());
+        }
+    }
+
+    protected void writeMoney(SerializableString name, Money value, JsonGenerator generator) throws IOException {
+        if (writeName(name, value, generator)) {
+            MoneyJsonSerializer.write(value, generator);
+        }
+    }
+
+    protected void writeUuid(SerializableString name, UUID value, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+        if (!writeName(name, value, generator)) {
+            return;
+        }
+        // Smile and CBOR write UUIDs as 16 bytes of binary, leave that to UUIDSerializer
+        if (generator.canWriteBinaryNatively()) {
+            provider.findValueSerializer(UUID.class).serialize(value, generator, provider);
+            return;
+        }
+
+        char[] chars = BUFFERS.get().uuid;
+        long msb = value.getMostSignificantBits();
+        long lsb = value.getLeastSignificantBits();
+        hex(msb >>> 32, chars, 0, 8);
+        chars[8] = '-';
+        hex(msb >>> 16, chars, 9, 4);
+        chars[13] = '-';
+        hex(msb, chars, 14, 4);
+        chars[18] = '-';
+        hex(lsb >>> 48, chars, 19, 4);
+        chars[23] = '-';
+        hex(lsb, chars, 24, 12);
+        generator.writeString(chars, 0, 36);
+    }
+
+    // ISO_LOCAL_DATE_TIME, which is what JavaTimeModule writes: seconds always, the fraction without trailing zeros
+    protected void writeDateTime(SerializableString name, LocalDateTime value, JsonGenerator generator,
+                                 SerializerProvider provider) throws IOException {
+        if (!writeName(name, value, generator)) {
+            return;
+        }
+        if (dateSerializer != null) {
+            dateSerializer.serialize(value, generator, provider);
+            return;
+        }
+        if (value.getYear() < 0 || value.getYear() > 9999) {
+            generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+            return;
+        }
+
+        Buffers buffers = BUFFERS.get();
+        char[] chars = buffers.dateTime;
+        // Catalog timestamps cluster on a few days, so the date part usually is already in the buffer
+        LocalDate date = value.toLocalDate();
+        if (!date.equals(buffers.date)) {
+            digits(date.getYear(), chars, 0, 4);
+            chars[4] = '-';
+            digits(date.getMonthValue(), chars, 5, 2);
+            chars[7] = '-';
+            digits(date.getDayOfMonth(), chars, 8, 2);
+            chars[10] = 'T';
+            buffers.date = date;
+        }
+        digits(value.getHour(), chars, 11, 2);
+        chars[13] = ':';
+        digits(value.getMinute(), chars, 14, 2);
+        chars[16] = ':';
+        digits(value.getSecond(), chars, 17, 2);
+
+        int length = 19;
+        int nano = value.getNano();
+        if (nano != 0) {
+            chars[19] = '.';
+            digits(nano, chars, 20, 9);
+            length = 29;
+            while (chars[length - 1] == '0') {
+                length--;
+            }
+        }
+        generator.writeString(chars, 0, length);
+    }
+
+    // Writes the field name unless the value is a null the mapper leaves out; false when there's no value to write
+    private boolean writeName(SerializableString name, Object value, JsonGenerator generator) throws IOException {
+        if (value == null) {
+            if (writeNulls) {
+                generator.writeFieldName(name);
+                generator.writeNull();
+            }
+            return false;
+        }
+        generator.writeFieldName(name);
+        return true;
+    }
+
+    private static void hex(long value, char[] chars, int offset, int count) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            chars[i] = HEX[(int) value & 0xF];
+            value >>>= 4;
+        }
+    }
+
+    private static void digits(int value, char[] chars, int offset, int count) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    // The generator copies the characters into its own buffer before write* returns
+    private static final class Buffers {
+        private final char[] uuid = new char[36];
+        private final char[] dateTime = new char[29];
+        private LocalDate date; // whose yyyy-MM-ddT is in dateTime[0, 11)
+    }
+}
@@ -0,0 +1,16 @@
+package com.spring.mvc.model;
+
+import java.util.Set;
+
+// A partial update: the fields to change and their new values, taken from values. Fields not named keep
+// their stored value; a named field whose value is null is cleared.
+public record FieldPatch<T>(T values, Set<String> fields) {
+
+    public FieldPatch {
+        fields = Set.copyOf(fields);
+    }
+
+    public boolean isEmpty() {
+        return fields.isEmpty();
+    }
+}
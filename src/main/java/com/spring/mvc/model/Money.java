@@ -0,0 +1,172 @@
+package com.spring.mvc.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Objects;
+
+// An amount of money as a whole number of minor units (cents for USD) plus its currency.
+// One small object instead of a BigDecimal (and often a BigInteger and char[] behind it), and sums,
+// comparisons and formatting are plain long arithmetic. The scale is the currency's default fraction
+// digits; amounts with finer precision are rejected rather than rounded.
+// On the wire it is a plain JSON number, exactly like the BigDecimal it replaces.
+@JsonSerialize(using = MoneyJsonSerializer.class)
+@JsonDeserialize(using = MoneyJsonDeserializer.class)
+public record Money(long minorUnits, Currency currency) implements Comparable<Money> {
+
+    // The catalog has no per-beer currency, every price is in this one
+    public static final Currency DEFAULT_CURRENCY = Currency.getInstance("USD");
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    public Money {
+        Objects.requireNonNull(currency, "currency");
+        if (currency.getDefaultFractionDigits() < 0 || currency.getDefaultFractionDigits() >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("Unsupported currency " + currency);
+        }
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return new Money(minorUnits, DEFAULT_CURRENCY);
+    }
+
+    public static Money of(BigDecimal amount) {
+        return of(amount, DEFAULT_CURRENCY);
+    }
+
+    public static Money of(BigDecimal amount, Currency currency) {
+        try {
+            return new Money(amount.setScale(currency.getDefaultFractionDigits(), RoundingMode.UNNECESSARY)
+                    .unscaledValue().longValueExact(), currency);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + amount + " can't be represented in " + currency, e);
+        }
+    }
+
+    public static Money of(String amount) {
+        return parse(amount.toCharArray(), 0, amount.length(), DEFAULT_CURRENCY);
+    }
+
+    // Parses a plain decimal such as "-12.50" without going through BigDecimal; trailing zeros beyond
+    // the currency's scale are accepted, other extra digits are not. Exponent notation falls back to BigDecimal.
+    public static Money parse(char[] chars, int offset, int length, Currency currency) {
+        int scale = currency.getDefaultFractionDigits();
+        int end = offset + length;
+        int i = offset;
+
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+
+        long units = 0;
+        int digits = 0;
+        int fractionDigits = -1; // -1 until the decimal point
+        boolean tooPrecise = false; // reported after the loop, an exponent may still bring the digits into range
+        try {
+            for (; i < end; i++) {
+                char c = chars[i];
+                if (c >= '0' && c <= '9') {
+                    digits++;
+                    if (fractionDigits >= 0) {
+                        if (fractionDigits == scale) {
+                            tooPrecise |= c != '0';
+                            continue;
+                        }
+                        fractionDigits++;
+                    }
+                    units = Math.addExact(Math.multiplyExact(units, 10), c - '0');
+                } else if (c == '.' && fractionDigits < 0) {
+                    fractionDigits = 0;
+                } else if (c == 'e' || c == 'E') {
+                    return of(new BigDecimal(chars, offset, length), currency);
+                } else {
+                    throw new IllegalArgumentException("Not an amount: " + new String(chars, offset, length));
+                }
+            }
+            if (digits == 0) {
+                throw new IllegalArgumentException("Not an amount: " + new String(chars, offset, length));
+            }
+            if (tooPrecise) {
+                throw new IllegalArgumentException("Amount " + new String(chars, offset, length)
+                        + " has more than " + scale + " decimal places");
+            }
+
+            units = Math.multiplyExact(units, POWERS_OF_TEN[scale - Math.max(0, fractionDigits)]);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + new String(chars, offset, length) + " is too large", e);
+        }
+        return new Money(negative ? -units : units, currency);
+    }
+
+    public int scale() {
+        return currency.getDefaultFractionDigits();
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, scale());
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money times(long quantity) {
+        return new Money(Math.multiplyExact(minorUnits, quantity), currency);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    // Writes the plain decimal form (e.g. "12.99") into buffer, which needs room for 22 chars; returns the length
+    public int format(char[] buffer) {
+        int scale = scale();
+        long value = minorUnits;
+        int position = buffer.length;
+
+        // Digits are produced right to left from the magnitude; Long.MIN_VALUE is handled by staying negative
+        boolean negative = value < 0;
+        if (!negative) {
+            value = -value;
+        }
+        int written = 0;
+        do {
+            if (written == scale && scale > 0) {
+                buffer[--position] = '.';
+            }
+            buffer[--position] = (char) ('0' - (value % 10));
+            value /= 10;
+            written++;
+        } while (value != 0 || written <= scale);
+
+        if (negative) {
+            buffer[--position] = '-';
+        }
+
+        int length = buffer.length - position;
+        System.arraycopy(buffer, position, buffer, 0, length);
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        char[] buffer = new char[22];
+        return new String(buffer, 0, format(buffer));
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " and " + other.currency);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.spring.mvc.model;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadCapability;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+
+import java.io.IOException;
+
+// Reads a JSON number (or numeric string) into Money by parsing the token's characters in place
+public class MoneyJsonDeserializer extends StdDeserializer<Money> {
+
+    public MoneyJsonDeserializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT && token != JsonToken.VALUE_STRING) {
+            return (Money) context.handleUnexpectedToken(Money.class, parser);
+        }
+
+        try {
+            // Binary formats carry the number itself, there are no characters to parse
+            if (token != JsonToken.VALUE_STRING && parser.getReadCapabilities().isEnabled(StreamReadCapability.EXACT_FLOATS)) {
+                return Money.of(parser.getDecimalValue());
+            }
+            return Money.parse(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength(),
+                    Money.DEFAULT_CURRENCY);
+        } catch (IllegalArgumentException e) {
+            throw InvalidFormatException.from(parser, e.getMessage(), parser.getText(), Money.class);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.spring.mvc.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+// Writes Money as a JSON number (12.99) straight from its minor units, no BigDecimal or String in between
+public class MoneyJsonSerializer extends StdSerializer<Money> {
+
+    // The generator copies the characters into its own buffer before writeNumber returns
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[22]);
+
+    public MoneyJsonSerializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public void serialize(Money money, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        write(money, generator);
+    }
+
+    static void write(Money money, JsonGenerator generator) throws IOException {
+        // Binary formats (Smile, CBOR) have a native decimal encoding; text formats get the plain digits
+        if (generator.canWriteBinaryNatively()) {
+            generator.writeNumber(money.toBigDecimal());
+            return;
+        }
+        char[] buffer = BUFFER.get();
+        generator.writeNumber(buffer, 0, money.format(buffer));
+    }
+}
@@ -0,0 +1,30 @@
+package com.spring.mvc.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.spring.mvc.events.ChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// One change as stored in the outbox log. eventId is unique per change; a relay retried after a crash can
+// append the same change twice, so consumers dedupe on it. offset is the record's log position, set on read.
+// Nulls are left out, which keeps offset out of the stored record and data absent for deletes.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Builder(toBuilder = true)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxMessageDTO {
+    private Long offset;
+    private long eventId;
+    private String aggregateType;
+    private UUID aggregateId;
+    private ChangeType type;
+    private LocalDateTime occurredAt;
+    private JsonNode data;
+}
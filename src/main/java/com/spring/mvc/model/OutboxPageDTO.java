@@ -0,0 +1,19 @@
+package com.spring.mvc.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// A run of outbox messages; pass nextOffset back to continue. startOffset is the oldest offset still retained.
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxPageDTO {
+    private List<OutboxMessageDTO> messages;
+    private long nextOffset;
+    private long startOffset;
+}
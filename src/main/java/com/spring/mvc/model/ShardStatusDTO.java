@@ -0,0 +1,23 @@
+package com.spring.mvc.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// The shards beers are spread over. previousShardCount is set while a resharding is moving beers away from it.
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ShardStatusDTO {
+    private int shardCount;
+    private Integer previousShardCount;
+    private int dataSourceCount;
+    private List<Long> beersPerShard;
+    private long movedBeers;
+}
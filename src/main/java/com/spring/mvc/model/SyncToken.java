@@ -0,0 +1,58 @@
+package com.spring.mvc.model;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+// Opaque delta-sync cursor. Clients send back the nextToken of their previous sync and get everything that changed
+// after it. watermark is when the token was issued - for the in-memory services also how far it reaches - and
+// positions are the change counters the JPA services page by (see ChangeCounter), one per database in shard order.
+public record SyncToken(LocalDateTime watermark, List<Long> positions) {
+
+    public SyncToken(LocalDateTime watermark) {
+        this(watermark, List.of());
+    }
+
+    // Returns null for a blank token, meaning "sync everything"
+    public static SyncToken decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed sync token", e);
+        }
+        if (bytes.length == 0 || bytes.length % Long.BYTES != 0) {
+            throw new IllegalArgumentException("Malformed sync token");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long micros = buffer.getLong();
+        List<Long> positions = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            positions.add(buffer.getLong());
+        }
+        return new SyncToken(LocalDateTime.ofInstant(Instant.EPOCH.plus(micros, ChronoUnit.MICROS), ZoneOffset.UTC),
+                List.copyOf(positions));
+    }
+
+    // The token for one database, as the JPA services read it
+    public SyncToken forPosition(int index) {
+        return new SyncToken(watermark, index < positions.size() ? List.of(positions.get(index)) : List.of());
+    }
+
+    public String encode() {
+        long micros = ChronoUnit.MICROS.between(Instant.EPOCH, watermark.toInstant(ZoneOffset.UTC));
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES * (1 + positions.size())).putLong(micros);
+        positions.forEach(buffer::putLong);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+}
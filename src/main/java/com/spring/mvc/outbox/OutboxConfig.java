@@ -0,0 +1,50 @@
+package com.spring.mvc.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.mvc.persistence.MappedLog;
+import com.spring.mvc.repositories.OutboxEventRepository;
+import com.spring.mvc.sharding.BeerShards;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+// Transactional outbox for beer and customer changes when mvc.outbox.enabled=true
+@Configuration
+@ConditionalOnProperty(name = "mvc.outbox.enabled", havingValue = "true")
+public class OutboxConfig {
+
+    @Value("${mvc.outbox.directory:data/outbox}")
+    private Path directory;
+
+    @Value("${mvc.outbox.segment-size:64MB}")
+    private DataSize segmentSize;
+
+    @Value("${mvc.outbox.retention-size:1GB}")
+    private DataSize retentionSize;
+
+    @Value("${mvc.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Bean
+    public OutboxWriter outboxWriter(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        return new OutboxWriter(outboxEventRepository, objectMapper);
+    }
+
+    @Bean
+    public OutboxLog outboxLog(ObjectMapper objectMapper) throws IOException {
+        return new OutboxLog(new MappedLog(directory, Math.toIntExact(segmentSize.toBytes())), objectMapper,
+                retentionSize.toBytes());
+    }
+
+    @Bean
+    public OutboxRelay outboxRelay(OutboxEventRepository outboxEventRepository, OutboxLog outboxLog, ObjectMapper objectMapper,
+                                   Optional<BeerShards> beerShards) {
+        return new OutboxRelay(outboxEventRepository, outboxLog, objectMapper, batchSize, beerShards);
+    }
+}
@@ -0,0 +1,73 @@
+package com.spring.mvc.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.mvc.model.OutboxMessageDTO;
+import com.spring.mvc.model.OutboxPageDTO;
+import com.spring.mvc.persistence.MappedLog;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// The relayed outbox messages as JSON records in a MappedLog. Offsets are log positions, so a consumer
+// resumes by passing back the nextOffset of its last page. Whole segments are dropped once the log holds
+// more than retentionSize bytes; a consumer further behind than that sees startOffset move past its offset.
+@Slf4j
+public class OutboxLog implements Closeable {
+
+    private final MappedLog mappedLog;
+
+    private final ObjectMapper objectMapper;
+
+    private final long retentionSize;
+
+    public OutboxLog(MappedLog mappedLog, ObjectMapper objectMapper, long retentionSize) {
+        this.mappedLog = mappedLog;
+        this.objectMapper = objectMapper;
+        this.retentionSize = retentionSize;
+    }
+
+    // Returns once every message is on disk - one force for the whole batch
+    public void append(List<OutboxMessageDTO> messages) throws IOException {
+        long end = mappedLog.endPosition();
+        for (OutboxMessageDTO message : messages) {
+            end = mappedLog.append(objectMapper.writeValueAsBytes(message));
+        }
+        mappedLog.awaitDurable(end);
+
+        if (end - mappedLog.startPosition() > retentionSize) {
+            mappedLog.deleteBefore(end - retentionSize);
+        }
+    }
+
+    // Up to limit messages from offset (the start of the log when null); IllegalArgumentException when
+    // offset is not a message boundary that is still retained
+    public OutboxPageDTO read(Long offset, int limit) throws IOException {
+        long startOffset = mappedLog.startPosition();
+        List<OutboxMessageDTO> messages = new ArrayList<>(Math.min(limit, 1024));
+
+        long nextOffset = mappedLog.read(offset == null ? startOffset : offset, limit, (position, payload) -> {
+            OutboxMessageDTO message = objectMapper.readValue(payload, OutboxMessageDTO.class);
+            message.setOffset(position);
+            messages.add(message);
+        });
+
+        return OutboxPageDTO.builder()
+                .messages(messages)
+                .nextOffset(nextOffset)
+                .startOffset(startOffset)
+                .build();
+    }
+
+    public long endOffset() {
+        return mappedLog.endPosition();
+    }
+
+    @Override
+    public void close() throws IOException {
+        mappedLog.close();
+    }
+}
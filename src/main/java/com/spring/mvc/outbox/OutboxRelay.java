@@ -0,0 +1,108 @@
+package com.spring.mvc.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.mvc.entities.OutboxEvent;
+import com.spring.mvc.model.OutboxMessageDTO;
+import com.spring.mvc.repositories.OutboxEventRepository;
+import com.spring.mvc.sharding.BeerShards;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// Moves committed outbox rows into the outbox log, off the write path. Each batch is appended and forced
+// before its rows are deleted, so a crash in between only means the batch is appended again on the next
+// run: delivery is at-least-once, duplicates carry the same eventId.
+// Rows are taken oldest id first and deleted rather than tracked with a cursor, so a transaction that
+// commits after a higher id has been relayed is still picked up.
+// With sharded beers, beer events are written on the beer's shard and every shard's table is drained in turn;
+// the order between shards is not kept, the order within one shard (so one beer between reshards) is.
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final OutboxLog outboxLog;
+
+    private final ObjectMapper objectMapper;
+
+    private final int batchSize;
+
+    private final Optional<BeerShards> beerShards;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, OutboxLog outboxLog, ObjectMapper objectMapper,
+                       int batchSize, Optional<BeerShards> beerShards) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxLog = outboxLog;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.beerShards = beerShards;
+    }
+
+    @Scheduled(fixedDelayString = "${mvc.outbox.poll-interval:100ms}")
+    public void relay() throws IOException {
+        relayPending();
+    }
+
+    // Drains the table (on every shard) in batches of batchSize, returns the number of events relayed
+    public synchronized int relayPending() throws IOException {
+        int[] relayed = {0};
+        try {
+            BeerShards.forEachShard(beerShards, () -> {
+                try {
+                    relayed[0] += relayShard();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        if (relayed[0] > 0) {
+            log.debug("Relayed {} outbox events", relayed[0]);
+        }
+        return relayed[0];
+    }
+
+    private int relayShard() throws IOException {
+        int relayed = 0;
+        List<OutboxEvent> batch;
+        do {
+            batch = outboxEventRepository.findByOrderByIdAsc(PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            List<OutboxMessageDTO> messages = new ArrayList<>(batch.size());
+            List<Long> ids = new ArrayList<>(batch.size());
+            for (OutboxEvent event : batch) {
+                messages.add(toMessage(event));
+                ids.add(event.getId());
+            }
+
+            outboxLog.append(messages);
+            outboxEventRepository.deleteAllByIdInBatch(ids);
+            relayed += batch.size();
+        } while (batch.size() == batchSize);
+        return relayed;
+    }
+
+    private OutboxMessageDTO toMessage(OutboxEvent event) throws IOException {
+        JsonNode data = event.getPayload() == null ? null : objectMapper.readTree(event.getPayload());
+        return OutboxMessageDTO.builder()
+                .eventId(event.getId())
+                .aggregateType(event.getAggregateType())
+                .aggregateId(event.getAggregateId())
+                .type(event.getChangeType())
+                .occurredAt(event.getCreatedDate())
+                .data(data)
+                .build();
+    }
+}
@@ -0,0 +1,52 @@
+package com.spring.mvc.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.mvc.entities.OutboxEvent;
+import com.spring.mvc.events.BeerChangedEvent;
+import com.spring.mvc.events.CustomerChangedEvent;
+import com.spring.mvc.events.ChangeType;
+import com.spring.mvc.repositories.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+
+// Adds an outbox row for every change BeerServiceJPA/CustomerServiceJPA make. BEFORE_COMMIT runs inside the
+// writer's transaction, so the row commits or rolls back with the change, and the insert is flushed together
+// with the entity's statements instead of costing its own round trip. Events published outside a transaction
+// (the in-memory services, which have their own journal) are not recorded.
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final ObjectMapper objectMapper;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onBeerChanged(BeerChangedEvent event) {
+        record(OutboxEvent.BEER, event.beerId(), event.type(), event.beer());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        record(OutboxEvent.CUSTOMER, event.customerId(), event.type(), event.customer());
+    }
+
+    private void record(String aggregateType, UUID aggregateId, ChangeType type, Object data) {
+        String payload;
+        try {
+            payload = data == null ? null : objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + aggregateType + " " + aggregateId, e);
+        }
+
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .changeType(type)
+                .payload(payload)
+                .build());
+    }
+}
@@ -0,0 +1,90 @@
+package com.spring.mvc.patch;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.spring.mvc.model.FieldPatch;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Turns a merge patch or JSON Patch document into a FieldPatch: the patch is applied to the JSON form of
+// the current DTO and the top-level fields whose value differs are the ones the store updates. Fields the
+// store manages itself can't be patched, and the patched DTO must still pass the DTO's validation.
+@Component
+@RequiredArgsConstructor
+public class DtoPatcher {
+
+    public static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+    public static final String JSON_PATCH_JSON_VALUE = "application/json-patch+json";
+
+    private static final Set<String> READ_ONLY = Set.of("id", "version", "createdDate", "updateDate", "lastModifiedDate");
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    public <T> FieldPatch<T> apply(T current, JsonNode patch, MediaType contentType, Class<T> type) {
+        JsonNode before = objectMapper.valueToTree(current);
+        JsonNode after;
+        if (contentType.isCompatibleWith(MediaType.parseMediaType(JSON_PATCH_JSON_VALUE))) {
+            after = JsonPatch.apply(before, patch);
+        } else if (contentType.isCompatibleWith(MediaType.parseMediaType(MERGE_PATCH_JSON_VALUE))) {
+            after = JsonMergePatch.apply(before, patch);
+        } else {
+            throw new IllegalArgumentException("Not a patch media type: " + contentType);
+        }
+        if (!after.isObject()) {
+            throw new InvalidPatchException("The patched document must be an object");
+        }
+
+        Set<String> properties = new HashSet<>();
+        for (BeanPropertyDefinition property : objectMapper.getDeserializationConfig()
+                .introspect(objectMapper.constructType(type)).findProperties()) {
+            properties.add(property.getName());
+        }
+
+        // Absent and null are the same here: the DTO serializer may leave nulls out
+        Set<String> fields = new TreeSet<>();
+        Set<String> names = new HashSet<>();
+        before.fieldNames().forEachRemaining(names::add);
+        after.fieldNames().forEachRemaining(names::add);
+        for (String name : names) {
+            if (!valueOf(before, name).equals(JsonPatch.JSON_EQUALITY, valueOf(after, name))) {
+                if (!properties.contains(name)) {
+                    throw new InvalidPatchException("Unknown field " + name);
+                }
+                if (READ_ONLY.contains(name)) {
+                    throw new InvalidPatchException("Field " + name + " can't be changed");
+                }
+                fields.add(name);
+            }
+        }
+
+        T values;
+        try {
+            values = objectMapper.treeToValue(after, type);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            throw new InvalidPatchException("Patched document isn't a valid " + type.getSimpleName() + ": " + e.getMessage());
+        }
+        Set<ConstraintViolation<T>> violations = validator.validate(values);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        return new FieldPatch<>(values, fields);
+    }
+
+    private static JsonNode valueOf(JsonNode document, String name) {
+        JsonNode value = document.get(name);
+        return value == null ? NullNode.getInstance() : value;
+    }
+}
@@ -0,0 +1,14 @@
+package com.spring.mvc.patch;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// The patch document is well-formed JSON but can't be applied: an unknown operation or field, a path
+// that doesn't exist, a failed "test", or a change to a field the server manages
+@ResponseStatus(value = HttpStatus.UNPROCESSABLE_ENTITY, reason = "Patch can't be applied")
+public class InvalidPatchException extends RuntimeException {
+
+    public InvalidPatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,36 @@
+package com.spring.mvc.patch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.Map;
+
+// RFC 7396 JSON Merge Patch: members of the patch replace the target's, a null member removes it,
+// and objects are merged recursively. Anything other than an object replaces the target outright.
+public final class JsonMergePatch {
+
+    private JsonMergePatch() {
+    }
+
+    public static JsonNode apply(JsonNode target, JsonNode patch) {
+        if (!patch.isObject()) {
+            return patch.deepCopy();
+        }
+
+        ObjectNode result = target.isObject() ? ((ObjectNode) target).deepCopy() : JsonNodeFactory.instance.objectNode();
+        Iterator<Map.Entry<String, JsonNode>> members = patch.fields();
+        while (members.hasNext()) {
+            Map.Entry<String, JsonNode> member = members.next();
+            if (member.getValue().isNull()) {
+                result.remove(member.getKey());
+            } else {
+                JsonNode existing = result.get(member.getKey());
+                result.set(member.getKey(), apply(existing == null ? MissingNode.getInstance() : existing, member.getValue()));
+            }
+        }
+        return result;
+    }
+}
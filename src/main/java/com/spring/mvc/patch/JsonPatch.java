@@ -0,0 +1,126 @@
+package com.spring.mvc.patch;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Comparator;
+
+// RFC 6902 JSON Patch: add, remove, replace, move, copy and test, applied in order to a copy of the
+// document. Any operation that fails rejects the whole patch and leaves the document untouched.
+public final class JsonPatch {
+
+    // Numbers are equal when their values are, so a "test" for 12.5 matches 12.50
+    static final Comparator<JsonNode> JSON_EQUALITY = (a, b) -> {
+        if (a.isNumber() && b.isNumber()) {
+            return a.decimalValue().compareTo(b.decimalValue());
+        }
+        return a.equals(b) ? 0 : 1;
+    };
+
+    private JsonPatch() {
+    }
+
+    public static JsonNode apply(JsonNode document, JsonNode patch) {
+        if (!patch.isArray()) {
+            throw new InvalidPatchException("A JSON Patch must be an array of operations");
+        }
+
+        JsonNode result = document.deepCopy();
+        for (JsonNode operation : patch) {
+            JsonPointer path = pointer(operation, "path");
+            switch (member(operation, "op").asText()) {
+                case "add" -> result = add(result, path, member(operation, "value").deepCopy());
+                case "remove" -> result = remove(result, path);
+                case "replace" -> result = add(remove(result, path), path, member(operation, "value").deepCopy());
+                case "move" -> {
+                    JsonPointer from = pointer(operation, "from");
+                    if (!path.equals(from) && path.toString().startsWith(from + "/")) {
+                        throw new InvalidPatchException("Can't move " + from + " into itself");
+                    }
+                    JsonNode value = get(result, from);
+                    result = add(remove(result, from), path, value);
+                }
+                case "copy" -> result = add(result, path, get(result, pointer(operation, "from")).deepCopy());
+                case "test" -> {
+                    if (!get(result, path).equals(JSON_EQUALITY, member(operation, "value"))) {
+                        throw new InvalidPatchException("Test failed at " + path);
+                    }
+                }
+                default -> throw new InvalidPatchException("Unknown operation " + operation.get("op"));
+            }
+        }
+        return result;
+    }
+
+    private static JsonNode add(JsonNode document, JsonPointer path, JsonNode value) {
+        if (path.matches()) {
+            return value;
+        }
+
+        JsonNode parent = get(document, path.head());
+        String name = path.last().getMatchingProperty();
+        if (parent instanceof ObjectNode object) {
+            object.set(name, value);
+        } else if (parent instanceof ArrayNode array) {
+            if (name.equals("-")) {
+                array.add(value);
+            } else {
+                array.insert(index(name, array.size(), path), value);
+            }
+        } else {
+            throw new InvalidPatchException("No container at " + path.head());
+        }
+        return document;
+    }
+
+    private static JsonNode remove(JsonNode document, JsonPointer path) {
+        if (path.matches()) {
+            throw new InvalidPatchException("Can't remove the whole document");
+        }
+
+        JsonNode parent = get(document, path.head());
+        String name = path.last().getMatchingProperty();
+        if (parent instanceof ObjectNode object && object.has(name)) {
+            object.remove(name);
+        } else if (parent instanceof ArrayNode array && !array.isEmpty()) {
+            array.remove(index(name, array.size() - 1, path));
+        } else {
+            throw new InvalidPatchException("Nothing at " + path);
+        }
+        return document;
+    }
+
+    private static JsonNode get(JsonNode document, JsonPointer path) {
+        JsonNode node = document.at(path);
+        if (node.isMissingNode()) {
+            throw new InvalidPatchException("Nothing at " + path);
+        }
+        return node;
+    }
+
+    // Array indexes are plain decimals without leading zeros, from 0 to max inclusive
+    private static int index(String token, int max, JsonPointer path) {
+        if (!token.matches("0|[1-9][0-9]{0,8}") || Integer.parseInt(token) > max) {
+            throw new InvalidPatchException("Bad array index in " + path);
+        }
+        return Integer.parseInt(token);
+    }
+
+    private static JsonNode member(JsonNode operation, String name) {
+        JsonNode member = operation.get(name);
+        if (member == null) {
+            throw new InvalidPatchException("Operation " + operation + " has no \"" + name + "\"");
+        }
+        return member;
+    }
+
+    private static JsonPointer pointer(JsonNode operation, String name) {
+        try {
+            return JsonPointer.compile(member(operation, name).asText());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPatchException("Bad JSON Pointer in " + operation);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.spring.mvc.persistence;
+
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerStyle;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.UUID;
+
+public class BeerRecordCodec extends RecordCodec<BeerDTO> {
+
+    @Override
+    public UUID id(BeerDTO beer) {
+        return beer.getId();
+    }
+
+    @Override
+    public void write(BeerDTO beer, DataOutput out) throws IOException {
+        writeUuid(beer.getId(), out);
+        writeNullableInt(beer.getVersion(), out);
+        writeNullableString(beer.getBeerName(), out);
+        writeNullableEnum(beer.getBeerStyle(), out);
+        writeNullableString(beer.getUpc(), out);
+        writeNullableInt(beer.getQuantityOnHand(), out);
+        writeNullableMoney(beer.getPrice(), out);
+        writeNullableDateTime(beer.getCreatedDate(), out);
+        writeNullableDateTime(beer.getUpdateDate(), out);
+    }
+
+    @Override
+    public BeerDTO read(DataInput in) throws IOException {
+        return BeerDTO.builder()
+                .id(readUuid(in))
+                .version(readNullableInt(in))
+                .beerName(readNullableString(in))
+                .beerStyle(readNullableEnum(BeerStyle.class, in))
+                .upc(readNullableString(in))
+                .quantityOnHand(readNullableInt(in))
+                .price(readNullableMoney(in))
+                .createdDate(readNullableDateTime(in))
+                .updateDate(readNullableDateTime(in))
+                .build();
+    }
+}
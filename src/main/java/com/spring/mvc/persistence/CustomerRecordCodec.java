@@ -0,0 +1,36 @@
+package com.spring.mvc.persistence;
+
+import com.spring.mvc.model.CustomerDTO;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.UUID;
+
+public class CustomerRecordCodec extends RecordCodec<CustomerDTO> {
+
+    @Override
+    public UUID id(CustomerDTO customer) {
+        return customer.getId();
+    }
+
+    @Override
+    public void write(CustomerDTO customer, DataOutput out) throws IOException {
+        writeUuid(customer.getId(), out);
+        writeNullableInt(customer.getVersion(), out);
+        writeNullableString(customer.getName(), out);
+        writeNullableDateTime(customer.getCreatedDate(), out);
+        writeNullableDateTime(customer.getLastModifiedDate(), out);
+    }
+
+    @Override
+    public CustomerDTO read(DataInput in) throws IOException {
+        return CustomerDTO.builder()
+                .id(readUuid(in))
+                .version(readNullableInt(in))
+                .name(readNullableString(in))
+                .createdDate(readNullableDateTime(in))
+                .lastModifiedDate(readNullableDateTime(in))
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.spring.mvc.persistence;
+
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.CustomerDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+// Makes BeerServiceImpl/CustomerServiceImpl durable when mvc.durability.enabled=true; they only serve with
+// mvc.engine=memory, the JPA services have the database for that
+@Configuration
+@ConditionalOnExpression("${mvc.durability.enabled:false} and '${mvc.engine:jpa}' == 'memory'")
+public class DurabilityConfig {
+
+    @Value("${mvc.durability.directory:data}")
+    private Path directory;
+
+    @Value("${mvc.durability.segment-size:64MB}")
+    private DataSize segmentSize;
+
+    @Value("${mvc.durability.group-commit:true}")
+    private boolean groupCommit;
+
+    @Value("${mvc.durability.flush-interval:50ms}")
+    private Duration flushInterval;
+
+    @Value("${mvc.durability.snapshot-interval:5m}")
+    private Duration snapshotInterval;
+
+    @Bean
+    public DurableStore<BeerDTO> beerDurableStore() throws IOException {
+        return new DurableStore<>("beer", directory.resolve("beer"), new BeerRecordCodec(),
+                Math.toIntExact(segmentSize.toBytes()), groupCommit, flushInterval, snapshotInterval);
+    }
+
+    @Bean
+    public DurableStore<CustomerDTO> customerDurableStore() throws IOException {
+        return new DurableStore<>("customer", directory.resolve("customer"), new CustomerRecordCodec(),
+                Math.toIntExact(segmentSize.toBytes()), groupCommit, flushInterval, snapshotInterval);
+    }
+}
@@ -0,0 +1,157 @@
+package com.spring.mvc.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Write-ahead log plus periodic snapshots for one in-memory record map.
+// On startup recover() loads the latest snapshot and replays the log written after it; every write is
+// appended to the log before the service acknowledges it. Checkpoints write a fresh snapshot and drop the
+// log segments it covers, which keeps recovery time bounded by the snapshot interval.
+@Slf4j
+public class DurableStore<T> implements Journal<T>, Closeable {
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+
+    private final String name;
+    private final RecordCodec<T> codec;
+    private final MappedLog mappedLog;
+    private final Path snapshotFile;
+    private final boolean groupCommit;
+    private final Duration snapshotInterval;
+    private final ScheduledExecutorService scheduler;
+
+    // With groupCommit a write returns only once it is on disk; without it the log is forced every
+    // flushInterval and up to that much acknowledged work can be lost in a crash
+    public DurableStore(String name, Path directory, RecordCodec<T> codec, int segmentSize,
+                        boolean groupCommit, Duration flushInterval, Duration snapshotInterval) throws IOException {
+        this.name = name;
+        this.codec = codec;
+        this.mappedLog = new MappedLog(directory.resolve("wal"), segmentSize);
+        this.snapshotFile = directory.resolve(name + ".snapshot");
+        this.groupCommit = groupCommit;
+        this.snapshotInterval = snapshotInterval;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name(name + "-durability").factory());
+
+        if (!groupCommit) {
+            scheduler.scheduleWithFixedDelay(mappedLog::flush,
+                    flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public long put(T record) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(PUT);
+            codec.write(record, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return mappedLog.append(bytes.toByteArray());
+    }
+
+    @Override
+    public long delete(UUID id) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(17);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(DELETE);
+            RecordCodec.writeUuid(id, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return mappedLog.append(bytes.toByteArray());
+    }
+
+    @Override
+    public void awaitDurable(long position) {
+        if (groupCommit) {
+            mappedLog.awaitDurable(position);
+        }
+    }
+
+    @Override
+    public long position() {
+        return mappedLog.endPosition();
+    }
+
+    public boolean hasPersistedState() {
+        return Files.exists(snapshotFile) || mappedLog.endPosition() > 0;
+    }
+
+    // Feeds the latest snapshot and then every logged write after it to the target, which should start empty
+    public void recover(BiConsumer<UUID, T> put, Consumer<UUID> remove) throws IOException {
+        SnapshotFile.Loaded<T> snapshot = SnapshotFile.read(snapshotFile, codec);
+
+        long from = mappedLog.startPosition();
+        int restored = 0;
+        if (snapshot != null) {
+            for (T record : snapshot.records()) {
+                put.accept(codec.id(record), record);
+            }
+            restored = snapshot.records().size();
+            from = snapshot.position();
+        }
+
+        int[] replayed = {0};
+        mappedLog.read(from, (position, payload) -> {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            if (in.readByte() == PUT) {
+                T record = codec.read(in);
+                put.accept(codec.id(record), record);
+            } else {
+                remove.accept(RecordCodec.readUuid(in));
+            }
+            replayed[0]++;
+        });
+
+        log.info("Recovered {} {} records from the snapshot and replayed {} from the log", restored, name, replayed[0]);
+    }
+
+    public void checkpoint(Checkpoint<T> checkpoint) throws IOException {
+        SnapshotFile.write(snapshotFile, checkpoint.position(), checkpoint.records(), codec);
+        mappedLog.deleteBefore(checkpoint.position());
+
+        log.debug("Wrote {} snapshot of {} records at log position {}", name, checkpoint.records().size(), checkpoint.position());
+    }
+
+    // The source must return a copy of the records together with the log position they reflect,
+    // taken atomically with respect to writes
+    public void scheduleCheckpoints(Supplier<Checkpoint<T>> source) {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint(source.get());
+            } catch (Exception e) {
+                log.error("{} snapshot failed", name, e);
+            }
+        }, snapshotInterval.toMillis(), snapshotInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        mappedLog.close();
+    }
+
+    public record Checkpoint<T>(long position, List<T> records) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.spring.mvc.persistence;
+
+import java.util.UUID;
+
+// Where an in-memory service records its writes. put()/delete() return a log position that
+// awaitDurable() can block on; they are called under the service's write lock, awaitDurable() outside it.
+public interface Journal<T> {
+
+    long put(T record);
+
+    long delete(UUID id);
+
+    void awaitDurable(long position);
+
+    long position();
+
+    // Journal used when durability is switched off
+    static <T> Journal<T> none() {
+        return new Journal<>() {
+            @Override
+            public long put(T record) {
+                return 0;
+            }
+
+            @Override
+            public long delete(UUID id) {
+                return 0;
+            }
+
+            @Override
+            public void awaitDurable(long position) {
+            }
+
+            @Override
+            public long position() {
+                return 0;
+            }
+        };
+    }
+}
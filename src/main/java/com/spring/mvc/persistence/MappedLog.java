@@ -0,0 +1,368 @@
+package com.spring.mvc.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Append-only log of byte records stored in fixed-size memory-mapped segment files.
+//
+// Positions are global byte offsets: a record's position is where it starts, append() returns where it
+// ends (which is also the position of the next record). Each record is [length][crc32c][payload];
+// on open the segments are scanned and the log ends at the first record that is incomplete or fails
+// its checksum, so a write torn by a crash is simply dropped.
+//
+// Appends only copy into the mapped pages. awaitDurable() forces them to disk with group commit:
+// the first waiter forces everything appended so far, writers arriving meanwhile are covered by the
+// next force, so one fsync is shared by every write in the batch.
+@Slf4j
+public class MappedLog implements Closeable {
+
+    private static final int HEADER_SIZE = 8;
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final List<Segment> segments = new ArrayList<>(); // guarded by appendLock
+    private Segment active; // guarded by appendLock
+    private volatile long endPosition;
+
+    private final Object flushMonitor = new Object();
+    private boolean flushing; // guarded by flushMonitor
+    private volatile long durablePosition;
+
+    public MappedLog(Path directory, int segmentSize) throws IOException {
+        if (segmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("segmentSize too small");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+
+        Files.createDirectories(directory);
+
+        List<Long> bases;
+        try (Stream<Path> files = Files.list(directory)) {
+            bases = files.map(file -> file.getFileName().toString())
+                    .filter(file -> file.endsWith(SUFFIX))
+                    .map(file -> Long.parseLong(file.substring(0, file.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+
+        for (long base : bases) {
+            Segment segment = openSegment(base);
+            segment.writePosition = scanEnd(segment);
+            segments.add(segment);
+        }
+
+        if (segments.isEmpty()) {
+            segments.add(openSegment(0));
+        }
+
+        active = segments.getLast();
+        clearTail(active);
+
+        endPosition = active.base + active.writePosition;
+        durablePosition = endPosition;
+    }
+
+    // Returns the position just after the record
+    public long append(byte[] payload) {
+        int size = HEADER_SIZE + payload.length;
+        if (size > segmentSize) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes does not fit in a segment");
+        }
+
+        appendLock.lock();
+        try {
+            if (active.writePosition + size > segmentSize) {
+                roll();
+            }
+
+            MappedByteBuffer buffer = active.buffer;
+            int offset = active.writePosition;
+
+            buffer.putInt(offset + 4, checksum(payload, 0, payload.length));
+            buffer.put(offset + HEADER_SIZE, payload);
+            buffer.putInt(offset, payload.length);
+
+            active.writePosition += size;
+            endPosition = active.base + active.writePosition;
+            return endPosition;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Blocks until everything up to position is on disk
+    public void awaitDurable(long position) {
+        while (durablePosition < position) {
+            synchronized (flushMonitor) {
+                if (durablePosition >= position) {
+                    return;
+                }
+                if (flushing) {
+                    // Someone else is forcing, wait for them and then check whether that covered us
+                    try {
+                        flushMonitor.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted waiting for log flush", e);
+                    }
+                    continue;
+                }
+                flushing = true;
+            }
+
+            // Force outside the monitor so writers arriving meanwhile queue up for the next batch
+            long flushed = durablePosition;
+            try {
+                flushed = forceAppended();
+            } finally {
+                synchronized (flushMonitor) {
+                    flushing = false;
+                    durablePosition = Math.max(durablePosition, flushed);
+                    flushMonitor.notifyAll();
+                }
+            }
+        }
+    }
+
+    // Forces everything appended so far, used by the periodic flusher in async mode
+    public void flush() {
+        awaitDurable(endPosition);
+    }
+
+    private long forceAppended() {
+        Segment segment;
+        long target;
+        int from;
+        appendLock.lock();
+        try {
+            segment = active;
+            target = endPosition;
+            from = segment.forcedPosition;
+        } finally {
+            appendLock.unlock();
+        }
+
+        // Earlier segments were forced in full when they were rolled
+        int to = (int) (target - segment.base);
+        if (to > from) {
+            segment.buffer.force(from, to - from);
+            segment.forcedPosition = Math.max(segment.forcedPosition, to);
+        }
+        return target;
+    }
+
+    // Calls the reader for every complete record at or after fromPosition, returns the end position
+    public long read(long fromPosition, RecordReader reader) throws IOException {
+        long end = endPosition;
+
+        List<Segment> snapshot;
+        appendLock.lock();
+        try {
+            snapshot = List.copyOf(segments);
+        } finally {
+            appendLock.unlock();
+        }
+
+        for (Segment segment : snapshot) {
+            long segmentEnd = Math.min(end, segment.base + segment.writePosition);
+            if (segmentEnd <= fromPosition) {
+                continue;
+            }
+
+            int offset = (int) Math.max(0, fromPosition - segment.base);
+            while (segment.base + offset < segmentEnd) {
+                int length = segment.buffer.getInt(offset);
+                byte[] payload = new byte[length];
+                segment.buffer.get(offset + HEADER_SIZE, payload);
+
+                reader.read(segment.base + offset, payload);
+                offset += HEADER_SIZE + length;
+            }
+        }
+        return end;
+    }
+
+    // Like read(), but stops after maxRecords and returns the position after the last record read. fromPosition
+    // comes from a client, so it is checked: it must be inside the log and the record there must pass its checksum.
+    public long read(long fromPosition, int maxRecords, RecordReader reader) throws IOException {
+        long end = endPosition;
+
+        List<Segment> snapshot;
+        appendLock.lock();
+        try {
+            snapshot = List.copyOf(segments);
+        } finally {
+            appendLock.unlock();
+        }
+
+        if (fromPosition < snapshot.getFirst().base || fromPosition > end) {
+            throw new IllegalArgumentException("Position " + fromPosition + " is outside the log ("
+                    + snapshot.getFirst().base + " to " + end + ")");
+        }
+
+        long position = fromPosition;
+        int count = 0;
+        for (Segment segment : snapshot) {
+            int segmentEnd = (int) (Math.min(end, segment.base + segment.writePosition) - segment.base);
+            while (count < maxRecords && position >= segment.base && position - segment.base < segmentEnd) {
+                int offset = (int) (position - segment.base);
+                int length = segment.buffer.getInt(offset);
+                if (length <= 0 || offset + HEADER_SIZE + length > segmentEnd) {
+                    throw new IllegalArgumentException("No record at position " + position);
+                }
+
+                byte[] payload = new byte[length];
+                segment.buffer.get(offset + HEADER_SIZE, payload);
+                if (checksum(payload, 0, length) != segment.buffer.getInt(offset + 4)) {
+                    throw new IllegalArgumentException("No record at position " + position);
+                }
+
+                reader.read(position, payload);
+                position += HEADER_SIZE + length;
+                count++;
+            }
+        }
+        return position;
+    }
+
+    public long startPosition() {
+        appendLock.lock();
+        try {
+            return segments.getFirst().base;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public long endPosition() {
+        return endPosition;
+    }
+
+    // Deletes whole segments that end at or before position, e.g. once a snapshot covers them
+    public void deleteBefore(long position) throws IOException {
+        List<Segment> removed = new ArrayList<>();
+
+        appendLock.lock();
+        try {
+            while (segments.size() > 1 && segments.get(1).base <= position) {
+                removed.add(segments.removeFirst());
+            }
+        } finally {
+            appendLock.unlock();
+        }
+
+        for (Segment segment : removed) {
+            segment.channel.close();
+            Files.deleteIfExists(segment.path);
+            log.debug("Deleted log segment {}", segment.path);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+
+        appendLock.lock();
+        try {
+            for (Segment segment : segments) {
+                segment.channel.close();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void roll() {
+        Segment previous = active;
+        previous.buffer.force();
+        previous.forcedPosition = previous.writePosition;
+
+        try {
+            active = openSegment(previous.base + previous.writePosition);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create log segment", e);
+        }
+        segments.add(active);
+    }
+
+    private Segment openSegment(long base) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", base, SUFFIX));
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        return new Segment(base, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+    }
+
+    private int scanEnd(Segment segment) {
+        int offset = 0;
+        while (offset + HEADER_SIZE <= segmentSize) {
+            int length = segment.buffer.getInt(offset);
+            if (length <= 0 || offset + HEADER_SIZE + length > segmentSize) {
+                break;
+            }
+
+            byte[] payload = new byte[length];
+            segment.buffer.get(offset + HEADER_SIZE, payload);
+            if (checksum(payload, 0, length) != segment.buffer.getInt(offset + 4)) {
+                log.warn("Dropping torn record at {} in {}", segment.base + offset, segment.path);
+                break;
+            }
+            offset += HEADER_SIZE + length;
+        }
+        segment.forcedPosition = offset;
+        return offset;
+    }
+
+    // Zeroes whatever a torn write left after the last good record, so it can't be mistaken for data later
+    private void clearTail(Segment segment) {
+        if (segment.writePosition + HEADER_SIZE <= segmentSize && segment.buffer.getInt(segment.writePosition) != 0) {
+            for (int i = segment.writePosition; i < segmentSize; i++) {
+                segment.buffer.put(i, (byte) 0);
+            }
+            segment.buffer.force();
+        }
+    }
+
+    private static int checksum(byte[] payload, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload, offset, length);
+        return (int) crc.getValue();
+    }
+
+    @FunctionalInterface
+    public interface RecordReader {
+        void read(long position, byte[] payload) throws IOException;
+    }
+
+    private static final class Segment {
+        private final long base;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+        private volatile int forcedPosition;
+
+        private Segment(long base, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.base = base;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.spring.mvc.persistence;
+
+import com.spring.mvc.model.Money;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Currency;
+import java.util.UUID;
+
+// Compact binary encoding of one record type for the write-ahead log and snapshots.
+// Nullable fields are prefixed with a presence flag.
+public abstract class RecordCodec<T> {
+
+    public abstract UUID id(T record);
+
+    public abstract void write(T record, DataOutput out) throws IOException;
+
+    public abstract T read(DataInput in) throws IOException;
+
+    protected static void writeUuid(UUID value, DataOutput out) throws IOException {
+        out.writeLong(value.getMostSignificantBits());
+        out.writeLong(value.getLeastSignificantBits());
+    }
+
+    protected static UUID readUuid(DataInput in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    protected static void writeNullableInt(Integer value, DataOutput out) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    protected static Integer readNullableInt(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    protected static void writeNullableString(String value, DataOutput out) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    protected static String readNullableString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    protected static <E extends Enum<E>> void writeNullableEnum(E value, DataOutput out) throws IOException {
+        out.writeByte(value == null ? -1 : value.ordinal());
+    }
+
+    protected static <E extends Enum<E>> E readNullableEnum(Class<E> type, DataInput in) throws IOException {
+        byte ordinal = in.readByte();
+        return ordinal < 0 ? null : type.getEnumConstants()[ordinal];
+    }
+
+    protected static void writeNullableMoney(Money value, DataOutput out) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.minorUnits());
+            out.writeUTF(value.currency().getCurrencyCode());
+        }
+    }
+
+    protected static Money readNullableMoney(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        long minorUnits = in.readLong();
+        return new Money(minorUnits, Currency.getInstance(in.readUTF()));
+    }
+
+    protected static void writeNullableDateTime(LocalDateTime value, DataOutput out) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    protected static LocalDateTime readNullableDateTime(DataInput in) throws IOException {
+        return in.readBoolean() ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC) : null;
+    }
+}
@@ -0,0 +1,93 @@
+package com.spring.mvc.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+// Full copy of a store's records plus the log position it covers, written to a temp file,
+// fsynced and atomically renamed so a crash never leaves a half-written snapshot behind.
+final class SnapshotFile {
+
+    private static final int MAGIC = 0x534E4150; // "SNAP"
+    private static final int FORMAT_VERSION = 1;
+
+    private SnapshotFile() {
+    }
+
+    record Loaded<T>(long position, List<T> records) {
+    }
+
+    static <T> void write(Path file, long position, Collection<T> records, RecordCodec<T> codec) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            CRC32C crc = new CRC32C();
+            OutputStream stream = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(stream, crc));
+
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(position);
+            out.writeInt(records.size());
+            for (T record : records) {
+                codec.write(record, out);
+            }
+            out.flush();
+
+            // Trailer isn't part of the checksum
+            DataOutputStream trailer = new DataOutputStream(stream);
+            trailer.writeLong(crc.getValue());
+            trailer.flush();
+
+            channel.force(true);
+        }
+
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Returns null when there is no snapshot yet
+    static <T> Loaded<T> read(Path file, RecordCodec<T> codec) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            CRC32C crc = new CRC32C();
+            DataInputStream in = new DataInputStream(new CheckedInputStream(stream, crc));
+
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unrecognised snapshot " + file);
+            }
+
+            long position = in.readLong();
+            int count = in.readInt();
+            List<T> records = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                records.add(codec.read(in));
+            }
+
+            long expected = crc.getValue();
+            if (new DataInputStream(stream).readLong() != expected) {
+                throw new IOException("Snapshot " + file + " is corrupt");
+            }
+            return new Loaded<>(position, records);
+        }
+    }
+}
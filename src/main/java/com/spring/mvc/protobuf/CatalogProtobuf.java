@@ -0,0 +1,339 @@
+package com.spring.mvc.protobuf;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerStyle;
+import com.spring.mvc.model.CustomerDTO;
+import com.spring.mvc.model.Money;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+
+// Hand-written codec for the messages in proto/catalog.proto. Straight from the DTOs to the wire with no generated
+// message classes in between: each message is sized in one pass and written in a second. Unknown fields are
+// skipped on read so newer clients can send fields this version doesn't know.
+public final class CatalogProtobuf {
+
+    private static final BeerStyle[] STYLES = BeerStyle.values();
+    private static final int UUID_BYTES = 16;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    // A tag is field number << 3 | wire type; the reads below switch on whole tags, e.g. 26 = field 3, length-delimited
+    private static final int LIST_ITEM_TAG = 1 << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+
+    private CatalogProtobuf() {
+    }
+
+    // BeerList
+    public static void writeBeers(List<BeerDTO> beers, CodedOutputStream out) throws IOException {
+        for (BeerDTO beer : beers) {
+            out.writeTag(1, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            out.writeUInt32NoTag(beerSize(beer));
+            writeBeerFields(beer, out);
+        }
+    }
+
+    // Beer
+    public static void writeBeer(BeerDTO beer, CodedOutputStream out) throws IOException {
+        writeBeerFields(beer, out);
+    }
+
+    public static int beersSize(List<BeerDTO> beers) {
+        int size = 0;
+        for (BeerDTO beer : beers) {
+            size += listItemSize(beerSize(beer));
+        }
+        return size;
+    }
+
+    public static List<BeerDTO> readBeers(CodedInputStream in) throws IOException {
+        List<BeerDTO> beers = new ArrayList<>();
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            if (tag == LIST_ITEM_TAG) {
+                int limit = in.pushLimit(in.readRawVarint32());
+                beers.add(readBeer(in));
+                in.popLimit(limit);
+            } else {
+                in.skipField(tag);
+            }
+        }
+        return beers;
+    }
+
+    // Reads fields until the end of the input (or of the current limit)
+    public static BeerDTO readBeer(CodedInputStream in) throws IOException {
+        BeerDTO beer = new BeerDTO();
+        Long priceMinorUnits = null;
+        Currency currency = Money.DEFAULT_CURRENCY;
+
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            switch (tag) {
+                case 10 -> beer.setId(readUuid(in));
+                case 16 -> beer.setVersion(in.readInt32());
+                case 26 -> beer.setBeerName(in.readStringRequireUtf8());
+                case 32 -> beer.setBeerStyle(readStyle(in.readEnum()));
+                case 42 -> beer.setUpc(in.readStringRequireUtf8());
+                case 48 -> beer.setQuantityOnHand(in.readInt32());
+                case 56 -> priceMinorUnits = in.readSInt64();
+                case 66 -> currency = readCurrency(in.readStringRequireUtf8());
+                case 72 -> beer.setCreatedDate(fromNanos(in.readInt64()));
+                case 80 -> beer.setUpdateDate(fromNanos(in.readInt64()));
+                default -> in.skipField(tag);
+            }
+        }
+
+        if (priceMinorUnits != null) {
+            beer.setPrice(new Money(priceMinorUnits, currency));
+        }
+        return beer;
+    }
+
+    // CustomerList
+    public static void writeCustomers(List<CustomerDTO> customers, CodedOutputStream out) throws IOException {
+        for (CustomerDTO customer : customers) {
+            out.writeTag(1, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            out.writeUInt32NoTag(customerSize(customer));
+            writeCustomerFields(customer, out);
+        }
+    }
+
+    // Customer
+    public static void writeCustomer(CustomerDTO customer, CodedOutputStream out) throws IOException {
+        writeCustomerFields(customer, out);
+    }
+
+    public static int customersSize(List<CustomerDTO> customers) {
+        int size = 0;
+        for (CustomerDTO customer : customers) {
+            size += listItemSize(customerSize(customer));
+        }
+        return size;
+    }
+
+    public static List<CustomerDTO> readCustomers(CodedInputStream in) throws IOException {
+        List<CustomerDTO> customers = new ArrayList<>();
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            if (tag == LIST_ITEM_TAG) {
+                int limit = in.pushLimit(in.readRawVarint32());
+                customers.add(readCustomer(in));
+                in.popLimit(limit);
+            } else {
+                in.skipField(tag);
+            }
+        }
+        return customers;
+    }
+
+    public static CustomerDTO readCustomer(CodedInputStream in) throws IOException {
+        CustomerDTO customer = new CustomerDTO();
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            switch (tag) {
+                case 10 -> customer.setId(readUuid(in));
+                case 16 -> customer.setVersion(in.readInt32());
+                case 26 -> customer.setName(in.readStringRequireUtf8());
+                case 32 -> customer.setCreatedDate(fromNanos(in.readInt64()));
+                case 40 -> customer.setLastModifiedDate(fromNanos(in.readInt64()));
+                default -> in.skipField(tag);
+            }
+        }
+        return customer;
+    }
+
+    // Id
+    public static void writeId(UUID id, CodedOutputStream out) throws IOException {
+        writeUuid(1, id, out);
+    }
+
+    public static int idSize() {
+        return uuidSize(1);
+    }
+
+    // null when the message has no id
+    public static UUID readId(CodedInputStream in) throws IOException {
+        UUID id = null;
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            if (tag == 10) {
+                id = readUuid(in);
+            } else {
+                in.skipField(tag);
+            }
+        }
+        return id;
+    }
+
+    public static int beerSize(BeerDTO beer) {
+        int size = 0;
+        if (beer.getId() != null) {
+            size += uuidSize(1);
+        }
+        if (beer.getVersion() != null) {
+            size += CodedOutputStream.computeInt32Size(2, beer.getVersion());
+        }
+        if (beer.getBeerName() != null) {
+            size += CodedOutputStream.computeStringSize(3, beer.getBeerName());
+        }
+        if (beer.getBeerStyle() != null) {
+            size += CodedOutputStream.computeEnumSize(4, beer.getBeerStyle().ordinal() + 1);
+        }
+        if (beer.getUpc() != null) {
+            size += CodedOutputStream.computeStringSize(5, beer.getUpc());
+        }
+        if (beer.getQuantityOnHand() != null) {
+            size += CodedOutputStream.computeInt32Size(6, beer.getQuantityOnHand());
+        }
+        Money price = beer.getPrice();
+        if (price != null) {
+            size += CodedOutputStream.computeSInt64Size(7, price.minorUnits());
+            if (!price.currency().equals(Money.DEFAULT_CURRENCY)) {
+                size += CodedOutputStream.computeStringSize(8, price.currency().getCurrencyCode());
+            }
+        }
+        if (beer.getCreatedDate() != null) {
+            size += CodedOutputStream.computeInt64Size(9, toNanos(beer.getCreatedDate()));
+        }
+        if (beer.getUpdateDate() != null) {
+            size += CodedOutputStream.computeInt64Size(10, toNanos(beer.getUpdateDate()));
+        }
+        return size;
+    }
+
+    private static void writeBeerFields(BeerDTO beer, CodedOutputStream out) throws IOException {
+        if (beer.getId() != null) {
+            writeUuid(1, beer.getId(), out);
+        }
+        if (beer.getVersion() != null) {
+            out.writeInt32(2, beer.getVersion());
+        }
+        if (beer.getBeerName() != null) {
+            out.writeString(3, beer.getBeerName());
+        }
+        if (beer.getBeerStyle() != null) {
+            out.writeEnum(4, beer.getBeerStyle().ordinal() + 1);
+        }
+        if (beer.getUpc() != null) {
+            out.writeString(5, beer.getUpc());
+        }
+        if (beer.getQuantityOnHand() != null) {
+            out.writeInt32(6, beer.getQuantityOnHand());
+        }
+        Money price = beer.getPrice();
+        if (price != null) {
+            out.writeSInt64(7, price.minorUnits());
+            if (!price.currency().equals(Money.DEFAULT_CURRENCY)) {
+                out.writeString(8, price.currency().getCurrencyCode());
+            }
+        }
+        if (beer.getCreatedDate() != null) {
+            out.writeInt64(9, toNanos(beer.getCreatedDate()));
+        }
+        if (beer.getUpdateDate() != null) {
+            out.writeInt64(10, toNanos(beer.getUpdateDate()));
+        }
+    }
+
+    public static int customerSize(CustomerDTO customer) {
+        int size = 0;
+        if (customer.getId() != null) {
+            size += uuidSize(1);
+        }
+        if (customer.getVersion() != null) {
+            size += CodedOutputStream.computeInt32Size(2, customer.getVersion());
+        }
+        if (customer.getName() != null) {
+            size += CodedOutputStream.computeStringSize(3, customer.getName());
+        }
+        if (customer.getCreatedDate() != null) {
+            size += CodedOutputStream.computeInt64Size(4, toNanos(customer.getCreatedDate()));
+        }
+        if (customer.getLastModifiedDate() != null) {
+            size += CodedOutputStream.computeInt64Size(5, toNanos(customer.getLastModifiedDate()));
+        }
+        return size;
+    }
+
+    private static void writeCustomerFields(CustomerDTO customer, CodedOutputStream out) throws IOException {
+        if (customer.getId() != null) {
+            writeUuid(1, customer.getId(), out);
+        }
+        if (customer.getVersion() != null) {
+            out.writeInt32(2, customer.getVersion());
+        }
+        if (customer.getName() != null) {
+            out.writeString(3, customer.getName());
+        }
+        if (customer.getCreatedDate() != null) {
+            out.writeInt64(4, toNanos(customer.getCreatedDate()));
+        }
+        if (customer.getLastModifiedDate() != null) {
+            out.writeInt64(5, toNanos(customer.getLastModifiedDate()));
+        }
+    }
+
+    private static int listItemSize(int messageSize) {
+        return CodedOutputStream.computeTagSize(1) + CodedOutputStream.computeUInt32SizeNoTag(messageSize) + messageSize;
+    }
+
+    private static int uuidSize(int field) {
+        return CodedOutputStream.computeTagSize(field) + CodedOutputStream.computeUInt32SizeNoTag(UUID_BYTES) + UUID_BYTES;
+    }
+
+    private static void writeUuid(int field, UUID id, CodedOutputStream out) throws IOException {
+        out.writeTag(field, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        out.writeUInt32NoTag(UUID_BYTES);
+        writeBigEndian(id.getMostSignificantBits(), out);
+        writeBigEndian(id.getLeastSignificantBits(), out);
+    }
+
+    private static void writeBigEndian(long value, CodedOutputStream out) throws IOException {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.writeRawByte((byte) (value >>> shift));
+        }
+    }
+
+    private static UUID readUuid(CodedInputStream in) throws IOException {
+        if (in.readRawVarint32() != UUID_BYTES) {
+            throw new InvalidProtocolBufferException("id must be " + UUID_BYTES + " bytes");
+        }
+        return new UUID(readBigEndian(in), readBigEndian(in));
+    }
+
+    private static long readBigEndian(CodedInputStream in) throws IOException {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (in.readRawByte() & 0xFF);
+        }
+        return value;
+    }
+
+    // 0 (unspecified) and values from a newer schema read as no style
+    private static BeerStyle readStyle(int value) {
+        return value >= 1 && value <= STYLES.length ? STYLES[value - 1] : null;
+    }
+
+    private static Currency readCurrency(String code) throws InvalidProtocolBufferException {
+        if (code.isEmpty()) {
+            return Money.DEFAULT_CURRENCY;
+        }
+        try {
+            return Currency.getInstance(code);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidProtocolBufferException("Unknown currency " + code);
+        }
+    }
+
+    private static long toNanos(LocalDateTime dateTime) {
+        return Math.addExact(Math.multiplyExact(dateTime.toEpochSecond(ZoneOffset.UTC), NANOS_PER_SECOND), dateTime.getNano());
+    }
+
+    private static LocalDateTime fromNanos(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, NANOS_PER_SECOND),
+                (int) Math.floorMod(nanos, NANOS_PER_SECOND), ZoneOffset.UTC);
+    }
+}
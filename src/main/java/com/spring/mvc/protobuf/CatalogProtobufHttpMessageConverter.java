@@ -0,0 +1,115 @@
+package com.spring.mvc.protobuf;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.CustomerDTO;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// application/x-protobuf for BeerDTO, CustomerDTO and lists of them (see proto/catalog.proto), next to JSON,
+// Smile and CBOR; clients choose with Accept/Content-Type. Registered by MessageConverterConfig.
+public class CatalogProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private enum Kind { BEER, BEER_LIST, CUSTOMER, CUSTOMER_LIST }
+
+    public CatalogProtobufHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == BeerDTO.class || clazz == CustomerDTO.class;
+    }
+
+    // Asked with just the runtime class (ArrayList) when choosing producible types; canWrite checks the element type
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return supports(clazz) || Collection.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return canRead(mediaType) && kind(type, true) != null;
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        return canWrite(mediaType) && kind(type != null ? type : clazz, false) != null;
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        CodedInputStream in = CodedInputStream.newInstance(inputMessage.getBody(), BUFFER_SIZE);
+        try {
+            return switch (kind(type, true)) {
+                case BEER -> CatalogProtobuf.readBeer(in);
+                case BEER_LIST -> CatalogProtobuf.readBeers(in);
+                case CUSTOMER -> CatalogProtobuf.readCustomer(in);
+                case CUSTOMER_LIST -> CatalogProtobuf.readCustomers(in);
+            };
+        } catch (InvalidProtocolBufferException e) {
+            throw new HttpMessageNotReadableException("Invalid protobuf body: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object value, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        CodedOutputStream out = CodedOutputStream.newInstance(outputMessage.getBody(), BUFFER_SIZE);
+        switch (kind(type != null ? type : value.getClass(), false)) {
+            case BEER -> CatalogProtobuf.writeBeer((BeerDTO) value, out);
+            case BEER_LIST -> CatalogProtobuf.writeBeers(asList((Collection<BeerDTO>) value), out);
+            case CUSTOMER -> CatalogProtobuf.writeCustomer((CustomerDTO) value, out);
+            case CUSTOMER_LIST -> CatalogProtobuf.writeCustomers(asList((Collection<CustomerDTO>) value), out);
+        }
+        out.flush();
+    }
+
+    // null when the type isn't one of ours. Collections must declare their element type (List<BeerDTO>),
+    // and to be read must accept an ArrayList.
+    @Nullable
+    private static Kind kind(Type type, boolean reading) {
+        ResolvableType resolved = ResolvableType.forType(type);
+        Class<?> raw = resolved.resolve();
+        if (raw == BeerDTO.class) {
+            return Kind.BEER;
+        }
+        if (raw == CustomerDTO.class) {
+            return Kind.CUSTOMER;
+        }
+        if (raw == null || !Collection.class.isAssignableFrom(raw) || (reading && !raw.isAssignableFrom(ArrayList.class))) {
+            return null;
+        }
+        Class<?> element = resolved.asCollection().resolveGeneric(0);
+        if (element == BeerDTO.class) {
+            return Kind.BEER_LIST;
+        }
+        return element == CustomerDTO.class ? Kind.CUSTOMER_LIST : null;
+    }
+
+    private static <T> List<T> asList(Collection<T> values) {
+        return values instanceof List<T> list ? list : new ArrayList<>(values);
+    }
+}
@@ -0,0 +1,37 @@
+package com.spring.mvc.repositories;
+
+import com.spring.mvc.entities.BeerHistory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+// Both queries are a seek on ix_beer_history_beer_valid_from followed by a short backward walk; id only
+// orders rows that share a validFrom, the later insert winning
+public interface BeerHistoryRepository extends JpaRepository<BeerHistory, Long> {
+
+    List<BeerHistory> findByBeerIdOrderByValidFromDescIdDesc(UUID beerId, Pageable pageable);
+
+    // The row in effect at asOf: the latest one that started at or before it
+    Optional<BeerHistory> findFirstByBeerIdAndValidFromLessThanEqualOrderByValidFromDescIdDesc(UUID beerId, LocalDateTime asOf);
+
+    // The rest is for resharding, which moves a beer's history along with it - deleted beers' history included
+
+    List<BeerHistory> findByBeerIdOrderByIdAsc(UUID beerId);
+
+    boolean existsByBeerId(UUID beerId);
+
+    @Query("select distinct h.beerId from BeerHistory h where h.beerId > :after order by h.beerId")
+    List<UUID> findBeerIdsAfter(@Param("after") UUID after, Pageable pageable);
+
+    // Native, as the entity is @Immutable
+    @Modifying
+    @Query(value = "delete from beer_history where beer_id = :beerId", nativeQuery = true)
+    void deleteByBeerId(@Param("beerId") UUID beerId);
+}
@@ -1,9 +1,90 @@
 package com.spring.mvc.repositories;
 
 import com.spring.mvc.entities.Beer;
+import com.spring.mvc.model.Money;
+import com.spring.mvc.stats.StyleTotals;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface BeerRepository extends JpaRepository<Beer, UUID> {
+
+    // Streams only the primary keys, must be consumed inside a transaction and closed
+    @Query("select b.id from Beer b")
+    Stream<UUID> streamAllIds();
+
+    // Streams every row in fetch-size batches for the catalog snapshots, must be consumed inside a transaction
+    // and closed; detach rows once written or the persistence context holds the whole table
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select b from Beer b")
+    Stream<Beer> streamAll();
+
+    // select ... for update: the row stays locked until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Beer> findWithLockById(UUID id);
+
+    // A page of ids in id order, for walking a shard's beers while resharding moves some of them away
+    @Query("select b.id from Beer b where b.id > :after order by b.id")
+    List<UUID> findIdsAfter(@Param("after") UUID after, Pageable pageable);
+
+    // Inserts a beer exactly as it is - id, version and timestamps included - when resharding moves it to another shard.
+    // The price goes in as its column value, the Money converter is not applied to query parameters
+    @Modifying
+    @Query("""
+            insert into Beer (id, version, beerName, beerStyle, upc, quantityOnHand, price, createdDate, updateDate)
+            values (:#{#beer.id}, :#{#beer.version}, :#{#beer.beerName}, :#{#beer.beerStyle}, :#{#beer.upc},
+                :#{#beer.quantityOnHand}, :#{#beer.price.toBigDecimal()}, :#{#beer.createdDate}, :#{#beer.updateDate})""")
+    void insertCopy(@Param("beer") Beer beer);
+
+    // Removes the row regardless of its version, for the shard a beer has been moved away from
+    @Modifying
+    @Query("delete from Beer b where b.id = :id")
+    void deleteCopy(@Param("id") UUID id);
+
+    // A single probe of the ux_beer_upc unique index
+    Optional<Beer> findByUpc(String upc);
+
+    // Reads ix_beer_quantity_on_hand from the lowest quantity and stops after the page instead of sorting
+    // the table; a missing quantity counts as 0, as in aggregateByStyle
+    @Query("""
+            select b from Beer b
+            where b.quantityOnHand is null or b.quantityOnHand < :lowStockThreshold
+            order by b.quantityOnHand asc nulls first, b.id""")
+    List<Beer> findLowStock(@Param("lowStockThreshold") int lowStockThreshold, Pageable pageable);
+
+    // Backed by the ix_beer_change_seq index
+    List<Beer> findByChangeSeqGreaterThanAndChangeSeqLessThanEqual(long since, long until);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Beer b set b.changeSeq = :changeSeq where b.id = :id")
+    void setChangeSeq(UUID id, long changeSeq);
+
+    // One GROUP BY over the table for every per-style figure in /api/v1/beer/stats.
+    // price is cast back to its DECIMAL column type so the aggregates bypass the Money converter.
+    @Query("""
+            select new com.spring.mvc.stats.StyleTotals(b.beerStyle, count(b),
+                sum(coalesce(b.quantityOnHand, 0)),
+                sum(cast(b.price as BigDecimal) * coalesce(b.quantityOnHand, 0)),
+                sum(cast(b.price as BigDecimal)), count(b.price),
+                min(cast(b.price as BigDecimal)), max(cast(b.price as BigDecimal)),
+                sum(case when coalesce(b.quantityOnHand, 0) < :lowStockThreshold then 1 else 0 end))
+            from Beer b
+            group by b.beerStyle""")
+    List<StyleTotals> aggregateByStyle(@Param("lowStockThreshold") int lowStockThreshold);
+
+    // Prices in ascending order, fetched a page of one at a time to read a percentile (backed by ix_beer_price)
+    @Query("select b.price from Beer b where b.price is not null order by b.price")
+    List<Money> findPricesAscending(Pageable pageable);
 }
@@ -0,0 +1,7 @@
+package com.spring.mvc.repositories;
+
+import com.spring.mvc.entities.BeerShardLayout;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface BeerShardLayoutRepository extends JpaRepository<BeerShardLayout, Integer> {
+}
@@ -0,0 +1,24 @@
+package com.spring.mvc.repositories;
+
+import com.spring.mvc.entities.ChangeCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface ChangeCounterRepository extends JpaRepository<ChangeCounter, String> {
+
+    // Locks the row until the transaction ends; 0 when the counter doesn't exist yet
+    @Modifying
+    @Query("update ChangeCounter c set c.lastSeq = c.lastSeq + 1 where c.name = :name")
+    int increment(String name);
+
+    // Fails on a duplicate name rather than resetting the existing counter, as save() would
+    @Modifying
+    @Query("insert into ChangeCounter (name, lastSeq) values (:name, 0)")
+    void create(String name);
+
+    @Query("select c.lastSeq from ChangeCounter c where c.name = :name")
+    Optional<Long> findLastSeq(String name);
+}
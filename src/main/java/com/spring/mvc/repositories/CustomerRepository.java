@@ -1,9 +1,38 @@
 package com.spring.mvc.repositories;
 
 import com.spring.mvc.entities.Customer;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface CustomerRepository extends JpaRepository<Customer, UUID> {
+
+    @Query("select c.id from Customer c")
+    Stream<UUID> streamAllIds();
+
+    // Streams every row in fetch-size batches for the catalog snapshots, must be consumed inside a transaction
+    // and closed; detach rows once written or the persistence context holds the whole table
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select c from Customer c")
+    Stream<Customer> streamAll();
+
+    // select ... for update: the row stays locked until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Customer> findWithLockById(UUID id);
+
+    List<Customer> findByChangeSeqGreaterThanAndChangeSeqLessThanEqual(long since, long until);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Customer c set c.changeSeq = :changeSeq where c.id = :id")
+    void setChangeSeq(UUID id, long changeSeq);
 }
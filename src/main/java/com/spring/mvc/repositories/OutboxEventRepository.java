@@ -0,0 +1,13 @@
+package com.spring.mvc.repositories;
+
+import com.spring.mvc.entities.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // The oldest waiting events, a primary key range scan
+    List<OutboxEvent> findByOrderByIdAsc(Pageable pageable);
+}
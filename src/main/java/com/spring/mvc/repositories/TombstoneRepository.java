@@ -0,0 +1,49 @@
+package com.spring.mvc.repositories;
+
+import com.spring.mvc.entities.Tombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface TombstoneRepository extends JpaRepository<Tombstone, UUID> {
+
+    @Query("select t.entityId from Tombstone t where t.entityType = :entityType" +
+            " and t.changeSeq > :since and t.changeSeq <= :until")
+    List<UUID> findDeletedIds(String entityType, long since, long until);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Tombstone t set t.changeSeq = :changeSeq where t.entityType = :entityType" +
+            " and t.entityId = :entityId and t.changeSeq is null")
+    void setChangeSeq(String entityType, UUID entityId, long changeSeq);
+
+    @Modifying
+    @Query("delete from Tombstone t where t.deletedDate < :cutoff")
+    int deleteOlderThan(LocalDateTime cutoff);
+
+    // The rest is for resharding, which moves a deleted beer's tombstones to its new shard
+
+    List<Tombstone> findByEntityTypeAndEntityId(String entityType, UUID entityId);
+
+    boolean existsByEntityTypeAndEntityId(String entityType, UUID entityId);
+
+    @Query("select t.entityId from Tombstone t where t.entityType = :entityType and t.entityId > :after order by t.entityId")
+    List<UUID> findEntityIdsAfter(String entityType, UUID after, Pageable pageable);
+
+    // Keeps id and deletedDate, which retention is computed from; the copy has no changeSeq, clients with a
+    // token from before the resharding started resync in full anyway
+    @Modifying
+    @Query("""
+            insert into Tombstone (id, entityType, entityId, deletedDate)
+            values (:#{#tombstone.id}, :#{#tombstone.entityType}, :#{#tombstone.entityId}, :#{#tombstone.deletedDate})""")
+    void insertCopy(@Param("tombstone") Tombstone tombstone);
+
+    @Modifying
+    @Query("delete from Tombstone t where t.entityType = :entityType and t.entityId = :entityId")
+    void deleteByEntityTypeAndEntityId(String entityType, UUID entityId);
+}
@@ -1,10 +1,21 @@
 package com.spring.mvc.services;
 
 import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerHistoryDTO;
+import com.spring.mvc.model.BeerStatsDTO;
+import com.spring.mvc.model.DeltaSyncDTO;
+import com.spring.mvc.model.FieldPatch;
+import com.spring.mvc.model.SyncToken;
 
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 
 public interface BeerService {
 
@@ -12,6 +23,9 @@ public interface BeerService {
 
     Optional<BeerDTO> getBeerById(UUID id);
 
+    // UPCs are unique, saves and updates that would repeat one throw DuplicateUpcException
+    Optional<BeerDTO> getBeerByUpc(String upc);
+
     BeerDTO saveNewBeer(BeerDTO beer);
 
     // Updates an existing Beer and returns the updated DTO if found, otherwise returns Optional.empty()
@@ -19,5 +33,47 @@ public interface BeerService {
 
     Boolean deleteBeerById(UUID beerId);
 
-    Optional<BeerDTO> patchBeerById(UUID beerId, BeerDTO beer);
+    // Plain JSON PATCH: null fields (and blank strings) are left as they are
+    default Optional<BeerDTO> patchBeerById(UUID beerId, BeerDTO beer) {
+        Set<String> fields = new HashSet<>();
+        if (StringUtils.hasText(beer.getBeerName())) {
+            fields.add("beerName");
+        }
+        if (beer.getBeerStyle() != null) {
+            fields.add("beerStyle");
+        }
+        if (StringUtils.hasText(beer.getUpc())) {
+            fields.add("upc");
+        }
+        if (beer.getPrice() != null) {
+            fields.add("price");
+        }
+        if (beer.getQuantityOnHand() != null) {
+            fields.add("quantityOnHand");
+        }
+        return patchBeerById(beerId, new FieldPatch<>(beer, fields));
+    }
+
+    // Changes exactly the fields named in the patch, clearing those whose new value is null
+    Optional<BeerDTO> patchBeerById(UUID beerId, FieldPatch<BeerDTO> patch);
+
+    // Builds the patch from the stored beer and writes it in one step, so a patch that depends on the current
+    // state (a JSON Patch test op, a merge patch's diff) can't overwrite a write made after it was read
+    Optional<BeerDTO> patchBeerById(UUID beerId, Function<BeerDTO, FieldPatch<BeerDTO>> patcher);
+
+    // Beers created, updated or deleted after the token's watermark - a null token returns everything
+    DeltaSyncDTO<BeerDTO> listBeerChangesSince(SyncToken since);
+
+    // Up to limit beers with quantityOnHand below the threshold, lowest first - a missing quantity counts as 0
+    List<BeerDTO> listLowStockBeers(int lowStockThreshold, int limit);
+
+    // Up to limit price and stock changes of the beer, newest first. Creating a beer records its first entry,
+    // later writes add one only when they change the price or quantity; deleting it keeps its history.
+    List<BeerHistoryDTO> listBeerHistory(UUID beerId, int limit);
+
+    // The beer's price and stock in effect at asOf, empty if it had no history by then
+    Optional<BeerHistoryDTO> getBeerHistoryAsOf(UUID beerId, LocalDateTime asOf);
+
+    // Inventory totals, price statistics and low-stock counts, overall and per style
+    BeerStatsDTO getBeerStats(int lowStockThreshold);
 }
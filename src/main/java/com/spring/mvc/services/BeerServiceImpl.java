@@ -1,23 +1,88 @@
 package com.spring.mvc.services;
 
+import com.spring.mvc.events.BeerChangedEvent;
+import com.spring.mvc.events.ChangeType;
+import com.spring.mvc.index.StockLevelIndex;
+import com.spring.mvc.mappers.BeerMapper;
 import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerHistoryDTO;
+import com.spring.mvc.model.BeerStatsDTO;
 import com.spring.mvc.model.BeerStyle;
+import com.spring.mvc.model.DeltaSyncDTO;
+import com.spring.mvc.model.FieldPatch;
+import com.spring.mvc.model.Money;
+import com.spring.mvc.model.SyncToken;
+import com.spring.mvc.persistence.DurableStore;
+import com.spring.mvc.persistence.Journal;
+import com.spring.mvc.stats.BeerColumns;
+import com.spring.mvc.stats.BeerStatsScanner;
+import com.spring.mvc.stats.IncrementalBeerStats;
+import com.spring.mvc.storage.BeerStore;
+import com.spring.mvc.storage.HeapBeerStore;
 import lombok.extern.slf4j.Slf4j;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
 
+// The BeerService with mvc.engine=memory: beers live in the BeerStore, made durable by DurabilityConfig
 @Slf4j
 @Service
-public class BeerServiceImpl implements BeerService {
+@ConditionalOnProperty(name = "mvc.engine", havingValue = "memory")
+public class BeerServiceImpl implements BeerService, ApplicationEventPublisherAware {
 
-    private Map<UUID, BeerDTO> beerMap;
+    private static final Duration TOMBSTONE_RETENTION = Duration.ofDays(30);
+
+    private static final BeerMapper BEER_MAPPER = Mappers.getMapper(BeerMapper.class);
+
+    // Reads don't block on writes, writes are serialised on this service so the journal sees them in store order
+    private final BeerStore beerStore;
+
+    // UPC -> beer id, so scanner lookups are one hash probe instead of a scan; changed only under the service lock
+    private final Map<String, UUID> upcIndex = new ConcurrentHashMap<>();
+
+    // Beer ids by quantity on hand, for the low-stock list; changed only under the service lock
+    private final StockLevelIndex stockLevels = new StockLevelIndex();
+
+    // Beer id -> price and stock by validFrom, appended under the service lock. Not journaled: after a
+    // recovery each beer's history starts again from its recovered state.
+    private final Map<UUID, ConcurrentNavigableMap<LocalDateTime, BeerHistoryDTO>> history = new ConcurrentHashMap<>();
+
+    // Deleted beer id -> deletion time, for delta sync
+    private final Map<UUID, LocalDateTime> tombstones = new ConcurrentHashMap<>();
+
+    // Delta sync only hands out changes this old. Writes stamp their updateDate under the service lock and
+    // the token is taken under it too, so anything at or before the token is already in the store.
+    private Duration commitLag = Duration.ofSeconds(2);
+
+    private Journal<BeerDTO> journal = Journal.none();
+
+    // Only with mvc.stats.incremental=true, otherwise stats are computed by scanning on each request
+    private volatile IncrementalBeerStats incrementalStats;
+
+    // Set by Spring, stays a no-op when the service is constructed directly (e.g. in tests)
+    private ApplicationEventPublisher applicationEventPublisher = event -> {
+    };
 
     public BeerServiceImpl() {
-        this.beerMap = new HashMap<>();
+        this(new HeapBeerStore());
+    }
+
+    @Autowired
+    public BeerServiceImpl(BeerStore beerStore) {
+        this.beerStore = beerStore;
 
         BeerDTO beer1 = BeerDTO.builder()
                 .id(UUID.randomUUID())
@@ -25,7 +90,7 @@ public class BeerServiceImpl implements BeerService {
                 .beerName("Galaxy Cat")
                 .beerStyle(BeerStyle.PALE_ALE)
                 .upc("12356")
-                .price(new BigDecimal("12.99"))
+                .price(Money.of("12.99"))
                 .quantityOnHand(122)
                 .createdDate(LocalDateTime.now())
                 .updateDate(LocalDateTime.now())
@@ -37,7 +102,7 @@ public class BeerServiceImpl implements BeerService {
                 .beerName("Crank")
                 .beerStyle(BeerStyle.PALE_ALE)
                 .upc("12356222")
-                .price(new BigDecimal("11.99"))
+                .price(Money.of("11.99"))
                 .quantityOnHand(392)
                 .createdDate(LocalDateTime.now())
                 .updateDate(LocalDateTime.now())
@@ -48,23 +113,54 @@ public class BeerServiceImpl implements BeerService {
                 .version(1)
                 .beerName("Sunshine City")
                 .beerStyle(BeerStyle.IPA)
-                .upc("12356")
-                .price(new BigDecimal("13.99"))
+                .upc("12356333")
+                .price(Money.of("13.99"))
                 .quantityOnHand(144)
                 .createdDate(LocalDateTime.now())
                 .updateDate(LocalDateTime.now())
                 .build();
 
-        beerMap.put(beer1.getId(), beer1);
-        beerMap.put(beer2.getId(), beer2);
-        beerMap.put(beer3.getId(), beer3);
+        beerStore.put(beer1);
+        beerStore.put(beer2);
+        beerStore.put(beer3);
+        rebuildIndexes();
+    }
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    // Only present with mvc.durability.enabled=true - replaces the sample data with whatever was persisted
+    // (or persists the sample data on first start) and journals every write from then on
+    @Autowired(required = false)
+    public void setBeerDurableStore(DurableStore<BeerDTO> beerDurableStore) throws IOException {
+        if (beerDurableStore.hasPersistedState()) {
+            beerStore.clear();
+            beerDurableStore.recover((id, beer) -> beerStore.put(beer), beerStore::remove);
+            rebuildIncrementalStats();
+            rebuildIndexes();
+        } else {
+            beerDurableStore.checkpoint(new DurableStore.Checkpoint<>(beerDurableStore.position(), beerStore.values()));
+        }
+        beerDurableStore.scheduleCheckpoints(this::checkpoint);
+        journal = beerDurableStore;
+    }
 
+    @Value("${mvc.stats.incremental:false}")
+    public synchronized void setIncrementalStats(boolean enabled) {
+        incrementalStats = enabled ? new IncrementalBeerStats() : null;
+        rebuildIncrementalStats();
+    }
 
+    @Value("${mvc.delta-sync.commit-lag:2s}")
+    public void setCommitLag(Duration commitLag) {
+        this.commitLag = commitLag;
     }
 
     @Override
     public List<BeerDTO> listBeers() {
-        return new ArrayList<>(beerMap.values());
+        return beerStore.values();
     }
 
     @Override
@@ -72,7 +168,14 @@ public class BeerServiceImpl implements BeerService {
 
         log.debug("Get Beer by ID - in SERVICE. ID: " + id.toString());
 
-        return Optional.ofNullable(beerMap.get(id));
+        return Optional.ofNullable(beerStore.get(id));
+    }
+
+    @Override
+    public Optional<BeerDTO> getBeerByUpc(String upc) {
+        UUID id = upcIndex.get(upc);
+        // The beer may have been given another UPC since the index was read
+        return id == null ? Optional.empty() : Optional.ofNullable(beerStore.get(id)).filter(beer -> upc.equals(beer.getUpc()));
     }
 
     @Override
@@ -80,8 +183,6 @@ public class BeerServiceImpl implements BeerService {
         BeerDTO savedBeer = BeerDTO.builder()
                 .id(UUID.randomUUID())
                 .version(1)
-                .createdDate(LocalDateTime.now())
-                .updateDate(LocalDateTime.now())
                 .beerName(beer.getBeerName())
                 .beerStyle(beer.getBeerStyle())
                 .quantityOnHand(beer.getQuantityOnHand())
@@ -90,7 +191,22 @@ public class BeerServiceImpl implements BeerService {
                 .build();
 
 
-        beerMap.put(savedBeer.getId(), savedBeer);
+        long position;
+        synchronized (this) {
+            savedBeer.setCreatedDate(LocalDateTime.now());
+            savedBeer.setUpdateDate(savedBeer.getCreatedDate());
+            requireUpcFree(savedBeer.getUpc(), savedBeer.getId());
+            beerStore.put(savedBeer);
+            indexUpc(savedBeer.getId(), null, savedBeer.getUpc());
+            stockLevels.add(savedBeer.getId(), savedBeer.getQuantityOnHand());
+            recordHistory(savedBeer);
+            if (incrementalStats != null) {
+                incrementalStats.add(savedBeer);
+            }
+            position = journal.put(savedBeer);
+        }
+        journal.awaitDurable(position);
+        publish(ChangeType.CREATED, savedBeer);
 
         return savedBeer;
     }
@@ -100,52 +216,255 @@ public class BeerServiceImpl implements BeerService {
     // Ensures null safety by using Optional to prevent NullPointerException
     @Override
     public Optional<BeerDTO> updateBeerById(UUID beerId, BeerDTO beer) {
-        BeerDTO existing = beerMap.get(beerId);
+        BeerDTO existing;
+        long position;
+
+        synchronized (this) {
+            existing = beerStore.get(beerId);
+
+            if (existing == null) {
+                return Optional.empty(); // Return empty if beer ID does not exist
+            }
+            requireUpcFree(beer.getUpc(), beerId);
+            if (incrementalStats != null) {
+                incrementalStats.remove(existing);
+            }
+            String previousUpc = existing.getUpc();
+            Money previousPrice = existing.getPrice();
+            Integer previousQuantity = existing.getQuantityOnHand();
 
-        if (existing == null) {
-            return Optional.empty(); // Return empty if beer ID does not exist
+            existing.setBeerName(beer.getBeerName());
+            existing.setPrice(beer.getPrice());
+            existing.setUpc(beer.getUpc());
+            existing.setQuantityOnHand(beer.getQuantityOnHand());
+            existing.setUpdateDate(LocalDateTime.now());
+            beerStore.put(existing);
+            indexUpc(beerId, previousUpc, existing.getUpc());
+            stockLevels.update(beerId, previousQuantity, existing.getQuantityOnHand());
+            if (!Objects.equals(previousPrice, existing.getPrice()) || !Objects.equals(previousQuantity, existing.getQuantityOnHand())) {
+                recordHistory(existing);
+            }
+            if (incrementalStats != null) {
+                incrementalStats.add(existing);
+            }
+            position = journal.put(existing);
         }
-
-        existing.setBeerName(beer.getBeerName());
-        existing.setPrice(beer.getPrice());
-        existing.setUpc(beer.getUpc());
-        existing.setQuantityOnHand(beer.getQuantityOnHand());
+        journal.awaitDurable(position);
+        publish(ChangeType.UPDATED, existing);
 
         return Optional.of(existing);
     }
 
     @Override
     public Boolean deleteBeerById(UUID beerId) {
-        beerMap.remove(beerId);
+        long position;
+
+        synchronized (this) {
+            BeerDTO removed = beerStore.get(beerId);
+            if (!beerStore.remove(beerId)) {
+                return true;
+            }
+            if (incrementalStats != null) {
+                incrementalStats.remove(removed);
+            }
+            indexUpc(beerId, removed.getUpc(), null);
+            stockLevels.remove(beerId, removed.getQuantityOnHand());
+            tombstones.put(beerId, LocalDateTime.now());
+            position = journal.delete(beerId);
+        }
+        journal.awaitDurable(position);
+        applicationEventPublisher.publishEvent(new BeerChangedEvent(ChangeType.DELETED, beerId, null));
 
         return true;
     }
 
     @Override
-    public Optional<BeerDTO> patchBeerById(UUID beerId, BeerDTO beer) {
-        BeerDTO existing = beerMap.get(beerId);
+    public Optional<BeerDTO> patchBeerById(UUID beerId, FieldPatch<BeerDTO> patch) {
+        return patchBeerById(beerId, current -> patch);
+    }
 
-        if (StringUtils.hasText(beer.getBeerName())) {
-            existing.setBeerName(beer.getBeerName());
+    // The patch is built under the lock that writes it
+    @Override
+    public Optional<BeerDTO> patchBeerById(UUID beerId, Function<BeerDTO, FieldPatch<BeerDTO>> patcher) {
+        BeerDTO existing;
+        long position;
+
+        synchronized (this) {
+            existing = beerStore.get(beerId);
+
+            if (existing == null) {
+                return Optional.empty();
+            }
+            FieldPatch<BeerDTO> patch = patcher.apply(existing);
+            if (patch.isEmpty()) {
+                return Optional.of(existing);
+            }
+            if (patch.fields().contains("upc")) {
+                requireUpcFree(patch.values().getUpc(), beerId);
+            }
+            if (incrementalStats != null) {
+                incrementalStats.remove(existing);
+            }
+            String previousUpc = existing.getUpc();
+            Money previousPrice = existing.getPrice();
+            Integer previousQuantity = existing.getQuantityOnHand();
+
+            BEER_MAPPER.patchBeerDto(patch.values(), existing, patch.fields());
+            existing.setUpdateDate(LocalDateTime.now());
+            beerStore.put(existing);
+            indexUpc(beerId, previousUpc, existing.getUpc());
+            stockLevels.update(beerId, previousQuantity, existing.getQuantityOnHand());
+            if (!Objects.equals(previousPrice, existing.getPrice()) || !Objects.equals(previousQuantity, existing.getQuantityOnHand())) {
+                recordHistory(existing);
+            }
+            if (incrementalStats != null) {
+                incrementalStats.add(existing);
+            }
+            position = journal.put(existing);
         }
+        journal.awaitDurable(position);
+        publish(ChangeType.PATCHED, existing);
 
-        if (beer.getBeerStyle() != null) {
-            existing.setBeerStyle(beer.getBeerStyle());
+        return Optional.of(existing);
+    }
+
+    @Override
+    public DeltaSyncDTO<BeerDTO> listBeerChangesSince(SyncToken since) {
+        LocalDateTime until;
+        synchronized (this) {
+            until = LocalDateTime.now().minus(commitLag);
+        }
+        LocalDateTime horizon = LocalDateTime.now().minus(TOMBSTONE_RETENTION);
+        tombstones.values().removeIf(deletedDate -> deletedDate.isBefore(horizon));
+
+        if (since == null || since.watermark().isBefore(horizon)) {
+            return DeltaSyncDTO.<BeerDTO>builder()
+                    .changed(listBeers())
+                    .deleted(List.of())
+                    .nextToken(new SyncToken(until).encode())
+                    .fullResync(true)
+                    .build();
         }
 
-        if (beer.getPrice() != null) {
-            existing.setPrice(beer.getPrice());
+        // Later changes come with the next token
+        return DeltaSyncDTO.<BeerDTO>builder()
+                .changed(beerStore.updatedAfter(since.watermark()).stream()
+                        .filter(beer -> !beer.getUpdateDate().isAfter(until))
+                        .toList())
+                .deleted(tombstones.entrySet().stream()
+                        .filter(tombstone -> tombstone.getValue().isAfter(since.watermark())
+                                && !tombstone.getValue().isAfter(until))
+                        .map(Map.Entry::getKey)
+                        .toList())
+                .nextToken(new SyncToken(until).encode())
+                .build();
+    }
+
+    // O(limit) from the head of the stock index. Readers don't take the lock, so a beer moving between levels
+    // can come up twice or with a quantity that no longer places it here; repeats are dropped.
+    @Override
+    public List<BeerDTO> listLowStockBeers(int lowStockThreshold, int limit) {
+        Set<UUID> seen = new HashSet<>();
+        List<BeerDTO> beers = new ArrayList<>();
+        for (UUID id : stockLevels.lowest(lowStockThreshold, limit)) {
+            BeerDTO beer = seen.add(id) ? beerStore.get(id) : null;
+            if (beer != null) {
+                beers.add(beer);
+            }
         }
+        return beers;
+    }
 
-        if (beer.getQuantityOnHand() != null) {
-            existing.setQuantityOnHand(beer.getQuantityOnHand());
+    @Override
+    public List<BeerHistoryDTO> listBeerHistory(UUID beerId, int limit) {
+        ConcurrentNavigableMap<LocalDateTime, BeerHistoryDTO> entries = history.get(beerId);
+        return entries == null ? List.of() : entries.descendingMap().values().stream().limit(limit).toList();
+    }
+
+    @Override
+    public Optional<BeerHistoryDTO> getBeerHistoryAsOf(UUID beerId, LocalDateTime asOf) {
+        ConcurrentNavigableMap<LocalDateTime, BeerHistoryDTO> entries = history.get(beerId);
+        return entries == null ? Optional.empty() : Optional.ofNullable(entries.floorEntry(asOf)).map(Map.Entry::getValue);
+    }
+
+    @Override
+    public BeerStatsDTO getBeerStats(int lowStockThreshold) {
+        IncrementalBeerStats stats = incrementalStats;
+        if (stats != null) {
+            return stats.snapshot(lowStockThreshold);
         }
 
-        if (StringUtils.hasText(beer.getUpc())) {
-            existing.setUpc(beer.getUpc());
+        // Copying the columns is quick, the scan itself runs outside the lock
+        BeerColumns columns;
+        synchronized (this) {
+            columns = beerStore.columns();
         }
+        return BeerStatsScanner.scan(columns, lowStockThreshold);
+    }
 
-        return Optional.of(existing);
+    private void rebuildIncrementalStats() {
+        if (incrementalStats != null) {
+            incrementalStats.clear();
+            beerStore.values().forEach(incrementalStats::add);
+        }
+    }
+
+    private void requireUpcFree(String upc, UUID beerId) {
+        UUID owner = upc == null ? null : upcIndex.get(upc);
+        if (owner != null && !owner.equals(beerId)) {
+            throw new DuplicateUpcException(upc);
+        }
+    }
+
+    // Points the index at the beer's new UPC and drops its entry for the previous one; upc is null on delete
+    private void indexUpc(UUID beerId, String previousUpc, String upc) {
+        if (previousUpc != null && !previousUpc.equals(upc)) {
+            upcIndex.remove(previousUpc, beerId);
+        }
+        if (upc != null) {
+            upcIndex.put(upc, beerId);
+        }
+    }
+
+    // Two writes within one clock tick leave only the later one
+    private void recordHistory(BeerDTO beer) {
+        history.computeIfAbsent(beer.getId(), id -> new ConcurrentSkipListMap<>())
+                .put(beer.getUpdateDate(), BeerHistoryDTO.builder()
+                        .beerId(beer.getId())
+                        .validFrom(beer.getUpdateDate())
+                        .price(beer.getPrice())
+                        .quantityOnHand(beer.getQuantityOnHand())
+                        .build());
+    }
+
+    // Reloads the UPC and stock indexes and restarts the history from the store. Data persisted before UPCs
+    // were unique may repeat one; the first beer keeps it in the index.
+    private void rebuildIndexes() {
+        upcIndex.clear();
+        stockLevels.clear();
+        history.clear();
+        for (BeerDTO beer : beerStore.values()) {
+            stockLevels.add(beer.getId(), beer.getQuantityOnHand());
+            recordHistory(beer);
+            if (beer.getUpc() != null) {
+                UUID other = upcIndex.putIfAbsent(beer.getUpc(), beer.getId());
+                if (other != null) {
+                    log.warn("UPC {} is on beers {} and {}, lookups return {}", beer.getUpc(), other, beer.getId(), other);
+                }
+            }
+        }
+    }
+
+    // Copy of every beer plus the journal position it corresponds to, for snapshots
+    private synchronized DurableStore.Checkpoint<BeerDTO> checkpoint() {
+        return new DurableStore.Checkpoint<>(journal.position(), beerStore.values().stream()
+                .map(beer -> beer.toBuilder().build())
+                .toList());
+    }
+
+    // The heap store holds mutable DTOs, so listeners get a copy taken at the time of the change
+    private void publish(ChangeType type, BeerDTO beer) {
+        applicationEventPublisher.publishEvent(new BeerChangedEvent(type, beer.getId(), beer.toBuilder().build()));
     }
 
 }
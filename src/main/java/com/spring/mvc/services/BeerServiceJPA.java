@@ -1,28 +1,67 @@
 package com.spring.mvc.services;
 
+import com.spring.mvc.events.BeerChangedEvent;
+import com.spring.mvc.events.ChangeType;
+import com.spring.mvc.index.IdExistenceIndex;
 import com.spring.mvc.mappers.BeerMapper;
+import com.spring.mvc.entities.Tombstone;
+import com.spring.mvc.entities.Beer;
 import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerHistoryDTO;
+import com.spring.mvc.model.BeerStatsDTO;
+import com.spring.mvc.model.DeltaSyncDTO;
+import com.spring.mvc.model.FieldPatch;
+import com.spring.mvc.model.Money;
+import com.spring.mvc.model.SyncToken;
+import com.spring.mvc.repositories.BeerHistoryRepository;
 import com.spring.mvc.repositories.BeerRepository;
+import com.spring.mvc.repositories.ChangeCounterRepository;
+import com.spring.mvc.repositories.TombstoneRepository;
+import com.spring.mvc.stats.BeerStats;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.annotation.Primary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+// The BeerService with mvc.engine=jpa (the default). Sharded beers go through ShardedBeerService, which runs it
+// against one shard at a time.
 @Service
-@Primary
+@ConditionalOnProperty(name = "mvc.engine", havingValue = "jpa", matchIfMissing = true)
 @RequiredArgsConstructor
 public class BeerServiceJPA implements BeerService {
     private final BeerRepository beerRepository;
 
     private final BeerMapper beerMapper;
 
+    // Answers "definitely absent" for unknown ids so they never reach the database
+    private final IdExistenceIndex beerIdIndex;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final TombstoneRepository tombstoneRepository;
+
+    private final BeerHistoryRepository beerHistoryRepository;
+
+    private final ChangeCounterRepository changeCounterRepository;
+
+    @Value("${mvc.delta-sync.tombstone-retention:30d}")
+    private Duration tombstoneRetention;
+
     @Override
+    @Transactional(readOnly = true)
     public List<BeerDTO> listBeers() {
         return beerRepository.findAll()
                 .stream()
@@ -31,36 +70,60 @@ public class BeerServiceJPA implements BeerService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<BeerDTO> getBeerById(UUID id) {
+        if (!beerIdIndex.mightExist(id)) {
+            return Optional.empty();
+        }
         return Optional.ofNullable(beerMapper.beerToBeerDto(beerRepository.findById(id)
                 .orElse(null)));
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Optional<BeerDTO> getBeerByUpc(String upc) {
+        return beerRepository.findByUpc(upc).map(beerMapper::beerToBeerDto);
+    }
+
+    // The flush sets updateDate, which the first history row starts from
+    @Override
+    @Transactional
     public BeerDTO saveNewBeer(BeerDTO beer) {
+        requireUpcFree(beer.getUpc(), null);
         // Converts BeerDTO into a Beer entity
         // Saves the Beer entity to the database
         // Converts the saved entity back into a BeerDTO and returns it
-        return beerMapper.beerToBeerDto(beerRepository.save(beerMapper.beerDtoToBeer(beer)));
+        Beer savedEntity = beerRepository.saveAndFlush(beerMapper.beerDtoToBeer(beer));
+        beerHistoryRepository.save(beerMapper.beerToBeerHistory(savedEntity));
+        BeerDTO savedBeer = beerMapper.beerToBeerDto(savedEntity);
+        beerIdIndex.add(savedBeer.getId());
+        applicationEventPublisher.publishEvent(new BeerChangedEvent(ChangeType.CREATED, savedBeer.getId(), savedBeer));
+        return savedBeer;
     }
 
 
     // Updates an existing Beer entity by ID if found, otherwise returns Optional.empty()
     // Prevents null values and allows the controller to handle missing beers gracefully
     @Override
+    @Transactional
     public Optional<BeerDTO> updateBeerById(UUID beerId, BeerDTO beer) {
+        if (!beerIdIndex.mightExist(beerId)) {
+            return Optional.empty();
+        }
+        requireUpcFree(beer.getUpc(), beerId);
         AtomicReference<Optional<BeerDTO>> atomicReference = new AtomicReference<>();
 
         beerRepository.findById(beerId).ifPresentOrElse(foundBeer -> {
-            foundBeer.setBeerName(beer.getBeerName());
-            foundBeer.setBeerStyle(beer.getBeerStyle());
-            foundBeer.setUpc(beer.getUpc());
-            foundBeer.setPrice(beer.getPrice());
-            foundBeer.setQuantityOnHand(beer.getQuantityOnHand());
+            Money previousPrice = foundBeer.getPrice();
+            Integer previousQuantity = foundBeer.getQuantityOnHand();
+            beerMapper.updateBeer(beer, foundBeer);
+            Beer savedBeer = beerRepository.saveAndFlush(foundBeer);
+            recordHistory(savedBeer, previousPrice, previousQuantity);
 
             // Convert updated entity back to DTO and return
-            atomicReference.set(Optional.of(beerMapper
-                    .beerToBeerDto(beerRepository.save(foundBeer))));
+            BeerDTO updatedBeer = beerMapper.beerToBeerDto(savedBeer);
+            applicationEventPublisher.publishEvent(new BeerChangedEvent(ChangeType.UPDATED, beerId, updatedBeer));
+            atomicReference.set(Optional.of(updatedBeer));
         }, () -> {
             atomicReference.set(Optional.empty()); // Return empty if beer ID doesn't exist
         });
@@ -68,40 +131,142 @@ public class BeerServiceJPA implements BeerService {
     }
 
     @Override
+    @Transactional
     public Boolean deleteBeerById(UUID beerId) {
-        if (beerRepository.existsById(beerId)) {
+        if (beerIdIndex.mightExist(beerId) && beerRepository.existsById(beerId)) {
             beerRepository.deleteById(beerId);
+            tombstoneRepository.save(Tombstone.builder()
+                    .entityType(Tombstone.BEER)
+                    .entityId(beerId)
+                    .build());
+            applicationEventPublisher.publishEvent(new BeerChangedEvent(ChangeType.DELETED, beerId, null));
             return true;
         }
         return false;
     }
 
+    // Loads and flushes in one transaction so dirty checking compares against the loaded row; with
+    // @DynamicUpdate on Beer the UPDATE then sets only the patched columns (plus version and updateDate)
     @Override
-    public Optional<BeerDTO> patchBeerById(UUID beerId, BeerDTO beer) {
-        AtomicReference<Optional<BeerDTO>> atomicReference = new AtomicReference<>();
+    @Transactional
+    public Optional<BeerDTO> patchBeerById(UUID beerId, FieldPatch<BeerDTO> patch) {
+        if (!beerIdIndex.mightExist(beerId)) {
+            return Optional.empty();
+        }
+        if (patch.fields().contains("upc")) {
+            requireUpcFree(patch.values().getUpc(), beerId);
+        }
 
-        beerRepository.findById(beerId).ifPresentOrElse(foundBeer -> {
-            if (StringUtils.hasText(beer.getBeerName())) {
-                foundBeer.setBeerName(beer.getBeerName());
-            }
-            if (beer.getBeerStyle() != null) {
-                foundBeer.setBeerStyle(beer.getBeerStyle());
-            }
-            if (StringUtils.hasText(beer.getUpc())) {
-                foundBeer.setUpc(beer.getUpc());
-            }
-            if (beer.getPrice() != null) {
-                foundBeer.setPrice(beer.getPrice());
+        return beerRepository.findById(beerId).map(foundBeer -> patch(foundBeer, patch));
+    }
+
+    // The row stays locked from the read the patch is built from until commit
+    @Override
+    @Transactional
+    public Optional<BeerDTO> patchBeerById(UUID beerId, Function<BeerDTO, FieldPatch<BeerDTO>> patcher) {
+        if (!beerIdIndex.mightExist(beerId)) {
+            return Optional.empty();
+        }
+
+        return beerRepository.findWithLockById(beerId).map(foundBeer -> {
+            BeerDTO current = beerMapper.beerToBeerDto(foundBeer);
+            FieldPatch<BeerDTO> patch = patcher.apply(current);
+            if (patch.isEmpty()) {
+                return current;
             }
-            if (beer.getQuantityOnHand() != null) {
-                foundBeer.setQuantityOnHand(beer.getQuantityOnHand());
+            if (patch.fields().contains("upc")) {
+                requireUpcFree(patch.values().getUpc(), beerId);
             }
-            atomicReference.set(Optional.of(beerMapper
-                    .beerToBeerDto(beerRepository.save(foundBeer))));
-        }, () -> {
-            atomicReference.set(Optional.empty());
+            return patch(foundBeer, patch);
         });
+    }
 
-        return atomicReference.get();
+    private BeerDTO patch(Beer foundBeer, FieldPatch<BeerDTO> patch) {
+        Money previousPrice = foundBeer.getPrice();
+        Integer previousQuantity = foundBeer.getQuantityOnHand();
+        beerMapper.patchBeer(patch.values(), foundBeer, patch.fields());
+        Beer savedBeer = beerRepository.saveAndFlush(foundBeer);
+        recordHistory(savedBeer, previousPrice, previousQuantity);
+        BeerDTO patchedBeer = beerMapper.beerToBeerDto(savedBeer);
+        applicationEventPublisher.publishEvent(new BeerChangedEvent(ChangeType.PATCHED, savedBeer.getId(), patchedBeer));
+        return patchedBeer;
+    }
+
+    // Appended in the writer's transaction, so a history row exists exactly when its change committed.
+    // The inserts are batched at commit (hibernate.jdbc.batch_size, pooled beer_history_seq ids).
+    private void recordHistory(Beer beer, Money previousPrice, Integer previousQuantity) {
+        if (!Objects.equals(previousPrice, beer.getPrice()) || !Objects.equals(previousQuantity, beer.getQuantityOnHand())) {
+            beerHistoryRepository.save(beerMapper.beerToBeerHistory(beer));
+        }
+    }
+
+    // Gives the common case a clear 409 up front; concurrent writers racing for one UPC are
+    // stopped by the ux_beer_upc unique index instead (see CustomErrorController)
+    private void requireUpcFree(String upc, UUID beerId) {
+        if (upc != null && beerRepository.findByUpc(upc).filter(other -> !other.getId().equals(beerId)).isPresent()) {
+            throw new DuplicateUpcException(upc);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DeltaSyncDTO<BeerDTO> listBeerChangesSince(SyncToken since) {
+        // Read first: every change up to it has committed, so the reads below see all of them (see ChangeCounter)
+        long until = changeCounterRepository.findLastSeq(Tombstone.BEER).orElse(0L);
+        LocalDateTime now = LocalDateTime.now();
+        String nextToken = new SyncToken(now, List.of(until)).encode();
+
+        // Without a token, or once the tombstones it would need have been pruned, the client gets everything
+        if (since == null || since.positions().isEmpty() || since.watermark().isBefore(now.minus(tombstoneRetention))) {
+            return DeltaSyncDTO.<BeerDTO>builder()
+                    .changed(listBeers())
+                    .deleted(List.of())
+                    .nextToken(nextToken)
+                    .fullResync(true)
+                    .build();
+        }
+
+        return DeltaSyncDTO.<BeerDTO>builder()
+                .changed(beerRepository.findByChangeSeqGreaterThanAndChangeSeqLessThanEqual(since.positions().get(0), until)
+                        .stream()
+                        .map(beerMapper::beerToBeerDto)
+                        .collect(Collectors.toList()))
+                .deleted(tombstoneRepository.findDeletedIds(Tombstone.BEER, since.positions().get(0), until))
+                .nextToken(nextToken)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BeerDTO> listLowStockBeers(int lowStockThreshold, int limit) {
+        return beerRepository.findLowStock(lowStockThreshold, PageRequest.of(0, limit))
+                .stream()
+                .map(beerMapper::beerToBeerDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BeerHistoryDTO> listBeerHistory(UUID beerId, int limit) {
+        return beerHistoryRepository.findByBeerIdOrderByValidFromDescIdDesc(beerId, PageRequest.of(0, limit))
+                .stream()
+                .map(beerMapper::beerHistoryToBeerHistoryDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<BeerHistoryDTO> getBeerHistoryAsOf(UUID beerId, LocalDateTime asOf) {
+        return beerHistoryRepository.findFirstByBeerIdAndValidFromLessThanEqualOrderByValidFromDescIdDesc(beerId, asOf)
+                .map(beerMapper::beerHistoryToBeerHistoryDto);
+    }
+
+    // Aggregates in the database: one GROUP BY for the per-style figures, then one single-row
+    // ordered read per percentile instead of loading every price
+    @Override
+    @Transactional(readOnly = true)
+    public BeerStatsDTO getBeerStats(int lowStockThreshold) {
+        return BeerStats.summarize(lowStockThreshold, beerRepository.aggregateByStyle(lowStockThreshold),
+                rank -> beerRepository.findPricesAscending(PageRequest.of(Math.toIntExact(rank - 1), 1)).getFirst().toBigDecimal());
     }
 }
@@ -0,0 +1,79 @@
+package com.spring.mvc.services;
+
+import com.spring.mvc.entities.Tombstone;
+import com.spring.mvc.events.BeerChangedEvent;
+import com.spring.mvc.events.ChangeType;
+import com.spring.mvc.events.CustomerChangedEvent;
+import com.spring.mvc.repositories.BeerRepository;
+import com.spring.mvc.repositories.ChangeCounterRepository;
+import com.spring.mvc.repositories.CustomerRepository;
+import com.spring.mvc.repositories.TombstoneRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Gives every change BeerServiceJPA/CustomerServiceJPA make the next position of its ChangeCounter, which delta
+// sync pages by. Timestamps can't be used for that: updateDate is set at flush, and a transaction that commits
+// long after its flush (or on an instance whose clock is behind) would land behind tokens already handed out.
+// Runs after the other BEFORE_COMMIT listeners so the counter row is locked for as short a time as possible.
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "mvc.engine", havingValue = "jpa", matchIfMissing = true)
+public class ChangeSequencer {
+
+    private final ChangeCounterRepository changeCounterRepository;
+    private final BeerRepository beerRepository;
+    private final CustomerRepository customerRepository;
+    private final TombstoneRepository tombstoneRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onBeerChanged(BeerChangedEvent event) {
+        long changeSeq = next(Tombstone.BEER);
+        if (event.type() == ChangeType.DELETED) {
+            tombstoneRepository.setChangeSeq(Tombstone.BEER, event.beerId(), changeSeq);
+        } else {
+            beerRepository.setChangeSeq(event.beerId(), changeSeq);
+        }
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        long changeSeq = next(Tombstone.CUSTOMER);
+        if (event.type() == ChangeType.DELETED) {
+            tombstoneRepository.setChangeSeq(Tombstone.CUSTOMER, event.customerId(), changeSeq);
+        } else {
+            customerRepository.setChangeSeq(event.customerId(), changeSeq);
+        }
+    }
+
+    private long next(String name) {
+        if (changeCounterRepository.increment(name) == 0) {
+            create(name);
+            changeCounterRepository.increment(name);
+        }
+        return changeCounterRepository.findLastSeq(name).orElseThrow();
+    }
+
+    // The first write to a database creates its counter, committed on its own so concurrent first writers
+    // all go on to increment the one row
+    private void create(String name) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            transaction.executeWithoutResult(status -> changeCounterRepository.create(name));
+        } catch (DataIntegrityViolationException e) {
+            // Another writer created it first
+        }
+    }
+}
@@ -1,10 +1,17 @@
 package com.spring.mvc.services;
 
 import com.spring.mvc.model.CustomerDTO;
+import com.spring.mvc.model.DeltaSyncDTO;
+import com.spring.mvc.model.FieldPatch;
+import com.spring.mvc.model.SyncToken;
+
+import org.springframework.util.StringUtils;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 
 public interface CustomerService {
 
@@ -18,5 +25,17 @@ public interface CustomerService {
 
     Boolean deleteCustomerById(UUID customerId);
 
-    Optional<CustomerDTO> patchCustomerById(UUID customerId, CustomerDTO customer);
+    // Plain JSON PATCH: a null or blank name is left as it is
+    default Optional<CustomerDTO> patchCustomerById(UUID customerId, CustomerDTO customer) {
+        return patchCustomerById(customerId, new FieldPatch<>(customer,
+                StringUtils.hasText(customer.getName()) ? Set.of("name") : Set.of()));
+    }
+
+    // Changes exactly the fields named in the patch, clearing those whose new value is null
+    Optional<CustomerDTO> patchCustomerById(UUID customerId, FieldPatch<CustomerDTO> patch);
+
+    // Builds the patch from the stored customer and writes it in one step, see BeerService
+    Optional<CustomerDTO> patchCustomerById(UUID customerId, Function<CustomerDTO, FieldPatch<CustomerDTO>> patcher);
+
+    DeltaSyncDTO<CustomerDTO> listCustomerChangesSince(SyncToken since);
 }
@@ -1,17 +1,50 @@
 package com.spring.mvc.services;
 
+import com.spring.mvc.events.ChangeType;
+import com.spring.mvc.events.CustomerChangedEvent;
+import com.spring.mvc.mappers.CustomerMapper;
 import com.spring.mvc.model.CustomerDTO;
+import com.spring.mvc.model.DeltaSyncDTO;
+import com.spring.mvc.model.FieldPatch;
+import com.spring.mvc.model.SyncToken;
+import com.spring.mvc.persistence.DurableStore;
+import com.spring.mvc.persistence.Journal;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
+// The CustomerService with mvc.engine=memory
 @Service
-public class CustomerServiceImpl implements CustomerService {
+@ConditionalOnProperty(name = "mvc.engine", havingValue = "memory")
+public class CustomerServiceImpl implements CustomerService, ApplicationEventPublisherAware {
+
+    private static final Duration TOMBSTONE_RETENTION = Duration.ofDays(30);
+
+    private static final CustomerMapper CUSTOMER_MAPPER = Mappers.getMapper(CustomerMapper.class);
 
     private Map<UUID, CustomerDTO> customerMap;
 
+    private final Map<UUID, LocalDateTime> tombstones = new ConcurrentHashMap<>();
+
+    // Delta sync only hands out changes this old; see BeerServiceImpl
+    private Duration commitLag = Duration.ofSeconds(2);
+
+    private Journal<CustomerDTO> journal = Journal.none();
+
+    private ApplicationEventPublisher applicationEventPublisher = event -> {
+    };
+
     public CustomerServiceImpl() {
         CustomerDTO customer1 = CustomerDTO.builder()
                 .id(UUID.randomUUID())
@@ -37,34 +70,99 @@ public class CustomerServiceImpl implements CustomerService {
                 .lastModifiedDate(LocalDateTime.now())
                 .build();
 
-        customerMap = new HashMap<>();
+        customerMap = new ConcurrentHashMap<>();
         customerMap.put(customer1.getId(), customer1);
         customerMap.put(customer2.getId(), customer2);
         customerMap.put(customer3.getId(), customer3);
     }
 
     @Override
-    public Optional<CustomerDTO> patchCustomerById(UUID customerId, CustomerDTO customer) {
-        CustomerDTO existing = customerMap.get(customerId);
+    public void setApplicationEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
 
-        if (StringUtils.hasText(customer.getName())) {
-            existing.setName(customer.getName());
+    @Value("${mvc.delta-sync.commit-lag:2s}")
+    public void setCommitLag(Duration commitLag) {
+        this.commitLag = commitLag;
+    }
+
+    @Autowired(required = false)
+    public void setCustomerDurableStore(DurableStore<CustomerDTO> customerDurableStore) throws IOException {
+        if (customerDurableStore.hasPersistedState()) {
+            customerMap.clear();
+            customerDurableStore.recover(customerMap::put, customerMap::remove);
+        } else {
+            customerDurableStore.checkpoint(new DurableStore.Checkpoint<>(customerDurableStore.position(), List.copyOf(customerMap.values())));
         }
+        customerDurableStore.scheduleCheckpoints(this::checkpoint);
+        journal = customerDurableStore;
+    }
+
+    @Override
+    public Optional<CustomerDTO> patchCustomerById(UUID customerId, FieldPatch<CustomerDTO> patch) {
+        return patchCustomerById(customerId, current -> patch);
+    }
+
+    // The patch is built under the lock that writes it
+    @Override
+    public Optional<CustomerDTO> patchCustomerById(UUID customerId, Function<CustomerDTO, FieldPatch<CustomerDTO>> patcher) {
+        CustomerDTO existing;
+        long position;
+
+        synchronized (this) {
+            existing = customerMap.get(customerId);
+            if (existing == null) {
+                return Optional.empty();
+            }
+            FieldPatch<CustomerDTO> patch = patcher.apply(existing);
+            if (patch.isEmpty()) {
+                return Optional.of(existing);
+            }
+
+            CUSTOMER_MAPPER.patchCustomerDto(patch.values(), existing, patch.fields());
+            existing.setLastModifiedDate(LocalDateTime.now());
+            position = journal.put(existing);
+        }
+        journal.awaitDurable(position);
+        publish(ChangeType.PATCHED, existing);
 
         return Optional.of(existing);
     }
 
     @Override
     public Boolean deleteCustomerById(UUID customerId) {
-        customerMap.remove(customerId);
+        long position;
+
+        synchronized (this) {
+            if (customerMap.remove(customerId) == null) {
+                return true;
+            }
+            tombstones.put(customerId, LocalDateTime.now());
+            position = journal.delete(customerId);
+        }
+        journal.awaitDurable(position);
+        applicationEventPublisher.publishEvent(new CustomerChangedEvent(ChangeType.DELETED, customerId, null));
 
         return true;
     }
 
     @Override
     public Optional<CustomerDTO> updateCustomerById(UUID customerId, CustomerDTO customer) {
-        CustomerDTO existing = customerMap.get(customerId);
-        existing.setName(customer.getName());
+        CustomerDTO existing;
+        long position;
+
+        synchronized (this) {
+            existing = customerMap.get(customerId);
+            if (existing == null) {
+                return Optional.empty();
+            }
+
+            existing.setName(customer.getName());
+            existing.setLastModifiedDate(LocalDateTime.now());
+            position = journal.put(existing);
+        }
+        journal.awaitDurable(position);
+        publish(ChangeType.UPDATED, existing);
         return Optional.of(existing);
     }
 
@@ -74,23 +172,72 @@ public class CustomerServiceImpl implements CustomerService {
         CustomerDTO savedCustomer = CustomerDTO.builder()
                 .id(UUID.randomUUID())
                 .version(1)
-                .lastModifiedDate(LocalDateTime.now())
-                .createdDate(LocalDateTime.now())
                 .name(customer.getName())
                 .build();
 
-        customerMap.put(savedCustomer.getId(), savedCustomer);
+        long position;
+        synchronized (this) {
+            savedCustomer.setCreatedDate(LocalDateTime.now());
+            savedCustomer.setLastModifiedDate(savedCustomer.getCreatedDate());
+            customerMap.put(savedCustomer.getId(), savedCustomer);
+            position = journal.put(savedCustomer);
+        }
+        journal.awaitDurable(position);
+        publish(ChangeType.CREATED, savedCustomer);
 
         return savedCustomer;
     }
 
     @Override
     public Optional<CustomerDTO> getCustomerById(UUID uuid) {
-        return Optional.of(customerMap.get(uuid));
+        return Optional.ofNullable(customerMap.get(uuid));
     }
 
     @Override
     public List<CustomerDTO> listCustomers() {
         return new ArrayList<>(customerMap.values());
     }
+
+    @Override
+    public DeltaSyncDTO<CustomerDTO> listCustomerChangesSince(SyncToken since) {
+        LocalDateTime until;
+        synchronized (this) {
+            until = LocalDateTime.now().minus(commitLag);
+        }
+        LocalDateTime horizon = LocalDateTime.now().minus(TOMBSTONE_RETENTION);
+        tombstones.values().removeIf(deletedDate -> deletedDate.isBefore(horizon));
+
+        if (since == null || since.watermark().isBefore(horizon)) {
+            return DeltaSyncDTO.<CustomerDTO>builder()
+                    .changed(listCustomers())
+                    .deleted(List.of())
+                    .nextToken(new SyncToken(until).encode())
+                    .fullResync(true)
+                    .build();
+        }
+
+        return DeltaSyncDTO.<CustomerDTO>builder()
+                .changed(customerMap.values().stream()
+                        .filter(customer -> customer.getLastModifiedDate() != null
+                                && customer.getLastModifiedDate().isAfter(since.watermark())
+                                && !customer.getLastModifiedDate().isAfter(until))
+                        .toList())
+                .deleted(tombstones.entrySet().stream()
+                        .filter(tombstone -> tombstone.getValue().isAfter(since.watermark())
+                                && !tombstone.getValue().isAfter(until))
+                        .map(Map.Entry::getKey)
+                        .toList())
+                .nextToken(new SyncToken(until).encode())
+                .build();
+    }
+
+    private synchronized DurableStore.Checkpoint<CustomerDTO> checkpoint() {
+        return new DurableStore.Checkpoint<>(journal.position(), customerMap.values().stream()
+                .map(customer -> customer.toBuilder().build())
+                .toList());
+    }
+
+    private void publish(ChangeType type, CustomerDTO customer) {
+        applicationEventPublisher.publishEvent(new CustomerChangedEvent(type, customer.getId(), customer.toBuilder().build()));
+    }
 }
\ No newline at end of file
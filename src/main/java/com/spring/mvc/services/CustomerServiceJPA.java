@@ -1,28 +1,52 @@
 package com.spring.mvc.services;
 
+import com.spring.mvc.events.ChangeType;
+import com.spring.mvc.events.CustomerChangedEvent;
+import com.spring.mvc.index.IdExistenceIndex;
 import com.spring.mvc.mappers.CustomerMapper;
+import com.spring.mvc.entities.Customer;
+import com.spring.mvc.entities.Tombstone;
 import com.spring.mvc.model.CustomerDTO;
+import com.spring.mvc.model.DeltaSyncDTO;
+import com.spring.mvc.model.FieldPatch;
+import com.spring.mvc.model.SyncToken;
+import com.spring.mvc.repositories.ChangeCounterRepository;
 import com.spring.mvc.repositories.CustomerRepository;
+import com.spring.mvc.repositories.TombstoneRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.annotation.Primary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+// The CustomerService with mvc.engine=jpa (the default)
 @Service
-@Primary
+@ConditionalOnProperty(name = "mvc.engine", havingValue = "jpa", matchIfMissing = true)
 @RequiredArgsConstructor
 public class CustomerServiceJPA implements CustomerService {
 
     private final CustomerRepository customerRepository;
     private final CustomerMapper customerMapper;
+    private final IdExistenceIndex customerIdIndex;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final TombstoneRepository tombstoneRepository;
+    private final ChangeCounterRepository changeCounterRepository;
+
+    @Value("${mvc.delta-sync.tombstone-retention:30d}")
+    private Duration tombstoneRetention;
 
     @Override
+    @Transactional(readOnly = true)
     public List<CustomerDTO> listCustomers() {
         return customerRepository.findAll()
                 .stream()
@@ -31,25 +55,40 @@ public class CustomerServiceJPA implements CustomerService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<CustomerDTO> getCustomerById(UUID id) {
+        if (!customerIdIndex.mightExist(id)) {
+            return Optional.empty();
+        }
         return Optional.ofNullable(customerMapper.customerToCustomerDto(customerRepository.findById(id)
                 .orElse(null)));
     }
 
+    // Writes are transactional so the outbox row (see OutboxWriter) commits with them; the flush fills in
+    // version and timestamps before the DTO is built
     @Override
+    @Transactional
     public CustomerDTO saveNewCustomer(CustomerDTO customer) {
-        return customerMapper.customerToCustomerDto(customerRepository
-                .save(customerMapper.customerDtoToCustomer(customer)));
+        CustomerDTO savedCustomer = customerMapper.customerToCustomerDto(customerRepository
+                .saveAndFlush(customerMapper.customerDtoToCustomer(customer)));
+        customerIdIndex.add(savedCustomer.getId());
+        applicationEventPublisher.publishEvent(new CustomerChangedEvent(ChangeType.CREATED, savedCustomer.getId(), savedCustomer));
+        return savedCustomer;
     }
 
     @Override
+    @Transactional
     public Optional<CustomerDTO> updateCustomerById(UUID customerId, CustomerDTO customer) {
+        if (!customerIdIndex.mightExist(customerId)) {
+            return Optional.empty();
+        }
         AtomicReference<Optional<CustomerDTO>> atomicReference = new AtomicReference<>();
 
         customerRepository.findById(customerId).ifPresentOrElse(foundCustomer -> {
             foundCustomer.setName(customer.getName());
-            atomicReference.set(Optional.of(customerMapper
-                    .customerToCustomerDto(customerRepository.save(foundCustomer))));
+            CustomerDTO updatedCustomer = customerMapper.customerToCustomerDto(customerRepository.saveAndFlush(foundCustomer));
+            applicationEventPublisher.publishEvent(new CustomerChangedEvent(ChangeType.UPDATED, customerId, updatedCustomer));
+            atomicReference.set(Optional.of(updatedCustomer));
         }, () -> {
             atomicReference.set(Optional.empty());
         });
@@ -58,28 +97,77 @@ public class CustomerServiceJPA implements CustomerService {
     }
 
     @Override
+    @Transactional
     public Boolean deleteCustomerById(UUID customerId) {
-        if (customerRepository.existsById(customerId)) {
+        if (customerIdIndex.mightExist(customerId) && customerRepository.existsById(customerId)) {
             customerRepository.deleteById(customerId);
+            tombstoneRepository.save(Tombstone.builder()
+                    .entityType(Tombstone.CUSTOMER)
+                    .entityId(customerId)
+                    .build());
+            applicationEventPublisher.publishEvent(new CustomerChangedEvent(ChangeType.DELETED, customerId, null));
             return true;
         }
         return false;
     }
 
+    // See BeerServiceJPA.patchBeerById
     @Override
-    public Optional<CustomerDTO> patchCustomerById(UUID customerId, CustomerDTO customer) {
-        AtomicReference<Optional<CustomerDTO>> atomicReference = new AtomicReference<>();
+    @Transactional
+    public Optional<CustomerDTO> patchCustomerById(UUID customerId, FieldPatch<CustomerDTO> patch) {
+        if (!customerIdIndex.mightExist(customerId)) {
+            return Optional.empty();
+        }
 
-        customerRepository.findById(customerId).ifPresentOrElse(foundCustomer -> {
-            if (StringUtils.hasText(customer.getName())) {
-                foundCustomer.setName(customer.getName());
-            }
-            atomicReference.set(Optional.of(customerMapper
-                    .customerToCustomerDto(customerRepository.save(foundCustomer))));
-        }, () -> {
-            atomicReference.set(Optional.empty());
+        return customerRepository.findById(customerId).map(foundCustomer -> patch(foundCustomer, patch));
+    }
+
+    // The row stays locked from the read the patch is built from until commit
+    @Override
+    @Transactional
+    public Optional<CustomerDTO> patchCustomerById(UUID customerId, Function<CustomerDTO, FieldPatch<CustomerDTO>> patcher) {
+        if (!customerIdIndex.mightExist(customerId)) {
+            return Optional.empty();
+        }
+
+        return customerRepository.findWithLockById(customerId).map(foundCustomer -> {
+            CustomerDTO current = customerMapper.customerToCustomerDto(foundCustomer);
+            FieldPatch<CustomerDTO> patch = patcher.apply(current);
+            return patch.isEmpty() ? current : patch(foundCustomer, patch);
         });
+    }
 
-        return atomicReference.get();
+    private CustomerDTO patch(Customer foundCustomer, FieldPatch<CustomerDTO> patch) {
+        customerMapper.patchCustomer(patch.values(), foundCustomer, patch.fields());
+        CustomerDTO patchedCustomer = customerMapper.customerToCustomerDto(customerRepository.saveAndFlush(foundCustomer));
+        applicationEventPublisher.publishEvent(new CustomerChangedEvent(ChangeType.PATCHED, patchedCustomer.getId(), patchedCustomer));
+        return patchedCustomer;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DeltaSyncDTO<CustomerDTO> listCustomerChangesSince(SyncToken since) {
+        // Read first, see BeerServiceJPA.listBeerChangesSince
+        long until = changeCounterRepository.findLastSeq(Tombstone.CUSTOMER).orElse(0L);
+        LocalDateTime now = LocalDateTime.now();
+        String nextToken = new SyncToken(now, List.of(until)).encode();
+
+        if (since == null || since.positions().isEmpty() || since.watermark().isBefore(now.minus(tombstoneRetention))) {
+            return DeltaSyncDTO.<CustomerDTO>builder()
+                    .changed(listCustomers())
+                    .deleted(List.of())
+                    .nextToken(nextToken)
+                    .fullResync(true)
+                    .build();
+        }
+
+        return DeltaSyncDTO.<CustomerDTO>builder()
+                .changed(customerRepository.findByChangeSeqGreaterThanAndChangeSeqLessThanEqual(since.positions().get(0), until)
+                        .stream()
+                        .map(customerMapper::customerToCustomerDto)
+                        .collect(Collectors.toList()))
+                .deleted(tombstoneRepository.findDeletedIds(Tombstone.CUSTOMER, since.positions().get(0), until))
+                .nextToken(nextToken)
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,13 @@
+package com.spring.mvc.services;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Another beer already has this UPC - scanners identify beers by it, so it must stay unique
+@ResponseStatus(value = HttpStatus.CONFLICT, reason = "A beer with this UPC already exists")
+public class DuplicateUpcException extends RuntimeException {
+
+    public DuplicateUpcException(String upc) {
+        super("A beer with UPC " + upc + " already exists");
+    }
+}
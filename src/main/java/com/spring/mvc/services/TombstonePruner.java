@@ -0,0 +1,44 @@
+package com.spring.mvc.services;
+
+import com.spring.mvc.repositories.TombstoneRepository;
+import com.spring.mvc.sharding.BeerShards;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+// Deletes tombstones past their retention - clients syncing from older tokens get a full resync instead
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TombstonePruner {
+
+    private final TombstoneRepository tombstoneRepository;
+
+    private final Optional<BeerShards> beerShards;
+
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${mvc.delta-sync.tombstone-retention:30d}")
+    private Duration tombstoneRetention;
+
+    // Beer tombstones live on the beers' shards, so each shard is pruned in its own transaction
+    @Scheduled(fixedDelayString = "${mvc.delta-sync.prune-interval:1h}")
+    public void pruneTombstones() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(tombstoneRetention);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        BeerShards.forEachShard(beerShards, () -> {
+            Integer pruned = transaction.execute(status -> tombstoneRepository.deleteOlderThan(cutoff));
+            if (pruned != null && pruned > 0) {
+                log.debug("Pruned {} tombstones", pruned);
+            }
+        });
+    }
+}
@@ -0,0 +1,258 @@
+package com.spring.mvc.sharding;
+
+import com.spring.mvc.entities.Beer;
+import com.spring.mvc.entities.BeerHistory;
+import com.spring.mvc.entities.BeerShardLayout;
+import com.spring.mvc.entities.Tombstone;
+import com.spring.mvc.model.ShardStatusDTO;
+import com.spring.mvc.repositories.BeerHistoryRepository;
+import com.spring.mvc.repositories.BeerRepository;
+import com.spring.mvc.repositories.BeerShardLayoutRepository;
+import com.spring.mvc.repositories.TombstoneRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+// Online resharding: reshard(n) switches the layout to n shards at once and moves the beers whose shard changed
+// in the background, each one (row, history and tombstones) under the exclusive lock. Reads and writes carry on
+// meanwhile; one that touches a beer still waiting to move moves it first (see ShardedBeerService).
+//
+// The layout is stored on shard 0 before and after the move, so a restart resumes an unfinished resharding.
+// The layout and the locks are per application instance - another instance would keep routing by the layout it
+// read at startup, missing moved beers and writing new ones to the wrong shard - so resharding is refused unless
+// singleInstance says this is the only one.
+@Slf4j
+public class BeerResharder implements AutoCloseable {
+
+    private static final UUID FIRST = new UUID(0, 0);
+
+    private final BeerShards beerShards;
+    private final BeerRepository beerRepository;
+    private final BeerHistoryRepository beerHistoryRepository;
+    private final TombstoneRepository tombstoneRepository;
+    private final BeerShardLayoutRepository beerShardLayoutRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final boolean singleInstance;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().daemon().name("beer-resharder").factory());
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong moved = new AtomicLong();
+
+    public BeerResharder(BeerShards beerShards, BeerRepository beerRepository, BeerHistoryRepository beerHistoryRepository,
+                         TombstoneRepository tombstoneRepository, BeerShardLayoutRepository beerShardLayoutRepository,
+                         TransactionTemplate transactionTemplate, int batchSize, boolean singleInstance) {
+        this.beerShards = beerShards;
+        this.beerRepository = beerRepository;
+        this.beerHistoryRepository = beerHistoryRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.beerShardLayoutRepository = beerShardLayoutRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.singleInstance = singleInstance;
+    }
+
+    public ShardStatusDTO status() {
+        return beerShards.shared(layout -> ShardStatusDTO.builder()
+                .shardCount(layout.shardCount())
+                .previousShardCount(layout.isResharding() ? layout.previousShardCount() : null)
+                .dataSourceCount(beerShards.dataSourceCount())
+                .beersPerShard(beerShards.gather(layout, beerRepository::count))
+                .movedBeers(moved.get())
+                .build());
+    }
+
+    // Returns once the new layout is in place; the beers move afterwards, status() shows how far along that is.
+    // Asking again for the target of an interrupted resharding restarts its move.
+    public ShardStatusDTO reshard(int shardCount) {
+        if (!singleInstance) {
+            throw new ReshardingNotAllowedException();
+        }
+        if (shardCount < 1 || shardCount > beerShards.dataSourceCount()) {
+            throw new IllegalArgumentException("shards must be between 1 and " + beerShards.dataSourceCount());
+        }
+
+        boolean started = beerShards.exclusive(layout -> {
+            if (layout.isResharding()) {
+                if (layout.shardCount() != shardCount) {
+                    throw new ReshardingInProgressException(layout);
+                }
+                return true;
+            }
+            if (layout.shardCount() == shardCount) {
+                return false;
+            }
+            BeerShards.Layout next = new BeerShards.Layout(shardCount, layout.shardCount());
+            save(next);
+            beerShards.setLayout(next);
+            moved.set(0);
+            return true;
+        });
+        if (started) {
+            start();
+        }
+        return status();
+    }
+
+    // Picks up a resharding the application was stopped in the middle of
+    @EventListener(ApplicationReadyEvent.class)
+    public void resume() {
+        if (!beerShards.layout().isResharding()) {
+            return;
+        }
+        if (singleInstance) {
+            start();
+        } else {
+            // Reads and writes still find each beer, moving it first if need be, but nothing walks the rest
+            log.warn("Beers are half resharded from {} to {} shards; restart with mvc.sharding.single-instance=true "
+                    + "as the only instance to finish", beerShards.layout().previousShardCount(), beerShards.layout().shardCount());
+        }
+    }
+
+    // For reads and writes under the shared lock: whether the beer still has rows on its previous shard,
+    // which moveNow() has to take care of before the beer can be used
+    boolean isWaitingToMove(UUID id, BeerShards.Layout layout) {
+        if (!layout.isResharding()) {
+            return false;
+        }
+        Shard from = layout.previousOwner(id);
+        return from.index() != layout.owner(id).index() && ShardContext.call(from, () -> hasRows(id));
+    }
+
+    void moveNow(UUID id) {
+        beerShards.exclusive(layout -> {
+            Shard from = layout.previousOwner(id);
+            Shard to = layout.owner(id);
+            if (layout.isResharding() && from.index() != to.index() && move(id, from, to)) {
+                moved.incrementAndGet();
+            }
+            return null;
+        });
+    }
+
+    private void start() {
+        if (running.compareAndSet(false, true)) {
+            worker.execute(this::moveAll);
+        }
+    }
+
+    private void moveAll() {
+        try {
+            BeerShards.Layout layout = beerShards.layout();
+            log.info("Resharding beers from {} to {} shards", layout.previousShardCount(), layout.shardCount());
+
+            for (int index = 0; index < layout.span(); index++) {
+                Shard shard = layout.shard(index);
+                moveAway(shard, layout, beerRepository::findIdsAfter);
+                moveAway(shard, layout, beerHistoryRepository::findBeerIdsAfter);
+                moveAway(shard, layout, (after, page) -> tombstoneRepository.findEntityIdsAfter(Tombstone.BEER, after, page));
+            }
+
+            beerShards.exclusive(current -> {
+                BeerShards.Layout done = new BeerShards.Layout(current.shardCount(), current.shardCount());
+                save(done);
+                beerShards.setLayout(done);
+                return null;
+            });
+            log.info("Resharded beers to {} shards, {} moved", layout.shardCount(), moved.get());
+        } catch (RuntimeException e) {
+            log.error("Resharding stopped; it resumes on restart or when the same target is requested again", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Walks the shard's ids in order and moves the ones that belong elsewhere now. Moving deletes rows behind the
+    // walk, never ahead of it, so no id is skipped.
+    private void moveAway(Shard shard, BeerShards.Layout layout, BiFunction<UUID, Pageable, List<UUID>> idsAfter) {
+        UUID after = FIRST;
+        List<UUID> ids;
+        do {
+            UUID from = after;
+            ids = ShardContext.call(shard, () -> idsAfter.apply(from, PageRequest.of(0, batchSize)));
+            for (UUID id : ids) {
+                if (layout.owner(id).index() != shard.index()) {
+                    moveNow(id);
+                }
+            }
+            if (!ids.isEmpty()) {
+                after = ids.getLast();
+            }
+        } while (ids.size() == batchSize);
+    }
+
+    // Copies first and deletes after: a move cut short in between is finished by the next attempt, which finds
+    // the copy and only deletes. History rows get new ids on the target shard.
+    private boolean move(UUID id, Shard from, Shard to) {
+        Rows rows = ShardContext.call(from, () -> transactionTemplate.execute(status -> new Rows(
+                beerRepository.findById(id).orElse(null),
+                beerHistoryRepository.findByBeerIdOrderByIdAsc(id),
+                tombstoneRepository.findByEntityTypeAndEntityId(Tombstone.BEER, id))));
+        if (rows.isEmpty()) {
+            return false;
+        }
+
+        ShardContext.run(to, () -> transactionTemplate.executeWithoutResult(status -> {
+            if (hasRows(id)) {
+                return;
+            }
+            if (rows.beer() != null) {
+                beerRepository.insertCopy(rows.beer());
+            }
+            beerHistoryRepository.saveAll(rows.history().stream()
+                    .map(history -> BeerHistory.builder()
+                            .beerId(history.getBeerId())
+                            .validFrom(history.getValidFrom())
+                            .price(history.getPrice())
+                            .quantityOnHand(history.getQuantityOnHand())
+                            .build())
+                    .toList());
+            rows.tombstones().forEach(tombstoneRepository::insertCopy);
+        }));
+
+        ShardContext.run(from, () -> transactionTemplate.executeWithoutResult(status -> {
+            beerHistoryRepository.deleteByBeerId(id);
+            tombstoneRepository.deleteByEntityTypeAndEntityId(Tombstone.BEER, id);
+            beerRepository.deleteCopy(id);
+        }));
+        return true;
+    }
+
+    private boolean hasRows(UUID id) {
+        return beerRepository.existsById(id) || beerHistoryRepository.existsByBeerId(id)
+                || tombstoneRepository.existsByEntityTypeAndEntityId(Tombstone.BEER, id);
+    }
+
+    // Stored on shard 0, where the layout is read from at startup
+    private void save(BeerShards.Layout layout) {
+        ShardContext.run(new Shard(0, 1), () -> beerShardLayoutRepository.save(BeerShardLayout.builder()
+                .id(BeerShardLayout.ID)
+                .shardCount(layout.shardCount())
+                .previousShardCount(layout.previousShardCount())
+                .build()));
+    }
+
+    @Override
+    public void close() {
+        worker.shutdownNow();
+    }
+
+    private record Rows(Beer beer, List<BeerHistory> history, List<Tombstone> tombstones) {
+
+        boolean isEmpty() {
+            return beer == null && history.isEmpty() && tombstones.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.spring.mvc.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// The shards beers are spread over and the layout they are in. Beer work runs under the shared lock, so it sees one
+// layout from start to finish; resharding changes the layout and moves each beer under the exclusive lock, so no
+// read or write is ever half on a beer's old shard and half on its new one.
+public class BeerShards implements AutoCloseable {
+
+    private final int dataSourceCount;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ExecutorService executor;
+    private volatile Layout layout;
+
+    // threads caps the fan-out; gathers beyond it queue for a thread rather than start more
+    public BeerShards(int dataSourceCount, Layout layout, int threads) {
+        this.dataSourceCount = dataSourceCount;
+        this.executor = Executors.newFixedThreadPool(threads, Thread.ofPlatform().daemon().name("beer-shard-", 0).factory());
+        setLayout(layout);
+    }
+
+    // shardCount is where beers belong; while resharding, those not moved yet are still on their previousShardCount shard
+    public record Layout(int shardCount, int previousShardCount) {
+
+        public boolean isResharding() {
+            return shardCount != previousShardCount;
+        }
+
+        // Shards that may hold beers
+        public int span() {
+            return Math.max(shardCount, previousShardCount);
+        }
+
+        public Shard owner(UUID id) {
+            return Shard.of(id, shardCount);
+        }
+
+        public Shard previousOwner(UUID id) {
+            return Shard.of(id, previousShardCount);
+        }
+
+        // The shard's index under the current count; shards being retired only hold beers waiting to move away
+        public Shard shard(int index) {
+            return new Shard(index, Math.max(shardCount, index + 1));
+        }
+    }
+
+    public int dataSourceCount() {
+        return dataSourceCount;
+    }
+
+    public Layout layout() {
+        return layout;
+    }
+
+    public <T> T shared(Function<Layout, T> work) {
+        lock.readLock().lock();
+        try {
+            return work.apply(layout);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public <T> T exclusive(Function<Layout, T> work) {
+        lock.writeLock().lock();
+        try {
+            return work.apply(layout);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Only under the exclusive lock
+    void setLayout(Layout layout) {
+        if (layout.span() > dataSourceCount) {
+            throw new IllegalArgumentException("Layout " + layout + " needs more than the " + dataSourceCount + " shard DataSources");
+        }
+        this.layout = layout;
+    }
+
+    // Where a new beer goes: any shard of the layout, its id is then drawn to hash there
+    public Shard newBeerShard(Layout layout) {
+        return new Shard(ThreadLocalRandom.current().nextInt(layout.shardCount()), layout.shardCount());
+    }
+
+    // Runs work on every shard of the layout in parallel and returns the results in shard order.
+    // Call it under the shared lock; a failure on any shard fails the whole call.
+    public <T> List<T> gather(Layout layout, Supplier<T> work) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(layout.span());
+        for (int index = 0; index < layout.span(); index++) {
+            Shard shard = layout.shard(index);
+            futures.add(CompletableFuture.supplyAsync(() -> ShardContext.call(shard, work), executor));
+        }
+
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    // Runs work once per shard, one after the other under the shared lock - for the jobs that read or clean up
+    // every beer table. Without sharding (shards empty) it runs once against the one database.
+    public static void forEachShard(Optional<BeerShards> shards, Runnable work) {
+        if (shards.isEmpty()) {
+            work.run();
+            return;
+        }
+        shards.get().shared(layout -> {
+            for (int index = 0; index < layout.span(); index++) {
+                ShardContext.run(layout.shard(index), work);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
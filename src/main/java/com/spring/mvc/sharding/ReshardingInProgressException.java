@@ -0,0 +1,13 @@
+package com.spring.mvc.sharding;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Only one resharding at a time; a new target can be set once the current one has finished
+@ResponseStatus(value = HttpStatus.CONFLICT, reason = "A resharding is already in progress")
+public class ReshardingInProgressException extends RuntimeException {
+
+    public ReshardingInProgressException(BeerShards.Layout layout) {
+        super("Already resharding from " + layout.previousShardCount() + " to " + layout.shardCount() + " shards");
+    }
+}
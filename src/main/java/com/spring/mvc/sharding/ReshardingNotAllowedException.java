@@ -0,0 +1,14 @@
+package com.spring.mvc.sharding;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// The layout and the locks that keep a move consistent are per instance, so resharding is only allowed when this
+// is the only one (mvc.sharding.single-instance=true)
+@ResponseStatus(value = HttpStatus.CONFLICT, reason = "Resharding needs mvc.sharding.single-instance=true")
+public class ReshardingNotAllowedException extends RuntimeException {
+
+    public ReshardingNotAllowedException() {
+        super("Resharding is only allowed with mvc.sharding.single-instance=true");
+    }
+}
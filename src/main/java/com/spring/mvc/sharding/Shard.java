@@ -0,0 +1,35 @@
+package com.spring.mvc.sharding;
+
+import java.util.UUID;
+
+// One of count shards. A beer belongs to the shard its id hashes to with a jump consistent hash
+// (Lamping & Veach): growing from n to m shards moves only the (m - n) / m of the beers the new shards take over,
+// shrinking only the beers of the shards that go away.
+public record Shard(int index, int count) {
+
+    public Shard {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException("No shard " + index + " of " + count);
+        }
+    }
+
+    public static int indexOf(UUID id, int count) {
+        long key = id.getMostSignificantBits() ^ id.getLeastSignificantBits();
+        long bucket = -1;
+        long next = 0;
+        while (next < count) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+
+    public static Shard of(UUID id, int count) {
+        return new Shard(indexOf(id, count), count);
+    }
+
+    public boolean owns(UUID id) {
+        return indexOf(id, count) == index;
+    }
+}
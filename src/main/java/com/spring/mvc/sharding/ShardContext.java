@@ -0,0 +1,39 @@
+package com.spring.mvc.sharding;
+
+import java.util.function.Supplier;
+
+// The shard the current thread's database work goes to. ShardRoutingDataSource picks the shard's DataSource when a
+// transaction takes its connection, so the context has to be set before the transaction starts; without one the
+// work goes to shard 0, where everything that isn't a beer lives.
+public final class ShardContext {
+
+    private static final ThreadLocal<Shard> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Shard current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T call(Shard shard, Supplier<T> work) {
+        Shard previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public static void run(Shard shard, Runnable work) {
+        call(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,79 @@
+package com.spring.mvc.sharding;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.model.relational.Namespace;
+import org.hibernate.boot.model.relational.Sequence;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.Action;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumSet;
+import java.util.Map;
+
+// Hibernate manages the schema (spring.jpa.hibernate.ddl-auto) through the routing DataSource, i.e. on shard 0
+// only. This repeats the same action on every other shard while the session factory starts.
+//
+// Sequence-generated ids (beer history, outbox events) are handed out from one pool for all shards, so the shards'
+// sequences must never overlap: a schema created here starts shard i's sequences at i * 2^40 + 1. Shards whose
+// schema comes from migrations need the same offsets.
+class ShardSchemaIntegrator implements Integrator {
+
+    static final int SEQUENCE_STRIDE_BITS = 40;
+
+    private static final EnumSet<Action> CREATING = EnumSet.of(Action.CREATE, Action.CREATE_DROP, Action.CREATE_ONLY);
+
+    private final int shardCount;
+
+    ShardSchemaIntegrator(int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        ServiceRegistry registry = bootstrapContext.getServiceRegistry();
+        Map<String, Object> settings = registry.requireService(ConfigurationService.class).getSettings();
+        boolean creating = CREATING.contains(SchemaManagementToolCoordinator.ActionGrouping.interpret(settings).getDatabaseAction());
+
+        for (int index = 1; index < shardCount; index++) {
+            long start = ((long) index << SEQUENCE_STRIDE_BITS) + 1;
+            ShardContext.run(new Shard(index, shardCount), () -> {
+                // The extra shards aren't dropped on shutdown with create-drop; in-memory databases go away anyway
+                SchemaManagementToolCoordinator.process(metadata, registry, settings, action -> {
+                });
+                if (creating) {
+                    restartSequences(metadata, registry.requireService(ConnectionProvider.class), start);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    private static void restartSequences(Metadata metadata, ConnectionProvider connections, long start) {
+        try {
+            Connection connection = connections.getConnection();
+            try (Statement statement = connection.createStatement()) {
+                for (Namespace namespace : metadata.getDatabase().getNamespaces()) {
+                    for (Sequence sequence : namespace.getSequences()) {
+                        statement.execute("alter sequence " + sequence.getExportIdentifier() + " restart with " + start);
+                    }
+                }
+            } finally {
+                connections.closeConnection(connection);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not offset the sequences of shard " + ShardContext.current(), e);
+        }
+    }
+}
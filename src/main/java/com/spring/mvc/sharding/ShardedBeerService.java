@@ -0,0 +1,212 @@
+package com.spring.mvc.sharding;
+
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerHistoryDTO;
+import com.spring.mvc.model.BeerStatsDTO;
+import com.spring.mvc.model.DeltaSyncDTO;
+import com.spring.mvc.model.FieldPatch;
+import com.spring.mvc.model.SyncToken;
+import com.spring.mvc.services.BeerService;
+import com.spring.mvc.services.DuplicateUpcException;
+import com.spring.mvc.stats.BeerColumns;
+import com.spring.mvc.stats.BeerStatsScanner;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.function.Function;
+
+// BeerService over sharded storage (mvc.sharding.enabled=true): runs the single-database beerService against the
+// shard that owns a beer for by-id operations, and against every shard in parallel for the rest, merging what
+// they return. Controllers and gRPC use it unchanged.
+//
+// UPCs are checked on every shard before a write, but only each shard's unique index enforces them: two writers
+// racing for one UPC on different shards can both succeed.
+@RequiredArgsConstructor
+public class ShardedBeerService implements BeerService {
+
+    // The order of GET /api/v1/beer/low-stock, as BeerRepository.findLowStock sorts each shard
+    static final Comparator<BeerDTO> LOW_STOCK_ORDER = Comparator
+            .comparing(BeerDTO::getQuantityOnHand, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(beer -> beer.getId().toString());
+
+    // The transactional BeerServiceJPA proxy: each call opens its transaction, read-only ones included, on the
+    // shard it is sent to. This class starts none of its own.
+    private final BeerService beerService;
+    private final BeerShards beerShards;
+    private final BeerResharder beerResharder;
+
+    // No order is promised, so the shards' lists are just concatenated
+    @Override
+    public List<BeerDTO> listBeers() {
+        return beerShards.shared(layout -> beerShards.gather(layout, beerService::listBeers).stream()
+                .flatMap(List::stream)
+                .toList());
+    }
+
+    @Override
+    public Optional<BeerDTO> getBeerById(UUID id) {
+        return onOwner(id, layout -> beerService.getBeerById(id));
+    }
+
+    @Override
+    public Optional<BeerDTO> getBeerByUpc(String upc) {
+        return beerShards.shared(layout -> findByUpc(layout, upc));
+    }
+
+    @Override
+    public BeerDTO saveNewBeer(BeerDTO beer) {
+        return beerShards.shared(layout -> {
+            requireUpcFree(layout, beer.getUpc(), null);
+            return ShardContext.call(beerShards.newBeerShard(layout), () -> beerService.saveNewBeer(beer));
+        });
+    }
+
+    @Override
+    public Optional<BeerDTO> updateBeerById(UUID beerId, BeerDTO beer) {
+        return onOwner(beerId, layout -> {
+            requireUpcFree(layout, beer.getUpc(), beerId);
+            return beerService.updateBeerById(beerId, beer);
+        });
+    }
+
+    @Override
+    public Boolean deleteBeerById(UUID beerId) {
+        return onOwner(beerId, layout -> beerService.deleteBeerById(beerId));
+    }
+
+    @Override
+    public Optional<BeerDTO> patchBeerById(UUID beerId, FieldPatch<BeerDTO> patch) {
+        return onOwner(beerId, layout -> {
+            if (patch.fields().contains("upc")) {
+                requireUpcFree(layout, patch.values().getUpc(), beerId);
+            }
+            return beerService.patchBeerById(beerId, patch);
+        });
+    }
+
+    @Override
+    public Optional<BeerDTO> patchBeerById(UUID beerId, Function<BeerDTO, FieldPatch<BeerDTO>> patcher) {
+        return onOwner(beerId, layout -> beerService.patchBeerById(beerId, current -> {
+            FieldPatch<BeerDTO> patch = patcher.apply(current);
+            if (patch.fields().contains("upc")) {
+                requireUpcFree(layout, patch.values().getUpc(), beerId);
+            }
+            return patch;
+        }));
+    }
+
+    // Each shard pages by its own change counter, the token carries one position per shard. A token from another
+    // layout (a resharding started since) can't be mapped onto the shards, so it gets a full resync.
+    @Override
+    public DeltaSyncDTO<BeerDTO> listBeerChangesSince(SyncToken since) {
+        List<DeltaSyncDTO<BeerDTO>> deltas = beerShards.shared(layout -> {
+            SyncToken current = since != null && since.positions().size() == layout.span() ? since : null;
+            return beerShards.gather(layout, () -> beerService.listBeerChangesSince(
+                    current == null ? null : current.forPosition(ShardContext.current().index())));
+        });
+
+        List<BeerDTO> changed = new ArrayList<>();
+        List<UUID> deleted = new ArrayList<>();
+        List<Long> positions = new ArrayList<>();
+        LocalDateTime watermark = null;
+        boolean fullResync = false;
+        for (DeltaSyncDTO<BeerDTO> delta : deltas) {
+            changed.addAll(delta.getChanged());
+            deleted.addAll(delta.getDeleted());
+            SyncToken token = SyncToken.decode(delta.getNextToken());
+            positions.addAll(token.positions());
+            if (watermark == null || token.watermark().isBefore(watermark)) {
+                watermark = token.watermark();
+            }
+            fullResync |= delta.isFullResync();
+        }
+
+        return DeltaSyncDTO.<BeerDTO>builder()
+                .changed(changed)
+                .deleted(deleted)
+                .nextToken(new SyncToken(watermark, positions).encode())
+                .fullResync(fullResync)
+                .build();
+    }
+
+    @Override
+    public List<BeerDTO> listLowStockBeers(int lowStockThreshold, int limit) {
+        return mergeOrdered(beerShards.shared(layout ->
+                beerShards.gather(layout, () -> beerService.listLowStockBeers(lowStockThreshold, limit))), LOW_STOCK_ORDER, limit);
+    }
+
+    @Override
+    public List<BeerHistoryDTO> listBeerHistory(UUID beerId, int limit) {
+        return onOwner(beerId, layout -> beerService.listBeerHistory(beerId, limit));
+    }
+
+    @Override
+    public Optional<BeerHistoryDTO> getBeerHistoryAsOf(UUID beerId, LocalDateTime asOf) {
+        return onOwner(beerId, layout -> beerService.getBeerHistoryAsOf(beerId, asOf));
+    }
+
+    // Percentiles don't combine across shards, so the stats are computed over every shard's beers in memory
+    @Override
+    public BeerStatsDTO getBeerStats(int lowStockThreshold) {
+        return BeerStatsScanner.scan(BeerColumns.of(listBeers()), lowStockThreshold);
+    }
+
+    // Runs work on the beer's shard. While resharding, a beer still on its previous shard is moved first, under the
+    // exclusive lock, and the layout checked again.
+    private <T> T onOwner(UUID id, Function<BeerShards.Layout, T> work) {
+        while (true) {
+            Optional<T> result = beerShards.shared(layout -> beerResharder.isWaitingToMove(id, layout)
+                    ? Optional.empty()
+                    : Optional.of(ShardContext.call(layout.owner(id), () -> work.apply(layout))));
+            if (result.isPresent()) {
+                return result.get();
+            }
+            beerResharder.moveNow(id);
+        }
+    }
+
+    private Optional<BeerDTO> findByUpc(BeerShards.Layout layout, String upc) {
+        return beerShards.gather(layout, () -> beerService.getBeerByUpc(upc)).stream()
+                .flatMap(Optional::stream)
+                .findFirst();
+    }
+
+    private void requireUpcFree(BeerShards.Layout layout, String upc, UUID beerId) {
+        if (upc != null && findByUpc(layout, upc).filter(other -> !other.getId().equals(beerId)).isPresent()) {
+            throw new DuplicateUpcException(upc);
+        }
+    }
+
+    // k-way merge of lists each sorted by order, stopping after limit elements
+    static <T> List<T> mergeOrdered(List<List<T>> lists, Comparator<T> order, int limit) {
+        PriorityQueue<Cursor<T>> heads = new PriorityQueue<>(Comparator.comparing(Cursor::head, order));
+        for (List<T> list : lists) {
+            if (!list.isEmpty()) {
+                heads.add(new Cursor<>(list, 0));
+            }
+        }
+
+        List<T> merged = new ArrayList<>(limit);
+        while (merged.size() < limit && !heads.isEmpty()) {
+            Cursor<T> cursor = heads.poll();
+            merged.add(cursor.head());
+            if (cursor.position() + 1 < cursor.list().size()) {
+                heads.add(new Cursor<>(cursor.list(), cursor.position() + 1));
+            }
+        }
+        return merged;
+    }
+
+    private record Cursor<T>(List<T> list, int position) {
+
+        T head() {
+            return list.get(position);
+        }
+    }
+}
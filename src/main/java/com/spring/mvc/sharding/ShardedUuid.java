@@ -0,0 +1,15 @@
+package com.spring.mvc.sharding;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// A random UUID id that hashes to the shard in ShardContext; a plain random UUID when there is none
+@IdGeneratorType(ShardedUuidGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface ShardedUuid {
+}
@@ -0,0 +1,28 @@
+package com.spring.mvc.sharding;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+import java.util.UUID;
+
+// The shard is chosen before the id exists, so ids are drawn until one lands on it: count draws on average
+public class ShardedUuidGenerator implements BeforeExecutionGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        Shard shard = ShardContext.current();
+        UUID id = UUID.randomUUID();
+        while (shard != null && !shard.owns(id)) {
+            id = UUID.randomUUID();
+        }
+        return id;
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
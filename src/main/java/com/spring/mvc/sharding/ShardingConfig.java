@@ -0,0 +1,134 @@
+package com.spring.mvc.sharding;
+
+import com.spring.mvc.entities.BeerShardLayout;
+import com.spring.mvc.repositories.BeerHistoryRepository;
+import com.spring.mvc.repositories.BeerRepository;
+import com.spring.mvc.repositories.BeerShardLayoutRepository;
+import com.spring.mvc.repositories.TombstoneRepository;
+import com.spring.mvc.services.BeerService;
+import com.spring.mvc.services.BeerServiceJPA;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Spreads beers over several databases when mvc.sharding.enabled=true. Shard 0 is spring.datasource.* and keeps
+// everything that isn't a beer (customers, outbox, idempotency records); mvc.sharding.additional-urls adds the
+// others, with the same credentials. Beers, their history and their tombstones live on the shard their id hashes
+// to. mvc.sharding.shards starts the layout on fewer shards than there are DataSources, leaving room to reshard
+// online (POST /api/v1/shards/reshard?shards=n, with mvc.sharding.single-instance=true); once stored, the layout
+// on shard 0 wins over the property.
+// Not combinable with mvc.datasource.replica.enabled, both replace the application's DataSource.
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "mvc.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Value("${mvc.sharding.additional-urls:}")
+    private List<String> additionalUrls;
+
+    // 0 means every configured DataSource
+    @Value("${mvc.sharding.shards:0}")
+    private int shards;
+
+    @Value("${mvc.sharding.move-batch-size:500}")
+    private int moveBatchSize;
+
+    // Resharding is refused unless this is the only instance, see BeerResharder
+    @Value("${mvc.sharding.single-instance:false}")
+    private boolean singleInstance;
+
+    // The beer reads that fan out to every shard run on the list and read executors, so a thread per shard
+    // for each of their threads lets them all gather at once
+    @Value("${mvc.async.list.threads:2}")
+    private int listThreads;
+
+    @Value("${mvc.async.read.threads:5}")
+    private int readThreads;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource homeShardDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource homeShardDataSource, DataSourceProperties dataSourceProperties,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        List<DataSource> dataSources = new ArrayList<>();
+        dataSources.add(homeShardDataSource);
+        for (String url : additionalUrls) {
+            HikariDataSource shard = new HikariDataSource();
+            shard.setPoolName("shard-" + dataSources.size());
+            shard.setJdbcUrl(url.trim());
+            shard.setUsername(dataSourceProperties.determineUsername());
+            shard.setPassword(dataSourceProperties.determinePassword());
+            if (homeShardDataSource.getMaximumPoolSize() > 0) { // -1 until set, Hikari's default then applies
+                shard.setMaximumPoolSize(homeShardDataSource.getMaximumPoolSize());
+            }
+            // Spring Boot only binds pool metrics for pools that are beans
+            meterRegistry.ifAvailable(registry -> shard.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            dataSources.add(shard);
+        }
+        return new ShardRoutingDataSource(dataSources);
+    }
+
+    // Creates the schema on the other shards too, see ShardSchemaIntegrator
+    @Bean
+    public HibernatePropertiesCustomizer shardSchemaCustomizer() {
+        return properties -> properties.put(JpaSettings.INTEGRATOR_PROVIDER,
+                (IntegratorProvider) () -> List.of(new ShardSchemaIntegrator(1 + additionalUrls.size())));
+    }
+
+    @Bean
+    public BeerShards beerShards(DataSource dataSource, BeerShardLayoutRepository beerShardLayoutRepository) throws SQLException {
+        // dataSource may be wrapped, e.g. by JdbcMetricsConfig
+        int dataSourceCount = dataSource.unwrap(ShardRoutingDataSource.class).size();
+        int shardCount = shards == 0 ? dataSourceCount : shards;
+        BeerShardLayout stored = beerShardLayoutRepository.findById(BeerShardLayout.ID)
+                .orElseGet(() -> beerShardLayoutRepository.save(BeerShardLayout.builder()
+                        .id(BeerShardLayout.ID)
+                        .shardCount(shardCount)
+                        .previousShardCount(shardCount)
+                        .build()));
+        if (stored.getShardCount() != shardCount) {
+            log.info("Beers are in a layout of {} shards, not the configured {}", stored.getShardCount(), shardCount);
+        }
+        return new BeerShards(dataSourceCount, new BeerShards.Layout(stored.getShardCount(), stored.getPreviousShardCount()),
+                dataSourceCount * (listThreads + readThreads));
+    }
+
+    @Bean
+    public BeerResharder beerResharder(BeerShards beerShards, BeerRepository beerRepository,
+                                       BeerHistoryRepository beerHistoryRepository, TombstoneRepository tombstoneRepository,
+                                       BeerShardLayoutRepository beerShardLayoutRepository,
+                                       PlatformTransactionManager transactionManager) {
+        return new BeerResharder(beerShards, beerRepository, beerHistoryRepository, tombstoneRepository,
+                beerShardLayoutRepository, new TransactionTemplate(transactionManager), moveBatchSize, singleInstance);
+    }
+
+    @Bean
+    @Primary
+    public BeerService shardedBeerService(BeerServiceJPA beerServiceJPA, BeerShards beerShards, BeerResharder beerResharder) {
+        return new ShardedBeerService(beerServiceJPA, beerShards, beerResharder);
+    }
+}
@@ -0,0 +1,23 @@
+package com.spring.mvc.snapshot;
+
+import org.springframework.http.MediaType;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+// One finished snapshot file. Files are never rewritten in place, a new generation gets new paths.
+public record CatalogSnapshot(String name, Path path, long size, Instant createdAt) {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv");
+
+    public String etag() {
+        return "\"" + name + '-' + createdAt.toEpochMilli() + '-' + size + "\"";
+    }
+
+    public MediaType mediaType() {
+        if (name.endsWith(".gz")) {
+            return MediaType.parseMediaType("application/gzip");
+        }
+        return name.endsWith(".csv") ? TEXT_CSV : MediaType.APPLICATION_JSON;
+    }
+}
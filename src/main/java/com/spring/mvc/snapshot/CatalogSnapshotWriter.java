@@ -0,0 +1,211 @@
+package com.spring.mvc.snapshot;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.spring.mvc.entities.Beer;
+import com.spring.mvc.entities.Customer;
+import com.spring.mvc.mappers.BeerMapper;
+import com.spring.mvc.mappers.CustomerMapper;
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.CustomerDTO;
+import com.spring.mvc.repositories.BeerRepository;
+import com.spring.mvc.repositories.CustomerRepository;
+import com.spring.mvc.sharding.BeerShards;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+// Periodically writes the full catalog (beers.json, beers.csv, customers.json, customers.csv and a .gz of each)
+// into a new directory under mvc.catalog-snapshot.directory and publishes it to CatalogSnapshots.
+// Rows are streamed from the repositories (one shard after the other when beers are sharded), so memory use
+// doesn't grow with the catalog. The previous generation
+// is kept for downloads still in flight; older ones are deleted.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "mvc.catalog-snapshot.enabled", havingValue = "true")
+public class CatalogSnapshotWriter {
+
+    private static final int GENERATIONS_KEPT = 2;
+    private static final String BEER_CSV_HEADER = "id,version,beerName,beerStyle,upc,quantityOnHand,price,createdDate,updateDate";
+    private static final String CUSTOMER_CSV_HEADER = "id,version,name,createdDate,lastModifiedDate";
+
+    private final BeerRepository beerRepository;
+    private final CustomerRepository customerRepository;
+    private final BeerMapper beerMapper;
+    private final CustomerMapper customerMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final CatalogSnapshots catalogSnapshots;
+    private final TaskScheduler taskScheduler;
+    private final Optional<BeerShards> beerShards;
+
+    @Value("${mvc.catalog-snapshot.directory:data/snapshots}")
+    private Path directory;
+
+    @Value("${mvc.catalog-snapshot.interval:1h}")
+    private Duration interval;
+
+    // Starts once BootstrapData has run, so the first snapshot isn't of a half-loaded catalog
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        taskScheduler.scheduleWithFixedDelay(this::writeSnapshots, interval);
+    }
+
+    public void writeSnapshots() {
+        Instant createdAt = Instant.now();
+        Path generation = directory.resolve(Long.toString(createdAt.toEpochMilli()));
+        try {
+            List<CatalogSnapshot> snapshots = write(generation, createdAt);
+            catalogSnapshots.publish(snapshots);
+            deleteOldGenerations();
+
+            log.debug("Wrote catalog snapshot {} ({} bytes)", generation,
+                    snapshots.stream().mapToLong(CatalogSnapshot::size).sum());
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Catalog snapshot {} failed, still serving the previous one", generation, e);
+        }
+    }
+
+    public List<CatalogSnapshot> write(Path generation, Instant createdAt) throws IOException {
+        Files.createDirectories(generation);
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        writeRows(generation, "beers",
+                (Consumer<Beer> row) -> BeerShards.forEachShard(beerShards, () -> transaction.executeWithoutResult(status -> {
+                    try (Stream<Beer> beers = beerRepository.streamAll()) {
+                        beers.forEach(row);
+                    }
+                })),
+                beerMapper::beerToBeerDto, BeerDTO.class, BEER_CSV_HEADER,
+                beer -> csv(beer.getId(), beer.getVersion(), beer.getBeerName(), beer.getBeerStyle(),
+                        beer.getUpc(), beer.getQuantityOnHand(), beer.getPrice(),
+                        beer.getCreatedDate(), beer.getUpdateDate()));
+        writeRows(generation, "customers",
+                (Consumer<Customer> row) -> transaction.executeWithoutResult(status -> {
+                    try (Stream<Customer> customers = customerRepository.streamAll()) {
+                        customers.forEach(row);
+                    }
+                }),
+                customerMapper::customerToCustomerDto, CustomerDTO.class, CUSTOMER_CSV_HEADER,
+                customer -> csv(customer.getId(), customer.getVersion(), customer.getName(),
+                        customer.getCreatedDate(), customer.getLastModifiedDate()));
+
+        List<CatalogSnapshot> snapshots = new ArrayList<>();
+        for (String name : List.of("beers.json", "beers.csv", "customers.json", "customers.csv")) {
+            Path file = generation.resolve(name);
+            Path gzipFile = generation.resolve(name + ".gz");
+            gzip(file, gzipFile);
+            snapshots.add(new CatalogSnapshot(name, file, Files.size(file), createdAt));
+            snapshots.add(new CatalogSnapshot(name + ".gz", gzipFile, Files.size(gzipFile), createdAt));
+        }
+        return snapshots;
+    }
+
+    // One pass over the rows writes both the JSON array and the CSV; rows feeds every row to the consumer it is given
+    private <E, D> void writeRows(Path generation, String name, Consumer<Consumer<E>> rows, Function<E, D> toDto,
+                                  Class<D> dtoType, String csvHeader, Function<D, String> toCsv) {
+        // The default flushes after every value, i.e. a write() per row
+        ObjectWriter rowWriter = objectMapper.writerFor(dtoType).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (OutputStream jsonOut = Files.newOutputStream(generation.resolve(name + ".json"));
+             JsonGenerator json = objectMapper.getFactory().createGenerator(jsonOut);
+             Writer csvOut = Files.newBufferedWriter(generation.resolve(name + ".csv"), StandardCharsets.UTF_8)) {
+            json.writeStartArray();
+            csvOut.write(csvHeader);
+            csvOut.write("\r\n");
+
+            rows.accept(row -> {
+                D dto = toDto.apply(row);
+                entityManager.detach(row);
+                try {
+                    rowWriter.writeValue(json, dto);
+                    csvOut.write(toCsv.apply(dto));
+                    csvOut.write("\r\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            json.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void gzip(Path source, Path target) throws IOException {
+        try (InputStream in = Files.newInputStream(source);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(target), 64 * 1024)) {
+            in.transferTo(out);
+        }
+    }
+
+    // RFC 4180: fields containing a comma, quote or line break are quoted, quotes doubled; null is empty
+    static String csv(Object... values) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            if (values[i] == null) {
+                continue;
+            }
+            String value = values[i].toString();
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                line.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(value);
+            }
+        }
+        return line.toString();
+    }
+
+    private void deleteOldGenerations() throws IOException {
+        List<Path> generations;
+        try (Stream<Path> children = Files.list(directory)) {
+            generations = children
+                    .filter(path -> Files.isDirectory(path) && path.getFileName().toString().matches("\\d+"))
+                    .sorted(Comparator.comparingLong((Path path) -> Long.parseLong(path.getFileName().toString())).reversed())
+                    .toList();
+        }
+        for (Path old : generations.subList(Math.min(GENERATIONS_KEPT, generations.size()), generations.size())) {
+            try (Stream<Path> files = Files.list(old)) {
+                for (Path file : files.toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(old);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.spring.mvc.snapshot;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// The snapshot files being served, swapped a whole generation at a time. Empty until the first snapshot
+// has been written (or for good with mvc.catalog-snapshot.enabled=false).
+@Component
+public class CatalogSnapshots {
+
+    private volatile Map<String, CatalogSnapshot> current = Map.of();
+
+    public Optional<CatalogSnapshot> get(String name) {
+        return Optional.ofNullable(current.get(name));
+    }
+
+    public List<CatalogSnapshot> list() {
+        return current.values().stream()
+                .sorted(Comparator.comparing(CatalogSnapshot::name))
+                .toList();
+    }
+
+    public void publish(List<CatalogSnapshot> snapshots) {
+        current = snapshots.stream().collect(Collectors.toUnmodifiableMap(CatalogSnapshot::name, Function.identity()));
+    }
+}
@@ -0,0 +1,108 @@
+package com.spring.mvc.snapshot;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+// Sends a snapshot file, or a single byte range of it, without reading it onto the heap. On Tomcat the file is
+// handed to the connector's sendfile support and written by the poller after the request thread is released;
+// elsewhere FileChannel.transferTo copies it to the response.
+public final class SnapshotTransfer {
+
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private SnapshotTransfer() {
+    }
+
+    public static void send(CatalogSnapshot snapshot, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        long size = snapshot.size();
+        String etag = snapshot.etag();
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, snapshot.createdAt().toEpochMilli());
+        response.setContentType(snapshot.mediaType().toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(snapshot.name()).build().toString());
+
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = size; // exclusive
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && ifRangeMatches(request.getHeader(HttpHeaders.IF_RANGE), snapshot)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of(); // a malformed Range header is ignored
+            }
+            // Multiple ranges would need a multipart body, sending the whole file instead is allowed
+            if (ranges.size() == 1) {
+                start = ranges.getFirst().getRangeStart(size);
+                end = ranges.getFirst().getRangeEnd(size) + 1;
+                if (start >= size) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + '-' + (end - 1) + '/' + size);
+            }
+        }
+        response.setContentLengthLong(end - start);
+
+        if ("HEAD".equals(request.getMethod()) || start == end) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, snapshot.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+
+        try (FileChannel file = FileChannel.open(snapshot.path(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            for (long position = start; position < end; ) {
+                position += file.transferTo(position, end - position, out);
+            }
+        }
+    }
+
+    // Without If-Range the range always applies; with it, only while the file is still the one the client has.
+    // A date matches only if it is exactly the Last-Modified sent (to the second).
+    private static boolean ifRangeMatches(String ifRange, CatalogSnapshot snapshot) {
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(snapshot.etag());
+        }
+        try {
+            return ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond()
+                    == snapshot.createdAt().getEpochSecond();
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.spring.mvc.stats;
+
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.Money;
+
+import java.util.Collection;
+import java.util.Currency;
+
+// The fields the stats need, one primitive array per field, so scans touch no objects.
+// prices are minor units of currency; every priced beer must be in that one currency.
+public record BeerColumns(int size, int[] styles, int[] quantities, long[] prices, Currency currency) {
+
+    public static final int NO_STYLE = -1;
+    public static final long NO_PRICE = Long.MIN_VALUE;
+
+    // The collection must not change while this runs. Missing quantities are stored as 0.
+    public static BeerColumns of(Collection<BeerDTO> beers) {
+        int size = beers.size();
+        int[] styles = new int[size];
+        int[] quantities = new int[size];
+        long[] prices = new long[size];
+
+        int i = 0;
+        for (BeerDTO beer : beers) {
+            Money price = beer.getPrice();
+            if (price != null && !price.currency().equals(Money.DEFAULT_CURRENCY)) {
+                throw new IllegalStateException("Beer prices are in more than one currency");
+            }
+
+            styles[i] = beer.getBeerStyle() == null ? NO_STYLE : beer.getBeerStyle().ordinal();
+            quantities[i] = beer.getQuantityOnHand() == null ? 0 : beer.getQuantityOnHand();
+            prices[i] = price == null ? NO_PRICE : price.minorUnits();
+            i++;
+        }
+
+        return new BeerColumns(size, styles, quantities, prices, Money.DEFAULT_CURRENCY);
+    }
+
+    public int priceScale() {
+        return currency.getDefaultFractionDigits();
+    }
+}
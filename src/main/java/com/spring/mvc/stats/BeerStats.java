@@ -0,0 +1,50 @@
+package com.spring.mvc.stats;
+
+import com.spring.mvc.model.BeerStatsDTO;
+import com.spring.mvc.model.BeerStyleStatsDTO;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.function.LongFunction;
+
+// Turns per-style totals plus a way to look up the n-th cheapest price into the /stats response
+public final class BeerStats {
+
+    private BeerStats() {
+    }
+
+    // priceAtRank returns the price at a 1-based rank among priced beers in ascending order
+    public static BeerStatsDTO summarize(int lowStockThreshold, Collection<StyleTotals> styles,
+                                         LongFunction<BigDecimal> priceAtRank) {
+        StyleTotals total = new StyleTotals(null);
+        styles.forEach(total::merge);
+
+        long priced = total.getPricedCount();
+
+        return BeerStatsDTO.builder()
+                .beerCount(total.getBeerCount())
+                .totalQuantityOnHand(total.getQuantityOnHand())
+                .totalStockValue(total.getStockValue())
+                .averagePrice(StyleTotals.average(total.getPriceSum(), priced))
+                .minPrice(total.getMinPrice())
+                .medianPrice(priced == 0 ? null : priceAtRank.apply(rank(50, priced)))
+                .p90Price(priced == 0 ? null : priceAtRank.apply(rank(90, priced)))
+                .p99Price(priced == 0 ? null : priceAtRank.apply(rank(99, priced)))
+                .maxPrice(total.getMaxPrice())
+                .lowStockThreshold(lowStockThreshold)
+                .lowStockCount(total.getLowStockCount())
+                .styles(styles.stream()
+                        .filter(style -> style.getBeerCount() > 0)
+                        .map(StyleTotals::toDto)
+                        .sorted(Comparator.comparing(BeerStyleStatsDTO::getBeerStyle,
+                                Comparator.nullsLast(Comparator.naturalOrder())))
+                        .toList())
+                .build();
+    }
+
+    // Nearest-rank percentile: the smallest value with at least percent% of the values at or below it
+    static long rank(int percent, long count) {
+        return Math.max(1, Math.ceilDiv(percent * count, 100));
+    }
+}
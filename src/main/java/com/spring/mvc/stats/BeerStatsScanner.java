@@ -0,0 +1,160 @@
+package com.spring.mvc.stats;
+
+import com.spring.mvc.model.BeerStatsDTO;
+import com.spring.mvc.model.BeerStyle;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Computes stats from BeerColumns with a fork-join scan: ranges of up to LEAF_SIZE beers are summed into
+// primitive per-style accumulators in parallel and the partial results merged on the way back up.
+// Percentiles come from a parallel sort of the prices.
+public final class BeerStatsScanner {
+
+    private static final int LEAF_SIZE = 16_384;
+
+    private static final BeerStyle[] STYLES = BeerStyle.values();
+
+    private BeerStatsScanner() {
+    }
+
+    public static BeerStatsDTO scan(BeerColumns columns, int lowStockThreshold) {
+        StyleTotals[] totals = ForkJoinPool.commonPool().invoke(new ScanTask(columns, lowStockThreshold, 0, columns.size()));
+
+        long[] prices = new long[columns.size()];
+        int priced = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.prices()[i] != BeerColumns.NO_PRICE) {
+                prices[priced++] = columns.prices()[i];
+            }
+        }
+        long[] sorted = Arrays.copyOf(prices, priced);
+        Arrays.parallelSort(sorted);
+
+        return BeerStats.summarize(lowStockThreshold, List.of(totals),
+                rank -> BigDecimal.valueOf(sorted[(int) rank - 1], columns.priceScale()));
+    }
+
+    // Index 0 is beers without a style, then one per BeerStyle ordinal
+    private static StyleTotals[] emptyTotals() {
+        StyleTotals[] totals = new StyleTotals[STYLES.length + 1];
+        totals[0] = new StyleTotals(null);
+        for (BeerStyle style : STYLES) {
+            totals[style.ordinal() + 1] = new StyleTotals(style);
+        }
+        return totals;
+    }
+
+    private static final class ScanTask extends RecursiveTask<StyleTotals[]> {
+
+        private final BeerColumns columns;
+        private final int lowStockThreshold;
+        private final int from;
+        private final int to;
+
+        ScanTask(BeerColumns columns, int lowStockThreshold, int from, int to) {
+            this.columns = columns;
+            this.lowStockThreshold = lowStockThreshold;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected StyleTotals[] compute() {
+            if (to - from <= LEAF_SIZE) {
+                try {
+                    return scanLeaf();
+                } catch (ArithmeticException e) {
+                    // Sums too big for a long, redo this range in BigInteger
+                    return scanLeafExact();
+                }
+            }
+
+            int middle = (from + to) >>> 1;
+            ScanTask right = new ScanTask(columns, lowStockThreshold, middle, to);
+            right.fork();
+            StyleTotals[] left = new ScanTask(columns, lowStockThreshold, from, middle).compute();
+            StyleTotals[] rightTotals = right.join();
+
+            for (int i = 0; i < left.length; i++) {
+                left[i].merge(rightTotals[i]);
+            }
+            return left;
+        }
+
+        private StyleTotals[] scanLeaf() {
+            int slots = STYLES.length + 1;
+            long[] count = new long[slots];
+            long[] quantity = new long[slots];
+            long[] stockValue = new long[slots];
+            long[] priceSum = new long[slots];
+            long[] pricedCount = new long[slots];
+            long[] minPrice = new long[slots];
+            long[] maxPrice = new long[slots];
+            long[] lowStock = new long[slots];
+            Arrays.fill(minPrice, Long.MAX_VALUE);
+            Arrays.fill(maxPrice, Long.MIN_VALUE);
+
+            int[] styles = columns.styles();
+            int[] quantities = columns.quantities();
+            long[] prices = columns.prices();
+
+            for (int i = from; i < to; i++) {
+                int slot = styles[i] + 1;
+                int onHand = quantities[i];
+                long price = prices[i];
+
+                count[slot]++;
+                quantity[slot] += onHand;
+                if (onHand < lowStockThreshold) {
+                    lowStock[slot]++;
+                }
+                if (price != BeerColumns.NO_PRICE) {
+                    stockValue[slot] = Math.addExact(stockValue[slot], Math.multiplyExact(price, onHand));
+                    priceSum[slot] = Math.addExact(priceSum[slot], price);
+                    pricedCount[slot]++;
+                    minPrice[slot] = Math.min(minPrice[slot], price);
+                    maxPrice[slot] = Math.max(maxPrice[slot], price);
+                }
+            }
+
+            int scale = columns.priceScale();
+            StyleTotals[] totals = emptyTotals();
+            for (int slot = 0; slot < slots; slot++) {
+                if (count[slot] > 0) {
+                    totals[slot].add(count[slot], quantity[slot],
+                            BigDecimal.valueOf(stockValue[slot], scale), BigDecimal.valueOf(priceSum[slot], scale),
+                            pricedCount[slot],
+                            pricedCount[slot] == 0 ? null : BigDecimal.valueOf(minPrice[slot], scale),
+                            pricedCount[slot] == 0 ? null : BigDecimal.valueOf(maxPrice[slot], scale),
+                            lowStock[slot]);
+                }
+            }
+            return totals;
+        }
+
+        private StyleTotals[] scanLeafExact() {
+            int scale = columns.priceScale();
+            StyleTotals[] totals = emptyTotals();
+
+            for (int i = from; i < to; i++) {
+                int onHand = columns.quantities()[i];
+                long price = columns.prices()[i];
+                boolean hasPrice = price != BeerColumns.NO_PRICE;
+                BigDecimal decimalPrice = hasPrice ? BigDecimal.valueOf(price, scale) : null;
+
+                totals[columns.styles()[i] + 1].add(1, onHand,
+                        hasPrice ? new BigDecimal(BigInteger.valueOf(price).multiply(BigInteger.valueOf(onHand)), scale) : BigDecimal.ZERO,
+                        hasPrice ? decimalPrice : BigDecimal.ZERO,
+                        hasPrice ? 1 : 0,
+                        decimalPrice, decimalPrice,
+                        onHand < lowStockThreshold ? 1 : 0);
+            }
+            return totals;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.spring.mvc.stats;
+
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerStatsDTO;
+import com.spring.mvc.model.BeerStyle;
+import com.spring.mvc.model.Money;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Stats kept up to date on every write instead of computed per request. Counts and sums (in minor units)
+// are adjusted in O(1); prices and quantities are kept as sorted multisets (O(log n) per write) so
+// min/max, percentiles and low-stock counts for any threshold can be read without touching the beers.
+// A read costs O(distinct prices + distinct quantities below the threshold), independent of the number of beers.
+public class IncrementalBeerStats {
+
+    private static final BeerStyle[] STYLES = BeerStyle.values();
+
+    private final Style[] styles = new Style[STYLES.length + 1];
+    private final int scale = Money.DEFAULT_CURRENCY.getDefaultFractionDigits();
+    private final TreeMap<Long, Long> allPrices = new TreeMap<>();
+
+    public IncrementalBeerStats() {
+        for (int i = 0; i < styles.length; i++) {
+            styles[i] = new Style(i == 0 ? null : STYLES[i - 1]);
+        }
+    }
+
+    public synchronized void add(BeerDTO beer) {
+        update(beer, 1);
+    }
+
+    // beer must be in the state it was added in
+    public synchronized void remove(BeerDTO beer) {
+        update(beer, -1);
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < styles.length; i++) {
+            styles[i] = new Style(styles[i].beerStyle);
+        }
+        allPrices.clear();
+    }
+
+    public synchronized BeerStatsDTO snapshot(int lowStockThreshold) {
+        List<StyleTotals> totals = new ArrayList<>(styles.length);
+        for (Style style : styles) {
+            totals.add(style.totals(lowStockThreshold, scale));
+        }
+
+        return BeerStats.summarize(lowStockThreshold, totals, rank -> {
+            long seen = 0;
+            for (Map.Entry<Long, Long> entry : allPrices.entrySet()) {
+                seen += entry.getValue();
+                if (seen >= rank) {
+                    return BigDecimal.valueOf(entry.getKey(), scale);
+                }
+            }
+            throw new IllegalStateException("Rank " + rank + " beyond " + seen + " prices");
+        });
+    }
+
+    private void update(BeerDTO beer, int sign) {
+        Style style = styles[beer.getBeerStyle() == null ? 0 : beer.getBeerStyle().ordinal() + 1];
+        int onHand = beer.getQuantityOnHand() == null ? 0 : beer.getQuantityOnHand();
+        Money price = beer.getPrice();
+        if (price != null && !price.currency().equals(Money.DEFAULT_CURRENCY)) {
+            throw new IllegalStateException("Beer prices are in more than one currency");
+        }
+
+        style.beerCount += sign;
+        style.quantityOnHand += (long) sign * onHand;
+        adjust(style.quantities, onHand, sign);
+
+        if (price != null) {
+            long minorUnits = price.minorUnits();
+            style.stockValue = Math.addExact(style.stockValue, Math.multiplyExact(minorUnits, (long) sign * onHand));
+            style.priceSum = Math.addExact(style.priceSum, sign * minorUnits);
+            style.pricedCount += sign;
+            adjust(style.prices, minorUnits, sign);
+            adjust(allPrices, minorUnits, sign);
+        }
+    }
+
+    private static <K> void adjust(TreeMap<K, Long> multiset, K key, int sign) {
+        multiset.merge(key, (long) sign, (a, b) -> a + b == 0 ? null : a + b);
+    }
+
+    private static final class Style {
+
+        private final BeerStyle beerStyle;
+        private long beerCount;
+        private long quantityOnHand;
+        private long stockValue;
+        private long priceSum;
+        private long pricedCount;
+        private final TreeMap<Long, Long> prices = new TreeMap<>();
+        private final TreeMap<Integer, Long> quantities = new TreeMap<>();
+
+        Style(BeerStyle beerStyle) {
+            this.beerStyle = beerStyle;
+        }
+
+        StyleTotals totals(int lowStockThreshold, int scale) {
+            long lowStock = 0;
+            for (long count : quantities.headMap(lowStockThreshold).values()) {
+                lowStock += count;
+            }
+
+            return new StyleTotals(beerStyle, beerCount, quantityOnHand,
+                    BigDecimal.valueOf(stockValue, scale), BigDecimal.valueOf(priceSum, scale), pricedCount,
+                    prices.isEmpty() ? null : BigDecimal.valueOf(prices.firstKey(), scale),
+                    prices.isEmpty() ? null : BigDecimal.valueOf(prices.lastKey(), scale), lowStock);
+        }
+    }
+}
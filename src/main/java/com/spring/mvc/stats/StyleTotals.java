@@ -0,0 +1,90 @@
+package com.spring.mvc.stats;
+
+import com.spring.mvc.model.BeerStyle;
+import com.spring.mvc.model.BeerStyleStatsDTO;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Running aggregates for one beer style, the unit every stats source (SQL, scans, incremental) produces
+@Getter
+public class StyleTotals {
+
+    private final BeerStyle beerStyle;
+    private long beerCount;
+    private long quantityOnHand;
+    private BigDecimal stockValue = BigDecimal.ZERO;
+    private BigDecimal priceSum = BigDecimal.ZERO;
+    private long pricedCount;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private long lowStockCount;
+
+    public StyleTotals(BeerStyle beerStyle) {
+        this.beerStyle = beerStyle;
+    }
+
+    // Used by the JPQL constructor expression in BeerRepository, where sums over no rows are null
+    public StyleTotals(BeerStyle beerStyle, Long beerCount, Long quantityOnHand, BigDecimal stockValue,
+                       BigDecimal priceSum, Long pricedCount, BigDecimal minPrice, BigDecimal maxPrice, Long lowStockCount) {
+        this.beerStyle = beerStyle;
+        this.beerCount = orZero(beerCount);
+        this.quantityOnHand = orZero(quantityOnHand);
+        this.stockValue = stockValue == null ? BigDecimal.ZERO : stockValue;
+        this.priceSum = priceSum == null ? BigDecimal.ZERO : priceSum;
+        this.pricedCount = orZero(pricedCount);
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.lowStockCount = orZero(lowStockCount);
+    }
+
+    void add(long beerCount, long quantityOnHand, BigDecimal stockValue, BigDecimal priceSum, long pricedCount,
+             BigDecimal minPrice, BigDecimal maxPrice, long lowStockCount) {
+        this.beerCount += beerCount;
+        this.quantityOnHand += quantityOnHand;
+        this.stockValue = this.stockValue.add(stockValue);
+        this.priceSum = this.priceSum.add(priceSum);
+        this.pricedCount += pricedCount;
+        this.minPrice = min(this.minPrice, minPrice);
+        this.maxPrice = max(this.maxPrice, maxPrice);
+        this.lowStockCount += lowStockCount;
+    }
+
+    void merge(StyleTotals other) {
+        add(other.beerCount, other.quantityOnHand, other.stockValue, other.priceSum, other.pricedCount,
+                other.minPrice, other.maxPrice, other.lowStockCount);
+    }
+
+    public BeerStyleStatsDTO toDto() {
+        return BeerStyleStatsDTO.builder()
+                .beerStyle(beerStyle)
+                .beerCount(beerCount)
+                .totalQuantityOnHand(quantityOnHand)
+                .stockValue(stockValue)
+                .averagePrice(average(priceSum, pricedCount))
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .lowStockCount(lowStockCount)
+                .build();
+    }
+
+    static BigDecimal average(BigDecimal sum, long count) {
+        if (count == 0) {
+            return null;
+        }
+        return sum.divide(BigDecimal.valueOf(count), Math.max(2, sum.scale()), RoundingMode.HALF_EVEN);
+    }
+
+    static BigDecimal min(BigDecimal a, BigDecimal b) {
+        return a == null ? b : b == null ? a : a.min(b);
+    }
+
+    static BigDecimal max(BigDecimal a, BigDecimal b) {
+        return a == null ? b : b == null ? a : a.max(b);
+    }
+
+    private static long orZero(Long value) {
+        return value == null ? 0 : value;
+    }
+}
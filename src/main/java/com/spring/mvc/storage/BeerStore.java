@@ -0,0 +1,33 @@
+package com.spring.mvc.storage;
+
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.stats.BeerColumns;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// Where BeerServiceImpl keeps its beers. Reads may run concurrently with each other and with a write;
+// writes are serialised by the caller.
+public interface BeerStore {
+
+    // Returns null when there is no beer with that id. Whether the result is the stored object or a copy
+    // depends on the store, so callers must put() it back after changing it.
+    BeerDTO get(UUID id);
+
+    void put(BeerDTO beer);
+
+    boolean remove(UUID id);
+
+    List<BeerDTO> values();
+
+    // Beers whose updateDate is after since
+    List<BeerDTO> updatedAfter(LocalDateTime since);
+
+    // Column copy of the fields the stats need, taken without materializing DTOs where the store allows
+    BeerColumns columns();
+
+    int size();
+
+    void clear();
+}
@@ -0,0 +1,25 @@
+package com.spring.mvc.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Picks how BeerServiceImpl holds its beers: mvc.beer-store.mode=heap (default) or off-heap. Only with mvc.engine=memory.
+@Configuration
+@ConditionalOnProperty(name = "mvc.engine", havingValue = "memory")
+public class BeerStoreConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "mvc.beer-store.mode", havingValue = "heap", matchIfMissing = true)
+    public BeerStore heapBeerStore() {
+        return new HeapBeerStore();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "mvc.beer-store.mode", havingValue = "off-heap")
+    public BeerStore offHeapBeerStore(@Value("${mvc.beer-store.expected-size:1000000}") int expectedSize,
+                                      @Value("${mvc.beer-store.slab-records:16384}") int slabRecords) {
+        return new OffHeapBeerStore(expectedSize, slabRecords);
+    }
+}
@@ -0,0 +1,59 @@
+package com.spring.mvc.storage;
+
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.stats.BeerColumns;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Keeps the DTOs themselves in a map - the default, fine for catalogs up to a few hundred thousand beers
+public class HeapBeerStore implements BeerStore {
+
+    private final Map<UUID, BeerDTO> beers = new ConcurrentHashMap<>();
+
+    @Override
+    public BeerDTO get(UUID id) {
+        return beers.get(id);
+    }
+
+    @Override
+    public void put(BeerDTO beer) {
+        beers.put(beer.getId(), beer);
+    }
+
+    @Override
+    public boolean remove(UUID id) {
+        return beers.remove(id) != null;
+    }
+
+    @Override
+    public List<BeerDTO> values() {
+        return new ArrayList<>(beers.values());
+    }
+
+    @Override
+    public List<BeerDTO> updatedAfter(LocalDateTime since) {
+        return beers.values().stream()
+                .filter(beer -> beer.getUpdateDate() != null && beer.getUpdateDate().isAfter(since))
+                .toList();
+    }
+
+    @Override
+    public BeerColumns columns() {
+        return BeerColumns.of(values());
+    }
+
+    @Override
+    public int size() {
+        return beers.size();
+    }
+
+    @Override
+    public void clear() {
+        beers.clear();
+    }
+}
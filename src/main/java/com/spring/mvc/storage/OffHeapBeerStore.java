@@ -0,0 +1,378 @@
+package com.spring.mvc.storage;
+
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerStyle;
+import com.spring.mvc.model.Money;
+import com.spring.mvc.stats.BeerColumns;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+// Packs beers into fixed-width 64 byte records in direct (off-heap) buffers, so a large catalog costs
+// the GC a few hundred buffer objects instead of half a dozen objects per beer. Names and UPCs live in a
+// StringPool, the style is its ordinal, prices are minor units plus the currency's ISO numeric code and timestamps are nanos
+// since the epoch (UTC, like LocalDateTime itself carries no zone). BeerDTOs are only created on the way
+// out by get()/values().
+//
+// Record layout:
+//   0 id msb (8)   8 id lsb (8)   16 version (4)   20 style ordinal + 1, 0 for null (1)   21 flags (1)
+//   22 price currency (2)   24 quantityOnHand (4)   28 beerName handle (4)   32 price minor units (8)
+//   40 createdDate (8)   48 updateDate (8)   56 upc handle (4)
+@Slf4j
+public class OffHeapBeerStore implements BeerStore {
+
+    private static final int RECORD_SIZE = 64;
+
+    private static final int ID_MSB = 0;
+    private static final int ID_LSB = 8;
+    private static final int VERSION = 16;
+    private static final int STYLE = 20;
+    private static final int FLAGS = 21;
+    private static final int PRICE_CURRENCY = 22;
+    private static final int QUANTITY_ON_HAND = 24;
+    private static final int BEER_NAME = 28;
+    private static final int PRICE = 32;
+    private static final int CREATED_DATE = 40;
+    private static final int UPDATE_DATE = 48;
+    private static final int UPC = 56;
+
+    private static final byte LIVE = 1;
+    private static final byte HAS_VERSION = 1 << 1;
+    private static final byte HAS_QUANTITY_ON_HAND = 1 << 2;
+    private static final byte HAS_PRICE = 1 << 3;
+    private static final byte HAS_CREATED_DATE = 1 << 4;
+    private static final byte HAS_UPDATE_DATE = 1 << 5;
+
+    private static final BeerStyle[] STYLES = BeerStyle.values();
+
+    private static final Map<Integer, Currency> CURRENCIES = new HashMap<>();
+
+    static {
+        for (Currency currency : Currency.getAvailableCurrencies()) {
+            CURRENCIES.putIfAbsent(currency.getNumericCode(), currency);
+        }
+    }
+
+    private final int slabBits;
+    private final int slabMask;
+
+    // Readers take the read lock; writers (already serialised by the service) take the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private final UuidSlotIndex index;
+    private StringPool strings = new StringPool();
+
+    private int highWater; // slots below this have been used at least once
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    // slabRecords is rounded up to a power of two
+    public OffHeapBeerStore(int expectedSize, int slabRecords) {
+        this.slabBits = 32 - Integer.numberOfLeadingZeros(Math.max(1, slabRecords) - 1);
+        this.slabMask = (1 << slabBits) - 1;
+        this.index = new UuidSlotIndex(expectedSize);
+    }
+
+    @Override
+    public BeerDTO get(UUID id) {
+        lock.readLock().lock();
+        try {
+            int slot = index.get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            return slot == UuidSlotIndex.ABSENT ? null : read(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(BeerDTO beer) {
+        // Encode before taking the lock so a value we can't store leaves the store untouched
+        Money price = beer.getPrice();
+        if (price != null && CURRENCIES.get(price.currency().getNumericCode()) != price.currency()) {
+            throw new IllegalArgumentException("Can't store prices in " + price.currency());
+        }
+        long createdDate = beer.getCreatedDate() == null ? 0 : toNanos(beer.getCreatedDate());
+        long updateDate = beer.getUpdateDate() == null ? 0 : toNanos(beer.getUpdateDate());
+
+        UUID id = beer.getId();
+
+        lock.writeLock().lock();
+        try {
+            // Intern the new strings before releasing the old ones so an unchanged name keeps its entry
+            int beerName = strings.intern(beer.getBeerName());
+            int upc;
+            try {
+                upc = strings.intern(beer.getUpc());
+            } catch (RuntimeException e) {
+                strings.release(beerName);
+                throw e;
+            }
+
+            int slot = index.get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (slot == UuidSlotIndex.ABSENT) {
+                slot = allocateSlot();
+                index.put(id.getMostSignificantBits(), id.getLeastSignificantBits(), slot);
+            } else {
+                releaseStrings(slot);
+            }
+
+            ByteBuffer slab = slab(slot);
+            int base = offset(slot);
+
+            byte flags = LIVE;
+            slab.putLong(base + ID_MSB, id.getMostSignificantBits());
+            slab.putLong(base + ID_LSB, id.getLeastSignificantBits());
+
+            if (beer.getVersion() != null) {
+                flags |= HAS_VERSION;
+                slab.putInt(base + VERSION, beer.getVersion());
+            }
+            slab.put(base + STYLE, (byte) (beer.getBeerStyle() == null ? 0 : beer.getBeerStyle().ordinal() + 1));
+            if (beer.getQuantityOnHand() != null) {
+                flags |= HAS_QUANTITY_ON_HAND;
+                slab.putInt(base + QUANTITY_ON_HAND, beer.getQuantityOnHand());
+            }
+            if (price != null) {
+                flags |= HAS_PRICE;
+                slab.putShort(base + PRICE_CURRENCY, (short) price.currency().getNumericCode());
+                slab.putLong(base + PRICE, price.minorUnits());
+            }
+            if (beer.getCreatedDate() != null) {
+                flags |= HAS_CREATED_DATE;
+                slab.putLong(base + CREATED_DATE, createdDate);
+            }
+            if (beer.getUpdateDate() != null) {
+                flags |= HAS_UPDATE_DATE;
+                slab.putLong(base + UPDATE_DATE, updateDate);
+            }
+            slab.putInt(base + BEER_NAME, beerName);
+            slab.putInt(base + UPC, upc);
+            slab.put(base + FLAGS, flags);
+
+            compactStringsIfWasteful();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            int slot = index.remove(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (slot == UuidSlotIndex.ABSENT) {
+                return false;
+            }
+
+            releaseStrings(slot);
+            slab(slot).put(offset(slot) + FLAGS, (byte) 0);
+            freeSlot(slot);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<BeerDTO> values() {
+        return collect(slot -> true);
+    }
+
+    @Override
+    public List<BeerDTO> updatedAfter(LocalDateTime since) {
+        long sinceNanos = toNanos(since);
+
+        // Filters on the packed field, only the matches are materialized
+        return collect(slot -> {
+            ByteBuffer slab = slab(slot);
+            int base = offset(slot);
+            return (slab.get(base + FLAGS) & HAS_UPDATE_DATE) != 0 && slab.getLong(base + UPDATE_DATE) > sinceNanos;
+        });
+    }
+
+    // Reads the packed fields directly into the columns
+    @Override
+    public BeerColumns columns() {
+        lock.readLock().lock();
+        try {
+            int currency = Money.DEFAULT_CURRENCY.getNumericCode();
+            int size = index.size();
+            int[] styles = new int[size];
+            int[] quantities = new int[size];
+            long[] prices = new long[size];
+
+            int i = 0;
+            for (int slot = 0; slot < highWater; slot++) {
+                ByteBuffer slab = slab(slot);
+                int base = offset(slot);
+                byte flags = slab.get(base + FLAGS);
+                if ((flags & LIVE) == 0) {
+                    continue;
+                }
+
+                styles[i] = slab.get(base + STYLE) - 1;
+                quantities[i] = (flags & HAS_QUANTITY_ON_HAND) != 0 ? slab.getInt(base + QUANTITY_ON_HAND) : 0;
+                prices[i] = BeerColumns.NO_PRICE;
+                if ((flags & HAS_PRICE) != 0) {
+                    if (slab.getShort(base + PRICE_CURRENCY) != currency) {
+                        throw new IllegalStateException("Beer prices are in more than one currency");
+                    }
+                    prices[i] = slab.getLong(base + PRICE);
+                }
+                i++;
+            }
+            return new BeerColumns(size, styles, quantities, prices, Money.DEFAULT_CURRENCY);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            slabs.clear();
+            index.clear();
+            strings = new StringPool();
+            highWater = 0;
+            freeCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Approximate memory held by the store: off-heap slabs and strings plus the on-heap index
+    public long memoryBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) slabs.size() * (RECORD_SIZE << slabBits) + strings.memoryBytes() + index.memoryBytes()
+                    + (long) freeSlots.length * Integer.BYTES;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<BeerDTO> collect(IntPredicate filter) {
+        lock.readLock().lock();
+        try {
+            List<BeerDTO> beers = new ArrayList<>();
+            for (int slot = 0; slot < highWater; slot++) {
+                if ((slab(slot).get(offset(slot) + FLAGS) & LIVE) != 0 && filter.test(slot)) {
+                    beers.add(read(slot));
+                }
+            }
+            return beers;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BeerDTO read(int slot) {
+        ByteBuffer slab = slab(slot);
+        int base = offset(slot);
+        byte flags = slab.get(base + FLAGS);
+        int style = slab.get(base + STYLE);
+
+        return BeerDTO.builder()
+                .id(new UUID(slab.getLong(base + ID_MSB), slab.getLong(base + ID_LSB)))
+                .version((flags & HAS_VERSION) != 0 ? slab.getInt(base + VERSION) : null)
+                .beerName(strings.get(slab.getInt(base + BEER_NAME)))
+                .beerStyle(style == 0 ? null : STYLES[style - 1])
+                .upc(strings.get(slab.getInt(base + UPC)))
+                .quantityOnHand((flags & HAS_QUANTITY_ON_HAND) != 0 ? slab.getInt(base + QUANTITY_ON_HAND) : null)
+                .price((flags & HAS_PRICE) != 0 ? new Money(slab.getLong(base + PRICE), CURRENCIES.get((int) slab.getShort(base + PRICE_CURRENCY))) : null)
+                .createdDate((flags & HAS_CREATED_DATE) != 0 ? fromNanos(slab.getLong(base + CREATED_DATE)) : null)
+                .updateDate((flags & HAS_UPDATE_DATE) != 0 ? fromNanos(slab.getLong(base + UPDATE_DATE)) : null)
+                .build();
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+
+        if (highWater == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Beer store is full");
+        }
+        if ((highWater >>> slabBits) == slabs.size()) {
+            slabs.add(ByteBuffer.allocateDirect(RECORD_SIZE << slabBits));
+            log.debug("Allocated beer slab {} ({} records)", slabs.size(), 1 << slabBits);
+        }
+        return highWater++;
+    }
+
+    private void freeSlot(int slot) {
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length << 1);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private void releaseStrings(int slot) {
+        ByteBuffer slab = slab(slot);
+        int base = offset(slot);
+        strings.release(slab.getInt(base + BEER_NAME));
+        strings.release(slab.getInt(base + UPC));
+    }
+
+    // Renames leave dead entries in the pool; once they outweigh the live ones, copy the live strings
+    // into a new pool. Amortised over the writes that created the garbage this is O(1) per write.
+    private void compactStringsIfWasteful() {
+        if (strings.deadBytes() < (1 << 20) || strings.deadBytes() < strings.usedBytes() / 2) {
+            return;
+        }
+
+        StringPool compacted = new StringPool();
+        for (int slot = 0; slot < highWater; slot++) {
+            ByteBuffer slab = slab(slot);
+            int base = offset(slot);
+            if ((slab.get(base + FLAGS) & LIVE) != 0) {
+                slab.putInt(base + BEER_NAME, compacted.intern(strings.get(slab.getInt(base + BEER_NAME))));
+                slab.putInt(base + UPC, compacted.intern(strings.get(slab.getInt(base + UPC))));
+            }
+        }
+
+        log.debug("Compacted beer string pool from {} to {} bytes", strings.usedBytes(), compacted.usedBytes());
+        strings = compacted;
+    }
+
+    private ByteBuffer slab(int slot) {
+        return slabs.get(slot >>> slabBits);
+    }
+
+    private int offset(int slot) {
+        return (slot & slabMask) * RECORD_SIZE;
+    }
+
+    // Exact for 1677-09-21 through 2262-04-11
+    private static long toNanos(LocalDateTime dateTime) {
+        return Math.addExact(Math.multiplyExact(dateTime.toEpochSecond(ZoneOffset.UTC), 1_000_000_000L), dateTime.getNano());
+    }
+
+    private static LocalDateTime fromNanos(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+}
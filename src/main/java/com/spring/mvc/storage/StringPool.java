@@ -0,0 +1,198 @@
+package com.spring.mvc.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Reference-counted, deduplicated strings stored as UTF-8 in off-heap chunks.
+// A string is identified by an int handle (its offset in the pool); equal strings share one entry, so
+// repeated values such as UPCs or popular names are stored once. Entries whose count drops to zero are
+// only counted as dead space - the owner reclaims it by interning the live strings into a fresh pool.
+// Not thread-safe.
+final class StringPool {
+
+    static final int NULL = -1;
+
+    private static final int CHUNK_BITS = 20;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int HEADER_SIZE = 8; // [refCount][length]
+    private static final float MAX_LOAD = 0.6f;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private int writeOffset = CHUNK_SIZE; // in the last chunk, starts "full" so the first intern allocates
+
+    // Dedup table: handle of each live entry plus its hash
+    private int[] handles;
+    private int[] hashes;
+    private int mask;
+    private int entries;
+
+    private long usedBytes;
+    private long deadBytes;
+
+    StringPool() {
+        allocateTable(64);
+    }
+
+    // Returns a handle for value, adding a reference to it
+    int intern(String value) {
+        if (value == null) {
+            return NULL;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int hash = Arrays.hashCode(bytes);
+
+        int i = hash & mask;
+        for (; handles[i] != NULL; i = (i + 1) & mask) {
+            if (hashes[i] == hash && contentEquals(handles[i], bytes)) {
+                int handle = handles[i];
+                ByteBuffer chunk = chunk(handle);
+                int offset = offset(handle);
+                chunk.putInt(offset, chunk.getInt(offset) + 1);
+                return handle;
+            }
+        }
+
+        int handle = append(bytes);
+        handles[i] = handle;
+        hashes[i] = hash;
+        if (++entries > MAX_LOAD * handles.length) {
+            rehash(handles.length << 1);
+        }
+        return handle;
+    }
+
+    String get(int handle) {
+        if (handle == NULL) {
+            return null;
+        }
+
+        ByteBuffer chunk = chunk(handle);
+        int offset = offset(handle);
+        byte[] bytes = new byte[chunk.getInt(offset + 4)];
+        chunk.get(offset + HEADER_SIZE, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Drops one reference taken by intern()
+    void release(int handle) {
+        if (handle == NULL) {
+            return;
+        }
+
+        ByteBuffer chunk = chunk(handle);
+        int offset = offset(handle);
+        int refCount = chunk.getInt(offset) - 1;
+        chunk.putInt(offset, refCount);
+
+        if (refCount == 0) {
+            removeFromTable(handle);
+            deadBytes += HEADER_SIZE + chunk.getInt(offset + 4);
+        }
+    }
+
+    long usedBytes() {
+        return usedBytes;
+    }
+
+    long deadBytes() {
+        return deadBytes;
+    }
+
+    long memoryBytes() {
+        return (long) chunks.size() * CHUNK_SIZE + (long) handles.length * Integer.BYTES * 2;
+    }
+
+    private int append(byte[] bytes) {
+        int size = HEADER_SIZE + bytes.length;
+        if (size > CHUNK_SIZE) {
+            throw new IllegalArgumentException("String of " + bytes.length + " bytes is too long to store");
+        }
+
+        if (writeOffset + size > CHUNK_SIZE) {
+            if (chunks.size() == Integer.MAX_VALUE >>> CHUNK_BITS) {
+                throw new IllegalStateException("String pool is full");
+            }
+            chunks.add(ByteBuffer.allocateDirect(CHUNK_SIZE));
+            writeOffset = 0;
+        }
+
+        ByteBuffer chunk = chunks.getLast();
+        int handle = ((chunks.size() - 1) << CHUNK_BITS) | writeOffset;
+        chunk.putInt(writeOffset, 1);
+        chunk.putInt(writeOffset + 4, bytes.length);
+        chunk.put(writeOffset + HEADER_SIZE, bytes);
+
+        writeOffset += size;
+        usedBytes += size;
+        return handle;
+    }
+
+    private boolean contentEquals(int handle, byte[] bytes) {
+        ByteBuffer chunk = chunk(handle);
+        int offset = offset(handle);
+        if (chunk.getInt(offset + 4) != bytes.length) {
+            return false;
+        }
+        return chunk.slice(offset + HEADER_SIZE, bytes.length).equals(ByteBuffer.wrap(bytes));
+    }
+
+    private void removeFromTable(int handle) {
+        ByteBuffer chunk = chunk(handle);
+        int offset = offset(handle);
+        byte[] bytes = new byte[chunk.getInt(offset + 4)];
+        chunk.get(offset + HEADER_SIZE, bytes);
+
+        int i = Arrays.hashCode(bytes) & mask;
+        while (handles[i] != handle) {
+            i = (i + 1) & mask;
+        }
+        entries--;
+
+        int gap = i;
+        for (int j = (gap + 1) & mask; handles[j] != NULL; j = (j + 1) & mask) {
+            int home = hashes[j] & mask;
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                handles[gap] = handles[j];
+                hashes[gap] = hashes[j];
+                gap = j;
+            }
+        }
+        handles[gap] = NULL;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldHandles = handles;
+        int[] oldHashes = hashes;
+
+        allocateTable(capacity);
+        for (int i = 0; i < oldHandles.length; i++) {
+            if (oldHandles[i] != NULL) {
+                int j = oldHashes[i] & mask;
+                while (handles[j] != NULL) {
+                    j = (j + 1) & mask;
+                }
+                handles[j] = oldHandles[i];
+                hashes[j] = oldHashes[i];
+            }
+        }
+    }
+
+    private void allocateTable(int capacity) {
+        handles = new int[capacity];
+        hashes = new int[capacity];
+        Arrays.fill(handles, NULL);
+        mask = capacity - 1;
+    }
+
+    private ByteBuffer chunk(int handle) {
+        return chunks.get(handle >>> CHUNK_BITS);
+    }
+
+    private static int offset(int handle) {
+        return handle & (CHUNK_SIZE - 1);
+    }
+}
@@ -0,0 +1,144 @@
+package com.spring.mvc.storage;
+
+import java.util.Arrays;
+
+// Open-addressing hash map from UUID to an int slot, held in three primitive arrays so an entry costs
+// about 20 bytes (at most 40 at the minimum load factor) and no objects. Linear probing with
+// backward-shift deletion, so there are no tombstones to clean up. Not thread-safe.
+final class UuidSlotIndex {
+
+    static final int ABSENT = -1;
+
+    private static final float MAX_LOAD = 0.6f;
+
+    private long[] msbs;
+    private long[] lsbs;
+    private int[] slots;
+    private int mask;
+    private int size;
+
+    UuidSlotIndex(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    int get(long msb, long lsb) {
+        for (int i = hash(msb, lsb) & mask; ; i = (i + 1) & mask) {
+            if (slots[i] == ABSENT) {
+                return ABSENT;
+            }
+            if (msbs[i] == msb && lsbs[i] == lsb) {
+                return slots[i];
+            }
+        }
+    }
+
+    // Returns the previous slot for the id, or ABSENT
+    int put(long msb, long lsb, int slot) {
+        if (slot < 0) {
+            throw new IllegalArgumentException("slot must not be negative");
+        }
+
+        for (int i = hash(msb, lsb) & mask; ; i = (i + 1) & mask) {
+            if (slots[i] == ABSENT) {
+                msbs[i] = msb;
+                lsbs[i] = lsb;
+                slots[i] = slot;
+                if (++size > MAX_LOAD * slots.length) {
+                    rehash(slots.length << 1);
+                }
+                return ABSENT;
+            }
+            if (msbs[i] == msb && lsbs[i] == lsb) {
+                int previous = slots[i];
+                slots[i] = slot;
+                return previous;
+            }
+        }
+    }
+
+    // Returns the removed slot, or ABSENT
+    int remove(long msb, long lsb) {
+        int i = hash(msb, lsb) & mask;
+        while (true) {
+            if (slots[i] == ABSENT) {
+                return ABSENT;
+            }
+            if (msbs[i] == msb && lsbs[i] == lsb) {
+                break;
+            }
+            i = (i + 1) & mask;
+        }
+
+        int removed = slots[i];
+        size--;
+
+        // Shift later entries of the probe run back into the gap when their home position allows it
+        int gap = i;
+        for (int j = (gap + 1) & mask; slots[j] != ABSENT; j = (j + 1) & mask) {
+            int home = hash(msbs[j], lsbs[j]) & mask;
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                msbs[gap] = msbs[j];
+                lsbs[gap] = lsbs[j];
+                slots[gap] = slots[j];
+                gap = j;
+            }
+        }
+        slots[gap] = ABSENT;
+
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(slots, ABSENT);
+        size = 0;
+    }
+
+    long memoryBytes() {
+        return (long) slots.length * (Long.BYTES * 2 + Integer.BYTES);
+    }
+
+    private void rehash(int capacity) {
+        long[] oldMsbs = msbs;
+        long[] oldLsbs = lsbs;
+        int[] oldSlots = slots;
+
+        allocate(capacity);
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] != ABSENT) {
+                int j = hash(oldMsbs[i], oldLsbs[i]) & mask;
+                while (slots[j] != ABSENT) {
+                    j = (j + 1) & mask;
+                }
+                msbs[j] = oldMsbs[i];
+                lsbs[j] = oldLsbs[i];
+                slots[j] = oldSlots[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        msbs = new long[capacity];
+        lsbs = new long[capacity];
+        slots = new int[capacity];
+        Arrays.fill(slots, ABSENT);
+        mask = capacity - 1;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int needed = (int) Math.min(1 << 30, (long) Math.ceil(Math.max(expectedSize, 8) / MAX_LOAD));
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    // Random UUIDs are already well mixed, but ids can come from anywhere
+    private static int hash(long msb, long lsb) {
+        long h = msb ^ Long.rotateLeft(lsb, 32);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
@@ -0,0 +1,96 @@
+package com.spring.mvc.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTest {
+
+    static final long MS = 1_000_000;
+
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 20, 0.5, 2.0,
+            Duration.ofMillis(20), Duration.ofSeconds(1), Duration.ofSeconds(30));
+
+    long now = System.nanoTime();
+
+    @Test
+    void testGrowsAboutOnePerLimitSamplesWhenUsed() {
+        for (int i = 0; i < 10; i++) {
+            sample(30, 10, false);
+        }
+        assertThat(limit.get()).isEqualTo(10);
+        sample(30, 10, false);
+        assertThat(limit.get()).isEqualTo(11);
+    }
+
+    @Test
+    void testDoesNotGrowWhenMostlyIdle() {
+        for (int i = 0; i < 100; i++) {
+            sample(30, 1, false);
+        }
+        assertThat(limit.get()).isEqualTo(10);
+    }
+
+    @Test
+    void testBacksOffOnLatencyAboveTolerance() {
+        sample(30, 10, false);
+        sample(70, 10, false);
+
+        assertThat(limit.get()).isEqualTo(5);
+    }
+
+    @Test
+    void testJitterBelowFloorIsNotCongestion() {
+        sample(1, 10, false);
+        sample(15, 10, false);
+
+        assertThat(limit.get()).isGreaterThanOrEqualTo(10);
+    }
+
+    @Test
+    void testBacksOffOncePerRoundTrip() {
+        long start = now;
+        sample(30, 10, false);
+        // Three slow responses that were all in flight together
+        limit.onSample(start, start + 100 * MS, 10, false);
+        limit.onSample(start, start + 101 * MS, 10, false);
+        limit.onSample(start, start + 102 * MS, 10, false);
+        assertThat(limit.get()).isEqualTo(5);
+
+        // A request admitted after that decrease is a new signal
+        limit.onSample(start + 103 * MS, start + 203 * MS, 5, true);
+        assertThat(limit.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testDroppedAndMaxLatencyAreCongestion() {
+        sample(30, 10, true);
+        assertThat(limit.get()).isEqualTo(5);
+
+        sample(1500, 5, false);
+        assertThat(limit.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testStaysWithinBounds() {
+        for (int i = 0; i < 20; i++) {
+            sample(30, 20, true);
+        }
+        assertThat(limit.get()).isEqualTo(2);
+
+        for (int i = 0; i < 10_000; i++) {
+            sample(30, 20, false);
+        }
+        assertThat(limit.get()).isEqualTo(20);
+    }
+
+    // Non-overlapping samples, each starting after the previous one ended
+    private void sample(long millis, int inflight, boolean dropped) {
+        long start = now;
+        now += millis * MS;
+        limit.onSample(start, now, inflight, dropped);
+        now += MS;
+    }
+}
@@ -0,0 +1,159 @@
+package com.spring.mvc.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlFilterTest {
+
+    SimpleMeterRegistry registry;
+    AdmissionController admissionController;
+    AdmissionControlFilter filter;
+    boolean async;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        admissionController = new AdmissionController(new ClientQuotas(1, 3, 100), registry);
+        admissionController.register("beer.read", AdmissionController.Priority.HIGH, limit(1));
+        admissionController.register("beer.list", AdmissionController.Priority.HIGH, limit(1));
+        admissionController.register("beer.write", AdmissionController.Priority.LOW, limit(1));
+        // MockHttpServletRequest comes from 127.0.0.1, trusted here to name the client
+        filter = new AdmissionControlFilter(admissionController, new ClientIdentity("X-Client-Id", "127\\.0\\.0\\.1"));
+    }
+
+    @Test
+    void testEndpoints() {
+        assertThat(AdmissionControlFilter.endpoint(request("GET", "/api/v1/beer"))).isEqualTo("beer.list");
+        assertThat(AdmissionControlFilter.endpoint(request("GET", "/api/v1/beer/stats"))).isEqualTo("beer.list");
+        assertThat(AdmissionControlFilter.endpoint(request("GET", "/api/v1/beer/low-stock"))).isEqualTo("beer.list");
+        assertThat(AdmissionControlFilter.endpoint(request("GET", "/api/v1/customer/4f1c0d2e-0000-0000-0000-000000000000")))
+                .isEqualTo("customer.read");
+        assertThat(AdmissionControlFilter.endpoint(request("PATCH", "/api/v1/customer/x"))).isEqualTo("customer.write");
+        assertThat(AdmissionControlFilter.endpoint(request("POST", "/api/v1/beer"))).isEqualTo("beer.write");
+
+        MockHttpServletRequest delta = request("GET", "/api/v1/beer/changes");
+        delta.setParameter("since", "");
+        assertThat(AdmissionControlFilter.endpoint(delta)).isEqualTo("beer.list");
+        assertThat(AdmissionControlFilter.endpoint(request("GET", "/api/v1/beer/changes"))).isNull();
+        assertThat(AdmissionControlFilter.endpoint(request("GET", "/api/v1/beers"))).isNull();
+        assertThat(AdmissionControlFilter.endpoint(request("GET", "/actuator/metrics"))).isNull();
+    }
+
+    @Test
+    void testLimitedWhileAsyncRequestInFlight() throws Exception {
+        async = true;
+        MockHttpServletRequest first = request("GET", "/api/v1/beer/1");
+        MockHttpServletResponse firstResponse = perform(first);
+        assertThat(firstResponse.getStatus()).isEqualTo(200);
+        assertThat(endpoint("beer.read").inflight()).isEqualTo(1);
+
+        MockHttpServletResponse second = perform(request("GET", "/api/v1/beer/2"));
+        assertThat(second.getStatus()).isEqualTo(503);
+        assertThat(second.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+
+        ((MockAsyncContext) first.getAsyncContext()).complete();
+        assertThat(endpoint("beer.read").inflight()).isZero();
+        assertThat(perform(request("GET", "/api/v1/beer/3")).getStatus()).isEqualTo(200);
+
+        assertThat(registry.get("mvc.admission.requests").tag("endpoint", "beer.read").tag("outcome", "limited")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testWritesShedWhileReadsAtLimit() throws Exception {
+        async = true;
+        perform(request("GET", "/api/v1/beer"));
+
+        MockHttpServletResponse write = perform(request("PUT", "/api/v1/beer/1"));
+
+        assertThat(write.getStatus()).isEqualTo(503);
+        assertThat(registry.get("mvc.admission.requests").tag("endpoint", "beer.write").tag("outcome", "deprioritized")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testClientQuota() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertThat(perform(request("GET", "/api/v1/beer/1")).getStatus()).isEqualTo(200);
+        }
+
+        MockHttpServletResponse limited = perform(request("GET", "/api/v1/beer/1"));
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(limited.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+
+        MockHttpServletRequest otherClient = request("GET", "/api/v1/beer/1");
+        otherClient.addHeader("X-Client-Id", "other");
+        assertThat(perform(otherClient).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void testClientHeaderIgnoredFromUntrustedAddress() throws Exception {
+        filter = new AdmissionControlFilter(admissionController, new ClientIdentity("X-Client-Id", "10\\.0\\.0\\.1"));
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = request("GET", "/api/v1/beer/1");
+            request.addHeader("X-Client-Id", "client-" + i);
+            assertThat(perform(request).getStatus()).isEqualTo(200);
+        }
+
+        // A new id each time is still the same address
+        MockHttpServletRequest rotated = request("GET", "/api/v1/beer/1");
+        rotated.addHeader("X-Client-Id", "client-3");
+        assertThat(perform(rotated).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void testShedDownstreamCountsAsDropped() throws Exception {
+        MockHttpServletRequest request = request("GET", "/api/v1/beer/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                resp.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            }
+        }));
+
+        assertThat(registry.get("mvc.admission.dropped").tag("endpoint", "beer.read").counter().count()).isEqualTo(1);
+    }
+
+    private AdmissionController.Endpoint endpoint(String name) {
+        return admissionController.endpoints().stream().filter(e -> e.name().equals(name)).findFirst().orElseThrow();
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                if (async) {
+                    req.startAsync();
+                }
+                resp.setStatus(200);
+            }
+        }));
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setAsyncSupported(true);
+        return request;
+    }
+
+    private static AdaptiveConcurrencyLimit limit(int limit) {
+        return new AdaptiveConcurrencyLimit(limit, limit, limit, 0.9, 2.0,
+                Duration.ofMillis(20), Duration.ofSeconds(1), Duration.ofSeconds(30));
+    }
+}
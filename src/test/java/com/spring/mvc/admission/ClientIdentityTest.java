@@ -0,0 +1,39 @@
+package com.spring.mvc.admission;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientIdentityTest {
+
+    private final ClientIdentity clientIdentity = new ClientIdentity("X-Forwarded-For", "10\\.0\\.0\\.\\d+");
+
+    @Test
+    void testHeaderFromTrustedProxy() {
+        // The proxy appends the address it saw to whatever the client sent
+        assertThat(clientIdentity.of(request("10.0.0.7", "1.2.3.4, 203.0.113.9"))).isEqualTo("client:203.0.113.9");
+    }
+
+    @Test
+    void testHeaderIgnoredFromAnyoneElse() {
+        assertThat(clientIdentity.of(request("203.0.113.9", "1.2.3.4"))).isEqualTo("address:203.0.113.9");
+        assertThat(new ClientIdentity("X-Forwarded-For", "").of(request("10.0.0.7", "1.2.3.4")))
+                .isEqualTo("address:10.0.0.7");
+    }
+
+    @Test
+    void testAuthenticatedUserWins() {
+        MockHttpServletRequest request = request("10.0.0.7", "1.2.3.4");
+        request.setUserPrincipal(() -> "alice");
+
+        assertThat(clientIdentity.of(request)).isEqualTo("user:alice");
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/beer");
+        request.setRemoteAddr(remoteAddr);
+        request.addHeader("X-Forwarded-For", forwardedFor);
+        return request;
+    }
+}
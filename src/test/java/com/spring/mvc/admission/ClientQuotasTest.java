@@ -0,0 +1,57 @@
+package com.spring.mvc.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientQuotasTest {
+
+    long now = System.nanoTime();
+
+    @Test
+    void testBurstThenRate() {
+        ClientQuotas quotas = new ClientQuotas(10, 3, 100);
+
+        assertThat(quotas.tryAcquire("a", now)).isZero();
+        assertThat(quotas.tryAcquire("a", now)).isZero();
+        assertThat(quotas.tryAcquire("a", now)).isZero();
+        assertThat(quotas.tryAcquire("a", now)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+
+        // Other clients have their own buckets
+        assertThat(quotas.tryAcquire("b", now)).isZero();
+
+        assertThat(quotas.tryAcquire("a", now + TimeUnit.MILLISECONDS.toNanos(100))).isZero();
+        assertThat(quotas.tryAcquire("a", now + TimeUnit.MILLISECONDS.toNanos(100))).isPositive();
+    }
+
+    @Test
+    void testIdleClientsEvictedOverCap() {
+        ClientQuotas quotas = new ClientQuotas(10, 3, 2);
+        quotas.tryAcquire("a", now);
+        quotas.tryAcquire("b", now);
+
+        // a and b have refilled by the time a third client shows up
+        quotas.tryAcquire("c", now + TimeUnit.SECONDS.toNanos(1));
+
+        assertThat(quotas.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testLeastRecentlyUsedEvictedOverCap() {
+        ClientQuotas quotas = new ClientQuotas(10, 3, 10);
+        for (int i = 0; i < 10; i++) {
+            quotas.tryAcquire("client-" + i, now + i);
+        }
+        // client-9 is down to its last token, none of them has refilled
+        quotas.tryAcquire("client-9", now + 10);
+
+        quotas.tryAcquire("new", now + 11);
+
+        // Down to 90% of the cap: the two least recently used went, the others kept their buckets
+        assertThat(quotas.size()).isEqualTo(9);
+        assertThat(quotas.tryAcquire("client-9", now + 12)).isZero();
+        assertThat(quotas.tryAcquire("client-9", now + 12)).isPositive();
+    }
+}
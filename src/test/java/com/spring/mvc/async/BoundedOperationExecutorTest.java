@@ -0,0 +1,74 @@
+package com.spring.mvc.async;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedOperationExecutorTest {
+
+    CountDownLatch release = new CountDownLatch(1);
+    BoundedOperationExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.close();
+    }
+
+    @Test
+    void testResultAndException() throws Exception {
+        executor = new BoundedOperationExecutor("test", 1, 1, Duration.ofSeconds(5));
+
+        assertThat(executor.supply(() -> "Galaxy Cat").get(5, TimeUnit.SECONDS)).isEqualTo("Galaxy Cat");
+        assertThatThrownBy(() -> executor.supply(() -> {
+            throw new IllegalStateException("boom");
+        }).get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testRejectsWhenQueueFull() {
+        executor = new BoundedOperationExecutor("test", 1, 1, Duration.ofSeconds(5));
+        executor.supply(this::block);
+        executor.supply(this::block);
+
+        assertThatThrownBy(() -> executor.supply(() -> "too many")).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void testTimesOutAndSkipsQueuedWork() throws Exception {
+        executor = new BoundedOperationExecutor("test", 1, 1, Duration.ofMillis(100));
+        CompletableFuture<String> running = executor.supply(this::block);
+        AtomicBoolean ran = new AtomicBoolean();
+        CompletableFuture<String> queued = executor.supply(() -> {
+            ran.set(true);
+            return "late";
+        });
+
+        assertThatThrownBy(() -> running.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(TimeoutException.class);
+        assertThatThrownBy(() -> queued.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(TimeoutException.class);
+
+        release.countDown();
+        assertThat(executor.supply(() -> "next").get(5, TimeUnit.SECONDS)).isEqualTo("next");
+        assertThat(ran).isFalse();
+    }
+
+    private String block() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "released";
+    }
+}
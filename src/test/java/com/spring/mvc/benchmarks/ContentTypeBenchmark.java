@@ -0,0 +1,108 @@
+package com.spring.mvc.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerStyle;
+import com.spring.mvc.model.Money;
+import com.spring.mvc.protobuf.CatalogProtobuf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Encode/decode cost of a 10k-beer list response in each format the beer endpoints negotiate.
+// Run with: mvn -P benchmark test-compile exec:exec -Djmh.args="ContentTypeBenchmark -prof gc"
+// Payload sizes (raw and gzipped) are printed once per format during setup.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentTypeBenchmark {
+
+    @Param({"json", "smile", "cbor", "protobuf"})
+    String format;
+
+    @Param("10000")
+    int beerCount;
+
+    ObjectMapper objectMapper;
+    List<BeerDTO> beers;
+    byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Configured as the Spring converters configure them
+        objectMapper = switch (format) {
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+
+        Random random = new Random(42);
+        beers = new ArrayList<>(beerCount);
+        for (int i = 0; i < beerCount; i++) {
+            beers.add(BeerDTO.builder()
+                    .id(UUID.randomUUID())
+                    .version(random.nextInt(5))
+                    .beerName("Beer " + i)
+                    .beerStyle(BeerStyle.values()[random.nextInt(BeerStyle.values().length)])
+                    .upc(Integer.toString(100000 + i))
+                    .quantityOnHand(random.nextInt(500))
+                    .price(Money.ofMinor(99 + random.nextInt(5000)))
+                    .createdDate(LocalDateTime.now())
+                    .updateDate(LocalDateTime.now())
+                    .build());
+        }
+
+        payload = encode();
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+            out.write(payload);
+        }
+        System.out.printf("%n%s: %d bytes, %d gzipped%n", format, payload.length, gzipped.size());
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        if (format.equals("protobuf")) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            CodedOutputStream out = CodedOutputStream.newInstance(bytes, 8192);
+            CatalogProtobuf.writeBeers(beers, out);
+            out.flush();
+            return bytes.toByteArray();
+        }
+        return objectMapper.writeValueAsBytes(beers);
+    }
+
+    @Benchmark
+    public List<BeerDTO> decode() throws IOException {
+        if (format.equals("protobuf")) {
+            return CatalogProtobuf.readBeers(CodedInputStream.newInstance(payload));
+        }
+        return objectMapper.readValue(payload, new TypeReference<>() {
+        });
+    }
+}
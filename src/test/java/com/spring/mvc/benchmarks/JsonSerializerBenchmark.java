@@ -0,0 +1,111 @@
+package com.spring.mvc.benchmarks;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerStyle;
+import com.spring.mvc.model.CustomerDTO;
+import com.spring.mvc.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// BeerJsonSerializer/CustomerJsonSerializer against the reflective bean serializer they replace, writing a list
+// response the way MappingJackson2HttpMessageConverter does (an ObjectWriter onto the response stream).
+// Run with: mvn -P benchmark test-compile exec:exec -Djmh.args="JsonSerializerBenchmark -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializerBenchmark {
+
+    @JsonSerialize(using = JsonSerializer.None.class)
+    abstract static class DefaultSerialization {
+    }
+
+    @Param({"tuned", "reflective"})
+    String serializer;
+
+    @Param("10000")
+    int count;
+
+    ObjectWriter beerWriter;
+    ObjectWriter customerWriter;
+    List<BeerDTO> beers;
+    List<CustomerDTO> customers;
+
+    // Discards the bytes, so only serialization and UTF-8 encoding are measured
+    OutputStream out = OutputStream.nullOutputStream();
+
+    @Setup
+    public void setUp() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (serializer.equals("reflective")) {
+            builder.mixIn(BeerDTO.class, DefaultSerialization.class).mixIn(CustomerDTO.class, DefaultSerialization.class);
+        }
+        beerWriter = builder.build().writerFor(new TypeReference<List<BeerDTO>>() {
+        });
+        customerWriter = builder.build().writerFor(new TypeReference<List<CustomerDTO>>() {
+        });
+
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        beers = new ArrayList<>(count);
+        customers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            beers.add(BeerDTO.builder()
+                    .id(UUID.randomUUID())
+                    .version(random.nextInt(5))
+                    .beerName("Beer " + i)
+                    .beerStyle(BeerStyle.values()[random.nextInt(BeerStyle.values().length)])
+                    .upc(Integer.toString(100000 + i))
+                    .quantityOnHand(random.nextInt(500))
+                    .price(Money.ofMinor(99 + random.nextInt(5000)))
+                    .createdDate(now.minusSeconds(random.nextInt(86_400 * 30)))
+                    .updateDate(now.minusSeconds(random.nextInt(86_400)))
+                    .build());
+            customers.add(CustomerDTO.builder()
+                    .id(UUID.randomUUID())
+                    .version(random.nextInt(5))
+                    .name("Customer " + i)
+                    .createdDate(now.minusSeconds(random.nextInt(86_400 * 30)))
+                    .lastModifiedDate(now.minusSeconds(random.nextInt(86_400)))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public void writeBeers() throws IOException {
+        beerWriter.writeValue(out, beers);
+    }
+
+    @Benchmark
+    public void writeCustomers() throws IOException {
+        customerWriter.writeValue(out, customers);
+    }
+}
@@ -0,0 +1,147 @@
+package com.spring.mvc.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerStatsDTO;
+import com.spring.mvc.model.BeerStyle;
+import com.spring.mvc.model.Money;
+import com.spring.mvc.stats.BeerColumns;
+import com.spring.mvc.stats.BeerStatsScanner;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Money against the BigDecimal prices it replaced, on what the list and stats endpoints do per beer.
+// Run with: mvn -P benchmark test-compile exec:exec -Djmh.args="MoneyBenchmark -prof gc"
+// and compare gc.alloc.rate.norm (bytes per operation) between the money* and bigDecimal* pairs.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    @Param("1000")
+    int beerCount;
+
+    ObjectMapper objectMapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+
+    List<BeerDTO> beers;
+    List<LegacyBeerDTO> legacyBeers;
+    byte[] json;
+
+    @Setup
+    public void setUp() throws Exception {
+        Random random = new Random(42);
+        beers = new ArrayList<>(beerCount);
+        legacyBeers = new ArrayList<>(beerCount);
+        for (int i = 0; i < beerCount; i++) {
+            BeerDTO beer = BeerDTO.builder()
+                    .id(UUID.randomUUID())
+                    .version(1)
+                    .beerName("Beer " + i)
+                    .beerStyle(BeerStyle.values()[random.nextInt(BeerStyle.values().length)])
+                    .upc(Integer.toString(100000 + i))
+                    .quantityOnHand(random.nextInt(500))
+                    .price(Money.ofMinor(99 + random.nextInt(5000)))
+                    .createdDate(LocalDateTime.now())
+                    .updateDate(LocalDateTime.now())
+                    .build();
+            beers.add(beer);
+            legacyBeers.add(new LegacyBeerDTO(beer.getId(), beer.getVersion(), beer.getBeerName(), beer.getBeerStyle(),
+                    beer.getUpc(), beer.getQuantityOnHand(), beer.getPrice().toBigDecimal(),
+                    beer.getCreatedDate(), beer.getUpdateDate()));
+        }
+        json = objectMapper.writeValueAsBytes(beers);
+    }
+
+    @Benchmark
+    public byte[] moneySerialize() throws Exception {
+        return objectMapper.writeValueAsBytes(beers);
+    }
+
+    @Benchmark
+    public byte[] bigDecimalSerialize() throws Exception {
+        return objectMapper.writeValueAsBytes(legacyBeers);
+    }
+
+    @Benchmark
+    public List<BeerDTO> moneyDeserialize() throws Exception {
+        return objectMapper.readValue(json, new TypeReference<>() {
+        });
+    }
+
+    @Benchmark
+    public List<LegacyBeerDTO> bigDecimalDeserialize() throws Exception {
+        return objectMapper.readValue(json, new TypeReference<>() {
+        });
+    }
+
+    // The stock value and price sums behind the stats endpoint, over minor units
+    @Benchmark
+    public BigDecimal moneyStats() {
+        long stockValue = 0;
+        long priceSum = 0;
+        for (BeerDTO beer : beers) {
+            stockValue += beer.getPrice().minorUnits() * beer.getQuantityOnHand();
+            priceSum += beer.getPrice().minorUnits();
+        }
+        return BigDecimal.valueOf(stockValue + priceSum, Money.DEFAULT_CURRENCY.getDefaultFractionDigits());
+    }
+
+    // The same sums as they were computed over BigDecimal prices
+    @Benchmark
+    public BigDecimal bigDecimalStats() {
+        BigDecimal stockValue = BigDecimal.ZERO;
+        BigDecimal priceSum = BigDecimal.ZERO;
+        for (LegacyBeerDTO beer : legacyBeers) {
+            stockValue = stockValue.add(beer.getPrice().multiply(BigDecimal.valueOf(beer.getQuantityOnHand())));
+            priceSum = priceSum.add(beer.getPrice());
+        }
+        return stockValue.add(priceSum);
+    }
+
+    // The whole stats computation as the endpoint runs it in the default (non-incremental) mode
+    @Benchmark
+    public BeerStatsDTO moneyStatsScan() {
+        return BeerStatsScanner.scan(BeerColumns.of(beers), 10);
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class LegacyBeerDTO {
+        private UUID id;
+        private Integer version;
+        private String beerName;
+        private BeerStyle beerStyle;
+        private String upc;
+        private Integer quantityOnHand;
+        private BigDecimal price;
+        private LocalDateTime createdDate;
+        private LocalDateTime updateDate;
+    }
+}
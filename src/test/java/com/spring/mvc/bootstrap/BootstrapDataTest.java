@@ -1,5 +1,6 @@
 package com.spring.mvc.bootstrap;
 
+import com.spring.mvc.repositories.BeerHistoryRepository;
 import com.spring.mvc.repositories.BeerRepository;
 import com.spring.mvc.repositories.CustomerRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,6 +8,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
+import java.util.Optional;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest
@@ -14,6 +17,9 @@ class BootstrapDataTest {
     @Autowired
     BeerRepository beerRepository;
 
+    @Autowired
+    BeerHistoryRepository beerHistoryRepository;
+
     @Autowired
     CustomerRepository customerRepository;
 
@@ -21,7 +27,7 @@ class BootstrapDataTest {
 
     @BeforeEach
     void setUp() {
-        bootstrapData = new BootstrapData(beerRepository, customerRepository);
+        bootstrapData = new BootstrapData(beerRepository, beerHistoryRepository, customerRepository, Optional.empty());
     }
 
     @Test
@@ -29,6 +35,7 @@ class BootstrapDataTest {
         bootstrapData.run(null);
 
         assertThat(beerRepository.count()).isEqualTo(3);
+        assertThat(beerHistoryRepository.count()).isEqualTo(3);
         assertThat(customerRepository.count()).isEqualTo(3);
 
     }
@@ -0,0 +1,225 @@
+package com.spring.mvc.cache;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ResponseCacheFilterTest {
+
+    ResponseCache cache;
+    ResponseCacheFilter filter;
+    AtomicInteger renders;
+    String body;
+    int status;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ResponseCache("Beer", 2, 1024);
+        filter = new ResponseCacheFilter(Map.of("/api/v1/beer", cache));
+        renders = new AtomicInteger();
+        body = "[" + "{\"beerName\":\"Galaxy Cat\"},".repeat(100) + "{}]";
+        status = HttpServletResponse.SC_OK;
+    }
+
+    @Test
+    void testSecondRequestServedFromCache() throws Exception {
+        MockHttpServletResponse first = get("/api/v1/beer", null);
+        MockHttpServletResponse second = get("/api/v1/beer", null);
+
+        assertThat(renders).hasValue(1);
+        assertThat(second.getContentAsString()).isEqualTo(body).isEqualTo(first.getContentAsString());
+        assertThat(second.getContentType()).isEqualTo("application/json");
+        assertThat(second.getContentLength()).isEqualTo(body.length());
+        assertThat(second.getHeader(HttpHeaders.ETAG)).isEqualTo(first.getHeader(HttpHeaders.ETAG)).isNotBlank();
+    }
+
+    @Test
+    void testGzipWhenAccepted() throws Exception {
+        MockHttpServletResponse plain = get("/api/v1/beer", null);
+        MockHttpServletResponse gzipped = get("/api/v1/beer", "gzip, deflate");
+
+        assertThat(gzipped.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gzipped.getHeader(HttpHeaders.VARY)).isEqualTo("Accept, Accept-Encoding");
+        assertThat(gzipped.getHeader(HttpHeaders.ETAG)).isNotEqualTo(plain.getHeader(HttpHeaders.ETAG));
+        assertThat(gzipped.getContentAsByteArray().length).isLessThan(body.length());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getContentAsByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(body);
+        }
+
+        assertThat(get("/api/v1/beer", "gzip;q=0").getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+    }
+
+    @Test
+    void testNotModifiedForMatchingEtag() throws Exception {
+        String etag = get("/api/v1/beer", null).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/beer");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", " + etag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain());
+
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_NOT_MODIFIED);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(renders).hasValue(1);
+    }
+
+    @Test
+    void testInvalidateRendersAgain() throws Exception {
+        String etag = get("/api/v1/beer", null).getHeader(HttpHeaders.ETAG);
+
+        cache.invalidate();
+        body = "[]";
+        MockHttpServletResponse response = get("/api/v1/beer", null);
+
+        assertThat(renders).hasValue(2);
+        assertThat(response.getContentAsString()).isEqualTo("[]");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+    }
+
+    @Test
+    void testResponseRenderedAcrossInvalidationNotKept() throws Exception {
+        long generation = cache.generation();
+        cache.invalidate();
+        cache.put("/api/v1/beer", generation, "application/json", body.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void testErrorsAndOtherPathsNotCached() throws Exception {
+        status = HttpServletResponse.SC_NOT_FOUND;
+        get("/api/v1/beer", null);
+        get("/api/v1/beer", null);
+        assertThat(renders).hasValue(2);
+
+        status = HttpServletResponse.SC_OK;
+        get("/api/v1/beer/stats", null);
+        get("/api/v1/beer/stats", null);
+        assertThat(renders).hasValue(4);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void testQueryStringsCachedSeparatelyUpToMaxEntries() throws Exception {
+        get("/api/v1/beer", null, "page=1");
+        get("/api/v1/beer", null, "page=2");
+        get("/api/v1/beer", null, "page=3");
+        get("/api/v1/beer", null, "page=1");
+        get("/api/v1/beer", null, "page=3");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(renders).hasValue(4);
+    }
+
+    @Test
+    void testAcceptHeaderCachedSeparately() throws Exception {
+        MockHttpServletRequest json = new MockHttpServletRequest("GET", "/api/v1/beer");
+        json.addHeader(HttpHeaders.ACCEPT, "application/json");
+        filter.doFilter(json, new MockHttpServletResponse(), chain());
+
+        body = "binary";
+        MockHttpServletRequest cbor = new MockHttpServletRequest("GET", "/api/v1/beer");
+        cbor.addHeader(HttpHeaders.ACCEPT, "application/cbor");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(cbor, response, chain());
+
+        assertThat(renders).hasValue(2);
+        assertThat(response.getContentAsString()).isEqualTo("binary");
+        assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    void testAsyncResponseCachedOnceDispatched() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new AsyncBeerList()).addFilter(filter).build();
+
+        MvcResult started = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/beer"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(cache.size()).isZero();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(content().string(body));
+        assertThat(cache.size()).isEqualTo(1);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/beer"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(content().string(body));
+        assertThat(renders).hasValue(1);
+    }
+
+    @Test
+    void testAcceptsGzip() {
+        assertThat(ResponseCacheFilter.acceptsGzip("gzip")).isTrue();
+        assertThat(ResponseCacheFilter.acceptsGzip("br, GZIP;q=0.5")).isTrue();
+        assertThat(ResponseCacheFilter.acceptsGzip("*")).isTrue();
+        assertThat(ResponseCacheFilter.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(ResponseCacheFilter.acceptsGzip("deflate, br")).isFalse();
+        assertThat(ResponseCacheFilter.acceptsGzip(null)).isFalse();
+    }
+
+    MockHttpServletResponse get(String path, String acceptEncoding) throws Exception {
+        return get(path, acceptEncoding, null);
+    }
+
+    MockHttpServletResponse get(String path, String acceptEncoding, String query) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setQueryString(query);
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain());
+        return response;
+    }
+
+    @RestController
+    class AsyncBeerList {
+
+        @GetMapping(value = "/api/v1/beer", produces = "application/json")
+        CompletableFuture<String> listBeers() {
+            renders.incrementAndGet();
+            return CompletableFuture.supplyAsync(() -> body);
+        }
+    }
+
+    MockFilterChain chain() {
+        return new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                renders.incrementAndGet();
+                response.setStatus(status);
+                response.setContentType("application/json");
+                response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+    }
+}
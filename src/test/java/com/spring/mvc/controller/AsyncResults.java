@@ -0,0 +1,40 @@
+package com.spring.mvc.controller;
+
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+
+// BeerController and CustomerController answer with CompletableFutures. These helpers get to the final
+// response (or exception) the way the servlet container would, so assertions read as for a synchronous handler.
+final class AsyncResults {
+
+    private AsyncResults() {
+    }
+
+    // Performs the request and, when the handler went async, the dispatch that renders its result.
+    // Requests rejected before the handler runs (validation, bad JSON) never go async.
+    static ResultActions perform(MockMvc mockMvc, RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        if (actions.andReturn().getRequest().isAsyncStarted()) {
+            return mockMvc.perform(asyncDispatch(actions.andReturn()));
+        }
+        return actions;
+    }
+
+    // The handler's result, or the exception it failed with
+    static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
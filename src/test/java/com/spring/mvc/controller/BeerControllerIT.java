@@ -4,7 +4,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.spring.mvc.entities.Beer;
 import com.spring.mvc.mappers.BeerMapper;
 import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerStatsDTO;
 import com.spring.mvc.model.BeerStyle;
+import com.spring.mvc.patch.DtoPatcher;
 import com.spring.mvc.repositories.BeerRepository;
 import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +16,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -21,11 +24,14 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import static com.spring.mvc.controller.AsyncResults.await;
+import static com.spring.mvc.controller.AsyncResults.perform;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -33,7 +39,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
+// Runs the controllers' work on the test thread so it takes part in the test's transaction
+@SpringBootTest(properties = "mvc.async.enabled=false")
 @Rollback
 class BeerControllerIT {
     @Autowired
@@ -71,7 +78,7 @@ class BeerControllerIT {
         beerMap.put("upc", "9000");
         beerMap.put("beerStyle", BeerStyle.PALE_ALE);
 
-        MvcResult result = mockMvc.perform(patch("/api/v1/beer/" + beer.getId())
+        MvcResult result = perform(mockMvc, patch("/api/v1/beer/" + beer.getId())
                         .accept(MediaType.APPLICATION_JSON)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(beerMap)))
@@ -83,10 +90,40 @@ class BeerControllerIT {
         System.out.println(result.getResponse().getContentAsString());
     }
 
+    @Transactional
+    @Test
+    void testMergePatchClearsQuantity() throws Exception {
+        Beer beer = beerRepository.findAll().getFirst();
+
+        perform(mockMvc, patch("/api/v1/beer/" + beer.getId())
+                        .contentType(DtoPatcher.MERGE_PATCH_JSON_VALUE)
+                        .content("{\"quantityOnHand\": null}"))
+                .andExpect(status().isNoContent());
+
+        Beer patched = beerRepository.findById(beer.getId()).get();
+        assertThat(patched.getQuantityOnHand()).isNull();
+        assertThat(patched.getBeerName()).isEqualTo(beer.getBeerName());
+    }
+
+    @Transactional
+    @Test
+    void testPatchQuantityAppendsHistory() throws Exception {
+        Beer beer = beerRepository.findAll().getFirst();
+        int entries = await(beerController.listBeerHistory(beer.getId(), 100)).size();
+
+        perform(mockMvc, patch("/api/v1/beer/" + beer.getId())
+                        .contentType(DtoPatcher.MERGE_PATCH_JSON_VALUE)
+                        .content("{\"quantityOnHand\": 7}"))
+                .andExpect(status().isNoContent());
+
+        assertThat(await(beerController.listBeerHistory(beer.getId(), 100))).hasSize(entries + 1);
+        assertThat(await(beerController.getBeerHistoryAsOf(beer.getId(), LocalDateTime.now())).getQuantityOnHand()).isEqualTo(7);
+    }
+
     @Test
     void testDeleteNotFound() {
         assertThrows(NotFoundException.class, () -> {
-            beerController.deleteById(UUID.randomUUID());
+            await(beerController.deleteById(UUID.randomUUID()));
         });
     }
 
@@ -94,7 +131,7 @@ class BeerControllerIT {
     void deleteByIdFound() {
         Beer beer = beerRepository.findAll().getFirst();
 
-        ResponseEntity responseEntity = beerController.deleteById(beer.getId());
+        ResponseEntity responseEntity = await(beerController.deleteById(beer.getId()));
 
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatusCode.valueOf(204));
 
@@ -105,7 +142,7 @@ class BeerControllerIT {
     @Test
     void testUpdateNotFound() {
         assertThrows(NotFoundException.class, () -> {
-            beerController.updateById(UUID.randomUUID(), BeerDTO.builder().build());
+            await(beerController.updateById(UUID.randomUUID(), BeerDTO.builder().build(), null, new MockHttpServletRequest()));
         });
     }
 
@@ -127,7 +164,7 @@ class BeerControllerIT {
         beerDTO.setBeerName(beerName);
 
         // Send an update request to the controller
-        ResponseEntity responseEntity = beerController.updateById(beer.getId(), beerDTO);
+        ResponseEntity responseEntity = await(beerController.updateById(beer.getId(), beerDTO, null, new MockHttpServletRequest()));
 
         // Assert that the response status is 201 Created (indicating successful update)
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatusCode.valueOf(204));
@@ -148,7 +185,7 @@ class BeerControllerIT {
                 .build();
 
         // Call the controller's POST handler to save the new beer
-        ResponseEntity responseEntity = beerController.handlePost(beerDTO);
+        ResponseEntity responseEntity = await(beerController.handlePost(beerDTO, null, new MockHttpServletRequest()));
 
         // Assert that the response status is 201 Created
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatusCode.valueOf(201));
@@ -171,7 +208,7 @@ class BeerControllerIT {
     @Test
     void testBeerIdNotFound() {
         assertThrows(NotFoundException.class, () -> {
-            beerController.getBeerById(UUID.randomUUID());
+            await(beerController.getBeerById(UUID.randomUUID()));
         });
 
     }
@@ -180,24 +217,38 @@ class BeerControllerIT {
     void testGetById() {
         Beer beer = beerRepository.findAll().getFirst();
 
-        BeerDTO dto = beerController.getBeerById(beer.getId());
+        BeerDTO dto = await(beerController.getBeerById(beer.getId()));
 
         assertThat(dto).isNotNull();
     }
 
     @Test
     void testListBeers() {
-        List<BeerDTO> dtos = beerController.listBeers();
+        List<BeerDTO> dtos = await(beerController.listBeers());
         assertThat(dtos.size()).isEqualTo(3);
     }
 
 
+    @Test
+    void testBeerStats() {
+        List<BeerDTO> beers = await(beerController.listBeers());
+        BeerStatsDTO stats = await(beerController.getBeerStats(150));
+
+        assertThat(stats.getBeerCount()).isEqualTo(beers.size());
+        assertThat(stats.getTotalQuantityOnHand()).isEqualTo(beers.stream().mapToLong(BeerDTO::getQuantityOnHand).sum());
+        assertThat(stats.getTotalStockValue()).isEqualByComparingTo(beers.stream()
+                .map(beer -> beer.getPrice().toBigDecimal().multiply(BigDecimal.valueOf(beer.getQuantityOnHand())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add));
+        assertThat(stats.getLowStockCount()).isEqualTo(beers.stream().filter(beer -> beer.getQuantityOnHand() < 150).count());
+        assertThat(stats.getMedianPrice()).isNotNull();
+    }
+
     @Rollback // Makes sure database changes made do not persist
     @Transactional // Wraps test in a transaction so that any operations can use rollback
     @Test
     void testEmptyList() {
         beerRepository.deleteAll();
-        List<BeerDTO> dtos = beerController.listBeers();
+        List<BeerDTO> dtos = await(beerController.listBeers());
         assertThat(dtos.size()).isEqualTo(0);
 
     }
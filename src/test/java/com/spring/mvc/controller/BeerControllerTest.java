@@ -1,34 +1,63 @@
 package com.spring.mvc.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.spring.mvc.async.ControllerExecutorsConfig;
+import com.spring.mvc.idempotency.IdempotencyConfig;
+import com.spring.mvc.idempotency.IdempotentRequests;
 import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerStatsDTO;
+import com.spring.mvc.model.DeltaSyncDTO;
+import com.spring.mvc.model.FieldPatch;
+import com.spring.mvc.model.Money;
+import com.spring.mvc.model.SyncToken;
+import com.spring.mvc.patch.DtoPatcher;
+import com.spring.mvc.protobuf.CatalogProtobuf;
+import com.spring.mvc.protobuf.CatalogProtobufHttpMessageConverter;
 import com.spring.mvc.services.BeerService;
 import com.spring.mvc.services.BeerServiceImpl;
+import com.spring.mvc.services.DuplicateUpcException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
+import static com.spring.mvc.controller.AsyncResults.perform;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(BeerController.class)
+@Import({ControllerExecutorsConfig.class, IdempotencyConfig.class, DtoPatcher.class})
+@TestPropertySource(properties = "mvc.async.read.timeout=200ms")
 // Sets up a test context for BeerController, including MockMvc for HTTP request testing
 public class BeerControllerTest {
 
@@ -71,7 +100,7 @@ public class BeerControllerTest {
         Map<String, Object> beerMap = new HashMap<>();
         beerMap.put("beerName", "New Name"); // This key must match the `Beer` model’s field name.
 
-        mockMvc.perform(patch("/api/v1/beer/" + beer.getId())
+        perform(mockMvc, patch("/api/v1/beer/" + beer.getId())
                         .accept(MediaType.APPLICATION_JSON)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(beerMap)))
@@ -83,13 +112,195 @@ public class BeerControllerTest {
         assertThat(beerMap.get("beerName")).isEqualTo(beerArgumentCaptor.getValue().getBeerName());
     }
 
+    @Test
+    void testMergePatchBeerClearsField() throws Exception {
+        BeerDTO beer = beerServiceImpl.listBeers().getFirst();
+        AtomicReference<FieldPatch<BeerDTO>> applied = givenPatchApplied(beer);
+
+        perform(mockMvc, patch("/api/v1/beer/" + beer.getId())
+                        .contentType(DtoPatcher.MERGE_PATCH_JSON_VALUE)
+                        .content("{\"beerName\": \"New Name\", \"quantityOnHand\": null, \"upc\": \"" + beer.getUpc() + "\"}"))
+                .andExpect(status().isNoContent());
+
+        FieldPatch<BeerDTO> fieldPatch = applied.get();
+        // upc was sent unchanged, so it isn't part of the update
+        assertThat(fieldPatch.fields()).containsExactlyInAnyOrder("beerName", "quantityOnHand");
+        assertThat(fieldPatch.values().getBeerName()).isEqualTo("New Name");
+        assertThat(fieldPatch.values().getQuantityOnHand()).isNull();
+    }
+
+    @Test
+    void testJsonPatchBeer() throws Exception {
+        BeerDTO beer = beerServiceImpl.listBeers().getFirst();
+        AtomicReference<FieldPatch<BeerDTO>> applied = givenPatchApplied(beer);
+
+        perform(mockMvc, patch("/api/v1/beer/" + beer.getId())
+                        .contentType(DtoPatcher.JSON_PATCH_JSON_VALUE)
+                        .content("[{\"op\": \"test\", \"path\": \"/price\", \"value\": " + beer.getPrice() + "},"
+                                + " {\"op\": \"replace\", \"path\": \"/price\", \"value\": 14.5}]"))
+                .andExpect(status().isNoContent());
+
+        assertThat(applied.get().fields()).containsExactly("price");
+        assertThat(applied.get().values().getPrice()).isEqualTo(Money.of("14.50"));
+    }
+
+    @Test
+    void testJsonPatchBeerFailedTest() throws Exception {
+        BeerDTO beer = beerServiceImpl.listBeers().getFirst();
+        AtomicReference<FieldPatch<BeerDTO>> applied = givenPatchApplied(beer);
+
+        perform(mockMvc, patch("/api/v1/beer/" + beer.getId())
+                        .contentType(DtoPatcher.JSON_PATCH_JSON_VALUE)
+                        .content("[{\"op\": \"test\", \"path\": \"/beerName\", \"value\": \"Not this one\"},"
+                                + " {\"op\": \"remove\", \"path\": \"/quantityOnHand\"}]"))
+                .andExpect(status().isUnprocessableEntity());
+
+        assertThat(applied).hasNullValue();
+    }
+
+    @Test
+    void testMergePatchBeerRequiredFieldNotCleared() throws Exception {
+        BeerDTO beer = beerServiceImpl.listBeers().getFirst();
+        AtomicReference<FieldPatch<BeerDTO>> applied = givenPatchApplied(beer);
+
+        perform(mockMvc, patch("/api/v1/beer/" + beer.getId())
+                        .contentType(DtoPatcher.MERGE_PATCH_JSON_VALUE)
+                        .content("{\"beerName\": null}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].beerName").exists());
+
+        assertThat(applied).hasNullValue();
+    }
+
+    @Test
+    void testMergePatchBeerNotFound() throws Exception {
+        given(beerService.patchBeerById(any(UUID.class), any(Function.class))).willReturn(Optional.empty());
+
+        perform(mockMvc, patch("/api/v1/beer/" + UUID.randomUUID())
+                        .contentType(DtoPatcher.MERGE_PATCH_JSON_VALUE)
+                        .content("{\"beerName\": \"New Name\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+    // Stands in for the service's read-patch-write: builds the patch from beer and keeps it if it was built
+    private AtomicReference<FieldPatch<BeerDTO>> givenPatchApplied(BeerDTO beer) {
+        AtomicReference<FieldPatch<BeerDTO>> applied = new AtomicReference<>();
+        given(beerService.patchBeerById(eq(beer.getId()), any(Function.class))).willAnswer(invocation -> {
+            Function<BeerDTO, FieldPatch<BeerDTO>> patcher = invocation.getArgument(1);
+            applied.set(patcher.apply(beer));
+            return Optional.of(beer);
+        });
+        return applied;
+    }
+
+    @Test
+    void testListLowStockBeers() throws Exception {
+        given(beerService.listLowStockBeers(5, 2)).willReturn(beerServiceImpl.listBeers().subList(0, 2));
+
+        perform(mockMvc, get("/api/v1/beer/low-stock")
+                        .queryParam("lowStockThreshold", "5")
+                        .queryParam("limit", "2")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(2)));
+    }
+
+    @Test
+    void testListLowStockBeersBadLimit() throws Exception {
+        perform(mockMvc, get("/api/v1/beer/low-stock").queryParam("limit", "0"))
+                .andExpect(status().isBadRequest());
+        perform(mockMvc, get("/api/v1/beer/low-stock").queryParam("limit", "1001"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testListBeerHistory() throws Exception {
+        BeerDTO beer = beerServiceImpl.listBeers().getFirst();
+        given(beerService.listBeerHistory(beer.getId(), 100)).willReturn(beerServiceImpl.listBeerHistory(beer.getId(), 100));
+
+        perform(mockMvc, get("/api/v1/beer/" + beer.getId() + "/history")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)))
+                .andExpect(jsonPath("$[0].beerId", is(beer.getId().toString())))
+                .andExpect(jsonPath("$[0].quantityOnHand", is(beer.getQuantityOnHand())));
+    }
+
+    @Test
+    void testListBeerHistoryNotFound() throws Exception {
+        given(beerService.listBeerHistory(any(), anyInt())).willReturn(List.of());
+
+        perform(mockMvc, get("/api/v1/beer/" + UUID.randomUUID() + "/history"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testListBeerHistoryBadLimit() throws Exception {
+        perform(mockMvc, get("/api/v1/beer/" + UUID.randomUUID() + "/history").queryParam("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetBeerHistoryAsOf() throws Exception {
+        BeerDTO beer = beerServiceImpl.listBeers().getFirst();
+        LocalDateTime asOf = LocalDateTime.of(2026, 3, 1, 12, 0);
+        given(beerService.getBeerHistoryAsOf(beer.getId(), asOf)).willReturn(beerServiceImpl.getBeerHistoryAsOf(beer.getId(), LocalDateTime.now()));
+
+        perform(mockMvc, get("/api/v1/beer/" + beer.getId() + "/history")
+                        .queryParam("asOf", "2026-03-01T12:00:00")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price", is(beer.getPrice().toBigDecimal().doubleValue())));
+    }
+
+    @Test
+    void testGetBeerHistoryAsOfNotFound() throws Exception {
+        given(beerService.getBeerHistoryAsOf(any(), any())).willReturn(Optional.empty());
+
+        perform(mockMvc, get("/api/v1/beer/" + UUID.randomUUID() + "/history").queryParam("asOf", "2020-01-01T00:00:00"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetBeerByUpc() throws Exception {
+        BeerDTO beer = beerServiceImpl.listBeers().getFirst();
+        given(beerService.getBeerByUpc(beer.getUpc())).willReturn(Optional.of(beer));
+
+        perform(mockMvc, get("/api/v1/beer/upc/" + beer.getUpc())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(beer.getId().toString())))
+                .andExpect(jsonPath("$.upc", is(beer.getUpc())));
+    }
+
+    @Test
+    void testGetBeerByUpcNotFound() throws Exception {
+        given(beerService.getBeerByUpc(any())).willReturn(Optional.empty());
+
+        perform(mockMvc, get("/api/v1/beer/upc/000000"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testCreateBeerDuplicateUpc() throws Exception {
+        BeerDTO beer = beerServiceImpl.listBeers().getFirst();
+        beer.setId(null);
+        beer.setVersion(null);
+        given(beerService.saveNewBeer(any(BeerDTO.class))).willThrow(new DuplicateUpcException(beer.getUpc()));
+
+        perform(mockMvc, post("/api/v1/beer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(beer)))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void testDeleteBeer() throws Exception {
         BeerDTO beer = beerServiceImpl.listBeers().getFirst();
 
         given(beerService.deleteBeerById(any())).willReturn(true);
 
-        mockMvc.perform(delete("/api/v1/beer/" + beer.getId())
+        perform(mockMvc, delete("/api/v1/beer/" + beer.getId())
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNoContent());
 
@@ -110,7 +321,7 @@ public class BeerControllerTest {
 
         given(beerService.updateBeerById(any(), any())).willReturn(Optional.of(beer));
 
-        mockMvc.perform(put("/api/v1/beer/" + beer.getId())
+        perform(mockMvc, put("/api/v1/beer/" + beer.getId())
                         .accept(MediaType.APPLICATION_JSON)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(beer)))
@@ -128,7 +339,7 @@ public class BeerControllerTest {
 
         given(beerService.updateBeerById(any(), any())).willReturn(Optional.of(beer));
 
-        MvcResult mvcResult = mockMvc.perform(put("/api/v1/beer/" + beer.getId())
+        MvcResult mvcResult = perform(mockMvc, put("/api/v1/beer/" + beer.getId())
                         .accept(MediaType.APPLICATION_JSON)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(beer)))
@@ -148,7 +359,7 @@ public class BeerControllerTest {
 
         given(beerService.saveNewBeer(any(BeerDTO.class))).willReturn(beerServiceImpl.listBeers().getLast());
 
-        MvcResult mvcResult = mockMvc.perform(post("/api/v1/beer")
+        MvcResult mvcResult = perform(mockMvc, post("/api/v1/beer")
                         .accept(MediaType.APPLICATION_JSON)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(beerDTO)))
@@ -169,7 +380,7 @@ public class BeerControllerTest {
         given(beerService.saveNewBeer(any(BeerDTO.class))).willReturn(beerServiceImpl.listBeers().getLast());
 
         // 3. Sending a POST request with the beer object as JSON
-        mockMvc.perform(post("/api/v1/beer")
+        perform(mockMvc, post("/api/v1/beer")
                         .accept(MediaType.APPLICATION_JSON)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(beer))) // <---- BEER is serialized here
@@ -177,6 +388,32 @@ public class BeerControllerTest {
                 .andExpect(header().exists("Location"));
     }
 
+    @Test
+    void testCreateNewBeerReplayedForSameIdempotencyKey() throws Exception {
+        BeerDTO beer = beerServiceImpl.listBeers().getFirst();
+        beer.setVersion(null);
+        beer.setId(null);
+        BeerDTO saved = beerServiceImpl.listBeers().getLast();
+        given(beerService.saveNewBeer(any(BeerDTO.class))).willReturn(saved);
+
+        for (int i = 0; i < 2; i++) {
+            perform(mockMvc, post("/api/v1/beer")
+                            .header(IdempotentRequests.HEADER, "retry-me")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(beer)))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().string("Location", "/api/v1/beer/" + saved.getId()));
+        }
+        verify(beerService, times(1)).saveNewBeer(any(BeerDTO.class));
+
+        beer.setBeerName("Something else");
+        perform(mockMvc, post("/api/v1/beer")
+                        .header(IdempotentRequests.HEADER, "retry-me")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(beer)))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
     // Alternate way for above test that is more explicit
 //    @Test
 //    void testCreateNewBeer() throws Exception {
@@ -206,7 +443,7 @@ public class BeerControllerTest {
 //        given(beerService.saveNewBeer(any(Beer.class))).willReturn(savedBeer);
 //
 //        // Act & Assert: Perform the request and verify the response
-//        mockMvc.perform(post("/api/v1/beer")
+//        perform(mockMvc, post("/api/v1/beer")
 //                        .accept(MediaType.APPLICATION_JSON)
 //                        .contentType(MediaType.APPLICATION_JSON)
 //                        .content(objectMapper.writeValueAsString(newBeer))) // Correctly sending newBeer
@@ -228,7 +465,7 @@ public class BeerControllerTest {
         given(beerService.listBeers()).willReturn(beerServiceImpl.listBeers());
 
         // Perform the request and capture the result if you want to log it
-        MvcResult result = mockMvc.perform(get("/api/v1/beer")
+        MvcResult result = perform(mockMvc, get("/api/v1/beer")
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
@@ -239,13 +476,153 @@ public class BeerControllerTest {
         System.out.println("Response JSON: " + result.getResponse().getContentAsString());
     }
 
+    @Test
+    void getBeersDefaultsToJson() throws Exception {
+        given(beerService.listBeers()).willReturn(beerServiceImpl.listBeers());
+
+        perform(mockMvc, get("/api/v1/beer"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+        perform(mockMvc, get("/api/v1/beer").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void getBeersAsSmileAndCbor() throws Exception {
+        List<BeerDTO> beers = beerServiceImpl.listBeers();
+        given(beerService.listBeers()).willReturn(beers);
+
+        List<ObjectMapper> binaryMappers = List.of(Jackson2ObjectMapperBuilder.smile().build(),
+                Jackson2ObjectMapperBuilder.cbor().build());
+        for (ObjectMapper binaryMapper : binaryMappers) {
+            MediaType mediaType = binaryMapper.getFactory() instanceof SmileFactory
+                    ? new MediaType("application", "x-jackson-smile") : MediaType.APPLICATION_CBOR;
+
+            MvcResult result = perform(mockMvc, get("/api/v1/beer")
+                            .accept(mediaType))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(mediaType))
+                    .andReturn();
+
+            BeerDTO[] decoded = binaryMapper.readValue(result.getResponse().getContentAsByteArray(), BeerDTO[].class);
+            assertThat(decoded).containsExactlyElementsOf(beers);
+        }
+    }
+
+    @Test
+    void getBeersAsProtobuf() throws Exception {
+        List<BeerDTO> beers = beerServiceImpl.listBeers();
+        given(beerService.listBeers()).willReturn(beers);
+
+        MvcResult result = perform(mockMvc, get("/api/v1/beer")
+                        .accept(CatalogProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CatalogProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andReturn();
+
+        byte[] body = result.getResponse().getContentAsByteArray();
+        assertThat(CatalogProtobuf.readBeers(CodedInputStream.newInstance(body))).containsExactlyElementsOf(beers);
+        assertThat(body.length).isLessThan(objectMapper.writeValueAsBytes(beers).length / 2);
+    }
+
+    @Test
+    void testCreateNewBeerFromProtobuf() throws Exception {
+        BeerDTO beer = beerServiceImpl.listBeers().getFirst();
+        beer.setVersion(null);
+        beer.setId(null);
+        given(beerService.saveNewBeer(any(BeerDTO.class))).willReturn(beerServiceImpl.listBeers().getLast());
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        CodedOutputStream out = CodedOutputStream.newInstance(body);
+        CatalogProtobuf.writeBeer(beer, out);
+        out.flush();
+
+        perform(mockMvc, post("/api/v1/beer")
+                        .contentType(CatalogProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+                        .content(body.toByteArray()))
+                .andExpect(status().isCreated());
+
+        verify(beerService).saveNewBeer(beerArgumentCaptor.capture());
+        assertThat(beerArgumentCaptor.getValue()).isEqualTo(beer);
+    }
+
+    @Test
+    void testProtobufNotOfferedForOtherTypes() throws Exception {
+        given(beerService.getBeerStats(10)).willReturn(BeerStatsDTO.builder().beerCount(0).build());
+
+        perform(mockMvc, get("/api/v1/beer/stats")
+                        .accept(CatalogProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    void testListBeerChangesSince() throws Exception {
+        SyncToken since = new SyncToken(LocalDateTime.now().minusMinutes(5));
+        UUID deletedId = UUID.randomUUID();
+
+        given(beerService.listBeerChangesSince(any())).willReturn(DeltaSyncDTO.<BeerDTO>builder()
+                .changed(List.of(beerServiceImpl.listBeers().getFirst()))
+                .deleted(List.of(deletedId))
+                .nextToken("next")
+                .build());
+
+        perform(mockMvc, get("/api/v1/beer/changes")
+                        .param("since", since.encode())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed.length()", is(1)))
+                .andExpect(jsonPath("$.deleted[0]", is(deletedId.toString())))
+                .andExpect(jsonPath("$.nextToken", is("next")));
+    }
+
+    @Test
+    void testListBeerChangesBadToken() throws Exception {
+        perform(mockMvc, get("/api/v1/beer/changes")
+                        .param("since", "not a token!")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetBeerStats() throws Exception {
+        given(beerService.getBeerStats(200)).willReturn(beerServiceImpl.getBeerStats(200));
+
+        perform(mockMvc, get("/api/v1/beer/stats")
+                        .param("lowStockThreshold", "200")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.beerCount", is(3)))
+                .andExpect(jsonPath("$.lowStockCount", is(2)))
+                .andExpect(jsonPath("$.styles.length()", is(2)));
+    }
+
+    @Test
+    void testGetBeerStatsNegativeThreshold() throws Exception {
+        perform(mockMvc, get("/api/v1/beer/stats")
+                        .param("lowStockThreshold", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getBeerByIdTimesOut() throws Exception {
+        BeerDTO testBeer = beerServiceImpl.listBeers().get(0);
+        given(beerService.getBeerById(testBeer.getId())).willAnswer(invocation -> {
+            Thread.sleep(1000);
+            return Optional.of(testBeer);
+        });
+
+        perform(mockMvc, get("/api/v1/beer/" + testBeer.getId()))
+                .andExpect(status().isServiceUnavailable());
+    }
+
     @Test
     void getBeerByIdNotFound() throws Exception {
         UUID randomId = UUID.randomUUID(); // Use a UUID that does not exist
 
         given(beerService.getBeerById(any(UUID.class))).willReturn(Optional.empty());
 
-        mockMvc.perform(get("/api/v1/beer/" + randomId))
+        perform(mockMvc, get("/api/v1/beer/" + randomId))
                 .andExpect(status().isNotFound());
     }
 
@@ -260,7 +637,7 @@ public class BeerControllerTest {
         given(beerService.getBeerById(testBeer.getId())).willReturn(Optional.of(testBeer));
 
         // Perform a GET request to the API endpoint, simulating a client request
-        mockMvc.perform(get("/api/v1/beer/" + testBeer.getId()) // Simulates requesting a beer by ID
+        perform(mockMvc, get("/api/v1/beer/" + testBeer.getId()) // Simulates requesting a beer by ID
                         .accept(MediaType.APPLICATION_JSON)) // Requests JSON response
                 .andExpect(status().isOk()) // Verifies that the response status is 200 OK
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON)) // Ensures response content type is JSON
@@ -0,0 +1,121 @@
+package com.spring.mvc.controller;
+
+import com.spring.mvc.snapshot.CatalogSnapshot;
+import com.spring.mvc.snapshot.CatalogSnapshots;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CatalogSnapshotController.class)
+@Import(CatalogSnapshots.class)
+class CatalogSnapshotControllerTest {
+
+    static final String CSV = "id,beerName\r\n1,Galaxy Cat\r\n2,Sunshine City\r\n";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    CatalogSnapshots catalogSnapshots;
+
+    @TempDir
+    Path directory;
+
+    CatalogSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path file = Files.writeString(directory.resolve("beers.csv"), CSV);
+        snapshot = new CatalogSnapshot("beers.csv", file, Files.size(file), Instant.now().truncatedTo(ChronoUnit.SECONDS));
+        catalogSnapshots.publish(List.of(snapshot));
+    }
+
+    @Test
+    void testListSnapshots() throws Exception {
+        mockMvc.perform(get("/api/v1/catalog/snapshots"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)))
+                .andExpect(jsonPath("$[0].name", is("beers.csv")))
+                .andExpect(jsonPath("$[0].size", is(CSV.length())));
+    }
+
+    @Test
+    void testDownloadWholeFile() throws Exception {
+        mockMvc.perform(get("/api/v1/catalog/snapshots/beers.csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.ETAG, snapshot.etag()))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CSV.length()))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"beers.csv\""))
+                .andExpect(content().bytes(CSV.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testDownloadRange() throws Exception {
+        mockMvc.perform(get("/api/v1/catalog/snapshots/beers.csv").header(HttpHeaders.RANGE, "bytes=15-24"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 15-24/" + CSV.length()))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 10))
+                .andExpect(content().string("Galaxy Cat"));
+
+        mockMvc.perform(get("/api/v1/catalog/snapshots/beers.csv").header(HttpHeaders.RANGE, "bytes=-15"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("Sunshine City\r\n"));
+    }
+
+    @Test
+    void testUnsatisfiableRange() throws Exception {
+        mockMvc.perform(get("/api/v1/catalog/snapshots/beers.csv").header(HttpHeaders.RANGE, "bytes=1000-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + CSV.length()));
+    }
+
+    @Test
+    void testRangeIgnoredWhenIfRangeIsStale() throws Exception {
+        mockMvc.perform(get("/api/v1/catalog/snapshots/beers.csv")
+                        .header(HttpHeaders.RANGE, "bytes=15-24")
+                        .header(HttpHeaders.IF_RANGE, "\"beers.csv-0-10\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CSV));
+
+        mockMvc.perform(get("/api/v1/catalog/snapshots/beers.csv")
+                        .header(HttpHeaders.RANGE, "bytes=15-24")
+                        .header(HttpHeaders.IF_RANGE, snapshot.etag()))
+                .andExpect(status().isPartialContent());
+    }
+
+    @Test
+    void testTomcatSendfileHandOff() throws Exception {
+        mockMvc.perform(get("/api/v1/catalog/snapshots/beers.csv")
+                        .header(HttpHeaders.RANGE, "bytes=15-24")
+                        .requestAttr("org.apache.tomcat.sendfile.support", true))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string(""))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.filename", snapshot.path().toAbsolutePath().toString()))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.start", 15L))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.end", 25L));
+    }
+
+    @Test
+    void testUnknownSnapshot() throws Exception {
+        mockMvc.perform(get("/api/v1/catalog/snapshots/orders.csv"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,79 @@
+package com.spring.mvc.controller;
+
+import com.spring.mvc.events.BeerChangeFeed;
+import com.spring.mvc.events.ChangeType;
+import com.spring.mvc.events.CustomerChangeFeed;
+import com.spring.mvc.model.BeerDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@WebMvcTest(ChangeFeedController.class)
+@Import({BeerChangeFeed.class, CustomerChangeFeed.class})
+class ChangeFeedControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    BeerChangeFeed beerChangeFeed;
+
+    @Test
+    void testBeerChangeIsPushed() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/beer/changes")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        UUID beerId = UUID.randomUUID();
+        beerChangeFeed.publish(ChangeType.CREATED, beerId, BeerDTO.builder().id(beerId).beerName("Feed Beer").build());
+
+        await().untilAsserted(() -> assertThat(result.getResponse().getContentAsString())
+                .contains("event:created")
+                .contains("Feed Beer"));
+    }
+
+    @Test
+    void testResumeFromLastEventId() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/v1/beer/changes")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andReturn();
+
+        beerChangeFeed.publish(ChangeType.UPDATED, UUID.randomUUID(), BeerDTO.builder().beerName("First").build());
+
+        await().untilAsserted(() -> assertThat(first.getResponse().getContentAsString()).contains("First"));
+        String content = first.getResponse().getContentAsString();
+        String lastEventId = content.substring(content.lastIndexOf("id:") + 3, content.indexOf('\n', content.lastIndexOf("id:")));
+
+        beerChangeFeed.publish(ChangeType.UPDATED, UUID.randomUUID(), BeerDTO.builder().beerName("Second").build());
+
+        MvcResult resumed = mockMvc.perform(get("/api/v1/beer/changes")
+                        .header("Last-Event-ID", lastEventId)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andReturn();
+
+        await().untilAsserted(() -> assertThat(resumed.getResponse().getContentAsString()).contains("Second"));
+        assertThat(resumed.getResponse().getContentAsString()).doesNotContain("First");
+    }
+
+    @Test
+    void testUnknownLastEventIdAsksForResync() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/beer/changes")
+                        .header("Last-Event-ID", "stale-42")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andReturn();
+
+        await().untilAsserted(() -> assertThat(result.getResponse().getContentAsString()).contains("event:reset"));
+    }
+}
@@ -10,15 +10,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.annotation.Rollback;
 
 import java.util.List;
 import java.util.UUID;
 
+import static com.spring.mvc.controller.AsyncResults.await;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
-@SpringBootTest
+// Runs the controllers' work on the test thread so it takes part in the test's transaction
+@SpringBootTest(properties = "mvc.async.enabled=false")
 @Rollback
 @Transactional
 class CustomerControllerIT {
@@ -33,7 +36,7 @@ class CustomerControllerIT {
     void deleteByIdFound() {
         Customer customer = customerRepository.findAll().getFirst();
 
-        ResponseEntity responseEntity = customerController.deleteById((customer.getId()));
+        ResponseEntity responseEntity = await(customerController.deleteById((customer.getId())));
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatusCode.valueOf(204));
 
         assertThat(customerRepository.findById(customer.getId()).isEmpty());
@@ -42,14 +45,14 @@ class CustomerControllerIT {
     @Test
     void testDeleteNotFound() {
         assertThrows(NotFoundException.class, () -> {
-            customerController.deleteById(UUID.randomUUID());
+            await(customerController.deleteById(UUID.randomUUID()));
         });
     }
 
     @Test
     void testUpdateNotFound() {
         assertThrows(NotFoundException.class, () -> {
-            customerController.updateById(UUID.randomUUID(), CustomerDTO.builder().build());
+            await(customerController.updateById(UUID.randomUUID(), CustomerDTO.builder().build(), null, new MockHttpServletRequest()));
         });
     }
 
@@ -62,7 +65,7 @@ class CustomerControllerIT {
         final String customerName = "UPDATED";
         customerDTO.setName(customerName);
 
-        ResponseEntity responseEntity = customerController.updateById(customer.getId(), customerDTO);
+        ResponseEntity responseEntity = await(customerController.updateById(customer.getId(), customerDTO, null, new MockHttpServletRequest()));
 
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatusCode.valueOf(204));
 
@@ -76,7 +79,7 @@ class CustomerControllerIT {
                 .name("New Customer")
                 .build();
 
-        ResponseEntity responseEntity = customerController.handlePost(customerDTO);
+        ResponseEntity responseEntity = await(customerController.handlePost(customerDTO, null, new MockHttpServletRequest()));
 
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatusCode.valueOf(201));
         assertThat(responseEntity.getHeaders().getLocation()).isNotNull();
@@ -92,7 +95,7 @@ class CustomerControllerIT {
     @Test
     void testCustomerIdNotFound() {
         assertThrows(NotFoundException.class, () -> {
-            customerController.getCustomerById(UUID.randomUUID());
+            await(customerController.getCustomerById(UUID.randomUUID()));
         });
     }
 
@@ -100,14 +103,14 @@ class CustomerControllerIT {
     void testGetCustomerById() {
         Customer customer = customerRepository.findAll().getFirst();
 
-        CustomerDTO dto = customerController.getCustomerById(customer.getId());
+        CustomerDTO dto = await(customerController.getCustomerById(customer.getId()));
 
         assertThat(dto).isNotNull();
     }
 
     @Test
     void testListCustomer() {
-        List<CustomerDTO> dtos = customerController.listCustomers();
+        List<CustomerDTO> dtos = await(customerController.listCustomers());
         assertThat(dtos.size()).isEqualTo(3);
     }
 
@@ -115,7 +118,7 @@ class CustomerControllerIT {
     @Test
     void testEmptyList() {
         customerRepository.deleteAll();
-        List<CustomerDTO> dtos = customerController.listCustomers();
+        List<CustomerDTO> dtos = await(customerController.listCustomers());
         assertThat(dtos.size()).isEqualTo(0);
 
     }
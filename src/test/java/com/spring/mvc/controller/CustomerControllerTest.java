@@ -1,7 +1,11 @@
 package com.spring.mvc.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.mvc.async.ControllerExecutorsConfig;
+import com.spring.mvc.idempotency.IdempotencyConfig;
 import com.spring.mvc.model.CustomerDTO;
+import com.spring.mvc.model.DeltaSyncDTO;
+import com.spring.mvc.patch.DtoPatcher;
 import com.spring.mvc.services.CustomerService;
 import com.spring.mvc.services.CustomerServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,16 +14,19 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
+import static com.spring.mvc.controller.AsyncResults.perform;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.ArgumentMatchers.any;
@@ -29,6 +36,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(CustomerController.class)
+@Import({ControllerExecutorsConfig.class, IdempotencyConfig.class, DtoPatcher.class})
 public class CustomerControllerTest {
 
     @Autowired
@@ -60,7 +68,7 @@ public class CustomerControllerTest {
         Map<String, Object> customerMap = new HashMap<>();
         customerMap.put("name", "Big John");
 
-        mockMvc.perform(patch("/api/v1/customer/" + customer.getId())
+        perform(mockMvc, patch("/api/v1/customer/" + customer.getId())
                         .accept(MediaType.APPLICATION_JSON)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(customerMap)))
@@ -78,7 +86,7 @@ public class CustomerControllerTest {
 
         given(customerService.deleteCustomerById(any())).willReturn(true);
 
-        mockMvc.perform(delete("/api/v1/customer/" + customer.getId())
+        perform(mockMvc, delete("/api/v1/customer/" + customer.getId())
                 .accept(MediaType.APPLICATION_JSON)
                 .contentType(MediaType.APPLICATION_JSON));
 
@@ -94,7 +102,7 @@ public class CustomerControllerTest {
 
         given(customerService.updateCustomerById(any(), any())).willReturn(Optional.of(customer));
 
-        mockMvc.perform(put("/api/v1/customer/" + customer.getId())
+        perform(mockMvc, put("/api/v1/customer/" + customer.getId())
                         .accept(MediaType.APPLICATION_JSON)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(customer)))
@@ -112,7 +120,7 @@ public class CustomerControllerTest {
 
         given(customerService.saveNewCustomer(any(CustomerDTO.class))).willReturn(customerServiceImpl.listCustomers().getLast());
 
-        mockMvc.perform(post("/api/v1/customer")
+        perform(mockMvc, post("/api/v1/customer")
                         .accept(MediaType.APPLICATION_JSON)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(customer)))
@@ -125,7 +133,7 @@ public class CustomerControllerTest {
     void getCustomers() throws Exception {
         given(customerService.listCustomers()).willReturn(customerServiceImpl.listCustomers());
 
-        MvcResult result = mockMvc.perform(get("/api/v1/customer")
+        MvcResult result = perform(mockMvc, get("/api/v1/customer")
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
@@ -134,13 +142,30 @@ public class CustomerControllerTest {
 //        System.out.println("Response JSON: " + result.getResponse().getContentAsString());
     }
 
+    @Test
+    void testFullCustomerSync() throws Exception {
+        given(customerService.listCustomerChangesSince(null)).willReturn(DeltaSyncDTO.<CustomerDTO>builder()
+                .changed(customerServiceImpl.listCustomers())
+                .deleted(List.of())
+                .nextToken("next")
+                .fullResync(true)
+                .build());
+
+        perform(mockMvc, get("/api/v1/customer/changes")
+                        .param("since", "")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed.length()", is(3)))
+                .andExpect(jsonPath("$.fullResync", is(true)));
+    }
+
     @Test
     void getCustomerByIdNotFound() throws Exception {
         UUID randomId = UUID.randomUUID(); // Generate a missing UUID
 
         given(customerService.getCustomerById(any(UUID.class))).willReturn(Optional.empty());
 
-        mockMvc.perform(get("/api/v1/customer/" + randomId))
+        perform(mockMvc, get("/api/v1/customer/" + randomId))
                 .andExpect(status().isNotFound());
     }
 
@@ -152,7 +177,7 @@ public class CustomerControllerTest {
 
         given(customerService.getCustomerById(testCustomer.getId())).willReturn(Optional.of(testCustomer));
 
-        mockMvc.perform(get("/api/v1/customer/" + testCustomer.getId())
+        perform(mockMvc, get("/api/v1/customer/" + testCustomer.getId())
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
@@ -0,0 +1,69 @@
+package com.spring.mvc.controller;
+
+import com.spring.mvc.events.ChangeType;
+import com.spring.mvc.model.OutboxMessageDTO;
+import com.spring.mvc.model.OutboxPageDTO;
+import com.spring.mvc.outbox.OutboxLog;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(OutboxController.class)
+@TestPropertySource(properties = "mvc.outbox.enabled=true")
+class OutboxControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockitoBean
+    OutboxLog outboxLog;
+
+    @Test
+    void testReadMessagesFromStart() throws Exception {
+        UUID beerId = UUID.randomUUID();
+        given(outboxLog.read(null, 100)).willReturn(OutboxPageDTO.builder()
+                .messages(List.of(OutboxMessageDTO.builder()
+                        .offset(0L)
+                        .eventId(51)
+                        .aggregateType("BEER")
+                        .aggregateId(beerId)
+                        .type(ChangeType.CREATED)
+                        .build()))
+                .nextOffset(120)
+                .build());
+
+        mockMvc.perform(get("/api/v1/outbox/messages"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.messages.length()", is(1)))
+                .andExpect(jsonPath("$.messages[0].aggregateId", is(beerId.toString())))
+                .andExpect(jsonPath("$.messages[0].eventId", is(51)))
+                .andExpect(jsonPath("$.nextOffset", is(120)));
+    }
+
+    @Test
+    void testReadMessagesBadOffset() throws Exception {
+        given(outboxLog.read(anyLong(), anyInt())).willThrow(new IllegalArgumentException("No record at position 7"));
+
+        mockMvc.perform(get("/api/v1/outbox/messages").queryParam("offset", "7"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testReadMessagesBadLimit() throws Exception {
+        mockMvc.perform(get("/api/v1/outbox/messages").queryParam("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,110 @@
+package com.spring.mvc.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InstrumentedDataSourceTest {
+
+    private static final String SELECT_NAME = "select name from node where id = ?";
+
+    private HikariDataSource pool;
+    private MeterRegistry registry;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // One connection, so every checkout gets the same physical connection
+        pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:instrumented-" + UUID.randomUUID());
+        pool.setMaximumPoolSize(1);
+        useMetrics(Duration.ZERO, 200);
+
+        jdbcTemplate.execute("create table node (id int, name varchar(16))");
+        jdbcTemplate.update("insert into node values (1, 'one'), (2, 'two')");
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void testTimesStatementsByNormalizedSql() {
+        jdbcTemplate.queryForObject(SELECT_NAME, String.class, 1);
+        jdbcTemplate.queryForObject(SELECT_NAME, String.class, 2);
+        jdbcTemplate.queryForObject("select name from node where id = 2", String.class);
+
+        assertThat(registry.get("mvc.jdbc.query").tag("sql", SELECT_NAME).timer().count()).isEqualTo(3);
+        // Rows are read after execution, until the statement is closed
+        assertThat(registry.get("mvc.jdbc.query.fetch").tag("sql", SELECT_NAME).timer().count()).isEqualTo(3);
+        assertThat(registry.get("mvc.jdbc.query").tag("sql", "insert into node values (?), (?)").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void testNormalizesLiteralsAndInLists() {
+        assertThat(SqlNormalizer.normalize("select b1_0.id  from beer b1_0\n where b1_0.upc = 'it''s' and b1_0.price > 12.50"))
+                .isEqualTo("select b1_0.id from beer b1_0 where b1_0.upc = ? and b1_0.price > ?");
+        assertThat(SqlNormalizer.normalize("delete from beer_history where beer_id in (?,?,?)"))
+                .isEqualTo(SqlNormalizer.normalize("delete from beer_history where beer_id in (?, ?)"))
+                .isEqualTo("delete from beer_history where beer_id in (?)");
+    }
+
+    @Test
+    void testCountsStatementCacheHitsAcrossCheckouts() {
+        jdbcTemplate.queryForObject(SELECT_NAME, String.class, 1);
+        jdbcTemplate.queryForObject(SELECT_NAME, String.class, 2);
+
+        // The first select missed; the setup's statements weren't prepared
+        assertThat(registry.get("mvc.jdbc.statement-cache").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(registry.get("mvc.jdbc.statement-cache").tag("result", "miss").counter().count()).isEqualTo(1);
+        assertThat(registry.get("mvc.jdbc.statement-cache.hit-ratio").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void testCountsSlowQueries() {
+        useMetrics(Duration.ofNanos(1), 200);
+
+        jdbcTemplate.queryForObject(SELECT_NAME, String.class, 1);
+
+        assertThat(registry.get("mvc.jdbc.query.slow").tag("sql", SELECT_NAME).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testTagsStatementsPastMaxQueriesAsOther() {
+        useMetrics(Duration.ZERO, 1);
+
+        jdbcTemplate.queryForObject(SELECT_NAME, String.class, 1);
+        jdbcTemplate.queryForList("select id from node", Integer.class);
+
+        assertThat(registry.get("mvc.jdbc.query").tag("sql", SELECT_NAME).timer().count()).isEqualTo(1);
+        assertThat(registry.get("mvc.jdbc.query").tag("sql", JdbcMetrics.OTHER).timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testStatementsKnowTheirInstrumentedConnection() throws Exception {
+        InstrumentedDataSource dataSource = (InstrumentedDataSource) jdbcTemplate.getDataSource();
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection.createStatement().getConnection()).isSameAs(connection);
+            assertThat(connection.unwrap(Connection.class)).isSameAs(connection);
+            assertThat(dataSource.unwrap(HikariDataSource.class)).isSameAs(pool);
+        }
+    }
+
+    private void useMetrics(Duration slowQueryThreshold, int maxQueries) {
+        registry = new SimpleMeterRegistry();
+        jdbcTemplate = new JdbcTemplate(new InstrumentedDataSource(pool,
+                new JdbcMetrics(registry, slowQueryThreshold, Duration.ZERO, maxQueries, 8)));
+    }
+}
@@ -0,0 +1,69 @@
+package com.spring.mvc.datasource;
+
+import com.spring.mvc.repositories.BeerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Both pools point at the same database, which pool hands out the connection shows where a request was routed
+@SpringBootTest(properties = {
+        "mvc.async.enabled=false",
+        "mvc.datasource.replica.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:routed;DB_CLOSE_DELAY=-1",
+        "mvc.datasource.replica.jdbc-url=jdbc:h2:mem:routed;DB_CLOSE_DELAY=-1",
+        "mvc.datasource.replica.username=sa"
+})
+class ReadReplicaRoutingTest {
+
+    @Autowired
+    WebApplicationContext wac;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(wac).build();
+    }
+
+    @Test
+    void testBeerReadsGoToTheReplica() throws Exception {
+        UUID beerId = beerRepository.findAll().getFirst().getId();
+
+        long primary = acquired("primary");
+        long replica = acquired("replica");
+        mockMvc.perform(get("/api/v1/beer")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/beer/" + beerId)).andExpect(status().isOk());
+
+        assertThat(acquired("replica")).isEqualTo(replica + 2);
+        assertThat(acquired("primary")).isEqualTo(primary);
+    }
+
+    @Test
+    void testCustomerReadsGoToTheReplica() throws Exception {
+        long replica = acquired("replica");
+        mockMvc.perform(get("/api/v1/customer")).andExpect(status().isOk());
+
+        assertThat(acquired("replica")).isEqualTo(replica + 1);
+    }
+
+    private long acquired(String pool) {
+        return meterRegistry.get("hikaricp.connections.acquire").tag("pool", pool).timer().count();
+    }
+}
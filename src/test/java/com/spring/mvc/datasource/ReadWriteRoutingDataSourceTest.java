@@ -0,0 +1,123 @@
+package com.spring.mvc.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writes;
+    private TransactionTemplate reads;
+
+    @BeforeEach
+    void setUp() {
+        // Two separate in-memory databases, each knowing its own name
+        primary = h2("primary");
+        replica = h2("replica");
+        useRouting(replica);
+    }
+
+    @AfterEach
+    void tearDown() {
+        PrimaryPin.set(false);
+        new JdbcTemplate(primary).execute("SHUTDOWN");
+        new JdbcTemplate(replica).execute("SHUTDOWN");
+    }
+
+    @Test
+    void testReadOnlyTransactionsGoToTheReplica() {
+        assertThat(read()).isEqualTo("replica");
+        assertThat(write()).isEqualTo("primary");
+    }
+
+    @Test
+    void testPinnedReadsGoToThePrimary() {
+        PrimaryPin.set(true);
+
+        assertThat(read()).isEqualTo("primary");
+
+        PrimaryPin.set(false);
+        assertThat(read()).isEqualTo("replica");
+    }
+
+    @Test
+    void testReadsFallBackToThePrimaryWhenTheReplicaIsDown() {
+        useRouting(new AbstractDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                throw new SQLException("Connection refused");
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return getConnection();
+            }
+        });
+
+        assertThat(read()).isEqualTo("primary");
+    }
+
+    @Test
+    void testPinFollowsTasksToOtherThreads() throws Exception {
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            PrimaryPin.set(true);
+            Runnable pinned = PrimaryPin.PROPAGATING.decorate(() -> assertThat(PrimaryPin.isPinned()).isTrue());
+            PrimaryPin.set(false);
+            Runnable unpinned = PrimaryPin.PROPAGATING.decorate(() -> assertThat(PrimaryPin.isPinned()).isFalse());
+
+            CompletableFuture.runAsync(pinned, executor).get();
+            CompletableFuture.runAsync(unpinned, executor).get();
+            // The pool thread is left as it was
+            CompletableFuture.runAsync(() -> assertThat(PrimaryPin.isPinned()).isFalse(), executor).get();
+        }
+    }
+
+    private void useRouting(DataSource replicaTarget) {
+        DataSource routing = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replicaTarget));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        jdbcTemplate = new JdbcTemplate(routing);
+        writes = new TransactionTemplate(transactionManager);
+        reads = new TransactionTemplate(transactionManager);
+        reads.setReadOnly(true);
+    }
+
+    private String read() {
+        return reads.execute(status -> database());
+    }
+
+    private String write() {
+        return writes.execute(status -> database());
+    }
+
+    private String database() {
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    private static DataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table node (name varchar(16))");
+        jdbcTemplate.update("insert into node values (?)", name);
+        return dataSource;
+    }
+}
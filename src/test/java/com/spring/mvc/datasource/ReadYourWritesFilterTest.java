@@ -0,0 +1,53 @@
+package com.spring.mvc.datasource;
+
+import com.spring.mvc.admission.ClientIdentity;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesFilterTest {
+
+    // MockHttpServletRequest comes from 127.0.0.1, trusted here to name the client
+    private final ClientIdentity clientIdentity = new ClientIdentity("X-Client-Id", "127\\.0\\.0\\.1");
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(clientIdentity, Duration.ofMinutes(1), 100);
+
+    @Test
+    void testReadsAfterOwnWriteArePinned() throws Exception {
+        assertThat(pinnedDuring("GET", "alice")).isFalse();
+        assertThat(pinnedDuring("PUT", "alice")).isTrue();
+
+        assertThat(pinnedDuring("GET", "alice")).isTrue();
+        assertThat(pinnedDuring("GET", "bob")).isFalse();
+        assertThat(PrimaryPin.isPinned()).isFalse();
+    }
+
+    @Test
+    void testPinExpiresAfterMaxLag() throws Exception {
+        ReadYourWritesFilter shortLag = new ReadYourWritesFilter(clientIdentity, Duration.ofMillis(20), 100);
+        shortLag.doFilter(request("POST", "alice"), new MockHttpServletResponse(), (req, res) -> { });
+        assertThat(shortLag.wroteRecently("client:alice")).isTrue();
+
+        Thread.sleep(50);
+
+        assertThat(shortLag.wroteRecently("client:alice")).isFalse();
+    }
+
+    private boolean pinnedDuring(String method, String client) throws Exception {
+        AtomicBoolean pinned = new AtomicBoolean();
+        filter.doFilter(request(method, client), new MockHttpServletResponse(),
+                (req, res) -> pinned.set(PrimaryPin.isPinned()));
+        return pinned.get();
+    }
+
+    private static MockHttpServletRequest request(String method, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/v1/beer");
+        request.addHeader("X-Client-Id", client);
+        return request;
+    }
+}
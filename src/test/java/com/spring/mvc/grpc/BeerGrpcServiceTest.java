@@ -0,0 +1,165 @@
+package com.spring.mvc.grpc;
+
+import com.google.protobuf.Empty;
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerStyle;
+import com.spring.mvc.model.Money;
+import com.spring.mvc.services.BeerService;
+import com.spring.mvc.services.BeerServiceImpl;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class BeerGrpcServiceTest {
+
+    // Every test beer gets its own UPC, they are unique
+    private static final AtomicInteger UPCS = new AtomicInteger(100_000);
+
+    BeerServiceImpl beerService;
+    InProcessGrpc grpc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        beerService = new BeerServiceImpl();
+        grpc = new InProcessGrpc(new BeerGrpcService(beerService,
+                Validation.buildDefaultValidatorFactory().getValidator()));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        grpc.close();
+    }
+
+    @Test
+    void testGetBeer() {
+        BeerDTO beer = beerService.listBeers().getFirst();
+
+        assertThat(grpc.call(CatalogGrpc.GET_BEER, beer.getId())).isEqualTo(beer);
+        assertStatus(() -> grpc.call(CatalogGrpc.GET_BEER, UUID.randomUUID()), Status.Code.NOT_FOUND);
+    }
+
+    @Test
+    void testCreateBeer() {
+        BeerDTO saved = grpc.call(CatalogGrpc.CREATE_BEER, newBeer("New Beer"));
+
+        assertThat(saved.getId()).isNotNull();
+        assertThat(beerService.getBeerById(saved.getId())).contains(saved);
+    }
+
+    @Test
+    void testCreateInvalidBeer() {
+        assertThatThrownBy(() -> grpc.call(CatalogGrpc.CREATE_BEER, newBeer("")))
+                .isInstanceOfSatisfying(StatusRuntimeException.class, e -> {
+                    assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT);
+                    assertThat(e.getStatus().getDescription()).contains("beerName");
+                });
+    }
+
+    @Test
+    void testUpdateAndPatchBeer() {
+        BeerDTO beer = beerService.listBeers().getFirst();
+
+        BeerDTO updated = grpc.call(CatalogGrpc.UPDATE_BEER, newBeer("Updated").toBuilder().id(beer.getId()).build());
+        assertThat(updated.getBeerName()).isEqualTo("Updated");
+
+        BeerDTO patched = grpc.call(CatalogGrpc.PATCH_BEER, BeerDTO.builder().id(beer.getId()).quantityOnHand(7).build());
+        assertThat(patched.getBeerName()).isEqualTo("Updated");
+        assertThat(patched.getQuantityOnHand()).isEqualTo(7);
+
+        assertStatus(() -> grpc.call(CatalogGrpc.PATCH_BEER, BeerDTO.builder().id(UUID.randomUUID()).build()),
+                Status.Code.NOT_FOUND);
+        assertStatus(() -> grpc.call(CatalogGrpc.UPDATE_BEER, newBeer("No id")), Status.Code.INVALID_ARGUMENT);
+    }
+
+    @Test
+    void testDeleteBeer() {
+        UUID id = beerService.listBeers().getFirst().getId();
+
+        assertThat(grpc.call(CatalogGrpc.DELETE_BEER, id)).isEqualTo(Empty.getDefaultInstance());
+        assertThat(beerService.getBeerById(id)).isEmpty();
+    }
+
+    @Test
+    void testDeleteUnknownBeer() throws Exception {
+        // BeerServiceImpl reports every delete as done, BeerServiceJPA doesn't
+        BeerService jpaLike = mock(BeerService.class);
+        given(jpaLike.deleteBeerById(any())).willReturn(false);
+
+        try (InProcessGrpc jpaGrpc = new InProcessGrpc(new BeerGrpcService(jpaLike,
+                Validation.buildDefaultValidatorFactory().getValidator()))) {
+            assertStatus(() -> jpaGrpc.call(CatalogGrpc.DELETE_BEER, UUID.randomUUID()), Status.Code.NOT_FOUND);
+        }
+    }
+
+    @Test
+    void testListBeersStreamsEveryBeer() {
+        for (int i = 0; i < 10_000; i++) {
+            beerService.saveNewBeer(newBeer("Beer " + i));
+        }
+
+        List<BeerDTO> received = new ArrayList<>();
+        Iterator<BeerDTO> stream = grpc.serverStream(CatalogGrpc.LIST_BEERS, Empty.getDefaultInstance());
+        stream.forEachRemaining(received::add);
+
+        assertThat(received).containsExactlyInAnyOrderElementsOf(beerService.listBeers());
+    }
+
+    @Test
+    void testCreateBeers() throws Exception {
+        List<BeerDTO> saved = grpc.clientStream(CatalogGrpc.CREATE_BEERS, List.of(newBeer("One"), newBeer("Two")));
+
+        assertThat(saved).extracting(BeerDTO::getBeerName).containsExactly("One", "Two");
+        assertThat(beerService.listBeers()).containsAll(saved);
+    }
+
+    @Test
+    void testCreateBeersSavesNothingWhenOneIsInvalid() {
+        int before = beerService.listBeers().size();
+
+        assertThatThrownBy(() -> grpc.clientStream(CatalogGrpc.CREATE_BEERS, List.of(newBeer("One"), newBeer(null))))
+                .isInstanceOf(ExecutionException.class)
+                .cause()
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT));
+        assertThat(beerService.listBeers()).hasSize(before);
+    }
+
+    @Test
+    void testCreateBeerDuplicateUpc() {
+        BeerDTO beer = grpc.call(CatalogGrpc.CREATE_BEER, newBeer("One"));
+
+        assertStatus(() -> grpc.call(CatalogGrpc.CREATE_BEER, newBeer("Two").toBuilder().upc(beer.getUpc()).build()),
+                Status.Code.ALREADY_EXISTS);
+    }
+
+    static BeerDTO newBeer(String name) {
+        return BeerDTO.builder()
+                .beerName(name)
+                .beerStyle(BeerStyle.IPA)
+                .upc(Integer.toString(UPCS.incrementAndGet()))
+                .quantityOnHand(10)
+                .price(Money.of("9.99"))
+                .build();
+    }
+
+    static void assertStatus(Runnable call, Status.Code code) {
+        assertThatThrownBy(call::run).isInstanceOfSatisfying(StatusRuntimeException.class,
+                e -> assertThat(e.getStatus().getCode()).isEqualTo(code));
+    }
+}
@@ -0,0 +1,66 @@
+package com.spring.mvc.grpc;
+
+import com.google.protobuf.Empty;
+import com.spring.mvc.model.CustomerDTO;
+import com.spring.mvc.services.CustomerServiceImpl;
+import io.grpc.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.spring.mvc.grpc.BeerGrpcServiceTest.assertStatus;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerGrpcServiceTest {
+
+    CustomerServiceImpl customerService;
+    InProcessGrpc grpc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        customerService = new CustomerServiceImpl();
+        grpc = new InProcessGrpc(new CustomerGrpcService(customerService));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        grpc.close();
+    }
+
+    @Test
+    void testGetAndPatchCustomer() {
+        CustomerDTO customer = customerService.listCustomers().getFirst();
+
+        assertThat(grpc.call(CatalogGrpc.GET_CUSTOMER, customer.getId())).isEqualTo(customer);
+
+        CustomerDTO patched = grpc.call(CatalogGrpc.PATCH_CUSTOMER,
+                CustomerDTO.builder().id(customer.getId()).name("Big John").build());
+        assertThat(patched.getName()).isEqualTo("Big John");
+
+        assertStatus(() -> grpc.call(CatalogGrpc.GET_CUSTOMER, UUID.randomUUID()), Status.Code.NOT_FOUND);
+    }
+
+    @Test
+    void testListCustomers() {
+        List<CustomerDTO> received = new ArrayList<>();
+        grpc.serverStream(CatalogGrpc.LIST_CUSTOMERS, Empty.getDefaultInstance()).forEachRemaining(received::add);
+
+        assertThat(received).containsExactlyInAnyOrderElementsOf(customerService.listCustomers());
+    }
+
+    @Test
+    void testCreateAndDeleteCustomers() throws Exception {
+        List<CustomerDTO> saved = grpc.clientStream(CatalogGrpc.CREATE_CUSTOMERS,
+                List.of(CustomerDTO.builder().name("One").build(), CustomerDTO.builder().name("Two").build()));
+        assertThat(saved).extracting(CustomerDTO::getName).containsExactly("One", "Two");
+
+        grpc.call(CatalogGrpc.DELETE_CUSTOMER, saved.getFirst().getId());
+
+        assertThat(customerService.getCustomerById(saved.getFirst().getId())).isEmpty();
+        assertStatus(() -> grpc.call(CatalogGrpc.GET_CUSTOMER, saved.getFirst().getId()), Status.Code.NOT_FOUND);
+    }
+}
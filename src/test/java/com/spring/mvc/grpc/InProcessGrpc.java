@@ -0,0 +1,73 @@
+package com.spring.mvc.grpc;
+
+import io.grpc.BindableService;
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.StreamObserver;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// The gRPC services on an in-process server and channel: real marshalling and call handling, no sockets
+class InProcessGrpc implements AutoCloseable {
+
+    private final Server server;
+    private final ManagedChannel channel;
+
+    InProcessGrpc(BindableService... services) throws IOException {
+        String name = InProcessServerBuilder.generateName();
+        InProcessServerBuilder builder = InProcessServerBuilder.forName(name);
+        for (BindableService service : services) {
+            builder.addService(service);
+        }
+        server = builder.build().start();
+        channel = InProcessChannelBuilder.forName(name).build();
+    }
+
+    <Q, R> R call(MethodDescriptor<Q, R> method, Q request) {
+        return ClientCalls.blockingUnaryCall(channel, method, CallOptions.DEFAULT, request);
+    }
+
+    <Q, R> Iterator<R> serverStream(MethodDescriptor<Q, R> method, Q request) {
+        return ClientCalls.blockingServerStreamingCall(channel, method, CallOptions.DEFAULT, request);
+    }
+
+    // Sends the requests, half-closes and waits for the response; failures come back as the ExecutionException's cause
+    <Q, R> R clientStream(MethodDescriptor<Q, R> method, List<Q> requests) throws InterruptedException, ExecutionException {
+        CompletableFuture<R> response = new CompletableFuture<>();
+        StreamObserver<Q> requestObserver = ClientCalls.asyncClientStreamingCall(channel.newCall(method, CallOptions.DEFAULT),
+                new StreamObserver<>() {
+                    @Override
+                    public void onNext(R value) {
+                        response.complete(value);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        response.completeExceptionally(t);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                    }
+                });
+        requests.forEach(requestObserver::onNext);
+        requestObserver.onCompleted();
+        return response.get();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        channel.shutdownNow();
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
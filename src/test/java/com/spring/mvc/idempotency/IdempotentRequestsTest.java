@@ -0,0 +1,210 @@
+package com.spring.mvc.idempotency;
+
+import com.spring.mvc.admission.ClientIdentity;
+import com.spring.mvc.async.BoundedOperationExecutor;
+import com.spring.mvc.async.OperationExecutor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotentRequestsTest {
+
+    OperationExecutor executor = new BoundedOperationExecutor("test", 4, 16, Duration.ofSeconds(5));
+    IdempotentRequests requests = requests(100, null);
+    AtomicInteger writes = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void testReplayDoesNotRunWriteAgain() throws Exception {
+        ResponseEntity first = execute("key", "Galaxy Cat", this::create);
+        ResponseEntity second = execute("key", "Galaxy Cat", this::create);
+
+        assertThat(writes).hasValue(1);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(second.getHeaders().getFirst(HttpHeaders.LOCATION)).isEqualTo(first.getHeaders().getFirst(HttpHeaders.LOCATION));
+        assertThat(second.getHeaders().getFirst(StoredResponse.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void testNoKeyAlwaysRuns() throws Exception {
+        execute(null, "Galaxy Cat", this::create);
+        execute(null, "Galaxy Cat", this::create);
+
+        assertThat(writes).hasValue(2);
+        assertThat(requests.size()).isZero();
+    }
+
+    @Test
+    void testKeyReusedForDifferentRequest() throws Exception {
+        execute("key", "Galaxy Cat", this::create);
+
+        assertThatThrownBy(() -> execute("key", "Crank", this::create))
+                .hasCauseInstanceOf(IdempotencyKeyReuseException.class);
+        assertThat(writes).hasValue(1);
+    }
+
+    @Test
+    void testConcurrentDuplicatesWaitForFirst() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<ResponseEntity> slowCreate = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return create();
+        };
+
+        CompletableFuture<ResponseEntity> first = requests.execute("client", "key", "POST /api/v1/beer", "Galaxy Cat", executor, slowCreate);
+        CompletableFuture<ResponseEntity> duplicate = requests.execute("client", "key", "POST /api/v1/beer", "Galaxy Cat", executor, slowCreate);
+        assertThat(duplicate).isNotDone();
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(duplicate.get(5, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(writes).hasValue(1);
+    }
+
+    @Test
+    void testFailureNotRecorded() throws Exception {
+        assertThatThrownBy(() -> execute("key", "Galaxy Cat", () -> {
+            throw new IllegalStateException("database down");
+        })).hasCauseInstanceOf(IllegalStateException.class);
+
+        execute("key", "Galaxy Cat", this::create);
+        assertThat(writes).hasValue(1);
+    }
+
+    @Test
+    void testReplayFromStoreAfterRestart() throws Exception {
+        MapStore store = new MapStore();
+        requests = requests(100, store);
+        execute("key", "Galaxy Cat", this::create);
+
+        requests = requests(100, store);
+        ResponseEntity replayed = execute("key", "Galaxy Cat", this::create);
+
+        assertThat(writes).hasValue(1);
+        assertThat(replayed.getHeaders().getFirst(StoredResponse.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void testBoundedAndExpiring() throws Exception {
+        requests = new IdempotentRequests(2, Duration.ofMillis(50), Duration.ofSeconds(5), null, new ObjectMapper(), new ClientIdentity("X-Client-Id", ""));
+        execute("a", "Galaxy Cat", this::create);
+        execute("b", "Galaxy Cat", this::create);
+        execute("c", "Galaxy Cat", this::create);
+        assertThat(requests.size()).isEqualTo(2);
+
+        Thread.sleep(100);
+        execute("a", "Galaxy Cat", this::create);
+        assertThat(requests.size()).isEqualTo(1);
+        assertThat(writes).hasValue(4);
+    }
+
+    @Test
+    void testKeysAreScopedToTheClient() throws Exception {
+        requests.execute("client", "key", "POST /api/v1/beer", "Galaxy Cat", executor, this::create).get(5, TimeUnit.SECONDS);
+        ResponseEntity other = requests.execute("other-client", "key", "POST /api/v1/beer", "Crank", executor, this::create)
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(writes).hasValue(2);
+        assertThat(other.getHeaders().getFirst(StoredResponse.REPLAYED_HEADER)).isNull();
+    }
+
+    @Test
+    void testBodiesComparedAsCanonicalJson() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        execute("key", objectMapper.readTree("{\"beerName\": \"Galaxy Cat\", \"upc\": \"12356\"}"), this::create);
+        ResponseEntity reordered = execute("key", objectMapper.readTree("{\"upc\":\"12356\",\"beerName\":\"Galaxy Cat\"}"), this::create);
+
+        assertThat(writes).hasValue(1);
+        assertThat(reordered.getHeaders().getFirst(StoredResponse.REPLAYED_HEADER)).isEqualTo("true");
+        assertThatThrownBy(() -> execute("key", objectMapper.readTree("{\"upc\":\"12356\",\"beerName\":\"Crank\"}"), this::create))
+                .hasCauseInstanceOf(IdempotencyKeyReuseException.class);
+    }
+
+    @Test
+    void testRunningEntriesAreNotEvicted() throws Exception {
+        requests = requests(1, null);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<ResponseEntity> slowCreate = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return create();
+        };
+        CompletableFuture<ResponseEntity> first = requests.execute("client", "a", "POST /api/v1/beer", "Galaxy Cat", executor, slowCreate);
+
+        // No room while "a" is still running, so a new key is turned away rather than pushing it out
+        assertThatThrownBy(() -> execute("b", "Galaxy Cat", this::create))
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+        CompletableFuture<ResponseEntity> duplicate = requests.execute("client", "a", "POST /api/v1/beer", "Galaxy Cat", executor, slowCreate);
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(duplicate.get(5, TimeUnit.SECONDS).getHeaders().getFirst(StoredResponse.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(writes).hasValue(1);
+
+        // Once "a" has finished it can make room
+        execute("b", "Galaxy Cat", this::create);
+        assertThat(writes).hasValue(2);
+    }
+
+    private IdempotentRequests requests(int maxEntries, IdempotencyStore store) {
+        return new IdempotentRequests(maxEntries, Duration.ofHours(1), Duration.ofSeconds(5), store, new ObjectMapper(), new ClientIdentity("X-Client-Id", ""));
+    }
+
+    private ResponseEntity execute(String key, Object body, Supplier<ResponseEntity> write) throws Exception {
+        return requests.execute("client", key, "POST /api/v1/beer", body, executor, write).get(5, TimeUnit.SECONDS);
+    }
+
+    private ResponseEntity create() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("location", "/api/v1/beer/" + writes.incrementAndGet());
+        return new ResponseEntity<>(headers, HttpStatus.CREATED);
+    }
+
+    static class MapStore implements IdempotencyStore {
+
+        final Map<String, String> fingerprints = new HashMap<>();
+        final Map<String, StoredResponse> responses = new HashMap<>();
+
+        @Override
+        public Optional<StoredResponse> find(String key, String fingerprint) {
+            if (fingerprints.containsKey(key) && !fingerprints.get(key).equals(fingerprint)) {
+                throw new IdempotencyKeyReuseException();
+            }
+            return Optional.ofNullable(responses.get(key));
+        }
+
+        @Override
+        public void save(String key, String fingerprint, StoredResponse response, Duration ttl) {
+            fingerprints.put(key, fingerprint);
+            responses.put(key, response);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.spring.mvc.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void testNoFalseNegatives() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01, 1 << 20);
+
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            filter.put(id);
+        }
+
+        assertThat(ids).allMatch(filter::mightContain);
+    }
+
+    @Test
+    void testFalsePositiveRateCloseToTarget() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01, 1 << 20);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(UUID.randomUUID());
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+
+        // Target is 1%, allow some headroom for randomness
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    @Test
+    void testMemoryBudgetCapsSize() {
+        BloomFilter filter = BloomFilter.create(1_000_000, 0.0001, 1024);
+
+        assertThat(filter.bitSize()).isEqualTo(1024 * 8);
+    }
+
+    @Test
+    void testIndexReportsEverythingUntilLoaded() {
+        IdExistenceIndex index = new IdExistenceIndex("Test", 100, 0.01, 1024, true);
+
+        assertThat(index.mightExist(UUID.randomUUID())).isTrue();
+
+        UUID existing = UUID.randomUUID();
+        index.load(Stream.of(existing));
+
+        assertThat(index.mightExist(existing)).isTrue();
+    }
+}
@@ -0,0 +1,131 @@
+package com.spring.mvc.index;
+
+import com.spring.mvc.entities.Beer;
+import com.spring.mvc.mappers.BeerMapperImpl;
+import com.spring.mvc.model.BeerStyle;
+import com.spring.mvc.model.Money;
+import com.spring.mvc.repositories.BeerHistoryRepository;
+import com.spring.mvc.repositories.BeerRepository;
+import com.spring.mvc.repositories.ChangeCounterRepository;
+import com.spring.mvc.repositories.CustomerRepository;
+import com.spring.mvc.repositories.TombstoneRepository;
+import com.spring.mvc.services.BeerServiceJPA;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@DataJpaTest
+class IdExistenceIndexLoaderTest {
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    CustomerRepository customerRepository;
+
+    @Autowired
+    BeerHistoryRepository beerHistoryRepository;
+
+    @Autowired
+    TombstoneRepository tombstoneRepository;
+
+    @Autowired
+    ChangeCounterRepository changeCounterRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void testRowInsertedBehindTheServiceIsFound() {
+        IdExistenceIndex beerIdIndex = index(false);
+        IdExistenceIndexLoader loader = loader(beerIdIndex);
+        loader.loadIndexes();
+
+        UUID id = insertBehindTheService();
+
+        assertThat(service(beerIdIndex).getBeerById(id)).isPresent();
+    }
+
+    @Test
+    void testSingleWriterFindsOutsideRowsOnceRebuilt() {
+        IdExistenceIndex beerIdIndex = index(true);
+        IdExistenceIndexLoader loader = loader(beerIdIndex);
+        loader.loadIndexes();
+
+        UUID id = insertBehindTheService();
+        UUID unknown = UUID.randomUUID();
+        assertThat(beerIdIndex.mightExist(id)).isFalse();
+
+        loader.loadIndexes();
+
+        assertThat(service(beerIdIndex).getBeerById(id)).isPresent();
+        assertThat(beerIdIndex.mightExist(unknown)).isFalse();
+    }
+
+    // The rebuild reads on the scheduler's thread, so the row has to be committed rather than in the test transaction
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testScheduledRebuildWaitsOutTheCommitLagOffTheSchedulerThread() {
+        IdExistenceIndex beerIdIndex = index(true);
+        IdExistenceIndexLoader loader = loader(beerIdIndex);
+        loader.loadIndexes();
+        UUID id = insertBehindTheService();
+        try {
+            // Returns straight away, the database is read once commit-lag has passed
+            loader.rebuildIndexes();
+            assertThat(beerIdIndex.mightExist(id)).isFalse();
+
+            await().atMost(Duration.ofSeconds(5)).until(() -> beerIdIndex.mightExist(id));
+        } finally {
+            beerRepository.deleteById(id);
+        }
+    }
+
+    @Test
+    void testIdsAddedWhileRebuildingAreKept() {
+        IdExistenceIndex beerIdIndex = index(true);
+        beerIdIndex.load(Stream.empty());
+
+        UUID added = UUID.randomUUID();
+        try (IdExistenceIndex.Rebuild rebuild = beerIdIndex.startRebuild()) {
+            beerIdIndex.add(added);
+            rebuild.finish();
+        }
+
+        assertThat(beerIdIndex.mightExist(added)).isTrue();
+    }
+
+    private UUID insertBehindTheService() {
+        return beerRepository.saveAndFlush(Beer.builder().beerName("Outside").beerStyle(BeerStyle.LAGER)
+                .upc("outside-" + UUID.randomUUID()).price(Money.of("3.99")).build()).getId();
+    }
+
+    private IdExistenceIndexLoader loader(IdExistenceIndex beerIdIndex) {
+        IdExistenceIndexLoader loader = new IdExistenceIndexLoader(beerRepository, customerRepository, beerIdIndex,
+                index(true), Optional.empty(), transactionManager, new ConcurrentTaskScheduler());
+        ReflectionTestUtils.setField(loader, "commitLag", Duration.ofMillis(200));
+        return loader;
+    }
+
+    private BeerServiceJPA service(IdExistenceIndex beerIdIndex) {
+        return new BeerServiceJPA(beerRepository, new BeerMapperImpl(), beerIdIndex, event -> { },
+                tombstoneRepository, beerHistoryRepository, changeCounterRepository);
+    }
+
+    private static IdExistenceIndex index(boolean singleWriter) {
+        return new IdExistenceIndex("Test", 1000, 0.001, 1 << 16, singleWriter);
+    }
+}
@@ -0,0 +1,49 @@
+package com.spring.mvc.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockLevelIndexTest {
+
+    StockLevelIndex index = new StockLevelIndex();
+
+    @Test
+    void testLowestBelowThreshold() {
+        UUID a = new UUID(0, 1);
+        UUID b = new UUID(0, 2);
+        UUID c = new UUID(0, 3);
+        UUID d = new UUID(0, 4);
+        index.add(a, 5);
+        index.add(b, 10);
+        index.add(c, null);
+        index.add(d, 5);
+
+        // null counts as 0, ties are ordered by id, 10 is not below 10
+        assertThat(index.lowest(10, 20)).containsExactly(c, a, d);
+        assertThat(index.lowest(10, 2)).containsExactly(c, a);
+        assertThat(index.lowest(0, 20)).isEmpty();
+        assertThat(index.lowest(11, 20)).containsExactly(c, a, d, b);
+    }
+
+    @Test
+    void testUpdateAndRemove() {
+        UUID a = new UUID(0, 1);
+        UUID b = new UUID(0, 2);
+        index.add(a, 5);
+        index.add(b, 7);
+
+        index.update(a, 5, 50);
+        assertThat(index.lowest(10, 20)).containsExactly(b);
+
+        index.update(b, 7, 0);
+        index.update(a, 50, null);
+        assertThat(index.lowest(10, 20)).containsExactly(a, b);
+
+        index.remove(a, null);
+        assertThat(index.lowest(10, 20)).containsExactly(b);
+        assertThat(index.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,92 @@
+package com.spring.mvc.invalidation;
+
+import com.spring.mvc.cache.ResponseCache;
+import com.spring.mvc.events.BeerChangedEvent;
+import com.spring.mvc.events.ChangeType;
+import com.spring.mvc.index.IdExistenceIndex;
+import com.spring.mvc.model.BeerDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static com.spring.mvc.invalidation.InvalidationMessage.EntityType.BEER;
+import static com.spring.mvc.invalidation.InvalidationMessage.EntityType.CUSTOMER;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClusterCacheInvalidatorTest {
+
+    LoopbackTransport.Hub hub = new LoopbackTransport.Hub();
+    Node nodeA;
+    Node nodeB;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        nodeA = new Node(hub);
+        nodeB = new Node(hub);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        nodeA.bus.close();
+        nodeB.bus.close();
+    }
+
+    @Test
+    void testWriteOnOneNodeInvalidatesTheOther() {
+        nodeA.beerResponseCache.put("/api/v1/beer", nodeA.beerResponseCache.generation(), "application/json", new byte[]{'['});
+        nodeB.beerResponseCache.put("/api/v1/beer", nodeB.beerResponseCache.generation(), "application/json", new byte[]{'['});
+        nodeB.customerResponseCache.put("/api/v1/customer", nodeB.customerResponseCache.generation(), "application/json", new byte[]{'['});
+        UUID beerId = UUID.randomUUID();
+        assertThat(nodeB.beerIdIndex.mightExist(beerId)).isFalse();
+
+        nodeA.invalidator.onBeerChanged(new BeerChangedEvent(ChangeType.CREATED, beerId, BeerDTO.builder().id(beerId).version(0).build()));
+        nodeA.bus.flush();
+
+        assertThat(nodeB.beerResponseCache.size()).isZero();
+        assertThat(nodeB.beerIdIndex.mightExist(beerId)).isTrue();
+        // Only the resource that changed, and not the writer's own cache (its local invalidator handles that)
+        assertThat(nodeB.customerResponseCache.size()).isEqualTo(1);
+        assertThat(nodeA.beerResponseCache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testDeleteLeavesExistenceIndexAlone() {
+        UUID customerId = UUID.randomUUID();
+
+        nodeB.invalidator.onInvalidations(List.of(
+                new InvalidationMessage(CUSTOMER, ChangeType.DELETED, customerId, 0),
+                new InvalidationMessage(BEER, ChangeType.UPDATED, UUID.randomUUID(), 3)));
+
+        assertThat(nodeB.customerIdIndex.mightExist(customerId)).isFalse();
+    }
+
+    static class Node {
+        final IdExistenceIndex beerIdIndex = readyIndex("Beer");
+        final IdExistenceIndex customerIdIndex = readyIndex("Customer");
+        final ResponseCache beerResponseCache = new ResponseCache("Beer", 8, 1024);
+        final ResponseCache customerResponseCache = new ResponseCache("Customer", 8, 1024);
+        final InvalidationBus bus;
+        final ClusterCacheInvalidator invalidator;
+
+        Node(LoopbackTransport.Hub hub) throws IOException {
+            bus = new InvalidationBus(new LoopbackTransport(hub), Duration.ofSeconds(10));
+            invalidator = new ClusterCacheInvalidator(bus, beerIdIndex, customerIdIndex,
+                    Optional.of(beerResponseCache), Optional.of(customerResponseCache));
+            bus.addListener(invalidator);
+            bus.start();
+        }
+
+        private static IdExistenceIndex readyIndex(String name) {
+            IdExistenceIndex index = new IdExistenceIndex(name, 1000, 0.001, 1 << 16, true);
+            index.load(Stream.empty());
+            return index;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.spring.mvc.invalidation;
+
+import com.spring.mvc.events.ChangeType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.spring.mvc.invalidation.InvalidationMessage.EntityType.BEER;
+import static com.spring.mvc.invalidation.InvalidationMessage.EntityType.CUSTOMER;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvalidationBusTest {
+
+    LoopbackTransport.Hub hub;
+    InvalidationBus nodeA;
+    InvalidationBus nodeB;
+    List<List<InvalidationMessage>> receivedByA;
+    List<List<InvalidationMessage>> receivedByB;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        hub = new LoopbackTransport.Hub();
+        receivedByA = new CopyOnWriteArrayList<>();
+        receivedByB = new CopyOnWriteArrayList<>();
+        // Long windows, the tests flush explicitly
+        nodeA = node(receivedByA, Duration.ofSeconds(10));
+        nodeB = node(receivedByB, Duration.ofSeconds(10));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    void testOtherNodesReceiveAndSenderDoesNot() {
+        UUID id = UUID.randomUUID();
+        nodeA.publish(new InvalidationMessage(BEER, ChangeType.UPDATED, id, 2));
+        nodeA.flush();
+
+        assertThat(receivedByB).containsExactly(List.of(new InvalidationMessage(BEER, ChangeType.UPDATED, id, 2)));
+        assertThat(receivedByA).isEmpty();
+    }
+
+    @Test
+    void testMessagesForOneEntityCollapseToNewest() {
+        UUID beerId = UUID.randomUUID();
+        UUID customerId = UUID.randomUUID();
+        nodeA.publish(new InvalidationMessage(BEER, ChangeType.UPDATED, beerId, 3));
+        nodeA.publish(new InvalidationMessage(BEER, ChangeType.PATCHED, beerId, 1));
+        nodeA.publish(new InvalidationMessage(CUSTOMER, ChangeType.UPDATED, customerId, 4));
+        nodeA.publish(new InvalidationMessage(CUSTOMER, ChangeType.DELETED, customerId, 0));
+        nodeA.flush();
+
+        assertThat(receivedByB).hasSize(1);
+        assertThat(receivedByB.getFirst()).containsExactlyInAnyOrder(
+                new InvalidationMessage(BEER, ChangeType.UPDATED, beerId, 3),
+                new InvalidationMessage(CUSTOMER, ChangeType.DELETED, customerId, 0));
+    }
+
+    @Test
+    void testLargeBatchSplitsIntoPackets() {
+        for (int i = 0; i < 200; i++) {
+            nodeA.publish(new InvalidationMessage(BEER, ChangeType.CREATED, UUID.randomUUID(), 0));
+        }
+        nodeA.flush();
+
+        assertThat(receivedByB).hasSize((200 + InvalidationBus.MESSAGES_PER_PACKET - 1) / InvalidationBus.MESSAGES_PER_PACKET);
+        assertThat(receivedByB.stream().mapToInt(List::size).sum()).isEqualTo(200);
+        assertThat(InvalidationBus.MESSAGES_PER_PACKET * InvalidationMessage.SIZE + 14).isLessThanOrEqualTo(MulticastTransport.MAX_PACKET_SIZE);
+    }
+
+    @Test
+    void testFlushedAfterBatchWindow() throws Exception {
+        CountDownLatch received = new CountDownLatch(1);
+        nodeB.addListener(messages -> received.countDown());
+        try (InvalidationBus nodeC = node(new CopyOnWriteArrayList<>(), Duration.ofMillis(5))) {
+            nodeC.publish(new InvalidationMessage(BEER, ChangeType.CREATED, UUID.randomUUID(), 0));
+
+            assertThat(received.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    @Test
+    void testMalformedPacketIgnored() {
+        new LoopbackTransport(hub).send(new byte[]{1, 2, 3});
+
+        assertThat(receivedByA).isEmpty();
+        assertThat(receivedByB).isEmpty();
+    }
+
+    private InvalidationBus node(List<List<InvalidationMessage>> received, Duration batchWindow) throws IOException {
+        InvalidationBus bus = new InvalidationBus(new LoopbackTransport(hub), batchWindow);
+        bus.addListener(received::add);
+        bus.start();
+        return bus;
+    }
+}
@@ -0,0 +1,43 @@
+package com.spring.mvc.invalidation;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class MulticastTransportTest {
+
+    @Test
+    void testPacketsReachGroupMembers() throws Exception {
+        BlockingQueue<byte[]> received = new ArrayBlockingQueue<>(10);
+        InetAddress group = InetAddress.getByName("239.255.42.98");
+
+        try (MulticastTransport receiver = new MulticastTransport(group, 44467, null, 0);
+             MulticastTransport sender = new MulticastTransport(group, 44467, null, 0)) {
+            try {
+                receiver.start(received::add);
+                sender.start(packet -> { });
+            } catch (IOException e) {
+                assumeTrue(false, "No multicast-capable interface: " + e.getMessage());
+            }
+
+            sender.send(new byte[]{4, 2});
+            byte[] packet = received.poll(5, TimeUnit.SECONDS);
+            assumeTrue(packet != null, "Multicast not delivered on this host");
+            assertThat(packet).containsExactly(4, 2);
+        }
+    }
+
+    @Test
+    void testRejectsUnicastGroup() {
+        assertThatThrownBy(() -> new MulticastTransport(InetAddress.getLoopbackAddress(), 44467, null, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,96 @@
+package com.spring.mvc.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DtoJsonSerializerTest {
+
+    // Put back the reflective bean serializer the hand-written ones replace
+    @JsonSerialize(using = JsonSerializer.None.class)
+    abstract static class DefaultSerialization {
+    }
+
+    List<BeerDTO> beers = List.of(
+            BeerDTO.builder()
+                    .id(UUID.fromString("0f8fad5b-d9cb-469f-a165-70867728950e"))
+                    .version(3)
+                    .beerName("Galaxy \"Cat\" été")
+                    .beerStyle(BeerStyle.PALE_ALE)
+                    .upc("12356222")
+                    .quantityOnHand(122)
+                    .price(Money.of("12.99"))
+                    .createdDate(LocalDateTime.of(2024, 2, 29, 7, 5, 0))
+                    .updateDate(LocalDateTime.of(2024, 2, 29, 23, 59, 59, 120_000_000))
+                    .build(),
+            BeerDTO.builder()
+                    .id(new UUID(-1L, 0L))
+                    .price(Money.ofMinor(-5))
+                    .createdDate(LocalDateTime.of(999, 1, 1, 0, 0, 0, 1))
+                    .updateDate(LocalDateTime.of(2024, 2, 29, 0, 0, 0, 123_456_789))
+                    .build(),
+            BeerDTO.builder().createdDate(LocalDateTime.of(10_000, 1, 1, 0, 0)).build(),
+            new BeerDTO());
+
+    List<CustomerDTO> customers = List.of(
+            CustomerDTO.builder()
+                    .id(UUID.randomUUID())
+                    .version(1)
+                    .name("Customer 1")
+                    .createdDate(LocalDateTime.now())
+                    .lastModifiedDate(LocalDateTime.now())
+                    .build(),
+            new CustomerDTO());
+
+    // Dates as ISO strings, as Spring Boot configures the mapper
+    Jackson2ObjectMapperBuilder json = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void testMatchesDefaultSerialization() throws Exception {
+        assertMatchesDefault(json);
+    }
+
+    @Test
+    void testMatchesDefaultWithTimestampsAndNonNullInclusion() throws Exception {
+        assertMatchesDefault(Jackson2ObjectMapperBuilder.json()
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .serializationInclusion(JsonInclude.Include.NON_NULL));
+    }
+
+    @Test
+    void testMatchesDefaultInBinaryFormats() throws Exception {
+        assertMatchesDefault(Jackson2ObjectMapperBuilder.smile());
+        assertMatchesDefault(Jackson2ObjectMapperBuilder.cbor());
+    }
+
+    @Test
+    void testDatesAreIsoStrings() throws Exception {
+        String written = json.build().writeValueAsString(beers.get(1));
+
+        assertThat(written).contains("\"createdDate\":\"0999-01-01T00:00:00.000000001\"",
+                "\"updateDate\":\"2024-02-29T00:00:00.123456789\"");
+    }
+
+    private void assertMatchesDefault(Jackson2ObjectMapperBuilder builder) throws Exception {
+        ObjectMapper tuned = builder.build();
+        ObjectMapper reflective = builder.mixIn(BeerDTO.class, DefaultSerialization.class)
+                .mixIn(CustomerDTO.class, DefaultSerialization.class)
+                .build();
+
+        assertThat(tuned.writeValueAsBytes(beers)).isEqualTo(reflective.writeValueAsBytes(beers));
+        assertThat(tuned.writeValueAsBytes(customers)).isEqualTo(reflective.writeValueAsBytes(customers));
+        assertThat(tuned.writerFor(CustomerDTO.class).writeValueAsBytes(customers.get(0)))
+                .isEqualTo(reflective.writeValueAsBytes(customers.get(0)));
+    }
+}
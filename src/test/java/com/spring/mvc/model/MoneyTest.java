@@ -0,0 +1,66 @@
+package com.spring.mvc.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testFormat() {
+        assertThat(Money.ofMinor(1299)).hasToString("12.99");
+        assertThat(Money.ofMinor(5)).hasToString("0.05");
+        assertThat(Money.ofMinor(0)).hasToString("0.00");
+        assertThat(Money.ofMinor(-50)).hasToString("-0.50");
+        assertThat(Money.ofMinor(Long.MIN_VALUE)).hasToString("-92233720368547758.08");
+        assertThat(new Money(1299, Currency.getInstance("JPY"))).hasToString("1299");
+    }
+
+    @Test
+    void testParse() {
+        assertThat(Money.of("12.99").minorUnits()).isEqualTo(1299);
+        assertThat(Money.of("12").minorUnits()).isEqualTo(1200);
+        assertThat(Money.of("12.5").minorUnits()).isEqualTo(1250);
+        assertThat(Money.of("-.5").minorUnits()).isEqualTo(-50);
+        assertThat(Money.of("12.9900").minorUnits()).isEqualTo(1299);
+        assertThat(Money.of("1.299e1").minorUnits()).isEqualTo(1299);
+
+        assertThatThrownBy(() -> Money.of("12.999")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Money.of("12,99")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Money.of("-")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Money.of("100000000000000000000")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testBigDecimalConversion() {
+        assertThat(Money.of(new BigDecimal("13.99")).toBigDecimal()).isEqualTo(new BigDecimal("13.99"));
+        assertThat(Money.of(new BigDecimal("10"))).isEqualTo(Money.ofMinor(1000));
+        assertThatThrownBy(() -> Money.of(new BigDecimal("0.001"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testJsonWireFormatIsANumber() throws Exception {
+        BeerDTO beer = BeerDTO.builder().price(Money.of("12.99")).build();
+
+        String json = objectMapper.writeValueAsString(beer);
+
+        assertThat(objectMapper.readTree(json).get("price").decimalValue()).isEqualTo(new BigDecimal("12.99"));
+        assertThat(objectMapper.readValue(json, BeerDTO.class).getPrice()).isEqualTo(Money.of("12.99"));
+    }
+
+    @Test
+    void testJsonAcceptsIntegersAndStrings() throws Exception {
+        assertThat(objectMapper.readValue("{\"price\":12}", BeerDTO.class).getPrice()).isEqualTo(Money.ofMinor(1200));
+        assertThat(objectMapper.readValue("{\"price\":\"7.25\"}", BeerDTO.class).getPrice()).isEqualTo(Money.ofMinor(725));
+        assertThatThrownBy(() -> objectMapper.readValue("{\"price\":1.001}", BeerDTO.class))
+                .isInstanceOf(InvalidFormatException.class);
+    }
+}
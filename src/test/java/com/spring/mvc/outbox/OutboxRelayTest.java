@@ -0,0 +1,146 @@
+package com.spring.mvc.outbox;
+
+import com.spring.mvc.events.BeerChangedEvent;
+import com.spring.mvc.events.ChangeType;
+import com.spring.mvc.events.CustomerChangedEvent;
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerStyle;
+import com.spring.mvc.model.Money;
+import com.spring.mvc.model.OutboxMessageDTO;
+import com.spring.mvc.model.OutboxPageDTO;
+import com.spring.mvc.repositories.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Runs without the test-managed transaction so the outbox writes see real commits and rollbacks
+@DataJpaTest(properties = {"mvc.outbox.enabled=true", "mvc.outbox.batch-size=2", "mvc.outbox.segment-size=4KB"})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import(OutboxConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRelayTest {
+
+    @TempDir
+    static Path directory;
+
+    @DynamicPropertySource
+    static void outboxDirectory(DynamicPropertyRegistry registry) {
+        registry.add("mvc.outbox.directory", directory::toString);
+    }
+
+    @Autowired
+    ApplicationEventPublisher applicationEventPublisher;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    OutboxRelay outboxRelay;
+
+    @Autowired
+    OutboxLog outboxLog;
+
+    TransactionTemplate transactionTemplate;
+
+    long offset;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        outboxRelay.relayPending();
+        offset = outboxLog.endOffset();
+    }
+
+    @Test
+    void testCommittedChangesAreRelayed() throws Exception {
+        UUID beerId = UUID.randomUUID();
+        UUID customerId = UUID.randomUUID();
+        transactionTemplate.executeWithoutResult(status -> {
+            applicationEventPublisher.publishEvent(new BeerChangedEvent(ChangeType.CREATED, beerId, beer()));
+            applicationEventPublisher.publishEvent(new CustomerChangedEvent(ChangeType.DELETED, customerId, null));
+        });
+        assertThat(outboxEventRepository.count()).isEqualTo(2);
+
+        assertThat(outboxRelay.relayPending()).isEqualTo(2);
+        assertThat(outboxEventRepository.count()).isZero();
+
+        OutboxPageDTO page = outboxLog.read(offset, 10);
+        assertThat(page.getMessages()).extracting(OutboxMessageDTO::getAggregateId).containsExactly(beerId, customerId);
+        assertThat(page.getMessages().getFirst().getOffset()).isEqualTo(offset);
+        assertThat(page.getMessages().getFirst().getData().get("beerName").asText()).isEqualTo("Outbox Ale");
+        assertThat(page.getMessages().getLast().getType()).isEqualTo(ChangeType.DELETED);
+        assertThat(page.getMessages().getLast().getData()).isNull();
+        assertThat(page.getNextOffset()).isEqualTo(outboxLog.endOffset());
+    }
+
+    @Test
+    void testRolledBackChangeIsNotRecorded() {
+        transactionTemplate.executeWithoutResult(status -> {
+            applicationEventPublisher.publishEvent(new BeerChangedEvent(ChangeType.CREATED, UUID.randomUUID(), beer()));
+            status.setRollbackOnly();
+        });
+        // Outside a transaction (the in-memory services) nothing is recorded either
+        applicationEventPublisher.publishEvent(new BeerChangedEvent(ChangeType.CREATED, UUID.randomUUID(), beer()));
+
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    void testRelaysInBatchesInIdOrder() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            transactionTemplate.executeWithoutResult(status ->
+                    applicationEventPublisher.publishEvent(new BeerChangedEvent(ChangeType.UPDATED, UUID.randomUUID(), beer())));
+        }
+
+        assertThat(outboxRelay.relayPending()).isEqualTo(5);
+
+        OutboxPageDTO first = outboxLog.read(offset, 3);
+        OutboxPageDTO rest = outboxLog.read(first.getNextOffset(), 10);
+        assertThat(first.getMessages()).hasSize(3);
+        assertThat(rest.getMessages()).hasSize(2);
+        assertThat(first.getMessages().getLast().getEventId()).isLessThan(rest.getMessages().getFirst().getEventId());
+        assertThat(outboxLog.read(rest.getNextOffset(), 10).getMessages()).isEmpty();
+    }
+
+    @Test
+    void testReadRejectsOffsetOffMessages() {
+        transactionTemplate.executeWithoutResult(status ->
+                applicationEventPublisher.publishEvent(new BeerChangedEvent(ChangeType.UPDATED, UUID.randomUUID(), beer())));
+
+        assertThatThrownBy(() -> {
+            outboxRelay.relayPending();
+            outboxLog.read(offset + 1, 10);
+        }).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static BeerDTO beer() {
+        return BeerDTO.builder()
+                .beerName("Outbox Ale")
+                .beerStyle(BeerStyle.ALE)
+                .upc("0631234200050")
+                .price(Money.of("8.49"))
+                .quantityOnHand(24)
+                .build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.spring.mvc.patch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonMergePatchTest {
+
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    // The examples from RFC 7396 appendix A
+    @Test
+    void testRfcExamples() throws Exception {
+        assertMerge("{'a': 'b'}", "{'a': 'c'}", "{'a': 'c'}");
+        assertMerge("{'a': 'b'}", "{'b': 'c'}", "{'a': 'b', 'b': 'c'}");
+        assertMerge("{'a': 'b'}", "{'a': null}", "{}");
+        assertMerge("{'a': 'b', 'b': 'c'}", "{'a': null}", "{'b': 'c'}");
+        assertMerge("{'a': ['b']}", "{'a': 'c'}", "{'a': 'c'}");
+        assertMerge("{'a': 'c'}", "{'a': ['b']}", "{'a': ['b']}");
+        assertMerge("{'a': {'b': 'c'}}", "{'a': {'b': 'd', 'c': null}}", "{'a': {'b': 'd'}}");
+        assertMerge("{'a': [{'b': 'c'}]}", "{'a': [1]}", "{'a': [1]}");
+        assertMerge("['a', 'b']", "['c', 'd']", "['c', 'd']");
+        assertMerge("{'a': 'b'}", "['c']", "['c']");
+        assertMerge("{'a': 'foo'}", "null", "null");
+        assertMerge("{'e': null}", "{'a': 1}", "{'e': null, 'a': 1}");
+        assertMerge("[1, 2]", "{'a': 'b', 'c': null}", "{'a': 'b'}");
+        assertMerge("{}", "{'a': {'bb': {'ccc': null}}}", "{'a': {'bb': {}}}");
+    }
+
+    @Test
+    void testTargetNotModified() throws Exception {
+        JsonNode target = json("{'a': {'b': 1}}");
+
+        JsonMergePatch.apply(target, json("{'a': {'b': 2}}"));
+
+        assertThat(target).isEqualTo(json("{'a': {'b': 1}}"));
+    }
+
+    private void assertMerge(String target, String patch, String expected) throws Exception {
+        assertThat(JsonMergePatch.apply(json(target), json(patch))).isEqualTo(json(expected));
+    }
+
+    private JsonNode json(String json) throws Exception {
+        return objectMapper.readTree(json.replace('\'', '"'));
+    }
+}
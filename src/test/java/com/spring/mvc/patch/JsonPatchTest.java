@@ -0,0 +1,67 @@
+package com.spring.mvc.patch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonPatchTest {
+
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testOperations() throws Exception {
+        JsonNode result = JsonPatch.apply(json("{'a': 1, 'b': {'c': [1, 2]}, 'd': 'x'}"), json("""
+                [{'op': 'test', 'path': '/a', 'value': 1.0},
+                 {'op': 'replace', 'path': '/a', 'value': 2},
+                 {'op': 'add', 'path': '/b/c/1', 'value': 9},
+                 {'op': 'add', 'path': '/b/c/-', 'value': 3},
+                 {'op': 'remove', 'path': '/b/c/0'},
+                 {'op': 'copy', 'from': '/d', 'path': '/e'},
+                 {'op': 'move', 'from': '/d', 'path': '/f'}]"""));
+
+        assertThat(result).isEqualTo(json("{'a': 2, 'b': {'c': [9, 2, 3]}, 'e': 'x', 'f': 'x'}"));
+    }
+
+    @Test
+    void testEscapedPointer() throws Exception {
+        JsonNode result = JsonPatch.apply(json("{'a/b': 1, 'c~d': 2}"),
+                json("[{'op': 'remove', 'path': '/a~1b'}, {'op': 'replace', 'path': '/c~0d', 'value': 3}]"));
+
+        assertThat(result).isEqualTo(json("{'c~d': 3}"));
+    }
+
+    @Test
+    void testFailureLeavesDocumentUntouched() throws Exception {
+        JsonNode document = json("{'a': 1}");
+
+        assertThatThrownBy(() -> JsonPatch.apply(document,
+                json("[{'op': 'remove', 'path': '/a'}, {'op': 'test', 'path': '/a', 'value': 1}]")))
+                .isInstanceOf(InvalidPatchException.class);
+        assertThat(document).isEqualTo(json("{'a': 1}"));
+    }
+
+    @Test
+    void testInvalidOperations() {
+        assertInvalid("{'op': 'add', 'path': '/a', 'value': 1}");
+        assertInvalid("[{'op': 'frobnicate', 'path': '/a'}]");
+        assertInvalid("[{'op': 'add', 'path': '/a'}]");
+        assertInvalid("[{'op': 'replace', 'path': '/missing', 'value': 1}]");
+        assertInvalid("[{'op': 'add', 'path': '/missing/a', 'value': 1}]");
+        assertInvalid("[{'op': 'add', 'path': '/list/01', 'value': 1}]");
+        assertInvalid("[{'op': 'add', 'path': '/list/3', 'value': 1}]");
+        assertInvalid("[{'op': 'remove', 'path': '/list/2'}]");
+        assertInvalid("[{'op': 'move', 'from': '/nested', 'path': '/nested/child'}]");
+    }
+
+    private void assertInvalid(String patch) {
+        assertThatThrownBy(() -> JsonPatch.apply(json("{'a': 1, 'list': [1, 2], 'nested': {}}"), json(patch)))
+                .isInstanceOf(InvalidPatchException.class);
+    }
+
+    private JsonNode json(String json) throws Exception {
+        return objectMapper.readTree(json.replace('\'', '"'));
+    }
+}
@@ -0,0 +1,95 @@
+package com.spring.mvc.persistence;
+
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerStyle;
+import com.spring.mvc.model.Money;
+import com.spring.mvc.services.BeerServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DurableStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testNothingToRecover() throws IOException {
+        try (DurableStore<BeerDTO> store = open()) {
+            assertThat(store.hasPersistedState()).isFalse();
+        }
+    }
+
+    @Test
+    void testRecoverFromSnapshotAndLog() throws IOException {
+        BeerDTO kept = beer("Kept");
+        BeerDTO deleted = beer("Deleted");
+        BeerDTO afterSnapshot = beer("After Snapshot");
+
+        try (DurableStore<BeerDTO> store = open()) {
+            store.awaitDurable(store.put(kept));
+            store.awaitDurable(store.put(deleted));
+            store.checkpoint(new DurableStore.Checkpoint<>(store.position(), List.of(kept, deleted)));
+
+            store.awaitDurable(store.put(afterSnapshot));
+            store.awaitDurable(store.delete(deleted.getId()));
+            kept.setQuantityOnHand(7);
+            store.awaitDurable(store.put(kept));
+        }
+
+        try (DurableStore<BeerDTO> store = open()) {
+            assertThat(store.hasPersistedState()).isTrue();
+
+            Map<UUID, BeerDTO> recovered = new HashMap<>();
+            store.recover(recovered::put, recovered::remove);
+
+            assertThat(recovered).containsOnlyKeys(kept.getId(), afterSnapshot.getId());
+            assertThat(recovered.get(kept.getId())).isEqualTo(kept);
+            assertThat(recovered.get(afterSnapshot.getId())).isEqualTo(afterSnapshot);
+        }
+    }
+
+    @Test
+    void testServiceStateSurvivesRestart() throws IOException {
+        BeerDTO saved;
+        try (DurableStore<BeerDTO> store = open()) {
+            BeerServiceImpl beerService = new BeerServiceImpl();
+            beerService.setBeerDurableStore(store);
+            saved = beerService.saveNewBeer(beer("Durable Lager"));
+        }
+
+        try (DurableStore<BeerDTO> store = open()) {
+            BeerServiceImpl beerService = new BeerServiceImpl();
+            beerService.setBeerDurableStore(store);
+
+            assertThat(beerService.getBeerById(saved.getId())).contains(saved);
+            assertThat(beerService.listBeers()).hasSize(4);
+        }
+    }
+
+    private DurableStore<BeerDTO> open() throws IOException {
+        return new DurableStore<>("beer", directory, new BeerRecordCodec(), 4096,
+                true, Duration.ofMillis(50), Duration.ofMinutes(5));
+    }
+
+    private BeerDTO beer(String name) {
+        return BeerDTO.builder()
+                .id(UUID.randomUUID())
+                .version(1)
+                .beerName(name)
+                .beerStyle(BeerStyle.LAGER)
+                .upc("123456")
+                .quantityOnHand(12)
+                .price(Money.of("9.99"))
+                .build();
+    }
+}
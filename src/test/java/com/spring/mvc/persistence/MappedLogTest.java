@@ -0,0 +1,150 @@
+package com.spring.mvc.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MappedLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecordsSurviveReopen() throws IOException {
+        long end;
+        try (MappedLog log = new MappedLog(directory, 1024)) {
+            for (int i = 0; i < 100; i++) {
+                end = log.append(("record-" + i).getBytes(StandardCharsets.UTF_8));
+                log.awaitDurable(end);
+            }
+            end = log.endPosition();
+        }
+
+        try (MappedLog log = new MappedLog(directory, 1024)) {
+            assertThat(log.endPosition()).isEqualTo(end);
+            assertThat(readAll(log, 0)).hasSize(100)
+                    .startsWith("record-0")
+                    .endsWith("record-99");
+        }
+    }
+
+    @Test
+    void testRollsAndDeletesSegments() throws IOException {
+        try (MappedLog log = new MappedLog(directory, 256)) {
+            long middle = 0;
+            for (int i = 0; i < 50; i++) {
+                long end = log.append(("record-" + i).getBytes(StandardCharsets.UTF_8));
+                if (i == 24) {
+                    middle = end;
+                }
+            }
+            assertThat(segmentCount()).isGreaterThan(1);
+
+            log.deleteBefore(middle);
+
+            assertThat(log.startPosition()).isLessThanOrEqualTo(middle);
+            assertThat(readAll(log, middle)).hasSize(25).startsWith("record-25");
+        }
+    }
+
+    @Test
+    void testTornRecordIsDropped() throws IOException {
+        long good;
+        try (MappedLog log = new MappedLog(directory, 1024)) {
+            log.append("first".getBytes(StandardCharsets.UTF_8));
+            good = log.append("second".getBytes(StandardCharsets.UTF_8));
+            log.append("third".getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Corrupt the payload of the last record
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), good + 8);
+        }
+
+        try (MappedLog log = new MappedLog(directory, 1024)) {
+            assertThat(log.endPosition()).isEqualTo(good);
+            assertThat(readAll(log, 0)).containsExactly("first", "second");
+
+            log.append("fourth".getBytes(StandardCharsets.UTF_8));
+            assertThat(readAll(log, 0)).containsExactly("first", "second", "fourth");
+        }
+    }
+
+    @Test
+    void testConcurrentGroupCommit() throws Exception {
+        try (MappedLog log = new MappedLog(directory, 1 << 20);
+             ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            IntStream.range(0, 1000).forEach(i -> executor.submit(() ->
+                    log.awaitDurable(log.append(("record-" + i).getBytes(StandardCharsets.UTF_8)))));
+            executor.shutdown();
+            executor.awaitTermination(30, java.util.concurrent.TimeUnit.SECONDS);
+
+            assertThat(readAll(log, 0)).hasSize(1000);
+        }
+    }
+
+    @Test
+    void testBoundedReadAcrossSegments() throws IOException {
+        try (MappedLog log = new MappedLog(directory, 64)) {
+            for (int i = 0; i < 20; i++) {
+                log.append(("record-" + i).getBytes(StandardCharsets.UTF_8));
+            }
+
+            List<String> records = new ArrayList<>();
+            long position = 0;
+            while (position < log.endPosition()) {
+                position = log.read(position, 3, (at, payload) -> records.add(new String(payload, StandardCharsets.UTF_8)));
+            }
+
+            assertThat(segmentCount()).isGreaterThan(1);
+            assertThat(records).hasSize(20).startsWith("record-0").endsWith("record-19");
+            assertThat(log.read(log.endPosition(), 3, (at, payload) -> records.add("unexpected"))).isEqualTo(log.endPosition());
+            assertThat(records).hasSize(20);
+        }
+    }
+
+    @Test
+    void testBoundedReadRejectsPositionsOffRecords() throws IOException {
+        try (MappedLog log = new MappedLog(directory, 1024)) {
+            log.append("first".getBytes(StandardCharsets.UTF_8));
+            log.append("second".getBytes(StandardCharsets.UTF_8));
+
+            assertThatThrownBy(() -> log.read(3, 10, (at, payload) -> { }))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> log.read(log.endPosition() + 1, 10, (at, payload) -> { }))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    private List<String> readAll(MappedLog log, long from) throws IOException {
+        List<String> records = new ArrayList<>();
+        log.read(from, (position, payload) -> records.add(new String(payload, StandardCharsets.UTF_8)));
+        return records;
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
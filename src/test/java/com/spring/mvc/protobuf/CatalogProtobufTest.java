@@ -0,0 +1,95 @@
+package com.spring.mvc.protobuf;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerStyle;
+import com.spring.mvc.model.CustomerDTO;
+import com.spring.mvc.model.Money;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogProtobufTest {
+
+    interface Writer {
+        void write(CodedOutputStream out) throws IOException;
+    }
+
+    @Test
+    void testBeerListRoundTrip() throws Exception {
+        BeerDTO full = BeerDTO.builder()
+                .id(UUID.randomUUID())
+                .version(3)
+                .beerName("Galaxy Cat ✓")
+                .beerStyle(BeerStyle.SAISON)
+                .upc("12356")
+                .quantityOnHand(-4)
+                .price(new Money(-1299, Currency.getInstance("EUR")))
+                .createdDate(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 123456789))
+                .updateDate(LocalDateTime.of(2026, 10, 19, 16, 30))
+                .build();
+        BeerDTO sparse = BeerDTO.builder().beerName("Only a name").price(Money.of("0.00")).build();
+
+        byte[] bytes = encode(out -> CatalogProtobuf.writeBeers(List.of(full, sparse, new BeerDTO()), out));
+
+        assertThat(CatalogProtobuf.readBeers(CodedInputStream.newInstance(bytes)))
+                .containsExactly(full, sparse, new BeerDTO());
+    }
+
+    @Test
+    void testCustomerRoundTrip() throws Exception {
+        CustomerDTO customer = CustomerDTO.builder()
+                .id(UUID.randomUUID())
+                .version(0)
+                .name("Jane")
+                .createdDate(LocalDateTime.of(2026, 1, 2, 3, 4, 5))
+                .build();
+
+        byte[] single = encode(out -> CatalogProtobuf.writeCustomer(customer, out));
+        byte[] list = encode(out -> CatalogProtobuf.writeCustomers(List.of(customer, customer), out));
+
+        assertThat(CatalogProtobuf.readCustomer(CodedInputStream.newInstance(single))).isEqualTo(customer);
+        assertThat(CatalogProtobuf.readCustomers(CodedInputStream.newInstance(list))).containsExactly(customer, customer);
+    }
+
+    @Test
+    void testUnknownFieldsAndStylesSkipped() throws Exception {
+        byte[] bytes = encode(out -> {
+            out.writeString(3, "Future Beer");
+            out.writeEnum(4, 99);
+            out.writeString(15, "a field from a newer schema");
+            out.writeFixed64(16, 42);
+        });
+
+        BeerDTO beer = CatalogProtobuf.readBeer(CodedInputStream.newInstance(bytes));
+
+        assertThat(beer.getBeerName()).isEqualTo("Future Beer");
+        assertThat(beer.getBeerStyle()).isNull();
+    }
+
+    @Test
+    void testMalformedIdRejected() throws Exception {
+        byte[] bytes = encode(out -> out.writeByteArray(1, new byte[8]));
+
+        assertThatThrownBy(() -> CatalogProtobuf.readBeer(CodedInputStream.newInstance(bytes)))
+                .isInstanceOf(InvalidProtocolBufferException.class);
+    }
+
+    static byte[] encode(Writer writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        writer.write(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+}
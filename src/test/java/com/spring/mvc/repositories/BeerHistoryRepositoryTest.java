@@ -0,0 +1,58 @@
+package com.spring.mvc.repositories;
+
+import com.spring.mvc.entities.BeerHistory;
+import com.spring.mvc.model.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class BeerHistoryRepositoryTest {
+
+    static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+    @Autowired
+    BeerHistoryRepository beerHistoryRepository;
+
+    @Test
+    void testFindByBeerIdNewestFirst() {
+        UUID beerId = UUID.randomUUID();
+        save(beerId, START, 20);
+        save(beerId, START.plusDays(2), 5);
+        save(beerId, START.plusDays(1), 12);
+        save(UUID.randomUUID(), START.plusDays(3), 99);
+
+        assertThat(beerHistoryRepository.findByBeerIdOrderByValidFromDescIdDesc(beerId, PageRequest.of(0, 2)))
+                .extracting(BeerHistory::getQuantityOnHand)
+                .containsExactly(5, 12);
+    }
+
+    @Test
+    void testFindAsOf() {
+        UUID beerId = UUID.randomUUID();
+        save(beerId, START, 20);
+        save(beerId, START.plusDays(1), 12);
+
+        assertThat(beerHistoryRepository.findFirstByBeerIdAndValidFromLessThanEqualOrderByValidFromDescIdDesc(beerId, START.minusSeconds(1)))
+                .isEmpty();
+        assertThat(beerHistoryRepository.findFirstByBeerIdAndValidFromLessThanEqualOrderByValidFromDescIdDesc(beerId, START))
+                .map(BeerHistory::getQuantityOnHand).contains(20);
+        assertThat(beerHistoryRepository.findFirstByBeerIdAndValidFromLessThanEqualOrderByValidFromDescIdDesc(beerId, START.plusHours(30)))
+                .map(BeerHistory::getQuantityOnHand).contains(12);
+    }
+
+    private void save(UUID beerId, LocalDateTime validFrom, int quantityOnHand) {
+        beerHistoryRepository.saveAndFlush(BeerHistory.builder()
+                .beerId(beerId)
+                .validFrom(validFrom)
+                .price(Money.of("9.99"))
+                .quantityOnHand(quantityOnHand)
+                .build());
+    }
+}
@@ -1,20 +1,44 @@
 package com.spring.mvc.repositories;
 
 import com.spring.mvc.entities.Beer;
+import com.spring.mvc.mappers.BeerMapper;
+import com.spring.mvc.model.BeerDTO;
 import com.spring.mvc.model.BeerStyle;
+import com.spring.mvc.model.Money;
+import com.spring.mvc.stats.StyleTotals;
 import jakarta.validation.ConstraintViolationException;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
 import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.spring.mvc.repositories.BeerRepositoryTest$RecordingStatementInspector")
 class BeerRepositoryTest {
 
+    // Collects the SQL Hibernate sends, to check which columns an UPDATE sets
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
     @Autowired
     BeerRepository beerRepository;
 
@@ -24,7 +48,7 @@ class BeerRepositoryTest {
                 .beerName("Damian's Beer")
                 .beerStyle(BeerStyle.IPA)
                 .upc("23456765432")
-                .price(new BigDecimal("11.99"))
+                .price(Money.of("11.99"))
                 .build());
 
         beerRepository.flush(); // Makes sure database validation runs immediately, preventing assertions from passing before constraints are checked.
@@ -41,11 +65,141 @@ class BeerRepositoryTest {
                     .beerName("abababababababababababababababababababababababababa")
                     .beerStyle(BeerStyle.IPA)
                     .upc("23456765432")
-                    .price(new BigDecimal("11.99"))
+                    .price(Money.of("11.99"))
                     .build());
 
 
             beerRepository.flush();
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindByUpc() {
+        Beer savedBeer = beerRepository.saveAndFlush(Beer.builder()
+                .beerName("Scanned Beer")
+                .beerStyle(BeerStyle.IPA)
+                .upc("0631234200036")
+                .price(Money.of("11.99"))
+                .build());
+
+        assertThat(beerRepository.findByUpc("0631234200036")).map(Beer::getId).contains(savedBeer.getId());
+        assertThat(beerRepository.findByUpc("0631234200043")).isEmpty();
+    }
+
+    @Test
+    void testDuplicateUpcRejected() {
+        beerRepository.saveAndFlush(Beer.builder()
+                .beerName("First")
+                .beerStyle(BeerStyle.IPA)
+                .upc("0631234200036")
+                .price(Money.of("11.99"))
+                .build());
+
+        assertThrows(DataIntegrityViolationException.class, () -> beerRepository.saveAndFlush(Beer.builder()
+                .beerName("Second")
+                .beerStyle(BeerStyle.STOUT)
+                .upc("0631234200036")
+                .price(Money.of("9.99"))
+                .build()));
+    }
+
+    @Test
+    void testUpdateDateMaintainedOnUpdate() throws Exception {
+        Beer savedBeer = beerRepository.saveAndFlush(Beer.builder()
+                .beerName("Sync Beer")
+                .beerStyle(BeerStyle.IPA)
+                .upc("1111")
+                .price(Money.of("11.99"))
+                .build());
+        LocalDateTime created = savedBeer.getUpdateDate();
+
+        assertThat(created).isNotNull();
+
+        Thread.sleep(5);
+        savedBeer.setQuantityOnHand(7);
+        beerRepository.saveAndFlush(savedBeer);
+
+        assertThat(savedBeer.getUpdateDate()).isAfter(created);
+
+    }
+
+    @Test
+    void testFindByChangeSeq() {
+        Beer savedBeer = beerRepository.saveAndFlush(Beer.builder()
+                .beerName("Sync Beer")
+                .beerStyle(BeerStyle.IPA)
+                .upc("1111")
+                .price(Money.of("11.99"))
+                .build());
+
+        beerRepository.setChangeSeq(savedBeer.getId(), 5);
+
+        // Rows that never got a position (the seed data) are in no range
+        assertThat(beerRepository.findByChangeSeqGreaterThanAndChangeSeqLessThanEqual(0, 4)).isEmpty();
+        assertThat(beerRepository.findByChangeSeqGreaterThanAndChangeSeqLessThanEqual(4, 5))
+                .extracting(Beer::getId).containsExactly(savedBeer.getId());
+        assertThat(beerRepository.findByChangeSeqGreaterThanAndChangeSeqLessThanEqual(5, 9)).isEmpty();
+    }
+
+    @Test
+    void testAggregateByStyle() {
+        beerRepository.saveAllAndFlush(List.of(
+                Beer.builder().beerName("A").beerStyle(BeerStyle.IPA).upc("1").price(Money.of("10.00")).quantityOnHand(3).build(),
+                Beer.builder().beerName("B").beerStyle(BeerStyle.IPA).upc("2").price(Money.of("4.50")).build(),
+                Beer.builder().beerName("C").beerStyle(BeerStyle.STOUT).upc("3").price(Money.of("7.25")).quantityOnHand(100).build()));
+
+        List<StyleTotals> totals = beerRepository.aggregateByStyle(10);
+
+        StyleTotals ipa = totals.stream().filter(style -> style.getBeerStyle() == BeerStyle.IPA).findFirst().orElseThrow();
+        assertThat(ipa.getBeerCount()).isEqualTo(2);
+        assertThat(ipa.getQuantityOnHand()).isEqualTo(3);
+        assertThat(ipa.getStockValue()).isEqualByComparingTo("30.00");
+        assertThat(ipa.getPriceSum()).isEqualByComparingTo("14.50");
+        assertThat(ipa.getMinPrice()).isEqualByComparingTo("4.50");
+        assertThat(ipa.getMaxPrice()).isEqualByComparingTo("10.00");
+        assertThat(ipa.getLowStockCount()).isEqualTo(2);
+
+        assertThat(beerRepository.findPricesAscending(PageRequest.of(1, 1)))
+                .containsExactly(Money.of("7.25"));
+    }
+
+    @Test
+    void testFindLowStock() {
+        List<Beer> beers = beerRepository.saveAllAndFlush(List.of(
+                Beer.builder().beerName("A").beerStyle(BeerStyle.IPA).upc("1").price(Money.of("10.00")).quantityOnHand(3).build(),
+                Beer.builder().beerName("B").beerStyle(BeerStyle.IPA).upc("2").price(Money.of("4.50")).build(),
+                Beer.builder().beerName("C").beerStyle(BeerStyle.STOUT).upc("3").price(Money.of("7.25")).quantityOnHand(100).build(),
+                Beer.builder().beerName("D").beerStyle(BeerStyle.STOUT).upc("4").price(Money.of("7.25")).quantityOnHand(8).build()));
+
+        assertThat(beerRepository.findLowStock(10, PageRequest.of(0, 20))).extracting(Beer::getBeerName)
+                .containsExactly("B", "A", "D");
+        assertThat(beerRepository.findLowStock(10, PageRequest.of(0, 1))).extracting(Beer::getId)
+                .containsExactly(beers.get(1).getId());
+    }
+
+    @Test
+    void testPatchUpdatesOnlyPatchedColumns() {
+        Beer savedBeer = beerRepository.saveAndFlush(Beer.builder()
+                .beerName("Patch Beer")
+                .beerStyle(BeerStyle.IPA)
+                .upc("2222")
+                .price(Money.of("11.99"))
+                .quantityOnHand(10)
+                .build());
+        RecordingStatementInspector.STATEMENTS.clear();
+
+        // Only quantityOnHand is named, so the null beerName in the values is not applied
+        Mappers.getMapper(BeerMapper.class).patchBeer(BeerDTO.builder().quantityOnHand(null).build(),
+                savedBeer, Set.of("quantityOnHand"));
+        beerRepository.saveAndFlush(savedBeer);
+
+        assertThat(savedBeer.getBeerName()).isEqualTo("Patch Beer");
+        assertThat(savedBeer.getQuantityOnHand()).isNull();
+        assertThat(RecordingStatementInspector.STATEMENTS)
+                .filteredOn(sql -> sql.startsWith("update"))
+                .singleElement()
+                .satisfies(sql -> assertThat(sql)
+                        .contains("quantity_on_hand", "version", "update_date")
+                        .doesNotContain("beer_name", "beer_style", "upc", "price"));
+    }
+}
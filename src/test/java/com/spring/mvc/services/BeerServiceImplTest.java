@@ -0,0 +1,162 @@
+package com.spring.mvc.services;
+
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerHistoryDTO;
+import com.spring.mvc.model.BeerStyle;
+import com.spring.mvc.model.DeltaSyncDTO;
+import com.spring.mvc.model.FieldPatch;
+import com.spring.mvc.model.Money;
+import com.spring.mvc.model.SyncToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class BeerServiceImplTest {
+
+    BeerServiceImpl beerService;
+
+    @BeforeEach
+    void setUp() {
+        beerService = new BeerServiceImpl();
+    }
+
+    @Test
+    void testSeedUpcsAreUnique() {
+        assertThat(beerService.listBeers()).extracting(BeerDTO::getUpc).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void testGetBeerByUpc() {
+        BeerDTO saved = beerService.saveNewBeer(beer("0631234200036"));
+
+        assertThat(beerService.getBeerByUpc("0631234200036")).map(BeerDTO::getId).contains(saved.getId());
+        assertThat(beerService.getBeerByUpc("0631234200043")).isEmpty();
+    }
+
+    @Test
+    void testSaveDuplicateUpc() {
+        beerService.saveNewBeer(beer("0631234200036"));
+
+        assertThatThrownBy(() -> beerService.saveNewBeer(beer("0631234200036")))
+                .isInstanceOf(DuplicateUpcException.class);
+        assertThat(beerService.listBeers()).hasSize(4);
+    }
+
+    @Test
+    void testUpdateMovesUpc() {
+        BeerDTO saved = beerService.saveNewBeer(beer("0631234200036"));
+
+        beerService.updateBeerById(saved.getId(), beer("0631234200043"));
+
+        assertThat(beerService.getBeerByUpc("0631234200036")).isEmpty();
+        assertThat(beerService.getBeerByUpc("0631234200043")).map(BeerDTO::getId).contains(saved.getId());
+        // Keeping its own UPC is not a duplicate
+        assertThat(beerService.updateBeerById(saved.getId(), beer("0631234200043"))).isPresent();
+    }
+
+    @Test
+    void testUpdateAndPatchDuplicateUpc() {
+        BeerDTO first = beerService.saveNewBeer(beer("0631234200036"));
+        BeerDTO second = beerService.saveNewBeer(beer("0631234200043"));
+
+        assertThatThrownBy(() -> beerService.updateBeerById(second.getId(), beer(first.getUpc())))
+                .isInstanceOf(DuplicateUpcException.class);
+        assertThatThrownBy(() -> beerService.patchBeerById(second.getId(), new FieldPatch<>(beer(first.getUpc()), Set.of("upc"))))
+                .isInstanceOf(DuplicateUpcException.class);
+        assertThat(beerService.getBeerByUpc("0631234200043")).map(BeerDTO::getId).contains(second.getId());
+    }
+
+    @Test
+    void testDeleteFreesUpc() {
+        BeerDTO saved = beerService.saveNewBeer(beer("0631234200036"));
+
+        beerService.deleteBeerById(saved.getId());
+
+        assertThat(beerService.getBeerByUpc("0631234200036")).isEmpty();
+        assertThat(beerService.saveNewBeer(beer("0631234200036")).getUpc()).isEqualTo("0631234200036");
+    }
+
+    @Test
+    void testLowStockFollowsStockChanges() {
+        BeerDTO low = beerService.saveNewBeer(beer("0631234200036").toBuilder().quantityOnHand(3).build());
+        BeerDTO lower = beerService.saveNewBeer(beer("0631234200043").toBuilder().quantityOnHand(1).build());
+
+        assertThat(beerService.listLowStockBeers(10, 20)).extracting(BeerDTO::getId).containsExactly(lower.getId(), low.getId());
+
+        beerService.patchBeerById(lower.getId(), new FieldPatch<>(BeerDTO.builder().quantityOnHand(200).build(), Set.of("quantityOnHand")));
+        beerService.updateBeerById(low.getId(), beer(low.getUpc()).toBuilder().quantityOnHand(null).build());
+        assertThat(beerService.listLowStockBeers(10, 20)).extracting(BeerDTO::getId).containsExactly(low.getId());
+
+        beerService.deleteBeerById(low.getId());
+        assertThat(beerService.listLowStockBeers(10, 20)).isEmpty();
+        // The seed beers have 122 or more on hand
+        assertThat(beerService.listLowStockBeers(150, 2)).extracting(BeerDTO::getQuantityOnHand).containsExactly(122, 144);
+    }
+
+    @Test
+    void testHistoryRecordsPriceAndStockChanges() throws InterruptedException {
+        BeerDTO saved = beerService.saveNewBeer(beer("0631234200036"));
+        LocalDateTime created = saved.getUpdateDate();
+        Thread.sleep(2); // distinct validFrom per write
+
+        beerService.patchBeerById(saved.getId(), new FieldPatch<>(BeerDTO.builder().quantityOnHand(5).build(), Set.of("quantityOnHand")));
+        Thread.sleep(2);
+        // A rename leaves price and stock as they were, so it adds nothing
+        beerService.updateBeerById(saved.getId(), beer(saved.getUpc()).toBuilder().beerName("Renamed").quantityOnHand(5).build());
+        Thread.sleep(2);
+        beerService.updateBeerById(saved.getId(), beer(saved.getUpc()).toBuilder().price(Money.of("10.49")).quantityOnHand(5).build());
+
+        assertThat(beerService.listBeerHistory(saved.getId(), 10))
+                .extracting(BeerHistoryDTO::getPrice, BeerHistoryDTO::getQuantityOnHand)
+                .containsExactly(
+                        tuple(Money.of("10.49"), 5),
+                        tuple(Money.of("9.99"), 5),
+                        tuple(Money.of("9.99"), 12));
+        assertThat(beerService.listBeerHistory(saved.getId(), 1)).hasSize(1);
+
+        assertThat(beerService.getBeerHistoryAsOf(saved.getId(), created)).map(BeerHistoryDTO::getQuantityOnHand).contains(12);
+        assertThat(beerService.getBeerHistoryAsOf(saved.getId(), LocalDateTime.now())).map(BeerHistoryDTO::getPrice).contains(Money.of("10.49"));
+        assertThat(beerService.getBeerHistoryAsOf(saved.getId(), created.minusNanos(1000))).isEmpty();
+
+        // Deleting the beer keeps its history
+        beerService.deleteBeerById(saved.getId());
+        assertThat(beerService.listBeerHistory(saved.getId(), 10)).hasSize(3);
+    }
+
+    @Test
+    void testDeltaSyncHoldsBackChangesWithinTheCommitLag() throws InterruptedException {
+        beerService.setCommitLag(Duration.ofMillis(100));
+        DeltaSyncDTO<BeerDTO> first = beerService.listBeerChangesSince(null);
+
+        BeerDTO saved = beerService.saveNewBeer(beer("0631234200036"));
+        SyncToken token = SyncToken.decode(first.getNextToken());
+        assertThat(saved.getUpdateDate()).isAfter(token.watermark());
+
+        // Too recent to hand out yet (the seed beers too), so the next token stays behind it
+        DeltaSyncDTO<BeerDTO> early = beerService.listBeerChangesSince(token);
+        assertThat(early.getChanged()).isEmpty();
+        assertThat(SyncToken.decode(early.getNextToken()).watermark()).isBefore(saved.getUpdateDate());
+
+        Thread.sleep(150);
+        DeltaSyncDTO<BeerDTO> settled = beerService.listBeerChangesSince(SyncToken.decode(early.getNextToken()));
+        assertThat(settled.getChanged()).extracting(BeerDTO::getId).contains(saved.getId());
+        assertThat(SyncToken.decode(settled.getNextToken()).watermark()).isAfterOrEqualTo(saved.getUpdateDate());
+    }
+
+    private static BeerDTO beer(String upc) {
+        return BeerDTO.builder()
+                .beerName("Scanned Beer")
+                .beerStyle(BeerStyle.LAGER)
+                .upc(upc)
+                .price(Money.of("9.99"))
+                .quantityOnHand(12)
+                .build();
+    }
+}
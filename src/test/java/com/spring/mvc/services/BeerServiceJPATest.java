@@ -0,0 +1,65 @@
+package com.spring.mvc.services;
+
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerStyle;
+import com.spring.mvc.model.FieldPatch;
+import com.spring.mvc.model.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "mvc.async.enabled=false")
+class BeerServiceJPATest {
+
+    @Autowired
+    BeerService beerService;
+
+    // Two patches built from the stock they read: the second waits for the first to commit and builds on it
+    @Test
+    void testConcurrentPatchesAreNotLost() throws Exception {
+        UUID id = beerService.saveNewBeer(BeerDTO.builder()
+                .beerName("Patched")
+                .beerStyle(BeerStyle.LAGER)
+                .upc("patched-" + UUID.randomUUID())
+                .price(Money.of("4.99"))
+                .quantityOnHand(10)
+                .build()).getId();
+        CountDownLatch read = new CountDownLatch(1);
+        try {
+            CompletableFuture<?> first = CompletableFuture.runAsync(() -> beerService.patchBeerById(id, current -> {
+                read.countDown();
+                sleep(200);
+                return restock(current);
+            }));
+            assertThat(read.await(5, TimeUnit.SECONDS)).isTrue();
+
+            beerService.patchBeerById(id, BeerServiceJPATest::restock);
+            first.get(5, TimeUnit.SECONDS);
+
+            assertThat(beerService.getBeerById(id)).map(BeerDTO::getQuantityOnHand).contains(12);
+        } finally {
+            beerService.deleteBeerById(id);
+        }
+    }
+
+    private static FieldPatch<BeerDTO> restock(BeerDTO current) {
+        return new FieldPatch<>(BeerDTO.builder().quantityOnHand(current.getQuantityOnHand() + 1).build(),
+                Set.of("quantityOnHand"));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
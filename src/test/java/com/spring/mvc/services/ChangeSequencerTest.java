@@ -0,0 +1,88 @@
+package com.spring.mvc.services;
+
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerStyle;
+import com.spring.mvc.model.DeltaSyncDTO;
+import com.spring.mvc.model.Money;
+import com.spring.mvc.model.SyncToken;
+import com.spring.mvc.repositories.BeerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "mvc.async.enabled=false")
+class ChangeSequencerTest {
+
+    @Autowired
+    BeerService beerService;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    // The slow write flushes (and gets its updateDate) before the fast one but commits after it, and after a
+    // sync has handed out a token - it still turns up in the next sync
+    @Test
+    void testWriteCommittedAfterATokenIsInTheNextSync() throws Exception {
+        List<UUID> saved = new ArrayList<>();
+        String token = beerService.listBeerChangesSince(null).getNextToken();
+        CountDownLatch flushed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<BeerDTO> slow = CompletableFuture.supplyAsync(() ->
+                    new TransactionTemplate(transactionManager).execute(status -> {
+                        BeerDTO beer = beerService.saveNewBeer(beer("Slow"));
+                        beerRepository.flush();
+                        flushed.countDown();
+                        await(release);
+                        return beer;
+                    }));
+            assertThat(flushed.await(5, TimeUnit.SECONDS)).isTrue();
+
+            BeerDTO fast = beerService.saveNewBeer(beer("Fast"));
+            saved.add(fast.getId());
+            DeltaSyncDTO<BeerDTO> first = beerService.listBeerChangesSince(SyncToken.decode(token));
+            assertThat(first.getChanged()).extracting(BeerDTO::getId).containsExactly(fast.getId());
+
+            release.countDown();
+            saved.add(slow.get(5, TimeUnit.SECONDS).getId());
+
+            DeltaSyncDTO<BeerDTO> second = beerService.listBeerChangesSince(SyncToken.decode(first.getNextToken()));
+            assertThat(second.isFullResync()).isFalse();
+            assertThat(second.getChanged()).extracting(BeerDTO::getId).containsExactly(saved.get(1));
+        } finally {
+            release.countDown();
+            saved.forEach(beerService::deleteBeerById);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static BeerDTO beer(String name) {
+        return BeerDTO.builder()
+                .beerName(name)
+                .beerStyle(BeerStyle.LAGER)
+                .upc("sequenced-" + UUID.randomUUID())
+                .price(Money.of("4.99"))
+                .build();
+    }
+}
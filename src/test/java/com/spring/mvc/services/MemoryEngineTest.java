@@ -0,0 +1,88 @@
+package com.spring.mvc.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerStyle;
+import com.spring.mvc.model.Money;
+import com.spring.mvc.persistence.DurableStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// mvc.engine=memory serves the API from the in-memory services and journals their writes
+@SpringBootTest(properties = {
+        "mvc.async.enabled=false",
+        "mvc.engine=memory",
+        "mvc.durability.enabled=true"
+})
+class MemoryEngineTest {
+
+    @TempDir
+    static Path directory;
+
+    @DynamicPropertySource
+    static void durabilityDirectory(DynamicPropertyRegistry registry) {
+        registry.add("mvc.durability.directory", directory::toString);
+    }
+
+    @Autowired
+    WebApplicationContext wac;
+
+    @Autowired
+    BeerService beerService;
+
+    @Autowired
+    CustomerService customerService;
+
+    @Autowired
+    ObjectProvider<BeerServiceJPA> beerServiceJPA;
+
+    @Autowired
+    DurableStore<BeerDTO> beerDurableStore;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    void testServedWritesAreJournaled() throws Exception {
+        assertThat(beerService).isInstanceOf(BeerServiceImpl.class);
+        assertThat(customerService).isInstanceOf(CustomerServiceImpl.class);
+        assertThat(beerServiceJPA.getIfAvailable()).isNull();
+
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(wac).build();
+        long position = beerDurableStore.position();
+        MvcResult started = mockMvc.perform(post("/api/v1/beer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(BeerDTO.builder()
+                                .beerName("Galaxy Cat")
+                                .beerStyle(BeerStyle.PALE_ALE)
+                                .upc("0631234200036")
+                                .price(Money.of("12.99"))
+                                .build())))
+                .andReturn();
+        String location = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getHeader("location");
+
+        UUID id = UUID.fromString(location.substring(location.lastIndexOf('/') + 1));
+        assertThat(beerService.getBeerById(id)).isPresent();
+        assertThat(beerDurableStore.position()).isGreaterThan(position);
+    }
+}
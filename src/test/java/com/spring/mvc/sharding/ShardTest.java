@@ -0,0 +1,62 @@
+package com.spring.mvc.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardTest {
+
+    private static final List<UUID> IDS = IntStream.range(0, 20_000).mapToObj(i -> UUID.randomUUID()).toList();
+
+    @Test
+    void testIdsSpreadEvenly() {
+        int[] counts = new int[4];
+        IDS.forEach(id -> counts[Shard.indexOf(id, 4)]++);
+
+        assertThat(IntStream.of(counts).boxed().toList()).allSatisfy(count -> assertThat(count).isBetween(4_500, 5_500));
+    }
+
+    @Test
+    void testGrowingMovesOnlyToNewShards() {
+        long moved = IDS.stream().filter(id -> Shard.indexOf(id, 3) != Shard.indexOf(id, 4)).count();
+
+        // A quarter of the beers go to the new shard, none move between the old ones
+        assertThat(moved).isBetween(4_500L, 5_500L);
+        assertThat(IDS).allSatisfy(id -> {
+            int after = Shard.indexOf(id, 4);
+            assertThat(after == 3 || after == Shard.indexOf(id, 3)).isTrue();
+        });
+    }
+
+    @Test
+    void testGeneratedIdsLandOnTheContextShard() {
+        ShardedUuidGenerator generator = new ShardedUuidGenerator();
+        Shard shard = new Shard(2, 3);
+
+        List<UUID> ids = ShardContext.call(shard, () -> IntStream.range(0, 100)
+                .mapToObj(i -> (UUID) generator.generate(null, null, null, null)).toList());
+
+        assertThat(ids).allSatisfy(id -> assertThat(shard.owns(id)).isTrue());
+        assertThat(ShardContext.current()).isNull();
+    }
+
+    @Test
+    void testRejectsShardsOutsideTheCount() {
+        assertThatThrownBy(() -> new Shard(3, 3)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new Shard(0, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testMergeOrderedKeepsTheSmallest() {
+        List<Integer> merged = ShardedBeerService.mergeOrdered(
+                List.of(List.of(1, 4, 9), List.of(), List.of(2, 3, 10)), Comparator.naturalOrder(), 5);
+
+        assertThat(merged).containsExactly(1, 2, 3, 4, 9);
+    }
+}
@@ -0,0 +1,101 @@
+package com.spring.mvc.sharding;
+
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerStyle;
+import com.spring.mvc.model.Money;
+import com.spring.mvc.model.ShardStatusDTO;
+import com.spring.mvc.services.BeerService;
+import com.spring.mvc.services.BeerServiceJPA;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sharded0;DB_CLOSE_DELAY=-1",
+        "mvc.sharding.enabled=true",
+        "mvc.sharding.additional-urls=jdbc:h2:mem:sharded1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:sharded2;DB_CLOSE_DELAY=-1",
+        "mvc.sharding.shards=2",
+        "mvc.sharding.move-batch-size=7",
+        "mvc.sharding.single-instance=true"
+})
+class ShardedBeerServiceTest {
+
+    @Autowired
+    BeerService beerService;
+
+    @Autowired
+    BeerServiceJPA beerServiceJPA;
+
+    @Autowired
+    BeerShards beerShards;
+
+    @Autowired
+    BeerResharder beerResharder;
+
+    @Test
+    void testBeersAreSpreadAndMovedWhenResharding() throws InterruptedException {
+        assertThat(beerService).isInstanceOf(ShardedBeerService.class);
+
+        List<BeerDTO> saved = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            saved.add(beerService.saveNewBeer(BeerDTO.builder()
+                    .beerName("Sharded " + i)
+                    .beerStyle(BeerStyle.LAGER)
+                    .upc("shard-" + i)
+                    .price(Money.of("4.99"))
+                    .quantityOnHand(i)
+                    .build()));
+        }
+
+        ShardStatusDTO before = beerResharder.status();
+        assertThat(before.getShardCount()).isEqualTo(2);
+        assertThat(before.getBeersPerShard()).hasSize(2).allSatisfy(count -> assertThat(count).isPositive());
+        assertThat(beerService.listBeers()).hasSize(43); // with the 3 BootstrapData beers
+        assertThat(beerService.getBeerByUpc("shard-17")).map(BeerDTO::getId).contains(saved.get(17).getId());
+        assertThat(beerService.listLowStockBeers(3, 10)).extracting(BeerDTO::getUpc)
+                .containsExactly("shard-0", "shard-1", "shard-2");
+
+        beerResharder.reshard(3);
+        // Served throughout, whether a beer has moved yet or not
+        saved.forEach(beer -> assertThat(beerService.getBeerById(beer.getId())).isPresent());
+
+        Instant deadline = Instant.now().plus(Duration.ofSeconds(30));
+        while (beerResharder.status().getPreviousShardCount() != null && Instant.now().isBefore(deadline)) {
+            Thread.sleep(50);
+        }
+
+        ShardStatusDTO after = beerResharder.status();
+        assertThat(after.getPreviousShardCount()).isNull();
+        assertThat(after.getBeersPerShard()).hasSize(3).allSatisfy(count -> assertThat(count).isPositive());
+        assertThat(after.getBeersPerShard().stream().mapToLong(Long::longValue).sum()).isEqualTo(43);
+
+        BeerShards.Layout layout = beerShards.layout();
+        saved.forEach(beer -> {
+            // Only on its owner shard
+            for (int index = 0; index < 3; index++) {
+                boolean found = ShardContext.call(layout.shard(index), () -> beerServiceJPA.getBeerById(beer.getId())).isPresent();
+                assertThat(found).isEqualTo(index == layout.owner(beer.getId()).index());
+            }
+            assertThat(beerService.listBeerHistory(beer.getId(), 10)).hasSize(1);
+        });
+        assertThat(beerService.listBeers().stream().map(BeerDTO::getId).collect(Collectors.toSet()))
+                .containsAll(saved.stream().map(BeerDTO::getId).toList());
+    }
+
+    @Test
+    void testReshardRefusedUnlessSingleInstance() {
+        try (BeerResharder shared = new BeerResharder(beerShards, null, null, null, null, null, 7, false)) {
+            assertThatThrownBy(() -> shared.reshard(3)).isInstanceOf(ReshardingNotAllowedException.class);
+        }
+        assertThat(beerShards.layout().isResharding()).isFalse();
+    }
+}
@@ -0,0 +1,88 @@
+package com.spring.mvc.snapshot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.spring.mvc.entities.Beer;
+import com.spring.mvc.entities.Customer;
+import com.spring.mvc.mappers.BeerMapperImpl;
+import com.spring.mvc.mappers.CustomerMapperImpl;
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerStyle;
+import com.spring.mvc.model.Money;
+import com.spring.mvc.repositories.BeerRepository;
+import com.spring.mvc.repositories.CustomerRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class CatalogSnapshotWriterTest {
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    CustomerRepository customerRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWriteSnapshot() throws Exception {
+        beerRepository.saveAndFlush(Beer.builder().beerName("Galaxy Cat").beerStyle(BeerStyle.PALE_ALE)
+                .upc("12356").quantityOnHand(122).price(Money.of("12.99")).build());
+        beerRepository.saveAndFlush(Beer.builder().beerName("Crank, \"Extra\"").beerStyle(BeerStyle.IPA)
+                .upc("12357").price(Money.of("7.50")).build());
+        customerRepository.saveAndFlush(Customer.builder().name("Jane").build());
+
+        CatalogSnapshotWriter writer = new CatalogSnapshotWriter(beerRepository, customerRepository,
+                new BeerMapperImpl(), new CustomerMapperImpl(), objectMapper, entityManager, transactionManager,
+                new CatalogSnapshots(), null, Optional.empty());
+        List<CatalogSnapshot> snapshots = writer.write(directory, Instant.now());
+
+        assertThat(snapshots).extracting(CatalogSnapshot::name).containsExactlyInAnyOrder(
+                "beers.json", "beers.json.gz", "beers.csv", "beers.csv.gz",
+                "customers.json", "customers.json.gz", "customers.csv", "customers.csv.gz");
+        assertThat(snapshots).allSatisfy(snapshot -> assertThat(Files.size(snapshot.path())).isEqualTo(snapshot.size()));
+
+        BeerDTO[] beers = objectMapper.readValue(directory.resolve("beers.json").toFile(), BeerDTO[].class);
+        assertThat(beers).extracting(BeerDTO::getBeerName).containsExactlyInAnyOrder("Galaxy Cat", "Crank, \"Extra\"");
+        assertThat(beers).extracting(BeerDTO::getPrice).containsExactlyInAnyOrder(Money.of("12.99"), Money.of("7.50"));
+
+        List<String> csv = Files.readAllLines(directory.resolve("beers.csv"));
+        assertThat(csv).hasSize(3);
+        assertThat(csv.get(0)).isEqualTo("id,version,beerName,beerStyle,upc,quantityOnHand,price,createdDate,updateDate");
+        assertThat(csv).anySatisfy(line -> assertThat(line).contains(",\"Crank, \"\"Extra\"\"\",IPA,12357,,7.50,"));
+
+        assertThat(Files.readAllLines(directory.resolve("customers.csv"))).hasSize(2);
+
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(directory.resolve("beers.json.gz")))) {
+            assertThat(in.readAllBytes()).isEqualTo(Files.readAllBytes(directory.resolve("beers.json")));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.spring.mvc.stats;
+
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerStatsDTO;
+import com.spring.mvc.model.BeerStyle;
+import com.spring.mvc.model.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerStatsScannerTest {
+
+    @Test
+    void testSmallCatalog() {
+        List<BeerDTO> beers = List.of(
+                beer(BeerStyle.IPA, "10.00", 3),
+                beer(BeerStyle.IPA, "4.5", null),
+                beer(BeerStyle.STOUT, "7.25", 100),
+                beer(null, null, 1));
+
+        BeerStatsDTO stats = BeerStatsScanner.scan(BeerColumns.of(beers), 10);
+
+        assertThat(stats.getBeerCount()).isEqualTo(4);
+        assertThat(stats.getTotalQuantityOnHand()).isEqualTo(104);
+        assertThat(stats.getTotalStockValue()).isEqualByComparingTo("755.00");
+        assertThat(stats.getMinPrice()).isEqualByComparingTo("4.50");
+        assertThat(stats.getMedianPrice()).isEqualByComparingTo("7.25");
+        assertThat(stats.getMaxPrice()).isEqualByComparingTo("10.00");
+        assertThat(stats.getAveragePrice()).isEqualByComparingTo("7.25");
+        assertThat(stats.getLowStockCount()).isEqualTo(3);
+        assertThat(stats.getStyles()).extracting("beerStyle").containsExactly(BeerStyle.STOUT, BeerStyle.IPA, null);
+    }
+
+    @Test
+    void testParallelScanMatchesIncremental() {
+        Random random = new Random(42);
+        IncrementalBeerStats incremental = new IncrementalBeerStats();
+        List<BeerDTO> beers = new ArrayList<>();
+
+        for (int i = 0; i < 100_000; i++) {
+            BeerDTO beer = beer(BeerStyle.values()[random.nextInt(BeerStyle.values().length)],
+                    BigDecimal.valueOf(random.nextInt(5_000), 2).toPlainString(), random.nextInt(500));
+            beers.add(beer);
+            incremental.add(beer);
+        }
+
+        // Remove some so the incremental side has to subtract too
+        for (int i = 0; i < 10_000; i++) {
+            incremental.remove(beers.removeLast());
+        }
+
+        BeerStatsDTO scanned = BeerStatsScanner.scan(BeerColumns.of(beers), 50);
+        BeerStatsDTO maintained = incremental.snapshot(50);
+
+        assertThat(scanned.getBeerCount()).isEqualTo(90_000);
+        assertThat(maintained).usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .isEqualTo(scanned);
+    }
+
+    private BeerDTO beer(BeerStyle style, String price, Integer quantityOnHand) {
+        return BeerDTO.builder()
+                .id(UUID.randomUUID())
+                .beerName("Beer")
+                .beerStyle(style)
+                .upc("123")
+                .price(price == null ? null : Money.of(price))
+                .quantityOnHand(quantityOnHand)
+                .build();
+    }
+}
@@ -0,0 +1,144 @@
+package com.spring.mvc.storage;
+
+import com.spring.mvc.model.BeerDTO;
+import com.spring.mvc.model.BeerStyle;
+import com.spring.mvc.model.Money;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OffHeapBeerStoreTest {
+
+    OffHeapBeerStore store = new OffHeapBeerStore(16, 64);
+
+    @Test
+    void testRoundTrip() {
+        BeerDTO beer = BeerDTO.builder()
+                .id(UUID.randomUUID())
+                .version(3)
+                .beerName("Mango Bobs ☀")
+                .beerStyle(BeerStyle.IPA)
+                .upc("0631234200036")
+                .quantityOnHand(42)
+                .price(new Money(-1299, Currency.getInstance("EUR")))
+                .createdDate(LocalDateTime.of(2024, 1, 2, 3, 4, 5, 123456789))
+                .updateDate(LocalDateTime.of(1999, 12, 31, 23, 59))
+                .build();
+
+        store.put(beer);
+
+        BeerDTO read = store.get(beer.getId());
+        assertThat(read).isEqualTo(beer).isNotSameAs(beer);
+    }
+
+    @Test
+    void testNullFields() {
+        BeerDTO beer = BeerDTO.builder().id(UUID.randomUUID()).build();
+
+        store.put(beer);
+
+        assertThat(store.get(beer.getId())).isEqualTo(beer);
+    }
+
+    @Test
+    void testReplaceAndRemove() {
+        BeerDTO beer = beer("Original");
+        store.put(beer);
+
+        beer.setBeerName("Renamed");
+        beer.setQuantityOnHand(7);
+        store.put(beer);
+
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.get(beer.getId())).isEqualTo(beer);
+
+        assertThat(store.remove(beer.getId())).isTrue();
+        assertThat(store.remove(beer.getId())).isFalse();
+        assertThat(store.get(beer.getId())).isNull();
+        assertThat(store.values()).isEmpty();
+    }
+
+    @Test
+    void testManyBeersAcrossSlabsWithSlotReuse() {
+        List<BeerDTO> beers = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            BeerDTO beer = beer("Beer " + (i % 100));
+            beers.add(beer);
+            store.put(beer);
+        }
+
+        // Free every other slot, then fill them again
+        for (int i = 0; i < beers.size(); i += 2) {
+            assertThat(store.remove(beers.get(i).getId())).isTrue();
+        }
+        for (int i = 0; i < beers.size(); i += 2) {
+            BeerDTO beer = beer("Replacement " + i);
+            beers.set(i, beer);
+            store.put(beer);
+        }
+
+        assertThat(store.size()).isEqualTo(10_000);
+        assertThat(store.values()).containsExactlyInAnyOrderElementsOf(beers);
+        for (BeerDTO beer : beers) {
+            assertThat(store.get(beer.getId())).isEqualTo(beer);
+        }
+    }
+
+    @Test
+    void testStringPoolReclaimsRenames() {
+        BeerDTO beer = beer("Name");
+        store.put(beer);
+
+        for (int i = 0; i < 100_000; i++) {
+            beer.setBeerName("Name number " + i);
+            store.put(beer);
+        }
+
+        assertThat(store.get(beer.getId()).getBeerName()).isEqualTo("Name number 99999");
+        assertThat(store.memoryBytes()).isLessThan(8L << 20);
+    }
+
+    @Test
+    void testUpdatedAfter() {
+        LocalDateTime now = LocalDateTime.now();
+        BeerDTO old = beer("Old");
+        old.setUpdateDate(now.minusDays(1));
+        BeerDTO recent = beer("Recent");
+        recent.setUpdateDate(now.plusSeconds(1));
+        store.put(old);
+        store.put(recent);
+
+        assertThat(store.updatedAfter(now)).containsExactly(recent);
+    }
+
+    @Test
+    void testColumnsRejectMixedCurrencies() {
+        store.put(beer("Dollars"));
+        BeerDTO euros = beer("Euros");
+        euros.setPrice(new Money(500, Currency.getInstance("EUR")));
+        store.put(euros);
+
+        assertThatThrownBy(() -> store.columns()).isInstanceOf(IllegalStateException.class);
+    }
+
+    private BeerDTO beer(String name) {
+        return BeerDTO.builder()
+                .id(UUID.randomUUID())
+                .version(1)
+                .beerName(name)
+                .beerStyle(BeerStyle.PALE_ALE)
+                .upc("12356")
+                .quantityOnHand(100)
+                .price(Money.of("9.99"))
+                .createdDate(LocalDateTime.now())
+                .updateDate(LocalDateTime.now())
+                .build();
+    }
+}